@@ -6,6 +6,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
@@ -24,6 +26,7 @@ import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,13 +34,18 @@ import java.util.Map;
 /**
  * JWT网关全局过滤器
  * 在网关层统一验证JWT token，提供第一道安全防线
+ * 过滤器自身的耗时（白名单匹配、提取和验证 token，不含下游转发）记录为
+ * forum.gateway.auth{outcome=whitelisted|authenticated|missing_token|invalid_token}
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtGatewayFilter implements GlobalFilter, Ordered {
 
+    private static final String AUTH_TIMER = "forum.gateway.auth";
+
     private final JwtProperties jwtProperties;
+    private final MeterRegistry meterRegistry;
     private final AntPathMatcher pathMatcher = new AntPathMatcher();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -45,10 +53,12 @@ public class JwtGatewayFilter implements GlobalFilter, Ordered {
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getURI().getPath();
+        Timer.Sample sample = Timer.start(meterRegistry);
 
         // 1. 检查是否在白名单中
         if (isWhitelisted(path)) {
             log.debug("路径 {} 在白名单中，跳过JWT验证", path);
+            record(sample, "whitelisted");
             return chain.filter(exchange);
         }
 
@@ -56,6 +66,7 @@ public class JwtGatewayFilter implements GlobalFilter, Ordered {
         String token = extractToken(request);
         if (!StringUtils.hasText(token)) {
             log.warn("请求路径 {} 缺少JWT token", path);
+            record(sample, "missing_token");
             return unauthorized(exchange.getResponse(), "缺少认证信息");
         }
 
@@ -69,6 +80,7 @@ public class JwtGatewayFilter implements GlobalFilter, Ordered {
             
             if (username == null) {
                 log.warn("JWT token中缺少用户名信息");
+                record(sample, "invalid_token");
                 return unauthorized(exchange.getResponse(), "无效的认证信息");
             }
 
@@ -79,16 +91,31 @@ public class JwtGatewayFilter implements GlobalFilter, Ordered {
                     .build();
 
             log.debug("JWT验证成功，用户: {}, 路径: {}", username, path);
+            record(sample, "authenticated");
 
             // 6. 继续传递请求（JWT也会传递给微服务，实现双重验证）
             return chain.filter(exchange.mutate().request(mutatedRequest).build());
 
         } catch (JwtException e) {
             log.warn("JWT验证失败: {}, 路径: {}", e.getMessage(), path);
+            record(sample, "invalid_token");
             return unauthorized(exchange.getResponse(), "认证失败");
         }
     }
 
+    /**
+     * 记录过滤器耗时，outcome 只有固定的几个取值
+     */
+    private void record(Timer.Sample sample, String outcome) {
+        sample.stop(Timer.builder(AUTH_TIMER)
+                .description("网关 JWT 验证耗时")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(meterRegistry));
+    }
+
     /**
      * 检查路径是否在白名单中
      */
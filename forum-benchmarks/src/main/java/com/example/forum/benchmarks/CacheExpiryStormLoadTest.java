@@ -0,0 +1,202 @@
+package com.example.forum.benchmarks;
+
+import com.example.forum.common.cache.HotKeyProperties;
+import com.example.forum.common.cache.StaleWhileRevalidateCacheManager;
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.common.redis.RedisGuardProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 缓存集中过期时的回源次数：同一批 key 同时过期后，大量并发请求同时读取，统计数据库查询次数（CSV）
+ *
+ * 对比两种读取方式：cache-aside 为 Spring RedisCacheManager 上的"读缓存，未命中则查库并写回"；
+ * wrapper 为 {@link StaleWhileRevalidateCacheManager} 的 get(key, loader)（本实例内合并 + 跨实例 SET NX 回源锁）。
+ * 每轮开始前删除这批 key 模拟过期，所有线程在同一时刻发起读取；数据库查询由固定耗时的替身代替并计数。
+ * instances 为模拟的应用实例数：每个实例各自持有一个 CacheManager，共享同一个 Redis，线程轮流分配到各实例。
+ *
+ * 与其他基准不同，本测试需要一个 Redis，默认连接 127.0.0.1:6379，只读写 storm:: 与 lock:cache:*:storm:: 前缀的 key。
+ *
+ * 运行：java -cp forum-benchmarks/target/benchmarks.jar com.example.forum.benchmarks.CacheExpiryStormLoadTest
+ *      [host:port，默认 127.0.0.1:6379] [线程数，默认 200] [key 数，默认 5] [单次查询耗时毫秒，默认 50]
+ */
+public final class CacheExpiryStormLoadTest {
+
+    private static final String CACHE_NAME = "storm";
+
+    private CacheExpiryStormLoadTest() {
+    }
+
+    private record Result(long dbQueries, List<Long> latencyMicros) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] address = (args.length > 0 ? args[0] : "127.0.0.1:6379").split(":");
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int keys = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        long loadMillis = args.length > 3 ? Long.parseLong(args[3]) : 50;
+
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(address[0], Integer.parseInt(address[1])));
+        connectionFactory.afterPropertiesSet();
+        // 与各服务 RedisConfig 的序列化方式一致
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        redisTemplate.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+        RedisGuard redisGuard = new RedisGuard("storm-test", connectionFactory, redisTemplate, new RedisGuardProperties());
+        HotKeyProperties hotKeyProperties = new HotKeyProperties();
+        // 本地副本会让后续读取不经过 Redis，与本测试关注的首次回源无关
+        hotKeyProperties.setEnabled(false);
+
+        try {
+            // 预热一轮（类加载、JIT、连接建立），不输出
+            runRound(connectionFactory, redisTemplate, redisGuard, hotKeyProperties, 1, true, threads, keys, loadMillis);
+            runRound(connectionFactory, redisTemplate, redisGuard, hotKeyProperties, 1, false, threads, keys, loadMillis);
+
+            System.out.println("mode,instances,threads,keys,loadMillis,dbQueries,queriesPerKey,p50Millis,p99Millis,maxMillis");
+            for (int instances : List.of(1, 2, 4)) {
+                for (boolean wrapped : new boolean[]{false, true}) {
+                    Result result = runRound(connectionFactory, redisTemplate, redisGuard, hotKeyProperties,
+                            instances, wrapped, threads, keys, loadMillis);
+                    List<Long> latencies = new ArrayList<>(result.latencyMicros());
+                    Collections.sort(latencies);
+                    System.out.printf("%s,%d,%d,%d,%d,%d,%.1f,%.1f,%.1f,%.1f%n", wrapped ? "wrapper" : "cache-aside",
+                            instances, threads, keys, loadMillis, result.dbQueries(), (double) result.dbQueries() / keys,
+                            percentile(latencies, 0.50) / 1000.0, percentile(latencies, 0.99) / 1000.0,
+                            latencies.get(latencies.size() - 1) / 1000.0);
+                }
+            }
+        } finally {
+            redisGuard.close();
+            connectionFactory.destroy();
+        }
+    }
+
+    private static Result runRound(LettuceConnectionFactory connectionFactory, RedisTemplate<String, Object> redisTemplate,
+                                   RedisGuard redisGuard, HotKeyProperties hotKeyProperties, int instances,
+                                   boolean wrapped, int threads, int keys, long loadMillis) throws Exception {
+        List<CacheManager> managers = new ArrayList<>();
+        for (int i = 0; i < instances; i++) {
+            CacheManager redisCacheManager = redisCacheManager(connectionFactory);
+            managers.add(wrapped
+                    ? new StaleWhileRevalidateCacheManager(redisCacheManager,
+                    Map.of(CACHE_NAME, new StaleWhileRevalidateCacheManager.Policy(
+                            Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ZERO)),
+                    redisTemplate, redisGuard, hotKeyProperties)
+                    : redisCacheManager);
+        }
+        cleanup(redisTemplate, keys);
+        try {
+            return run(managers, wrapped, threads, keys, loadMillis);
+        } finally {
+            for (CacheManager manager : managers) {
+                if (manager instanceof AutoCloseable closeable) {
+                    closeable.close();
+                }
+            }
+            cleanup(redisTemplate, keys);
+        }
+    }
+
+    private static Result run(List<CacheManager> managers, boolean wrapped, int threads, int keys, long loadMillis)
+            throws Exception {
+        AtomicLong dbQueries = new AtomicLong();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Cache cache = managers.get(t % managers.size()).getCache(CACHE_NAME);
+            String key = "k" + (t % keys);
+            workers.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                long begin = System.nanoTime();
+                Object value;
+                if (wrapped) {
+                    value = cache.get(key, () -> query(dbQueries, key, loadMillis));
+                } else {
+                    Cache.ValueWrapper cached = cache.get(key);
+                    if (cached != null) {
+                        value = cached.get();
+                    } else {
+                        value = query(dbQueries, key, loadMillis);
+                        cache.put(key, value);
+                    }
+                }
+                latencies.add(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin));
+                if (value == null) {
+                    throw new IllegalStateException("未读取到值: " + key);
+                }
+                return null;
+            }));
+        }
+        ready.await();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+        return new Result(dbQueries.get(), new ArrayList<>(latencies));
+    }
+
+    private static String query(AtomicLong dbQueries, String key, long loadMillis) throws InterruptedException {
+        dbQueries.incrementAndGet();
+        Thread.sleep(loadMillis);
+        return "value-of-" + key;
+    }
+
+    private static CacheManager redisCacheManager(LettuceConnectionFactory connectionFactory) {
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofMinutes(5))
+                .disableCachingNullValues()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new GenericJackson2JsonRedisSerializer()));
+        RedisCacheManager manager = RedisCacheManager.builder(connectionFactory).cacheDefaults(config).build();
+        manager.afterPropertiesSet();
+        return manager;
+    }
+
+    private static void cleanup(RedisTemplate<String, Object> redisTemplate, int keys) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < keys; i++) {
+            names.add(CACHE_NAME + "::k" + i);
+            names.add("lock:cache:load:" + CACHE_NAME + "::k" + i);
+            names.add("lock:cache:refresh:" + CACHE_NAME + "::k" + i);
+        }
+        redisTemplate.delete(names);
+    }
+
+    private static long percentile(List<Long> sorted, double quantile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get(Math.min(sorted.size() - 1, (int) Math.ceil(quantile * sorted.size()) - 1));
+    }
+}
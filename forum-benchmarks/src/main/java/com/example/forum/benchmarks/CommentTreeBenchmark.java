@@ -0,0 +1,102 @@
+package com.example.forum.benchmarks;
+
+import com.example.forum.comment.entity.PostComment;
+import com.example.forum.comment.repo.PostCommentRepo;
+import com.example.forum.comment.service.CommentServiceImpl;
+import com.example.forum.comment.vo.CommentTreeNode;
+import com.example.forum.common.vo.PageResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 评论分页的树形组装：CommentServiceImpl.pageComments 在缓存未命中时把根评论和回复拼成树并按时间排序。
+ * 缓存使用 NoOpCacheManager，每次调用都走组装逻辑；数据库由内存中的 PostCommentRepo 替身代替，
+ * 回复按随机顺序返回，其中约一半是对楼中楼的回复
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommentTreeBenchmark {
+
+    private static final int POST_ID = 10086;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"3", "30"})
+    public int repliesPerRoot;
+
+    private CommentServiceImpl commentService;
+
+    @Setup
+    public void setup() {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 20, 12, 30, 15);
+        Random random = new Random(42);
+        List<PostComment> roots = new ArrayList<>();
+        List<PostComment> replies = new ArrayList<>();
+        int id = 1;
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            int rootId = id++;
+            roots.add(comment(rootId, null, null, now.minusHours(i)));
+            List<Integer> thread = new ArrayList<>();
+            thread.add(rootId);
+            for (int j = 0; j < repliesPerRoot; j++) {
+                int replyId = id++;
+                Integer parentId = random.nextBoolean() ? rootId : thread.get(random.nextInt(thread.size()));
+                replies.add(comment(replyId, parentId, rootId, now.minusHours(i).plusMinutes(j + 1)));
+                thread.add(replyId);
+            }
+        }
+        Collections.shuffle(replies, random);
+        long total = PAGE_SIZE * 6L;
+
+        PostCommentRepo repo = Fakes.of(PostCommentRepo.class, Map.of(
+                "countRootComments", args -> total,
+                "selectRootComments", args -> roots,
+                "selectRepliesByRootIds", args -> replies
+        ));
+        commentService = new CommentServiceImpl(repo, null, null, new NoOpCacheManager(),
+                null, null, null, null, null);
+    }
+
+    @Benchmark
+    public PageResponse<CommentTreeNode> pageComments() {
+        return commentService.pageComments(POST_ID, 1, PAGE_SIZE);
+    }
+
+    private static PostComment comment(int id, Integer parentId, Integer rootId, LocalDateTime createdAt) {
+        int userId = 3000 + id % 97;
+        return new PostComment()
+                .setId(id)
+                .setPostId(POST_ID)
+                .setUserId(userId)
+                .setParentId(parentId)
+                .setRootId(rootId)
+                .setContent("同意楼上，第三条路线秋天去风景最好，记得带水。")
+                .setLikeCount(id % 7)
+                .setCreatedAt(createdAt)
+                .setUpdatedAt(createdAt)
+                .setDeleted(id % 50 == 0)
+                .setAuthorName("user_" + userId)
+                .setAuthorAvatar("https://cdn.example.com/avatars/" + userId + ".png");
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.forum.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 内存中的替身：Mapper、Feign 客户端等接口只实现基准测试用到的方法，其余方法调用时直接抛异常，
+ * 避免被测路径悄悄走到未准备数据的分支
+ */
+final class Fakes {
+
+    private Fakes() {
+    }
+
+    /**
+     * @param answers 方法名 -> 按参数返回结果
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T of(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "Fake(" + type.getSimpleName() + ")";
+                };
+            }
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException("替身未实现: " + type.getSimpleName() + "." + method.getName());
+            }
+            return answer.apply(args);
+        });
+    }
+
+    /**
+     * 被测逻辑是私有方法时通过 MethodHandle 直接调用，不为基准测试放宽生产代码的可见性；
+     * 方法改名或改签名时在 @Setup 阶段直接失败
+     */
+    static MethodHandle privateMethod(Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+            return lookup.findVirtual(owner, name, MethodType.methodType(returnType, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("找不到被测方法: " + owner.getSimpleName() + "." + name, e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.forum.benchmarks;
+
+import com.example.forum.comment.vo.CommentTreeNode;
+import com.example.forum.common.cache.CacheEnvelope;
+import com.example.forum.common.vo.PageResponse;
+import com.example.forum.post.entity.Author;
+import com.example.forum.post.entity.Post;
+import com.example.forum.post.vo.CategoryResponse;
+import com.example.forum.post.vo.PostDetailView;
+import com.example.forum.post.vo.PostSummaryView;
+import com.example.forum.user.entity.AppUser;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试使用的缓存值，字段规模参照线上常见数据
+ */
+final class Fixtures {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 20, 12, 30, 15);
+    private static final String PARAGRAPH = "这是一段用于基准测试的帖子正文，包含中文和 English 混排的内容，长度接近真实帖子。";
+
+    private Fixtures() {
+    }
+
+    static PostDetailView postDetail() {
+        return PostDetailView.builder()
+                .id(10086)
+                .title("周末徒步路线推荐：城郊五条轻松好走的步道")
+                .subtitle("适合新手，单程两小时以内")
+                .content(PARAGRAPH.repeat(40))
+                .images(List.of("https://cdn.example.com/posts/10086/1.jpg",
+                        "https://cdn.example.com/posts/10086/2.jpg",
+                        "https://cdn.example.com/posts/10086/3.jpg"))
+                .author(new Author(2048, "hiker_li", "https://cdn.example.com/avatars/2048.png", "周末户外爱好者"))
+                .category(new CategoryResponse(3, "户外", 1280L, NOW.minusYears(1), NOW.minusDays(2)))
+                .likeCount(356)
+                .likes(356)
+                .liked(false)
+                .commentCount(42)
+                .viewCount(12873)
+                .followed(false)
+                .pinned(false)
+                .status("approved")
+                .createdAt(NOW.minusDays(1))
+                .updatedAt(NOW)
+                .build();
+    }
+
+    static AppUser appUser() {
+        return new AppUser()
+                .setId(2048)
+                .setUserName("hiker_li")
+                .setEmail("hiker_li@example.com")
+                .setAvatarUrl("https://cdn.example.com/avatars/2048.png")
+                .setBio("周末户外爱好者")
+                .setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOa5S3mRk1Zq8s0QKJ0M6gkV1c3xY6K9e")
+                .setPhone("13800000000")
+                .setStatus("active")
+                .setRole("user")
+                .setCreatedAt(NOW.minusYears(2))
+                .setUpdatedAt(NOW.minusDays(5));
+    }
+
+    /**
+     * 一页 20 条根评论，每条 3 条回复
+     */
+    static PageResponse<CommentTreeNode> commentPage() {
+        List<CommentTreeNode> roots = new ArrayList<>();
+        int id = 1;
+        for (int i = 0; i < 20; i++) {
+            int rootId = id++;
+            CommentTreeNode root = comment(rootId, null, rootId, 3000 + i);
+            for (int j = 0; j < 3; j++) {
+                root.getReplies().add(comment(id++, rootId, rootId, 4000 + j));
+            }
+            roots.add(root);
+        }
+        return PageResponse.of(roots, 120, 1, 20, 6, null);
+    }
+
+    /**
+     * 列表查询返回的帖子行（含作者名、分类名），html 为 true 时正文是富文本编辑器输出的 HTML
+     */
+    static List<Post> posts(int count, boolean html) {
+        String content = html
+                ? ("<p>" + PARAGRAPH + "<strong>" + PARAGRAPH + "</strong></p>"
+                + "<p><img src=\"https://cdn.example.com/posts/inline.jpg\" alt=\"步道\"></p>").repeat(10)
+                : PARAGRAPH.repeat(40);
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int id = 10000 + i;
+            posts.add(new Post()
+                    .setId(id)
+                    .setTitle("周末徒步路线推荐：城郊五条轻松好走的步道 #" + i)
+                    .setSubtitle("适合新手，单程两小时以内")
+                    .setContent(content)
+                    .setAuthorId(2000 + i % 10)
+                    .setStatus("approved")
+                    .setImages(List.of("https://cdn.example.com/posts/" + id + "/1.jpg",
+                            "https://cdn.example.com/posts/" + id + "/2.jpg"))
+                    .setCreatedAt(NOW.minusHours(i))
+                    .setUpdatedAt(NOW.minusHours(i))
+                    .setPinned(i == 0)
+                    .setCategoryId(3)
+                    .setAuthorName("hiker_" + (2000 + i % 10))
+                    .setCategoryName("户外"));
+        }
+        return posts;
+    }
+
+    /**
+     * 一页 20 条帖子摘要
+     */
+    static PageResponse<PostSummaryView> postSummaryPage() {
+        List<PostSummaryView> views = new ArrayList<>();
+        for (Post post : posts(20, false)) {
+            views.add(PostSummaryView.builder()
+                    .id(String.valueOf(post.getId()))
+                    .title(post.getTitle())
+                    .subtitle(post.getSubtitle())
+                    .summary(post.getContent().substring(0, 100) + "...")
+                    .contentPreview(post.getContent().substring(0, 100) + "...")
+                    .pinned(post.getPinned())
+                    .images(post.getImages())
+                    .thumbnail(post.getImages().get(0))
+                    .authorId(String.valueOf(post.getAuthorId()))
+                    .authorName(post.getAuthorName())
+                    .categoryId(String.valueOf(post.getCategoryId()))
+                    .categoryName(post.getCategoryName())
+                    .createdAt(post.getCreatedAt())
+                    .commentCount(42)
+                    .viewCount(12873)
+                    .likeCount(356)
+                    .liked(false)
+                    .following(false)
+                    .build());
+        }
+        return PageResponse.of(views, 200, 1, 20, 10, null);
+    }
+
+    /**
+     * 与 StaleWhileRevalidateCacheManager 写入 Redis 的结构一致
+     */
+    static CacheEnvelope envelope(Object value) {
+        long now = System.currentTimeMillis();
+        return new CacheEnvelope(value, now + 60_000, now + 300_000, 12);
+    }
+
+    private static CommentTreeNode comment(int id, Integer parentId, int rootId, int userId) {
+        return CommentTreeNode.builder()
+                .id(id)
+                .parentId(parentId)
+                .rootId(rootId)
+                .content("同意楼上，第三条路线秋天去风景最好，记得带水。")
+                .likeCount(id % 7)
+                .createdAt(NOW.minusMinutes(id))
+                .updatedAt(NOW.minusMinutes(id))
+                .author(new com.example.forum.comment.entity.Author(userId, "user_" + userId,
+                        "https://cdn.example.com/avatars/" + userId + ".png", null))
+                .build();
+    }
+}
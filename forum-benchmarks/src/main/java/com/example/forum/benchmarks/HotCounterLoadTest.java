@@ -0,0 +1,178 @@
+package com.example.forum.benchmarks;
+
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.common.redis.RedisGuardProperties;
+import com.example.forum.post.service.HotCounterSharding;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 热点帖子计数分片的负载测试：对单个帖子持续递增，按分片数 1/2/3/4/6/8 各跑一轮，输出 CSV
+ *
+ * 与其他基准不同，本测试需要一个 Redis Cluster（docker-compose.redis-cluster.yml），默认连接 127.0.0.1:7001~7003。
+ * 递增经 HotCounterSharding.routeIncrement 路由，写入的命令与 PostMetricsServiceImpl.increment 相同
+ * （未分片时 HINCRBY + SADD 脏集合，分片后只有 HINCRBY）。
+ *
+ * 每个主节点是单线程的，热点帖子的吞吐上限取决于承担命令最多的节点：按 INFO commandstats 统计各主节点的命令数，
+ * hottestPerIncrement 为最忙节点平均每次递增执行的命令数，scalingLimit 为未分片一轮的该值与本轮之比，
+ * 即节点 CPU 成为瓶颈时相对未分片的吞吐倍数，随分片数线性增长直到分片覆盖所有主节点（分片落在哪个节点取决于槽位分配）。
+ * nodeShares 为各主节点承担的命令比例。opsPerSec 是本机实测吞吐，只有客户端和各节点运行在独立 CPU 上时才能体现同样的倍数。
+ *
+ * 运行：java -cp forum-benchmarks/target/benchmarks.jar com.example.forum.benchmarks.HotCounterLoadTest
+ *      [节点列表，默认 127.0.0.1:7001,127.0.0.1:7002,127.0.0.1:7003] [每轮秒数，默认 10] [客户端线程数，默认 32]
+ */
+public final class HotCounterLoadTest {
+
+    private static final int POST_ID = 900_001;
+
+    private HotCounterLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> nodes = Arrays.asList((args.length > 0 ? args[0] : "127.0.0.1:7001,127.0.0.1:7002,127.0.0.1:7003").split(","));
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 10;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(new RedisClusterConfiguration(nodes));
+        connectionFactory.afterPropertiesSet();
+        // 与帖子服务 RedisConfig 的序列化方式一致
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        redisTemplate.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+        RedisGuard redisGuard = new RedisGuard("load-test", connectionFactory, redisTemplate, new RedisGuardProperties());
+
+        System.out.println("shards,threads,seconds,increments,opsPerSec,nodeShares,hottestPerIncrement,scalingLimit");
+        try {
+            double baseline = 0;
+            for (int shards : List.of(1, 2, 3, 4, 6, 8)) {
+                double hottestPerIncrement = run(redisTemplate, redisGuard, shards, threads, seconds, baseline);
+                if (baseline == 0) {
+                    baseline = hottestPerIncrement;
+                }
+            }
+        } finally {
+            redisGuard.close();
+            connectionFactory.destroy();
+        }
+    }
+
+    /**
+     * @param baseline 未分片一轮的 hottestPerIncrement，第一轮传 0
+     * @return 本轮的 hottestPerIncrement
+     */
+    private static double run(RedisTemplate<String, Object> redisTemplate, RedisGuard redisGuard,
+                              int shards, int threads, long seconds, double baseline) throws Exception {
+        HotCounterSharding sharding = new HotCounterSharding(redisTemplate, redisGuard);
+        // 分片数为 1 时不进入分片模式，即分片前的写入方式
+        ReflectionTestUtils.setField(sharding, "hotThreshold", shards > 1 ? 1L : Long.MAX_VALUE);
+        ReflectionTestUtils.setField(sharding, "shardCount", shards);
+        ReflectionTestUtils.setField(sharding, "coolDown", Duration.ofMinutes(5));
+        String baseKey = "post:metrics:" + POST_ID;
+        cleanup(redisTemplate, sharding, baseKey);
+
+        Map<String, Long> before = commandCalls(redisTemplate);
+        AtomicLong increments = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers.add(executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    String key = sharding.routeIncrement(POST_ID, baseKey);
+                    redisTemplate.opsForHash().increment(key, "views", 1);
+                    if (key.equals(baseKey)) {
+                        redisTemplate.opsForSet().add("post:metrics:dirty", POST_ID);
+                    }
+                    increments.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+        Map<String, Long> after = commandCalls(redisTemplate);
+
+        List<Long> calls = after.entrySet().stream()
+                .map(entry -> entry.getValue() - before.getOrDefault(entry.getKey(), 0L))
+                .sorted(Comparator.reverseOrder())
+                .toList();
+        long total = calls.stream().mapToLong(Long::longValue).sum();
+        String shares = calls.stream()
+                .map(count -> String.format("%.2f", total > 0 ? (double) count / total : 0))
+                .collect(Collectors.joining(";"));
+        double hottestPerIncrement = (double) calls.get(0) / Math.max(1, increments.get());
+        System.out.printf("%d,%d,%.1f,%d,%.0f,%s,%.3f,%.2f%n", shards, threads, elapsed, increments.get(),
+                increments.get() / elapsed, shares, hottestPerIncrement,
+                baseline > 0 ? baseline / hottestPerIncrement : 1.0);
+        cleanup(redisTemplate, sharding, baseKey);
+        return hottestPerIncrement;
+    }
+
+    /**
+     * 各主节点上 HINCRBY 和 SADD 的累计调用次数
+     */
+    private static Map<String, Long> commandCalls(RedisTemplate<String, Object> redisTemplate) {
+        return redisTemplate.execute((RedisCallback<Map<String, Long>>) redisConnection -> {
+            RedisClusterConnection connection = (RedisClusterConnection) redisConnection;
+            Map<String, Long> calls = new HashMap<>();
+            for (RedisClusterNode node : connection.clusterGetNodes()) {
+                if (!node.isMaster()) {
+                    continue;
+                }
+                Properties info = connection.serverCommands().info(node, "commandstats");
+                calls.put(node.asString(), Arrays.stream(new String[]{"cmdstat_hincrby", "cmdstat_sadd"})
+                        .map(name -> info != null ? info.getProperty(name) : null)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.summingLong(HotCounterLoadTest::parseCalls)));
+            }
+            return calls;
+        }, true);
+    }
+
+    // calls=123,usec=...
+    private static long parseCalls(String stat) {
+        for (String part : stat.split(",")) {
+            if (part.startsWith("calls=")) {
+                return Long.parseLong(part.substring("calls=".length()));
+            }
+        }
+        return 0;
+    }
+
+    private static void cleanup(RedisTemplate<String, Object> redisTemplate, HotCounterSharding sharding, String baseKey) {
+        redisTemplate.delete(baseKey);
+        sharding.shardKeys(POST_ID).forEach(redisTemplate::delete);
+        redisTemplate.opsForZSet().remove("post:metrics:hot", String.valueOf(POST_ID));
+        redisTemplate.opsForSet().remove("post:metrics:dirty", POST_ID);
+    }
+}
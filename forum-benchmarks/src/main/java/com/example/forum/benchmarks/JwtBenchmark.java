@@ -0,0 +1,83 @@
+package com.example.forum.benchmarks;
+
+import com.example.forum.config.JwtProperties;
+import com.example.forum.filter.JwtGatewayFilter;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 解析与验签：用户服务和网关各自的 JwtUtils.parseJWT，以及网关 JwtGatewayFilter 处理一次请求
+ * （白名单匹配、提取 token、验签、改写请求头，下游链路为空操作）。
+ * 只覆盖成功路径；失败路径每次都会输出 WARN 日志，测出来的主要是日志开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "forum-benchmark-secret-key-0123456789abcdef";
+    private static final GatewayFilterChain NOOP_CHAIN = exchange -> Mono.empty();
+
+    private String token;
+    private JwtGatewayFilter filter;
+
+    @Setup
+    public void setup() {
+        // 与 UserController 登录时写入的声明一致
+        token = com.example.forum.user.utils.JwtUtils.createJwt(SECRET, TimeUnit.HOURS.toMillis(2),
+                Map.of("username", "hiker_li", "userId", 2048, "roles", "user"));
+        JwtProperties properties = new JwtProperties();
+        properties.setUserSecretKey(SECRET);
+        properties.setWhitelist(List.of("/api/user/login", "/api/user/register", "/api/user/auth/refresh",
+                "/api/post/posts/trending", "/actuator/**"));
+        filter = new JwtGatewayFilter(properties, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Claims parseUserService() {
+        return com.example.forum.user.utils.JwtUtils.parseJWT(SECRET, token);
+    }
+
+    @Benchmark
+    public Claims parseGateway() {
+        return com.example.forum.util.JwtUtils.parseJWT(SECRET, token);
+    }
+
+    /**
+     * 每次新建 exchange，与真实请求一样包含请求对象的构造
+     */
+    @Benchmark
+    public Object gatewayFilterAuthenticated() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/post/posts/10086")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+        return filter.filter(exchange, NOOP_CHAIN).block();
+    }
+
+    @Benchmark
+    public Object gatewayFilterWhitelisted() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/post/posts/trending"));
+        return filter.filter(exchange, NOOP_CHAIN).block();
+    }
+}
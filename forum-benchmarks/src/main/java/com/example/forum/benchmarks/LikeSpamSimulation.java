@@ -0,0 +1,122 @@
+package com.example.forum.benchmarks;
+
+import com.example.forum.common.cache.IdExistenceFilter;
+import com.example.forum.common.timer.TimingWheel;
+import com.example.forum.post.entity.Post;
+import com.example.forum.post.repo.PostRepo;
+import com.example.forum.post.service.LikeToggleCoalescer;
+import com.example.forum.post.service.PostLikeService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 点赞刷屏下的写放大：按固定的合成负载实时回放点赞/取消点赞，统计不同防抖窗口下 PostLikeService 的落库次数（CSV）
+ *
+ * 负载：500 个 (用户, 帖子) 在 5 秒内各发起一轮点击，70% 单击、20% 双击、10% 连续刷 5~20 次，
+ * 相邻点击间隔 30~150ms，每次点击翻转点赞状态。落库由计数的替身代替；回放结束后校验每个 key
+ * 最终落库的状态与最后一次点击一致（mismatches 应为 0）。
+ *
+ * 运行：java -cp forum-benchmarks/target/benchmarks.jar com.example.forum.benchmarks.LikeSpamSimulation
+ */
+public final class LikeSpamSimulation {
+
+    private static final int KEYS = 500;
+    private static final long SPAN_MILLIS = 5_000;
+
+    private LikeSpamSimulation() {
+    }
+
+    private record Click(long atMillis, int postId, int userId, boolean liked) {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        List<Click> clicks = workload(new Random(42));
+        System.out.println("window,toggles,writes,writeAmplification,mismatches");
+        for (Duration window : List.of(Duration.ZERO, Duration.ofMillis(100), Duration.ofMillis(500), Duration.ofSeconds(1))) {
+            run(window, clicks);
+        }
+    }
+
+    private static void run(Duration window, List<Click> clicks) throws InterruptedException {
+        AtomicLong writes = new AtomicLong();
+        Map<String, Boolean> stored = new ConcurrentHashMap<>();
+        PostLikeService postLikeService = Fakes.of(PostLikeService.class, Map.of(
+                "likePost", args -> write(writes, stored, args, true),
+                "unlikePost", args -> write(writes, stored, args, false)
+        ));
+        PostRepo postRepo = Fakes.of(PostRepo.class, Map.of(
+                "selectById", args -> new Post().setId((Integer) args[0])
+        ));
+        IdExistenceFilter filter = new IdExistenceFilter("posts", null, null, null, null,
+                Duration.ofMinutes(1), Duration.ofMinutes(10));
+        TimingWheel timingWheel = new TimingWheel("like-spam", Duration.ofMillis(10), 1);
+        timingWheel.start();
+        LikeToggleCoalescer coalescer = new LikeToggleCoalescer(postLikeService, postRepo, filter, timingWheel);
+        ReflectionTestUtils.setField(coalescer, "window", window);
+        ReflectionTestUtils.setField(coalescer, "failureCooldown", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(coalescer, "flushThreads", 4);
+        coalescer.init();
+
+        long start = System.nanoTime();
+        for (Click click : clicks) {
+            long due = start + TimeUnit.MILLISECONDS.toNanos(click.atMillis());
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            coalescer.submit(click.postId(), click.userId(), click.liked());
+        }
+        while (((Number) coalescer.getStats().get("pending")).intValue() > 0) {
+            Thread.sleep(20);
+        }
+        // 等待正在执行的最后一次落库
+        Thread.sleep(window.toMillis() + 50);
+        coalescer.shutdown();
+        timingWheel.close();
+
+        Map<String, Boolean> expected = new ConcurrentHashMap<>();
+        for (Click click : clicks) {
+            expected.put(click.postId() + ":" + click.userId(), click.liked());
+        }
+        long mismatches = expected.entrySet().stream()
+                .filter(entry -> !entry.getValue().equals(stored.getOrDefault(entry.getKey(), false)))
+                .count();
+        System.out.printf("%d,%d,%d,%.3f,%d%n", window.toMillis(), clicks.size(), writes.get(),
+                (double) writes.get() / clicks.size(), mismatches);
+    }
+
+    private static Object write(AtomicLong writes, Map<String, Boolean> stored, Object[] args, boolean liked) {
+        writes.incrementAndGet();
+        stored.put(args[0] + ":" + args[1], liked);
+        return true;
+    }
+
+    private static List<Click> workload(Random random) {
+        List<Click> clicks = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            int postId = 10000 + i % 50;
+            int userId = 3000 + i;
+            double kind = random.nextDouble();
+            int count = kind < 0.7 ? 1 : kind < 0.9 ? 2 : 5 + random.nextInt(16);
+            long at = random.nextInt((int) SPAN_MILLIS);
+            boolean liked = false;
+            for (int c = 0; c < count; c++) {
+                liked = !liked;
+                clicks.add(new Click(at, postId, userId, liked));
+                at += 30 + random.nextInt(121);
+            }
+        }
+        clicks.sort(Comparator.comparingLong(Click::atMillis));
+        return clicks;
+    }
+}
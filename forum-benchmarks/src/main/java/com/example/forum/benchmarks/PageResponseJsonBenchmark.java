@@ -0,0 +1,52 @@
+package com.example.forum.benchmarks;
+
+import com.example.forum.post.config.WebJacksonConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分页接口响应体的 JSON 序列化：PageResponse 经 HTTP 层使用的 ObjectMapper（WebJacksonConfig，三个服务配置相同）写出。
+ * 缓存值的 Redis 编码见 {@link RedisCodecBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageResponseJsonBenchmark {
+
+    @Param({"commentPage", "postSummaryPage"})
+    public String fixture;
+
+    private ObjectMapper objectMapper;
+    private Object value;
+
+    @Setup
+    public void setup() {
+        objectMapper = new WebJacksonConfig().webObjectMapper();
+        value = switch (fixture) {
+            case "commentPage" -> Fixtures.commentPage();
+            case "postSummaryPage" -> Fixtures.postSummaryPage();
+            default -> throw new IllegalArgumentException("未知的测试数据: " + fixture);
+        };
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+}
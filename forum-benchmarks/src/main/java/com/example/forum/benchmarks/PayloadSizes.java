@@ -0,0 +1,32 @@
+package com.example.forum.benchmarks;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 输出各缓存值在两种编码下的字节数（CSV），并校验编解码往返结果一致
+ *
+ * 运行：java -cp forum-benchmarks/target/benchmarks.jar com.example.forum.benchmarks.PayloadSizes
+ */
+public final class PayloadSizes {
+
+    private PayloadSizes() {
+    }
+
+    public static void main(String[] args) {
+        System.out.println("fixture,codec,bytes");
+        for (String fixture : List.of("postDetail", "appUser", "commentPage")) {
+            Object value = RedisCodecBenchmark.fixture(fixture);
+            for (String codec : List.of("json", "compact")) {
+                RedisSerializer<Object> serializer = RedisCodecBenchmark.serializer(codec);
+                byte[] bytes = serializer.serialize(value);
+                if (!Objects.equals(value, serializer.deserialize(bytes))) {
+                    throw new IllegalStateException("编解码结果不一致: fixture=" + fixture + ", codec=" + codec);
+                }
+                System.out.println(fixture + "," + codec + "," + bytes.length);
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.forum.benchmarks;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 计数写入与帖子编辑的行锁争用：计数写在 posts 宽行上（拆分前）与写在 post_stats 窄表上（拆分后）各跑一轮，输出 CSV
+ *
+ * 与其他基准不同，本测试需要一个 MySQL，在其中创建 bench_posts / bench_post_stats 两张临时表（结构与 posts、post_stats 的相关列一致），
+ * 结束后删除，不读写业务表。负载：计数线程持续对少数热门帖子逐次递增（拆分前 PostRepo.incrementMetrics 的写法，
+ * 拆分后同一条增量以 PostStatsRepo.upsertDeltas 的语句写入），编辑线程同时在事务中锁定并改写这些帖子的 content（编辑、审核）。
+ * rowLockWaits 为本轮 Innodb_row_lock_waits 的增量（整个实例的统计，需在空闲实例上运行）。
+ *
+ * 运行：java -cp forum-benchmarks/target/benchmarks.jar com.example.forum.benchmarks.PostStatsContentionTest
+ *      jdbc:mysql://127.0.0.1:3306/forum 用户名 密码 [每轮秒数，默认 10] [计数线程数，默认 16] [编辑线程数，默认 4]
+ */
+public final class PostStatsContentionTest {
+
+    private static final int POSTS = 100;
+    private static final int HOT_POSTS = 5;
+    private static final String CONTENT = "正文".repeat(2000);
+
+    private PostStatsContentionTest() {
+    }
+
+    private record Result(long increments, long edits, List<Long> editMicros, long rowLockWaits) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("用法: PostStatsContentionTest <jdbcUrl> <user> <password> [seconds] [counterThreads] [editorThreads]");
+            System.exit(2);
+        }
+        String url = args[0];
+        String user = args[1];
+        String password = args[2];
+        long seconds = args.length > 3 ? Long.parseLong(args[3]) : 10;
+        int counterThreads = args.length > 4 ? Integer.parseInt(args[4]) : 16;
+        int editorThreads = args.length > 5 ? Integer.parseInt(args[5]) : 4;
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            createTables(connection);
+            try {
+                System.out.println("counterTable,seconds,counterThreads,editorThreads,incrementsPerSec,editsPerSec,"
+                        + "editP50Micros,editP99Micros,rowLockWaits");
+                for (boolean narrow : new boolean[]{false, true}) {
+                    seed(connection);
+                    Result result = run(url, user, password, narrow, seconds, counterThreads, editorThreads, connection);
+                    List<Long> latencies = new ArrayList<>(result.editMicros());
+                    Collections.sort(latencies);
+                    System.out.printf("%s,%d,%d,%d,%.0f,%.0f,%d,%d,%d%n", narrow ? "post_stats" : "posts",
+                            seconds, counterThreads, editorThreads,
+                            (double) result.increments() / seconds, (double) result.edits() / seconds,
+                            percentile(latencies, 0.50), percentile(latencies, 0.99), result.rowLockWaits());
+                }
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("DROP TABLE IF EXISTS bench_post_stats");
+                    statement.execute("DROP TABLE IF EXISTS bench_posts");
+                }
+            }
+        }
+    }
+
+    private static Result run(String url, String user, String password, boolean narrow, long seconds,
+                              int counterThreads, int editorThreads, Connection admin) throws Exception {
+        // 拆分前：计数与 content 在同一行；拆分后：计数写 post_stats（与 PostStatsRepo.upsertDeltas 相同的语句形态）
+        String incrementSql = narrow
+                ? """
+                  INSERT INTO bench_post_stats (post_id, views, likes, comments, heat)
+                  SELECT d.post_id, d.views, 0, 0, ROUND(d.views * 0.1)
+                  FROM (SELECT ? AS post_id, 1 AS views) d
+                  JOIN bench_posts p ON p.id = d.post_id
+                  ON DUPLICATE KEY UPDATE
+                    views = bench_post_stats.views + d.views,
+                    heat = ROUND(bench_post_stats.views * 0.1 + bench_post_stats.likes * 2.0 + bench_post_stats.comments * 5.0)
+                  """
+                : """
+                  UPDATE bench_posts
+                  SET view_count = view_count + 1,
+                      heat = ROUND(view_count * 0.1 + like_count * 2.0 + comment_count * 5.0)
+                  WHERE id = ?
+                  """;
+        AtomicLong increments = new AtomicLong();
+        AtomicLong edits = new AtomicLong();
+        ConcurrentLinkedQueue<Long> editMicros = new ConcurrentLinkedQueue<>();
+        long lockWaitsBefore = rowLockWaits(admin);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(counterThreads + editorThreads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < counterThreads; t++) {
+            workers.add(executor.submit(() -> {
+                try (Connection connection = DriverManager.getConnection(url, user, password);
+                     PreparedStatement statement = connection.prepareStatement(incrementSql)) {
+                    while (System.nanoTime() < deadline) {
+                        statement.setInt(1, pickPost());
+                        statement.executeUpdate();
+                        increments.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (int t = 0; t < editorThreads; t++) {
+            workers.add(executor.submit(() -> {
+                try (Connection connection = DriverManager.getConnection(url, user, password);
+                     PreparedStatement lock = connection.prepareStatement("SELECT id FROM bench_posts WHERE id = ? FOR UPDATE");
+                     PreparedStatement update = connection.prepareStatement(
+                             "UPDATE bench_posts SET content = ?, updated_at = NOW() WHERE id = ?")) {
+                    connection.setAutoCommit(false);
+                    while (System.nanoTime() < deadline) {
+                        int postId = ThreadLocalRandom.current().nextInt(1, HOT_POSTS + 1);
+                        long start = System.nanoTime();
+                        lock.setInt(1, postId);
+                        lock.executeQuery().close();
+                        update.setString(1, CONTENT + System.nanoTime());
+                        update.setInt(2, postId);
+                        update.executeUpdate();
+                        connection.commit();
+                        editMicros.add(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                        edits.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+        return new Result(increments.get(), edits.get(), new ArrayList<>(editMicros), rowLockWaits(admin) - lockWaitsBefore);
+    }
+
+    // 80% 的递增落在热门帖子上
+    private static int pickPost() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return random.nextInt(10) < 8 ? random.nextInt(1, HOT_POSTS + 1) : random.nextInt(1, POSTS + 1);
+    }
+
+    private static long percentile(List<Long> sorted, double quantile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get(Math.min(sorted.size() - 1, (int) Math.ceil(quantile * sorted.size()) - 1));
+    }
+
+    private static long rowLockWaits(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW GLOBAL STATUS LIKE 'Innodb_row_lock_waits'")) {
+            return rs.next() ? rs.getLong(2) : 0;
+        }
+    }
+
+    private static void createTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_post_stats");
+            statement.execute("DROP TABLE IF EXISTS bench_posts");
+            statement.execute("""
+                    CREATE TABLE bench_posts (
+                      id int NOT NULL,
+                      title varchar(255) NOT NULL,
+                      content text NOT NULL,
+                      images json NULL,
+                      view_count int NOT NULL DEFAULT 0,
+                      like_count int NOT NULL DEFAULT 0,
+                      comment_count int NOT NULL DEFAULT 0,
+                      heat int NOT NULL DEFAULT 0,
+                      updated_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                      PRIMARY KEY (id)
+                    ) ENGINE = InnoDB CHARACTER SET = utf8mb4
+                    """);
+            statement.execute("""
+                    CREATE TABLE bench_post_stats (
+                      post_id int NOT NULL,
+                      views int UNSIGNED NOT NULL DEFAULT 0,
+                      likes int UNSIGNED NOT NULL DEFAULT 0,
+                      comments int UNSIGNED NOT NULL DEFAULT 0,
+                      heat int NOT NULL DEFAULT 0,
+                      updated_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                      PRIMARY KEY (post_id),
+                      INDEX idx_bench_post_stats_heat (heat DESC),
+                      CONSTRAINT fk_bench_post_stats_post FOREIGN KEY (post_id) REFERENCES bench_posts (id) ON DELETE CASCADE
+                    ) ENGINE = InnoDB CHARACTER SET = utf8mb4
+                    """);
+        }
+    }
+
+    private static void seed(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM bench_post_stats");
+            statement.execute("DELETE FROM bench_posts");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bench_posts (id, title, content, images) VALUES (?, ?, ?, JSON_ARRAY('a.jpg', 'b.jpg'))")) {
+            for (int id = 1; id <= POSTS; id++) {
+                insert.setInt(1, id);
+                insert.setString(2, "帖子 " + id);
+                insert.setString(3, CONTENT);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.forum.benchmarks;
+
+import com.example.forum.common.dto.Result;
+import com.example.forum.post.client.UserClient;
+import com.example.forum.post.entity.Post;
+import com.example.forum.post.repo.PostLikeRepo;
+import com.example.forum.post.service.LikeToggleCoalescer;
+import com.example.forum.post.service.PostMetricsService;
+import com.example.forum.post.service.PostServiceImpl;
+import com.example.forum.post.vo.PostMetrics;
+import com.example.forum.post.vo.PostSummaryView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 帖子列表的摘要视图：PostServiceImpl 中 generatePreview（去标签截取预览）、toPostSummaryView（单条转换）
+ * 和 enrichSummaryViews（一页 20 条，含计数和当前用户的点赞/关注状态）。
+ * 计数、点赞记录和关注关系由内存中的替身返回，只测量转换本身；content 区分纯文本正文和富文本 HTML 正文
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostSummaryBenchmark {
+
+    private static final int VIEWER_ID = 4096;
+
+    @Param({"plain", "html"})
+    public String content;
+
+    private PostServiceImpl postService;
+    private MethodHandle generatePreview;
+    private MethodHandle toPostSummaryView;
+    private MethodHandle enrichSummaryViews;
+    private List<Post> posts;
+    private Post post;
+    private PostMetrics metrics;
+
+    @Setup
+    public void setup() {
+        posts = Fixtures.posts(20, "html".equals(content));
+        post = posts.get(0);
+        metrics = new PostMetrics(12873, 356, 42);
+
+        Map<Integer, PostMetrics> allMetrics = new HashMap<>();
+        for (Post item : posts) {
+            allMetrics.put(item.getId(), new PostMetrics(item.getId() * 3, item.getId() % 500, item.getId() % 60));
+        }
+        // 当前用户点赞了其中一半帖子、关注了一半作者
+        List<Integer> likedPostIds = posts.stream().map(Post::getId).filter(id -> id % 2 == 0).toList();
+        List<Integer> followedAuthorIds = posts.stream().map(Post::getAuthorId).distinct().filter(id -> id % 2 == 1).toList();
+
+        PostMetricsService postMetricsService = Fakes.of(PostMetricsService.class, Map.of(
+                "resolveAll", args -> allMetrics,
+                "resolve", args -> metrics
+        ));
+        PostLikeRepo postLikeRepo = Fakes.of(PostLikeRepo.class, Map.of(
+                "findLikedPostIds", args -> likedPostIds
+        ));
+        UserClient userClient = Fakes.of(UserClient.class, Map.of(
+                "getFollowedUserIds", args -> Result.success(followedAuthorIds)
+        ));
+        postService = new PostServiceImpl(postLikeRepo, userClient, null, null, null, postMetricsService,
+                new LikeToggleCoalescer(null, null, null, null), null, null, null, null, null, null);
+
+        generatePreview = Fakes.privateMethod(PostServiceImpl.class, "generatePreview", String.class, String.class);
+        toPostSummaryView = Fakes.privateMethod(PostServiceImpl.class, "toPostSummaryView", PostSummaryView.class,
+                Post.class, PostMetrics.class, boolean.class, boolean.class);
+        enrichSummaryViews = Fakes.privateMethod(PostServiceImpl.class, "enrichSummaryViews", List.class,
+                List.class, Integer.class);
+    }
+
+    @Benchmark
+    public String generatePreview() throws Throwable {
+        return (String) generatePreview.invokeExact(postService, post.getContent());
+    }
+
+    @Benchmark
+    public PostSummaryView toPostSummaryView() throws Throwable {
+        return (PostSummaryView) toPostSummaryView.invokeExact(postService, post, metrics, false, false);
+    }
+
+    /**
+     * 匿名访问：缓存未命中时组装一页摘要
+     */
+    @Benchmark
+    public List<?> enrichSummaryViews() throws Throwable {
+        return (List<?>) enrichSummaryViews.invokeExact(postService, posts, (Integer) null);
+    }
+
+    /**
+     * 登录用户：在摘要之上再填充点赞、关注状态
+     */
+    @Benchmark
+    public List<?> enrichSummaryViewsForViewer() throws Throwable {
+        return (List<?>) enrichSummaryViews.invokeExact(postService, posts, (Integer) VIEWER_ID);
+    }
+}
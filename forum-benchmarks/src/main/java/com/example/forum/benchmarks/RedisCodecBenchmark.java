@@ -0,0 +1,82 @@
+package com.example.forum.benchmarks;
+
+import com.example.forum.common.redis.CodecTypeRegistry;
+import com.example.forum.common.redis.CompactRedisSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存值编码：原 JSON（GenericJackson2JsonRedisSerializer + NON_FINAL 类型信息）与紧凑二进制编码的编解码耗时。
+ * 编码后的字节数见 {@link PayloadSizes}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisCodecBenchmark {
+
+    @Param({"postDetail", "appUser", "commentPage"})
+    public String fixture;
+
+    @Param({"json", "compact"})
+    public String codec;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        serializer = serializer(codec);
+        value = fixture(fixture);
+        encoded = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+
+    static RedisSerializer<Object> serializer(String codec) {
+        // 与各服务 RedisConfig 中的 redisObjectMapper 配置相同
+        ObjectMapper mapper = new com.example.forum.post.config.RedisConfig().redisObjectMapper();
+        if ("json".equals(codec)) {
+            return new GenericJackson2JsonRedisSerializer(mapper);
+        }
+        CodecTypeRegistry registry = CodecTypeRegistry.withDefaults();
+        com.example.forum.post.config.RedisConfig.codecTypes(registry);
+        com.example.forum.comment.config.RedisConfig.codecTypes(registry);
+        com.example.forum.user.config.RedisConfig.codecTypes(registry);
+        return new CompactRedisSerializer(mapper, registry, 1024, true);
+    }
+
+    static Object fixture(String name) {
+        return switch (name) {
+            case "postDetail" -> Fixtures.envelope(Fixtures.postDetail());
+            case "appUser" -> Fixtures.envelope(Fixtures.appUser());
+            case "commentPage" -> Fixtures.envelope(Fixtures.commentPage());
+            default -> throw new IllegalArgumentException("未知的测试数据: " + name);
+        };
+    }
+}
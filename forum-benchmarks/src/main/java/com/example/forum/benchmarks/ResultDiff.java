@@ -0,0 +1,95 @@
+package com.example.forum.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * 对比两次 JMH 运行的 JSON 结果（-rf json），按 基准方法 + 参数 逐项输出 CSV
+ *
+ * changePct 为正表示 head 比 base 慢（AverageTime 模式下分数越小越好）；
+ * significant 表示差值超过两次结果的误差（99.9% 置信区间半宽）之和，否则视为噪声。
+ * 只出现在一侧的条目 base 或 head 为空。
+ *
+ * 运行：java -cp forum-benchmarks/target/benchmarks.jar com.example.forum.benchmarks.ResultDiff base.json head.json
+ */
+public final class ResultDiff {
+
+    private ResultDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("用法: ResultDiff <base.json> <head.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> base = read(args[0]);
+        Map<String, JsonNode> head = read(args[1]);
+        Map<String, JsonNode> keys = new LinkedHashMap<>(base);
+        head.forEach(keys::putIfAbsent);
+
+        System.out.println("benchmark,params,unit,base,baseError,head,headError,changePct,significant");
+        for (Map.Entry<String, JsonNode> entry : keys.entrySet()) {
+            JsonNode before = base.get(entry.getKey());
+            JsonNode after = head.get(entry.getKey());
+            JsonNode any = entry.getValue();
+            StringJoiner row = new StringJoiner(",");
+            row.add(any.path("benchmark").asText());
+            row.add(params(any));
+            row.add(any.path("primaryMetric").path("scoreUnit").asText());
+            row.add(score(before)).add(error(before));
+            row.add(score(after)).add(error(after));
+            if (before != null && after != null) {
+                double b = before.path("primaryMetric").path("score").asDouble();
+                double h = after.path("primaryMetric").path("score").asDouble();
+                double noise = errorValue(before) + errorValue(after);
+                row.add(b != 0 ? String.format("%.1f", (h - b) * 100 / b) : "");
+                row.add(String.valueOf(Math.abs(h - b) > noise));
+            } else {
+                row.add("").add("");
+            }
+            System.out.println(row);
+        }
+    }
+
+    /**
+     * @return "基准方法|参数" -> 结果条目
+     */
+    private static Map<String, JsonNode> read(String path) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(new File(path))) {
+            results.put(result.path("benchmark").asText() + "|" + params(result), result);
+        }
+        return results;
+    }
+
+    private static String params(JsonNode result) {
+        StringJoiner joiner = new StringJoiner(";");
+        Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            joiner.add(field.getKey() + "=" + field.getValue().asText());
+        }
+        return joiner.toString();
+    }
+
+    private static String score(JsonNode result) {
+        return result != null ? String.format("%.3f", result.path("primaryMetric").path("score").asDouble()) : "";
+    }
+
+    private static String error(JsonNode result) {
+        return result != null ? String.format("%.3f", errorValue(result)) : "";
+    }
+
+    // 只有一次迭代时 JMH 输出 "NaN"
+    private static double errorValue(JsonNode result) {
+        double error = result.path("primaryMetric").path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.forum.benchmarks;
+
+import com.example.forum.common.timer.TimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已有大量待执行定时器时，再添加并取消一个定时器的开销：分层时间轮与 ScheduledThreadPoolExecutor（堆）对比。
+ * 点赞防抖、延迟任务唤醒等场景的定时器大多在到期前被取消或只挂很短时间，添加和取消的开销决定调度成本。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TimerBenchmark {
+
+    private static final Runnable NOOP = () -> { };
+    private static final long MAX_DELAY_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Param({"0", "1000000"})
+    public int pendingTimers;
+
+    @Param({"wheel", "heap"})
+    public String timer;
+
+    private TimingWheel timingWheel;
+    private ScheduledThreadPoolExecutor executor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if ("wheel".equals(timer)) {
+            timingWheel = new TimingWheel("bench-wheel", Duration.ofMillis(10), 1);
+            timingWheel.start();
+        } else {
+            executor = new ScheduledThreadPoolExecutor(1);
+            executor.setRemoveOnCancelPolicy(true);
+        }
+        // 预先挂上 1 分钟到 1 小时后到期的定时器，测量期间不会到期
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < pendingTimers; i++) {
+            schedule(TimeUnit.MINUTES.toMillis(1) + random.nextLong(MAX_DELAY_MILLIS));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (timingWheel != null) {
+            timingWheel.close();
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        Object handle = schedule(TimeUnit.SECONDS.toMillis(1) + ThreadLocalRandom.current().nextLong(MAX_DELAY_MILLIS));
+        return handle instanceof TimingWheel.Timeout timeout
+                ? timeout.cancel()
+                : ((ScheduledFuture<?>) handle).cancel(false);
+    }
+
+    private Object schedule(long delayMillis) {
+        return timingWheel != null
+                ? timingWheel.schedule(NOOP, Duration.ofMillis(delayMillis))
+                : executor.schedule(NOOP, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
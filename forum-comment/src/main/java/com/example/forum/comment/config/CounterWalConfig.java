@@ -0,0 +1,29 @@
+package com.example.forum.comment.config;
+
+import com.example.forum.common.cache.PostCounterWal;
+import com.example.forum.common.redis.RedisGuard;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Configuration
+public class CounterWalConfig {
+
+    /**
+     * Redis 不可用时评论数增量写入本地 WAL，恢复后连同日计数一起重放
+     */
+    @Bean
+    public PostCounterWal postCounterWal(RedisTemplate<String, Object> redisTemplate,
+                                         RedisGuard redisGuard,
+                                         @Value("${forum.metrics.wal-dir:./data/counter-wal/${spring.application.name}}") String dir,
+                                         @Value("${forum.metrics.wal-replay-batch-size:500}") int batchSize) throws IOException {
+        PostCounterWal wal = new PostCounterWal(Paths.get(dir), redisTemplate, true, batchSize);
+        wal.open();
+        redisGuard.onRecovery(wal::replay);
+        return wal;
+    }
+}
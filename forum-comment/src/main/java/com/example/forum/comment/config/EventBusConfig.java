@@ -0,0 +1,68 @@
+package com.example.forum.comment.config;
+
+import com.example.forum.comment.event.CommentCacheEventHandler;
+import com.example.forum.comment.repo.DomainEventOutboxRepo;
+import com.example.forum.common.event.DomainEventConsumer;
+import com.example.forum.common.event.DomainEventPublisher;
+import com.example.forum.common.event.DomainEventsEndpoint;
+import com.example.forum.common.event.EventBusProperties;
+import com.example.forum.common.event.OutboxRelay;
+import com.example.forum.common.redis.RedisGuard;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Configuration
+public class EventBusConfig {
+
+    @Bean
+    @ConfigurationProperties("forum.events")
+    public EventBusProperties eventBusProperties() {
+        return new EventBusProperties();
+    }
+
+    /**
+     * 把本服务（以及其他服务）写入发件箱的事件发布到 Redis Stream
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public OutboxRelay outboxRelay(DomainEventOutboxRepo domainEventOutboxRepo,
+                                   PlatformTransactionManager transactionManager,
+                                   StringRedisTemplate stringRedisTemplate,
+                                   RedisGuard redisGuard,
+                                   EventBusProperties eventBusProperties,
+                                   @Value("${spring.application.name}") String applicationName) {
+        return new OutboxRelay(applicationName, domainEventOutboxRepo, new TransactionTemplate(transactionManager),
+                stringRedisTemplate, redisGuard, eventBusProperties);
+    }
+
+    @Bean
+    public DomainEventPublisher domainEventPublisher(DomainEventOutboxRepo domainEventOutboxRepo, OutboxRelay outboxRelay) {
+        return new DomainEventPublisher(domainEventOutboxRepo, outboxRelay);
+    }
+
+    /**
+     * 消费组 forum-comment-service：评论变化后刷新评论分页缓存
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public DomainEventConsumer domainEventConsumer(StringRedisTemplate stringRedisTemplate,
+                                                   RedisGuard redisGuard,
+                                                   EventBusProperties eventBusProperties,
+                                                   CommentCacheEventHandler commentCacheEventHandler,
+                                                   @Value("${spring.application.name}") String applicationName) {
+        return new DomainEventConsumer(applicationName, stringRedisTemplate, redisGuard, eventBusProperties,
+                List.of(commentCacheEventHandler));
+    }
+
+    @Bean
+    public DomainEventsEndpoint domainEventsEndpoint(DomainEventPublisher domainEventPublisher,
+                                                     OutboxRelay outboxRelay,
+                                                     DomainEventConsumer domainEventConsumer) {
+        return new DomainEventsEndpoint(domainEventPublisher, outboxRelay, domainEventConsumer);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.forum.comment.config;
+
+import com.example.forum.comment.repo.PostCommentRepo;
+import com.example.forum.common.cache.IdExistenceFilter;
+import com.example.forum.common.redis.RedisGuard;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class ExistenceFilterConfig {
+
+    /**
+     * post_comments 主键存在性过滤，评论不存在时直接拒绝，不查询数据库
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public IdExistenceFilter commentExistenceFilter(RedisTemplate<String, Object> redisTemplate,
+                                                    RedisGuard redisGuard,
+                                                    PostCommentRepo postCommentRepo,
+                                                    @Value("${forum.existence.negative-ttl:PT1M}") Duration negativeTtl,
+                                                    @Value("${forum.existence.rebuild-interval:PT1H}") Duration rebuildInterval) {
+        return new IdExistenceFilter("post_comments", redisTemplate, redisGuard,
+                postCommentRepo::selectExistenceMaxId, postCommentRepo::selectIdsAfter, negativeTtl, rebuildInterval);
+    }
+}
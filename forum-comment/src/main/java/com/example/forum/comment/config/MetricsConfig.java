@@ -0,0 +1,32 @@
+package com.example.forum.comment.config;
+
+import com.example.forum.common.metrics.ForumMetrics;
+import com.example.forum.common.metrics.MeteredInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * @Metered 热点操作耗时，与 RedisGuard、缓存、Feign、连接池指标一起在 /actuator/prometheus 导出
+     */
+    @Bean
+    public ForumMetrics forumMetrics(MeterRegistry meterRegistry) {
+        return new ForumMetrics(meterRegistry);
+    }
+
+    /**
+     * 静态方法且延迟获取 ForumMetrics：Advisor 在创建代理之前实例化，不能提前拉起 MeterRegistry
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor meteredAdvisor(ObjectProvider<ForumMetrics> forumMetrics) {
+        return MeteredInterceptor.advisor(forumMetrics);
+    }
+}
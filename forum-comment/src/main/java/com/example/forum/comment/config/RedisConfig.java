@@ -1,28 +1,38 @@
 package com.example.forum.comment.config;
 
+import com.example.forum.common.cache.HotKeyProperties;
+import com.example.forum.common.cache.LocalCacheSnapshot;
+import com.example.forum.common.cache.LocalCacheSnapshotProperties;
+import com.example.forum.common.cache.StaleWhileRevalidateCacheManager;
+import com.example.forum.common.cache.StaleWhileRevalidateCacheManager.Policy;
+import com.example.forum.common.redis.CodecTypeRegistry;
+import com.example.forum.common.redis.CompactRedisSerializer;
+import com.example.forum.common.redis.GuardedCacheManager;
+import com.example.forum.common.redis.RedisConnectionFactories;
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.comment.entity.Author;
+import com.example.forum.comment.vo.CommentTreeNode;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
-import org.springframework.cache.CacheManager;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.connection.RedisPassword;
-import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
-import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
-import org.springframework.util.StringUtils;
 
 import java.time.Duration;
 import java.util.Map;
@@ -44,15 +54,12 @@ public class RedisConfig {
         return mapper;
     }
 
+    /**
+     * 单机 / 哨兵 / 集群由 spring.data.redis.* 配置决定，见 {@link RedisConnectionFactories}
+     */
     @Bean
     public RedisConnectionFactory redisConnectionFactory(RedisProperties properties) {
-        RedisStandaloneConfiguration config =
-                new RedisStandaloneConfiguration(properties.getHost(), properties.getPort());
-        if (StringUtils.hasText(properties.getPassword())) {
-            config.setPassword(RedisPassword.of(properties.getPassword()));
-        }
-        config.setDatabase(properties.getDatabase());
-        return new LettuceConnectionFactory(config);
+        return RedisConnectionFactories.create(properties);
     }
 
     @Bean
@@ -69,19 +76,68 @@ public class RedisConfig {
     }
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
-                                     @Qualifier("redisObjectMapper") ObjectMapper redisMapper) {
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(redisMapper);
+    @ConfigurationProperties("forum.cache.hot-key")
+    public HotKeyProperties hotKeyProperties() {
+        return new HotKeyProperties();
+    }
+
+    @Bean
+    public StaleWhileRevalidateCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                                         @Qualifier("redisObjectMapper") ObjectMapper redisMapper,
+                                                         RedisTemplate<String, Object> redisTemplate,
+                                                         RedisGuard redisGuard,
+                                                         HotKeyProperties hotKeyProperties,
+                                                         @Value("${forum.redis.codec.compact:true}") boolean compactCodec,
+                                                         @Value("${forum.redis.codec.compress-threshold:1024}") int compressThreshold,
+                                                         @Value("${forum.cache.stale-grace:PT10M}") Duration staleGrace) {
+        // 缓存值使用紧凑二进制编码，compact=false 时写回 JSON（两种格式都能读取）
+        RedisSerializer<Object> serializer = new CompactRedisSerializer(redisMapper,
+                codecTypes(CodecTypeRegistry.withDefaults()), compressThreshold, compactCodec);
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10))
                 .disableCachingNullValues()
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
+        // 软过期后返回旧值并后台刷新，硬过期后同步回源，回源失败时在 staleGrace 内继续返回旧值
+        Map<String, Policy> policies = Map.of(
+                "comments:page", new Policy(Duration.ofSeconds(30), Duration.ofMinutes(2), staleGrace)
+        );
         Map<String, RedisCacheConfiguration> cacheConfigs = Map.of(
-                "comments:page", defaultConfig.entryTtl(Duration.ofMinutes(2))
+                "comments:page", defaultConfig.entryTtl(policies.get("comments:page").redisTtl())
         );
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigs)
                 .build();
+        // 熔断期间缓存读写直接跳过，@Cacheable 退化为查询数据库
+        return new StaleWhileRevalidateCacheManager(
+                new GuardedCacheManager(redisCacheManager, redisGuard), policies, redisTemplate, redisGuard, hotKeyProperties);
+    }
+
+    @Bean
+    @ConfigurationProperties("forum.cache.snapshot")
+    public LocalCacheSnapshotProperties localCacheSnapshotProperties() {
+        return new LocalCacheSnapshotProperties();
+    }
+
+    /**
+     * 热点本地副本定期写入本地快照，重启后立即恢复；快照中的值不压缩，加载时省去解压
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public LocalCacheSnapshot localCacheSnapshot(StaleWhileRevalidateCacheManager cacheManager,
+                                                 @Qualifier("redisObjectMapper") ObjectMapper redisMapper,
+                                                 LocalCacheSnapshotProperties localCacheSnapshotProperties,
+                                                 @Value("${spring.application.name}") String applicationName) {
+        RedisSerializer<Object> serializer = new CompactRedisSerializer(redisMapper,
+                codecTypes(CodecTypeRegistry.withDefaults()), 0, true);
+        return new LocalCacheSnapshot(applicationName, cacheManager, serializer, localCacheSnapshotProperties);
+    }
+
+    /**
+     * 本服务缓存值类型的编码别名，别名会写入 Redis 中的数据，只能新增，不能修改
+     */
+    public static CodecTypeRegistry codecTypes(CodecTypeRegistry registry) {
+        return registry
+                .register("comment.node", CommentTreeNode.class)
+                .register("comment.author", Author.class);
     }
 }
@@ -6,6 +6,7 @@ import com.example.forum.comment.service.CommentService;
 import com.example.forum.comment.vo.CommentTreeNode;
 import com.example.forum.common.dto.Result;
 import com.example.forum.common.vo.PageResponse;
+import com.example.forum.common.metrics.Metered;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -40,6 +41,7 @@ public class CommentController {
 
     // 处理 /api/posts/{postId}/comments 路径（兼容单体应用的路径）
     @GetMapping("/api/posts/{postId}/comments")
+    @Metered("comment.page")
     public PageResponse<CommentTreeNode> pageCommentsForPost(@PathVariable Integer postId,
                                                              @RequestParam(defaultValue = "1") Integer page,
                                                              @RequestParam(defaultValue = "10") Integer size) {
@@ -48,6 +50,7 @@ public class CommentController {
 
     // 处理 /api/comments/posts/{postId} 路径（供内部调用）
     @GetMapping("/api/comments/posts/{postId}")
+    @Metered("comment.page")
     public PageResponse<CommentTreeNode> pageComments(@PathVariable Integer postId,
                                                       @RequestParam(defaultValue = "1") Integer page,
                                                       @RequestParam(defaultValue = "10") Integer size) {
@@ -76,6 +79,7 @@ public class CommentController {
 
     // 处理 /api/posts/{postId}/comments POST（兼容单体应用的路径）
     @PostMapping("/api/posts/{postId}/comments")
+    @Metered("comment.add")
     public ResponseEntity<CommentTreeNode> addCommentForPost(@PathVariable Integer postId,
                                                               @Valid @RequestBody PostCommentCreateRequest request) {
         // TODO: 从JWT token中解析用户ID
@@ -105,6 +109,7 @@ public class CommentController {
 
     // 处理 /api/comments/posts/{postId} POST（供内部调用）
     @PostMapping("/api/comments/posts/{postId}")
+    @Metered("comment.add")
     public ResponseEntity<CommentTreeNode> addComment(@PathVariable Integer postId,
                                                       @Valid @RequestBody PostCommentCreateRequest request) {
         // TODO: 从JWT token中解析用户ID
@@ -0,0 +1,40 @@
+package com.example.forum.comment.event;
+
+import com.example.forum.comment.service.CommentService;
+import com.example.forum.common.event.DomainEvent;
+import com.example.forum.common.event.DomainEventHandler;
+import com.example.forum.common.event.DomainEventType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 评论新增、删除后刷新帖子的评论分页缓存
+ *
+ * 原先在请求线程内（事务提交前）清除缓存并重新查询第一页，现在提交后异步执行，
+ * 同一批事件中同一帖子的多条评论只刷新一次。
+ */
+@Component
+@RequiredArgsConstructor
+public class CommentCacheEventHandler implements DomainEventHandler {
+
+    private final CommentService commentService;
+
+    @Override
+    public Set<DomainEventType> types() {
+        return EnumSet.of(DomainEventType.COMMENT_ADDED, DomainEventType.COMMENT_DELETED);
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        Set<Integer> postIds = new LinkedHashSet<>();
+        for (DomainEvent event : events) {
+            postIds.add(event.aggregateId());
+        }
+        postIds.forEach(commentService::refreshCommentCache);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.forum.comment.repo;
+
+import com.example.forum.common.event.DomainEventOutboxMapper;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 领域事件发件箱（SQL 见 {@link DomainEventOutboxMapper}）
+ */
+@Mapper
+public interface DomainEventOutboxRepo extends DomainEventOutboxMapper {
+}
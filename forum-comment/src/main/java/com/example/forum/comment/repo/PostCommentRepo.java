@@ -78,4 +78,27 @@ public interface PostCommentRepo extends BaseMapper<PostComment> {
     int softDeleteThread(@Param("postId") Integer postId,
                          @Param("rootId") Integer rootId,
                          @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * 创建时间早于一分钟前的最大主键，作为 ID 位图的覆盖上界（倒序扫描主键，很快命中）
+     */
+    @Select("""
+            SELECT id FROM post_comments
+            WHERE created_at < NOW() - INTERVAL 1 MINUTE
+            ORDER BY id DESC
+            LIMIT 1
+            """)
+    Integer selectExistenceMaxId();
+
+    /**
+     * 按主键分批扫描未删除记录的主键，用于构建 ID 位图
+     */
+    @Select("""
+            SELECT id FROM post_comments
+            WHERE id > #{afterId}
+              AND (deleted IS NULL OR deleted = 0)
+            ORDER BY id
+            LIMIT #{limit}
+            """)
+    List<Integer> selectIdsAfter(@Param("afterId") int afterId, @Param("limit") int limit);
 }
@@ -12,4 +12,9 @@ public interface CommentService {
     PostComment addComment(Integer postId, Integer userId, PostCommentCreateRequest request);
 
     void deleteComment(Integer postId, Integer commentId, Integer operatorId, String operatorRole);
+
+    /**
+     * 评论变化后清除该帖子的分页缓存并重新加载第一页（由评论领域事件处理方调用）
+     */
+    void refreshCommentCache(Integer postId);
 }
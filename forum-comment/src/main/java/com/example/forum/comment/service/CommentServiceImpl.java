@@ -6,22 +6,31 @@ import com.example.forum.comment.dto.PostCommentCreateRequest;
 import com.example.forum.comment.entity.Author;
 import com.example.forum.comment.entity.PostComment;
 import com.example.forum.comment.repo.PostCommentRepo;
+import com.example.forum.common.cache.IdExistenceFilter;
+import com.example.forum.common.cache.PostCounterWal;
+import com.example.forum.common.cache.PostMetricsKeys;
+import com.example.forum.common.cache.StaleWhileRevalidateCacheManager;
 import com.example.forum.common.dto.Result;
+import com.example.forum.common.event.DomainEvent;
+import com.example.forum.common.event.DomainEventPublisher;
 import com.example.forum.common.exception.ApiException;
+import com.example.forum.common.redis.RedisGuard;
 import com.example.forum.common.vo.PageResponse;
 import com.example.forum.comment.vo.CommentTreeNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -42,10 +51,21 @@ public class CommentServiceImpl implements CommentService {
     private final UserClient userClient;
     private final CacheManager cacheManager;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisGuard redisGuard;
+    private final PostCounterWal postCounterWal;
+    private final IdExistenceFilter commentExistenceFilter;
+    private final DomainEventPublisher domainEventPublisher;
+
+    private static final String COMMENTS_CACHE = "comments:page";
 
     @Override
-    @Cacheable(cacheNames = "comments:page", key = "#postId + ':' + #page + ':' + #size")
     public PageResponse<CommentTreeNode> pageComments(Integer postId, int page, int size) {
+        // 软过期后返回旧页面并后台刷新，数据库慢或异常时不阻塞请求
+        return StaleWhileRevalidateCacheManager.load(cacheManager.getCache(COMMENTS_CACHE),
+                postId + ":" + page + ":" + size, () -> loadCommentPage(postId, page, size));
+    }
+
+    private PageResponse<CommentTreeNode> loadCommentPage(Integer postId, int page, int size) {
         int safePage = Math.max(page, 1);
         int safeSize = Math.max(Math.min(size, 50), 1);
         long total = postCommentRepo.countRootComments(postId);
@@ -121,7 +141,10 @@ public class CommentServiceImpl implements CommentService {
         Integer parentId = request.getParentId();
         Integer rootId = null;
         if (parentId != null) {
-            PostComment parent = postCommentRepo.selectById(parentId);
+            PostComment parent = commentExistenceFilter.mightExist(parentId) ? postCommentRepo.selectById(parentId) : null;
+            if (parent == null) {
+                commentExistenceFilter.markMissing(parentId);
+            }
             if (parent == null || !postId.equals(parent.getPostId())) {
                 throw new IllegalArgumentException("父级评论不存在或已被删除");
             }
@@ -139,6 +162,7 @@ public class CommentServiceImpl implements CommentService {
                 .setCreatedAt(now)
                 .setUpdatedAt(now);
         postCommentRepo.insert(comment);
+        commentExistenceFilter.onInsert(comment.getId());
         if (comment.getRootId() == null) {
             comment.setRootId(comment.getId());
             PostComment update = new PostComment()
@@ -147,9 +171,8 @@ public class CommentServiceImpl implements CommentService {
             postCommentRepo.updateById(update);
         }
         incrementPostCommentCount(postId, 1);
-
-        evictPostCommentCache(postId);
-        refreshFirstPageCache(postId);
+        // 分页缓存在提交后由 CommentCacheEventHandler 刷新
+        domainEventPublisher.publish(DomainEvent.commentAdded(postId, comment.getId(), userId));
 
         return comment;
     }
@@ -171,8 +194,9 @@ public class CommentServiceImpl implements CommentService {
         }
         Integer postAuthorId = authorIdResult.getResult();
 
-        PostComment comment = postCommentRepo.selectById(commentId);
+        PostComment comment = commentExistenceFilter.mightExist(commentId) ? postCommentRepo.selectById(commentId) : null;
         if (comment == null || Boolean.TRUE.equals(comment.getDeleted())) {
+            commentExistenceFilter.markMissing(commentId);
             throw new ApiException(HttpStatus.NOT_FOUND, "评论不存在或已被删除");
         }
         if (!postId.equals(comment.getPostId())) {
@@ -192,10 +216,15 @@ public class CommentServiceImpl implements CommentService {
             log.error("评论删除失败，commentId={}，postId={}", commentId, postId);
             throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "删除评论失败");
         }
+        commentExistenceFilter.onDelete(commentId);
         incrementPostCommentCount(postId, -affected);
+        domainEventPublisher.publish(DomainEvent.commentDeleted(postId, commentId, operatorId, affected));
         log.info("评论删除成功，commentId={}，postId={}，operatorId={}，影响行数={}",
                 commentId, postId, operatorId, affected);
+    }
 
+    @Override
+    public void refreshCommentCache(Integer postId) {
         evictPostCommentCache(postId);
         refreshFirstPageCache(postId);
     }
@@ -228,26 +257,46 @@ public class CommentServiceImpl implements CommentService {
     /**
      * 更新帖子评论数（仅更新Redis增量，不更新MySQL）
      * 
-     * 策略：使用 INCR 原子操作更新 Redis 增量，定时任务 PostMetricsSyncJob 每5分钟持久化到 MySQL
+     * 策略：使用 INCR 原子操作更新 Redis 增量，并登记到 post:metrics:dirty，
+     * 由帖子服务的定时任务 PostMetricsSyncJob 批量持久化到 post_stats；
+     * 当日计数桶 post:daily:{date}:{postId} 由 PostStatsDailyJob 汇总到 post_stats_daily
      * Redis Hash: post:metrics:{postId} -> {comments: 增量值}
      * 
      * 与浏览量、点赞保持一致的增量模式
      */
     private void incrementPostCommentCount(Integer postId, int delta) {
-        String metricsKey = "post:metrics:" + postId;
+        String metricsKey = PostMetricsKeys.metrics(postId);
+        LocalDate today = LocalDate.now();
+        String dailyKey = PostMetricsKeys.daily(today, postId);
+        String dailyIndexKey = PostMetricsKeys.dailyIndex(today);
         
-        // 使用原子 INCR 操作更新 Redis 增量
-        try {
-            redisTemplate.opsForHash().increment(metricsKey, "comments", delta);
+        // 使用原子 INCR 操作更新 Redis 增量，同时累加当日计数桶（一次 pipeline）；
+        // 熔断或失败时写入本地 WAL，Redis 恢复后重放
+        boolean written = redisGuard.run("comment.count.increment", () ->
+                redisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <K, V> Object execute(RedisOperations<K, V> operations) {
+                        RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                        ops.opsForHash().increment(metricsKey, "comments", delta);
+                        ops.opsForSet().add(PostMetricsKeys.DIRTY_SET, postId);
+                        ops.opsForHash().increment(dailyKey, "comments", delta);
+                        ops.expire(dailyKey, PostMetricsKeys.DAILY_TTL);
+                        ops.opsForSet().add(dailyIndexKey, postId);
+                        ops.expire(dailyIndexKey, PostMetricsKeys.DAILY_TTL);
+                        return null;
+                    }
+                }));
+        if (written) {
             log.debug("增量更新Redis评论数: postId={}, delta={} (MySQL将由定时任务同步)", postId, delta);
-        } catch (Exception e) {
-            log.error("更新Redis评论数失败: postId={}, delta={}, error={}", postId, delta, e.getMessage());
+        } else {
+            postCounterWal.append(postId, "comments", delta);
         }
     }
 
     private void evictPostCommentCache(Integer postId) {
         try {
-            Cache cache = cacheManager.getCache("comments:page");
+            Cache cache = cacheManager.getCache(COMMENTS_CACHE);
             if (cache != null) {
                 // 清除所有可能的缓存key组合（常见的page和size组合）
                 int[] pages = {1, 2, 3, 4, 5};
@@ -270,7 +319,7 @@ public class CommentServiceImpl implements CommentService {
     private void refreshFirstPageCache(Integer postId) {
         try {
             // 先清除第一页缓存，确保重新查询
-            Cache cache = cacheManager.getCache("comments:page");
+            Cache cache = cacheManager.getCache(COMMENTS_CACHE);
             if (cache != null) {
                 int defaultPage = 1;
                 int defaultSize = 10;
@@ -278,7 +327,7 @@ public class CommentServiceImpl implements CommentService {
                 cache.evict(cacheKey);
                 log.debug("已清除第一页评论缓存：postId={}, cacheKey={}", postId, cacheKey);
             }
-            // 重新查询并自动缓存（pageComments方法有@Cacheable注解）
+            // 重新查询并写入缓存
             pageComments(postId, 1, 10);
             log.debug("已刷新评论缓存：postId={}", postId);
         } catch (Exception e) {
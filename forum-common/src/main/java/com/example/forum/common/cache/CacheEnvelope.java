@@ -0,0 +1,21 @@
+package com.example.forum.common.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 带软/硬过期时间的缓存条目，见 {@link StaleWhileRevalidateCacheManager}
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheEnvelope {
+    private Object value;
+    // 超过该时间（毫秒时间戳）返回旧值并在后台刷新
+    private long softExpireAt;
+    // 超过该时间必须同步回源，回源失败时在宽限期内继续返回旧值
+    private long hardExpireAt;
+    // 上次回源耗时（毫秒），用于提前刷新的概率计算
+    private long computeMillis;
+}
@@ -0,0 +1,178 @@
+package com.example.forum.common.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 滑动窗口热点 key 探测：Count-Min Sketch 估计访问次数，周期性从候选中选出 Top-K。
+ *
+ * 窗口按时间分为多个分片，每个分片一个 Sketch；记录时只写当前分片，估计时对所有分片求和，
+ * {@link #rotate()} 清空最旧的分片并把它作为新的当前分片。
+ * 记录路径只做数组原子递增和一次集合查询，不分配对象（key 首次超过阈值进入候选集时除外）。
+ * 已是热点的 key 按 1/{@value #HOT_SAMPLE} 采样计数（每次加 {@value #HOT_SAMPLE}），减少多线程对同一计数器的争用。
+ * 估计值只会偏大（哈希冲突），因此候选集在轮转时按估计值重新筛选，最多保留 topK 个。
+ */
+public class HotKeyDetector {
+
+    /**
+     * 热点 key 及其窗口内的估计访问次数
+     */
+    public record HotKey(Object key, long count) {
+    }
+
+    private static final int HOT_SAMPLE = 8;
+
+    private final int width;
+    private final int mask;
+    private final int depth;
+    private final int topK;
+    private final int threshold;
+    private final int maxCandidates;
+    private final AtomicIntegerArray[] slices;
+    private volatile int current;
+
+    // 估计值达到阈值的 key，轮转时从中选出 Top-K
+    private final Map<Object, Boolean> candidates = new ConcurrentHashMap<>();
+    private volatile Set<Object> hotKeys = Set.of();
+    private volatile List<HotKey> snapshot = List.of();
+
+    public HotKeyDetector(int width, int depth, int sliceCount, int topK, int threshold) {
+        this.width = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.mask = this.width - 1;
+        this.depth = depth;
+        this.topK = topK;
+        this.threshold = threshold;
+        this.maxCandidates = topK * 8;
+        this.slices = new AtomicIntegerArray[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new AtomicIntegerArray(this.width * depth);
+        }
+    }
+
+    /**
+     * 记录一次访问，返回该 key 当前是否为热点（以上次轮转的结果为准）
+     */
+    public boolean record(Object key) {
+        boolean hot = hotKeys.contains(key);
+        if (hot && ThreadLocalRandom.current().nextInt(HOT_SAMPLE) != 0) {
+            return true;
+        }
+        int weight = hot ? HOT_SAMPLE : 1;
+        int h1 = mix(key.hashCode());
+        int h2 = mix(h1 ^ 0x9e3779b9) | 1;
+        AtomicIntegerArray slice = slices[current];
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + ((h1 + row * h2) & mask);
+            slice.addAndGet(index, weight);
+            estimate = Math.min(estimate, sum(index));
+        }
+        if (!hot && estimate >= threshold && candidates.size() < maxCandidates && !candidates.containsKey(key)) {
+            candidates.putIfAbsent(key, Boolean.TRUE);
+        }
+        return hot;
+    }
+
+    /**
+     * 以给定的访问次数预置热点 key（用于重启后从快照恢复），立即视为热点；
+     * 计数写入当前分片，随窗口轮转自然淘汰，期间没有新访问的 key 最多保留一个窗口
+     */
+    public void seed(Map<Object, Long> counts) {
+        AtomicIntegerArray slice = slices[current];
+        Set<Object> keys = new HashSet<>(hotKeys);
+        counts.forEach((key, count) -> {
+            int weight = (int) Math.min(Math.max(count, threshold), Integer.MAX_VALUE / depth);
+            int h1 = mix(key.hashCode());
+            int h2 = mix(h1 ^ 0x9e3779b9) | 1;
+            for (int row = 0; row < depth; row++) {
+                slice.addAndGet(row * width + ((h1 + row * h2) & mask), weight);
+            }
+            candidates.putIfAbsent(key, Boolean.TRUE);
+            keys.add(key);
+        });
+        hotKeys = Set.copyOf(keys);
+    }
+
+    public boolean isHot(Object key) {
+        return hotKeys.contains(key);
+    }
+
+    /**
+     * 窗口内的估计访问次数（不小于实际次数）
+     */
+    public long estimate(Object key) {
+        int h1 = mix(key.hashCode());
+        int h2 = mix(h1 ^ 0x9e3779b9) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, sum(row * width + ((h1 + row * h2) & mask)));
+        }
+        return estimate;
+    }
+
+    /**
+     * 淘汰最旧的分片并重新选出热点 key，由调用方按 窗口 / 分片数 的间隔调用
+     */
+    public void rotate() {
+        int next = (current + 1) % slices.length;
+        AtomicIntegerArray oldest = slices[next];
+        for (int i = 0; i < oldest.length(); i++) {
+            oldest.set(i, 0);
+        }
+        current = next;
+
+        PriorityQueue<HotKey> heap = new PriorityQueue<>(topK + 1, Comparator.comparingLong(HotKey::count));
+        for (Object key : candidates.keySet()) {
+            long count = estimate(key);
+            if (count < threshold) {
+                candidates.remove(key);
+                continue;
+            }
+            heap.offer(new HotKey(key, count));
+            if (heap.size() > topK) {
+                candidates.remove(heap.poll().key());
+            }
+        }
+        List<HotKey> selected = new ArrayList<>(heap);
+        selected.sort(Comparator.comparingLong(HotKey::count).reversed());
+        Set<Object> keys = new HashSet<>();
+        for (HotKey hotKey : selected) {
+            keys.add(hotKey.key());
+        }
+        hotKeys = Set.copyOf(keys);
+        snapshot = List.copyOf(selected);
+    }
+
+    /**
+     * 上次轮转时的热点 key，按估计访问次数降序
+     */
+    public List<HotKey> getHotKeys() {
+        return snapshot;
+    }
+
+    private long sum(int index) {
+        long total = 0;
+        for (AtomicIntegerArray slice : slices) {
+            total += slice.get(index);
+        }
+        return total;
+    }
+
+    // murmur3 fmix32
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
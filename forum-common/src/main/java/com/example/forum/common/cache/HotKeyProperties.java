@@ -0,0 +1,46 @@
+package com.example.forum.common.cache;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * 热点 key 探测与本地副本配置（forum.cache.hot-key.*）
+ */
+@Data
+public class HotKeyProperties {
+
+    /**
+     * 是否开启热点探测和本地副本
+     */
+    private boolean enabled = true;
+
+    /**
+     * 滑动窗口长度，按 slices 等分，每个分片结束时轮转一次
+     */
+    private Duration window = Duration.ofSeconds(10);
+
+    private int slices = 5;
+
+    /**
+     * Count-Min Sketch 每行计数器数（取不小于该值的 2 的幂）和行数
+     */
+    private int width = 2048;
+
+    private int depth = 4;
+
+    /**
+     * 每个缓存最多保留的热点 key 数
+     */
+    private int topK = 32;
+
+    /**
+     * 本实例窗口内访问次数达到该值才视为热点
+     */
+    private int threshold = 100;
+
+    /**
+     * 热点 key 本地副本的有效期，其他实例的失效最多延迟该时长可见
+     */
+    private Duration localTtl = Duration.ofSeconds(1);
+}
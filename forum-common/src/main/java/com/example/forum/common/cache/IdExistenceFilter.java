@@ -0,0 +1,397 @@
+package com.example.forum.common.cache;
+
+import com.example.forum.common.redis.RedisGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * 按自增主键判断记录是否可能存在，用于在查询数据库前拒绝明显不存在的 ID（已删除的记录、爬虫枚举）。
+ *
+ * 判断顺序：
+ * <ol>
+ *     <li>负缓存：查询后确认不存在的 ID 在本地缓存一段时间。自增 ID 不会复用，因此负缓存不需要跨实例失效</li>
+ *     <li>位图：启动时（及之后定期）按主键分批扫描全表，构建 [1, builtMaxId] 内存在 ID 的位图。
+ *     自增 ID 基本连续，位图比同等误判率的 Bloom 过滤器更小且没有误判</li>
+ *     <li>ID 范围：位图之外的 ID 与全局最大 ID 比较。最大 ID 在本地缓存，超出本地值时读取 Redis 中的
+ *     idfilter:{table}:max（各实例插入后更新，每分钟重新写入一次以便 Redis 重启后恢复）</li>
+ * </ol>
+ * 位图只对"已确认"范围内的 ID 直接给出不存在：上一次扫描的 builtMaxId 之内的 ID 分配时间早于一个重建间隔，
+ * 两次扫描都不存在说明不是尚未提交的插入。更大的 ID 可能是扫描经过之后才提交的插入（包括其他实例的插入），
+ * 位图和范围判断都不能作为依据，按"可能存在"交给调用方查询数据库，查询结果不存在时由调用方写入负缓存；
+ * 为防止枚举请求压垮数据库，这部分查询限制为每秒 {@value #MAX_FALL_THROUGH_PER_SECOND} 次，
+ * 超出后才回退到位图和范围判断。Redis 中的最大 ID 不存在（如 Redis 重启后尚未重新写入）或不可用时视为未知，
+ * 按"可能存在"处理，不用本地值代替。
+ * 首次扫描完成前只使用负缓存。
+ */
+@Slf4j
+public class IdExistenceFilter {
+
+    // 位图上限（约 32MB），超出时只使用范围判断和负缓存
+    private static final int MAX_BITMAP_ID = 256 * 1024 * 1024;
+    private static final int SCAN_BATCH = 10_000;
+    private static final int MAX_NEGATIVE_ENTRIES = 100_000;
+    private static final Object UNAVAILABLE = new Object();
+    // 未确认范围内的 ID 每秒最多交给数据库判断的次数
+    private static final int MAX_FALL_THROUGH_PER_SECOND = 100;
+
+    // 只在新值更大时写入
+    private static final RedisScript<Long> SET_MAX_SCRIPT = new DefaultRedisScript<>("""
+            local current = tonumber(redis.call('GET', KEYS[1]) or '0')
+            if tonumber(ARGV[1]) > current then
+              redis.call('SET', KEYS[1], ARGV[1])
+              return 1
+            end
+            return 0
+            """, Long.class);
+
+    private final String table;
+    private final String maxKey;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisGuard redisGuard;
+    private final Supplier<Integer> maxIdLoader;
+    private final BiFunction<Integer, Integer, List<Integer>> idPageLoader;
+    private final Duration negativeTtl;
+    private final Duration rebuildInterval;
+
+    private volatile Bitmap bitmap;
+    // 正在扫描的位图，扫描期间本实例提交的插入同时写入，避免扫描经过后提交的 ID 在新位图中缺失
+    private volatile Bitmap building;
+    // 位图可以直接判定不存在的上界（上一次扫描的 builtMaxId）
+    private volatile int confirmedMaxId;
+    // 首次扫描完成前最大 ID 未知，只使用负缓存
+    private volatile boolean ready;
+    private final AtomicLong knownMaxId = new AtomicLong();
+    private final Map<Integer, Long> negative = new ConcurrentHashMap<>();
+    private final AtomicLong fallThroughSecond = new AtomicLong();
+    private final AtomicInteger fallThroughCount = new AtomicInteger();
+
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong rejectedByRange = new AtomicLong();
+    private final AtomicLong rejectedByBitmap = new AtomicLong();
+    private final AtomicLong rejectedByNegative = new AtomicLong();
+    private final AtomicLong markedMissing = new AtomicLong();
+    private final AtomicLong fellThrough = new AtomicLong();
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param table 表名（用于 Redis key、日志和统计）
+     * @param redisTemplate Redis 模板
+     * @param redisGuard Redis 访问保护层
+     * @param maxIdLoader 查询位图覆盖范围的上界，空表返回 null。应取创建时间早于一分钟前的最大主键，
+     *                    避开已分配主键但尚未提交的插入（否则这些 ID 会被位图误判为不存在）
+     * @param idPageLoader 按主键分批查询：(afterId, limit) -> 大于 afterId 的主键，升序
+     * @param negativeTtl 负缓存时长
+     * @param rebuildInterval 位图重建间隔
+     */
+    public IdExistenceFilter(String table,
+                             RedisTemplate<String, Object> redisTemplate,
+                             RedisGuard redisGuard,
+                             Supplier<Integer> maxIdLoader,
+                             BiFunction<Integer, Integer, List<Integer>> idPageLoader,
+                             Duration negativeTtl,
+                             Duration rebuildInterval) {
+        this.table = table;
+        this.maxKey = "idfilter:" + table + ":max";
+        this.redisTemplate = redisTemplate;
+        this.redisGuard = redisGuard;
+        this.maxIdLoader = maxIdLoader;
+        this.idPageLoader = idPageLoader;
+        this.negativeTtl = negativeTtl;
+        this.rebuildInterval = rebuildInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "id-filter-" + table);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::purgeNegative, 1, 1, TimeUnit.MINUTES);
+        scheduler.scheduleWithFixedDelay(this::republishMaxId, 1, 1, TimeUnit.MINUTES);
+    }
+
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * ID 是否可能存在；返回 false 时不查询数据库。未确认范围内的 ID 只在超出每秒查询上限时才可能被误判为不存在
+     */
+    public boolean mightExist(Integer id) {
+        checks.incrementAndGet();
+        if (id == null || id <= 0) {
+            rejectedByRange.incrementAndGet();
+            return false;
+        }
+        Long expireAt = negative.get(id);
+        if (expireAt != null) {
+            if (expireAt > System.currentTimeMillis()) {
+                rejectedByNegative.incrementAndGet();
+                return false;
+            }
+            negative.remove(id, expireAt);
+        }
+        if (!ready) {
+            return true;
+        }
+        // 先读 confirmedMaxId 再读 bitmap，与 rebuild 的写入顺序相反，保证上界不会超出读到的位图
+        int confirmed = confirmedMaxId;
+        Bitmap current = bitmap;
+        boolean inBitmap = current != null && id <= current.maxId();
+        if (inBitmap && current.get(id)) {
+            return true;
+        }
+        if (inBitmap && id <= confirmed) {
+            rejectedByBitmap.incrementAndGet();
+            return false;
+        }
+        // 未确认范围内的 ID 以数据库为准
+        if (tryFallThrough()) {
+            fellThrough.incrementAndGet();
+            return true;
+        }
+        if (inBitmap) {
+            rejectedByBitmap.incrementAndGet();
+            return false;
+        }
+        if (id > knownMaxId.get() && id > refreshMaxId()) {
+            rejectedByRange.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 记录查询后确认不存在的 ID
+     */
+    public void markMissing(Integer id) {
+        if (id == null || id <= 0) {
+            return;
+        }
+        if (negative.size() >= MAX_NEGATIVE_ENTRIES) {
+            purgeNegative();
+            if (negative.size() >= MAX_NEGATIVE_ENTRIES) {
+                return;
+            }
+        }
+        negative.put(id, System.currentTimeMillis() + negativeTtl.toMillis());
+        markedMissing.incrementAndGet();
+    }
+
+    /**
+     * 新记录插入后调用：事务提交后再更新最大 ID，避免其他实例在提交前查到"不存在"并写入负缓存
+     */
+    public void onInsert(Integer id) {
+        if (id == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    onCommitted(id);
+                }
+            });
+        } else {
+            onCommitted(id);
+        }
+    }
+
+    private void onCommitted(Integer id) {
+        for (Bitmap target : new Bitmap[]{bitmap, building}) {
+            if (target != null && id > 0 && id <= target.maxId()) {
+                target.set(id);
+            }
+        }
+        publishMaxId(id);
+    }
+
+    /**
+     * 记录删除后调用（只影响本实例，其他实例查询数据库后自行写入负缓存）
+     */
+    public void onDelete(Integer id) {
+        Bitmap current = bitmap;
+        if (current != null && id != null && id > 0 && id <= current.maxId()) {
+            current.clear(id);
+        }
+        markMissing(id);
+    }
+
+    public Map<String, Object> getStats() {
+        Bitmap current = bitmap;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("table", table);
+        stats.put("bitmapMaxId", current != null ? current.maxId() : null);
+        stats.put("bitmapIds", current != null ? current.count() : null);
+        stats.put("confirmedMaxId", confirmedMaxId);
+        stats.put("knownMaxId", knownMaxId.get());
+        stats.put("negativeEntries", negative.size());
+        stats.put("checks", checks.get());
+        stats.put("rejectedByRange", rejectedByRange.get());
+        stats.put("rejectedByBitmap", rejectedByBitmap.get());
+        stats.put("rejectedByNegative", rejectedByNegative.get());
+        stats.put("markedMissing", markedMissing.get());
+        stats.put("fellThrough", fellThrough.get());
+        return stats;
+    }
+
+    /**
+     * 重新扫描全表构建位图
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Integer maxId = maxIdLoader.get();
+        int limit = maxId != null ? maxId : 0;
+        Bitmap built = limit <= MAX_BITMAP_ID ? new Bitmap(limit) : null;
+        if (built == null) {
+            log.warn("主键超出位图上限，只使用范围判断和负缓存: table={}, maxId={}", table, limit);
+        }
+        // 扫描开始前登记：之后提交的插入要么被扫描读到，要么由 onCommitted 写入
+        building = built;
+        // 扫描到表尾：位图只覆盖 [1, limit]，之后的主键用于更新最大 ID
+        int afterId = built != null ? 0 : limit;
+        try {
+            while (true) {
+                List<Integer> ids = idPageLoader.apply(afterId, SCAN_BATCH);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                for (Integer id : ids) {
+                    if (built != null && id <= limit) {
+                        built.set(id);
+                    }
+                }
+                afterId = ids.get(ids.size() - 1);
+            }
+        } finally {
+            building = null;
+        }
+        Bitmap previous = bitmap;
+        bitmap = built;
+        // 上一次扫描范围内的 ID 已分配超过一个重建间隔，本次扫描仍不存在即可确认
+        confirmedMaxId = built != null && previous != null ? Math.min(previous.maxId(), limit) : 0;
+        publishMaxId(Math.max(limit, afterId));
+        ready = true;
+        log.info("ID 位图已构建: table={}, maxId={}, ids={}, elapsedMs={}",
+                table, limit, built != null ? built.count() : 0, System.currentTimeMillis() - start);
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("ID 位图构建失败: table={}, error={}", table, e.getMessage());
+        }
+    }
+
+    private void publishMaxId(int id) {
+        knownMaxId.accumulateAndGet(id, Math::max);
+        redisGuard.run("idfilter.max", () -> redisTemplate.execute(SET_MAX_SCRIPT, List.of(maxKey), id));
+    }
+
+    /**
+     * 定期重新写入本地已知的最大 ID：补上写入失败的更新，Redis 重启丢失 key 后恢复
+     */
+    private void republishMaxId() {
+        long id = knownMaxId.get();
+        if (id > 0) {
+            redisGuard.run("idfilter.max", () -> redisTemplate.execute(SET_MAX_SCRIPT, List.of(maxKey), id));
+        }
+    }
+
+    /**
+     * 领取一次交给数据库判断的名额（按秒计数）
+     */
+    private boolean tryFallThrough() {
+        long second = System.currentTimeMillis() / 1000;
+        long window = fallThroughSecond.get();
+        if (window != second && fallThroughSecond.compareAndSet(window, second)) {
+            fallThroughCount.set(0);
+        }
+        return fallThroughCount.incrementAndGet() <= MAX_FALL_THROUGH_PER_SECOND;
+    }
+
+    /**
+     * 从 Redis 读取其他实例插入后更新的最大 ID；key 不存在或 Redis 不可用时最大 ID 未知，
+     * 返回 Long.MAX_VALUE（按"可能存在"处理）
+     */
+    private long refreshMaxId() {
+        Object value = redisGuard.execute("idfilter.max", () -> redisTemplate.opsForValue().get(maxKey),
+                () -> UNAVAILABLE);
+        if (value == UNAVAILABLE) {
+            return Long.MAX_VALUE;
+        }
+        if (value instanceof Number number) {
+            return knownMaxId.accumulateAndGet(number.longValue(), Math::max);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private void purgeNegative() {
+        long now = System.currentTimeMillis();
+        for (Iterator<Map.Entry<Integer, Long>> it = negative.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getValue() <= now) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * [1, maxId] 范围内的并发安全位图
+     */
+    private static final class Bitmap {
+
+        private final int maxId;
+        private final AtomicLongArray words;
+
+        Bitmap(int maxId) {
+            this.maxId = maxId;
+            this.words = new AtomicLongArray((maxId >>> 6) + 1);
+        }
+
+        int maxId() {
+            return maxId;
+        }
+
+        boolean get(int id) {
+            return (words.get(id >>> 6) & (1L << id)) != 0;
+        }
+
+        void set(int id) {
+            words.getAndAccumulate(id >>> 6, 1L << id, (a, b) -> a | b);
+        }
+
+        void clear(int id) {
+            words.getAndAccumulate(id >>> 6, ~(1L << id), (a, b) -> a & b);
+        }
+
+        long count() {
+            long count = 0;
+            for (int i = 0; i < words.length(); i++) {
+                count += Long.bitCount(words.get(i));
+            }
+            return count;
+        }
+    }
+}
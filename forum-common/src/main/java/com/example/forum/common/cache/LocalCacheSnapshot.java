@@ -0,0 +1,274 @@
+package com.example.forum.common.cache;
+
+import com.example.forum.common.cache.StaleWhileRevalidateCacheManager.LocalEntry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * 本地缓存快照：定期把 {@link StaleWhileRevalidateCacheManager} 的热点本地副本写入内存映射文件，
+ * 启动时映射并加载，重启后热点 key 立即由本地副本提供，不必等待一个探测窗口、也不必逐个访问 Redis。
+ *
+ * 文件 {dir}/{服务名}.snapshot：
+ * <pre>
+ * magic(4) version(4) createdAt(8) count(4) bodyLength(4) crc32c(4)
+ * 条目 = cacheLen(2) cache(UTF-8) hotCount(8) softExpireAt(8) hardExpireAt(8) computeMillis(8)
+ *       keyType(1) key(int 4 / long 8 / len(4) + UTF-8) valueLen(4) value(缓存值编码)
+ * </pre>
+ * 先写入临时文件并刷盘，再原子替换正式文件，进程在写入中途退出不会留下不完整的快照；
+ * 校验不通过、版本不符或超过 max-age 的快照直接忽略。
+ * 缓存值使用与 Redis 相同的编码；key 只支持 Integer、Long、String，其他类型的条目不写入快照。
+ * 恢复的条目保留原有的软/硬过期时间，并在第一次读取时向 Redis 验证（见 {@link StaleWhileRevalidateCacheManager}）。
+ */
+@Slf4j
+public class LocalCacheSnapshot implements AutoCloseable {
+
+    private static final int MAGIC = 0x464c4353;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 28;
+
+    private static final byte KEY_INT = 1;
+    private static final byte KEY_LONG = 2;
+    private static final byte KEY_STRING = 3;
+
+    private final String name;
+    private final StaleWhileRevalidateCacheManager cacheManager;
+    private final RedisSerializer<Object> serializer;
+    private final LocalCacheSnapshotProperties properties;
+    private final Path file;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cache-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile int restoredEntries;
+    private volatile long restoreMillis;
+    private volatile long lastSavedAt;
+    private volatile int lastSavedEntries;
+    private volatile long lastSavedBytes;
+
+    public LocalCacheSnapshot(String name,
+                              StaleWhileRevalidateCacheManager cacheManager,
+                              RedisSerializer<Object> serializer,
+                              LocalCacheSnapshotProperties properties) {
+        this.name = name;
+        this.cacheManager = cacheManager;
+        this.serializer = serializer;
+        this.properties = properties;
+        this.file = Paths.get(properties.getDir(), name + ".snapshot").toAbsolutePath().normalize();
+    }
+
+    /**
+     * 恢复上次保存的快照并开始定期保存
+     */
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        restore();
+        long interval = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::saveQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止定期保存，最后保存一次
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        if (properties.isEnabled()) {
+            saveQuietly();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("file", file.toString());
+        stats.put("restoredEntries", restoredEntries);
+        stats.put("restoreMillis", restoreMillis);
+        stats.put("lastSavedAt", lastSavedAt);
+        stats.put("lastSavedEntries", lastSavedEntries);
+        stats.put("lastSavedBytes", lastSavedBytes);
+        return stats;
+    }
+
+    /**
+     * 写入快照
+     * @return 写入的条目数
+     */
+    public int save() throws IOException {
+        List<LocalEntry> entries = cacheManager.exportLocalCopies();
+        List<byte[]> encoded = new ArrayList<>(entries.size());
+        int bodyLength = 0;
+        for (LocalEntry entry : entries) {
+            byte[] bytes = encode(entry);
+            if (bytes != null) {
+                encoded.add(bytes);
+                bodyLength += bytes.length;
+            }
+        }
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + bodyLength);
+            buffer.position(HEADER_SIZE);
+            for (byte[] bytes : encoded) {
+                buffer.put(bytes);
+                crc.update(bytes);
+            }
+            buffer.putInt(0, MAGIC)
+                    .putInt(4, VERSION)
+                    .putLong(8, System.currentTimeMillis())
+                    .putInt(16, encoded.size())
+                    .putInt(20, bodyLength)
+                    .putInt(24, (int) crc.getValue());
+            buffer.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lastSavedAt = System.currentTimeMillis();
+        lastSavedEntries = encoded.size();
+        lastSavedBytes = HEADER_SIZE + bodyLength;
+        return encoded.size();
+    }
+
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (Exception e) {
+            log.warn("保存本地缓存快照失败: name={}, file={}, error={}", name, file, e.getMessage());
+        }
+    }
+
+    private void restore() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            List<LocalEntry> entries = read(buffer);
+            if (entries == null) {
+                return;
+            }
+            restoredEntries = cacheManager.restoreLocalCopies(entries);
+            restoreMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("已从快照恢复本地缓存: name={}, entries={}, restored={}, bytes={}, millis={}",
+                    name, entries.size(), restoredEntries, channel.size(), restoreMillis);
+        } catch (Exception e) {
+            log.warn("本地缓存快照无法读取，已忽略: name={}, file={}, error={}", name, file, e.getMessage());
+        }
+    }
+
+    /**
+     * 校验并解码快照，无效或过期时返回 null
+     */
+    private List<LocalEntry> read(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            log.warn("本地缓存快照格式不符，已忽略: name={}, file={}", name, file);
+            return null;
+        }
+        long createdAt = buffer.getLong(8);
+        int count = buffer.getInt(16);
+        int bodyLength = buffer.getInt(20);
+        if (System.currentTimeMillis() - createdAt > properties.getMaxAge().toMillis()) {
+            log.info("本地缓存快照已过期，不再恢复: name={}, createdAt={}", name, createdAt);
+            return null;
+        }
+        if (bodyLength < 0 || buffer.capacity() != HEADER_SIZE + bodyLength) {
+            log.warn("本地缓存快照长度不符，已忽略: name={}, file={}", name, file);
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(HEADER_SIZE, bodyLength));
+        if ((int) crc.getValue() != buffer.getInt(24)) {
+            log.warn("本地缓存快照校验失败，已忽略: name={}, file={}", name, file);
+            return null;
+        }
+        buffer.position(HEADER_SIZE);
+        List<LocalEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] cache = new byte[buffer.getShort() & 0xffff];
+            buffer.get(cache);
+            long hotCount = buffer.getLong();
+            long softExpireAt = buffer.getLong();
+            long hardExpireAt = buffer.getLong();
+            long computeMillis = buffer.getLong();
+            Object key = switch (buffer.get()) {
+                case KEY_INT -> buffer.getInt();
+                case KEY_LONG -> buffer.getLong();
+                case KEY_STRING -> readString(buffer);
+                default -> throw new IllegalStateException("未知的 key 类型");
+            };
+            byte[] value = new byte[buffer.getInt()];
+            buffer.get(value);
+            entries.add(new LocalEntry(new String(cache, StandardCharsets.UTF_8), key, hotCount,
+                    new CacheEnvelope(serializer.deserialize(value), softExpireAt, hardExpireAt, computeMillis)));
+        }
+        return entries;
+    }
+
+    private byte[] encode(LocalEntry entry) {
+        byte[] key;
+        byte keyType;
+        if (entry.key() instanceof Integer id) {
+            keyType = KEY_INT;
+            key = ByteBuffer.allocate(4).putInt(id).array();
+        } else if (entry.key() instanceof Long id) {
+            keyType = KEY_LONG;
+            key = ByteBuffer.allocate(8).putLong(id).array();
+        } else if (entry.key() instanceof String text) {
+            keyType = KEY_STRING;
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            key = ByteBuffer.allocate(4 + bytes.length).putInt(bytes.length).put(bytes).array();
+        } else {
+            return null;
+        }
+        byte[] value = serializer.serialize(entry.envelope().getValue());
+        if (value == null) {
+            return null;
+        }
+        byte[] cache = entry.cache().getBytes(StandardCharsets.UTF_8);
+        CacheEnvelope envelope = entry.envelope();
+        return ByteBuffer.allocate(2 + cache.length + 32 + 1 + key.length + 4 + value.length)
+                .putShort((short) cache.length)
+                .put(cache)
+                .putLong(entry.count())
+                .putLong(envelope.getSoftExpireAt())
+                .putLong(envelope.getHardExpireAt())
+                .putLong(envelope.getComputeMillis())
+                .put(keyType)
+                .put(key)
+                .putInt(value.length)
+                .put(value)
+                .array();
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
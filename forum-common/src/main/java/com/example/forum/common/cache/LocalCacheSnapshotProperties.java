@@ -0,0 +1,32 @@
+package com.example.forum.common.cache;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * 本地缓存快照配置（forum.cache.snapshot.*）
+ */
+@Data
+public class LocalCacheSnapshotProperties {
+
+    /**
+     * 是否定期保存快照并在启动时恢复
+     */
+    private boolean enabled = true;
+
+    /**
+     * 快照目录，文件名为 {服务名}.snapshot
+     */
+    private String dir = "./data/cache-snapshot";
+
+    /**
+     * 保存间隔，停机时另外保存一次
+     */
+    private Duration interval = Duration.ofSeconds(30);
+
+    /**
+     * 超过该时长的快照启动时不再恢复
+     */
+    private Duration maxAge = Duration.ofMinutes(10);
+}
@@ -0,0 +1,360 @@
+package com.example.forum.common.cache;
+
+import com.example.forum.common.redis.RedisKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Redis 不可用时的帖子计数本地预写日志（WAL）。
+ *
+ * 降级期间的计数增量追加写入本地文件 {dir}/{walId}.wal，同时在内存中按帖子汇总，
+ * 读取计数时与数据库基准值、Redis 增量合并，保证页面上的数字不回退。
+ * Redis 恢复后按批次重放：每条记录用脚本写入计数 Hash，同时在与之同槽位的标记 Hash（{计数key}:wal）
+ * 中记录该文件已应用到的序号，序号不大于标记的记录直接跳过；整批成功后把最后一条记录的序号写入
+ * post:metrics:wal:{walId} 作为进度，再次重放时整批跳过。脚本只涉及同槽位的 key，集群模式下同样适用，
+ * 因此重放中途失败或进程重启后再次重放也只会生效一次。文件全部重放后删除。
+ */
+@Slf4j
+public class PostCounterWal {
+
+    private static final int RECORD_SIZE = 32;
+    private static final int PAYLOAD_SIZE = 28;
+    private static final Duration MARKER_TTL = Duration.ofDays(7);
+    /**
+     * 对一个计数 Hash 恰好应用一次增量：KEYS[2] 是与计数 Hash 同槽位的标记 Hash，记录每个 WAL 文件已应用到的序号
+     * ARGV: walId, 序号, 字段, 增量, 计数 Hash 的 TTL（毫秒，0 表示不设置）, 标记 TTL（毫秒）
+     */
+    private static final RedisScript<Long> APPLY_ONCE_SCRIPT = new DefaultRedisScript<>("""
+            local applied = tonumber(redis.call('HGET', KEYS[2], ARGV[1]) or '0')
+            if tonumber(ARGV[2]) <= applied then return 0 end
+            redis.call('HINCRBY', KEYS[1], ARGV[3], ARGV[4])
+            if tonumber(ARGV[5]) > 0 then redis.call('PEXPIRE', KEYS[1], ARGV[5]) end
+            redis.call('HSET', KEYS[2], ARGV[1], ARGV[2])
+            redis.call('PEXPIRE', KEYS[2], ARGV[6])
+            return 1
+            """, Long.class);
+
+    private static final GenericToStringSerializer<Long> LONG_RESULT = new GenericToStringSerializer<>(Long.class);
+    private static final long FORCE_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final Path directory;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final boolean includeDaily;
+    private final int batchSize;
+
+    // 已关闭、等待重放的文件（按写入顺序）
+    private final List<Path> sealed = new ArrayList<>();
+    private final Object replayLock = new Object();
+
+    private FileChannel channel;
+    private Path current;
+    private long sequence;
+    private long lastForce;
+
+    // postId -> {views, likes, comments} 尚未重放的增量
+    private final Map<Integer, long[]> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failedAppends = new AtomicLong();
+
+    /**
+     * @param directory WAL 目录（每个服务独立）
+     * @param redisTemplate Redis 模板
+     * @param includeDaily 重放时是否同时写入日计数桶（帖子服务的日计数由本地缓冲自行重试，无需重放）
+     * @param batchSize 每批重放（一个 pipeline）包含的记录数
+     */
+    public PostCounterWal(Path directory, RedisTemplate<String, Object> redisTemplate, boolean includeDaily, int batchSize) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.redisTemplate = redisTemplate;
+        this.includeDaily = includeDaily;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 加载上次运行遗留的 WAL 文件，恢复内存中的待重放增量
+     */
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().endsWith(".wal"))
+                    .sorted((a, b) -> {
+                        try {
+                            return Files.getLastModifiedTime(a).compareTo(Files.getLastModifiedTime(b));
+                        } catch (IOException e) {
+                            return 0;
+                        }
+                    })
+                    .toList();
+        }
+        for (Path file : files) {
+            List<Record> records = readRecords(file);
+            records.forEach(record -> addPending(record.postId(), record.field(), record.delta()));
+            synchronized (this) {
+                sealed.add(file);
+            }
+            log.info("发现未重放的计数 WAL: file={}, records={}", file.getFileName(), records.size());
+        }
+    }
+
+    /**
+     * 追加一条增量
+     * @param field 计数字段，见 {@link PostMetricsKeys#FIELDS}
+     * @return 是否写入成功
+     */
+    public boolean append(Integer postId, String field, long delta) {
+        int fieldIndex = PostMetricsKeys.FIELDS.indexOf(field);
+        if (postId == null || fieldIndex < 0 || delta == 0) {
+            return false;
+        }
+        synchronized (this) {
+            try {
+                if (channel == null) {
+                    current = directory.resolve(UUID.randomUUID() + ".wal");
+                    channel = FileChannel.open(current, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                    sequence = 0;
+                }
+                ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+                buffer.putLong(++sequence)
+                        .putInt((int) LocalDate.now().toEpochDay())
+                        .putInt(postId)
+                        .put((byte) fieldIndex)
+                        .put(new byte[3])
+                        .putLong(delta);
+                buffer.putInt(checksum(buffer.array()));
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                long now = System.nanoTime();
+                if (now - lastForce > FORCE_INTERVAL_NANOS) {
+                    channel.force(false);
+                    lastForce = now;
+                }
+            } catch (IOException e) {
+                failedAppends.incrementAndGet();
+                log.error("写入计数 WAL 失败，增量丢失: postId={}, field={}, delta={}", postId, field, delta, e);
+                return false;
+            }
+        }
+        addPending(postId, fieldIndex, delta);
+        appended.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 尚未重放的增量
+     * @return postId -> {views, likes, comments}，没有增量的帖子不在结果中
+     */
+    public Map<Integer, long[]> pending(Collection<Integer> postIds) {
+        if (pending.isEmpty()) {
+            return Map.of();
+        }
+        Map<Integer, long[]> result = new HashMap<>();
+        for (Integer postId : postIds) {
+            long[] deltas = pending.get(postId);
+            if (deltas != null) {
+                result.put(postId, deltas.clone());
+            }
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        synchronized (this) {
+            return channel == null && sealed.isEmpty();
+        }
+    }
+
+    /**
+     * 重放所有 WAL 文件，Redis 再次失败时抛出异常，未完成的部分留待下次重放
+     */
+    public void replay() {
+        synchronized (replayLock) {
+            List<Path> files;
+            synchronized (this) {
+                sealCurrent();
+                files = new ArrayList<>(sealed);
+            }
+            for (Path file : files) {
+                replayFile(file);
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("删除已重放的计数 WAL 失败: file={}, error={}", file.getFileName(), e.getMessage());
+                }
+                synchronized (this) {
+                    sealed.remove(file);
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("dir", directory.toString());
+        synchronized (this) {
+            stats.put("files", sealed.size() + (channel != null ? 1 : 0));
+        }
+        stats.put("pendingPosts", pending.size());
+        stats.put("appended", appended.get());
+        stats.put("replayed", replayed.get());
+        stats.put("skipped", skipped.get());
+        stats.put("failedAppends", failedAppends.get());
+        return stats;
+    }
+
+    private void sealCurrent() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            log.warn("关闭计数 WAL 失败: file={}, error={}", current.getFileName(), e.getMessage());
+        }
+        sealed.add(current);
+        channel = null;
+        current = null;
+    }
+
+    private void replayFile(Path file) {
+        List<Record> records;
+        try {
+            records = readRecords(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("读取计数 WAL 失败: " + file.getFileName(), e);
+        }
+        String fileName = file.getFileName().toString();
+        String walId = fileName.substring(0, fileName.length() - ".wal".length());
+        String markerKey = "post:metrics:wal:" + walId;
+        Object marker = redisTemplate.opsForValue().get(markerKey);
+        long applied = marker instanceof Number number ? number.longValue() : 0;
+
+        Set<String> counterMarkers = new HashSet<>();
+        for (int from = 0; from < records.size(); from += batchSize) {
+            List<Record> batch = records.subList(from, Math.min(from + batchSize, records.size()));
+            long lastSequence = batch.get(batch.size() - 1).sequence();
+            if (lastSequence <= applied) {
+                // 上次重放已应用，只需扣减内存中的待重放增量
+                batch.forEach(record -> addPending(record.postId(), record.field(), -record.delta()));
+                skipped.addAndGet(batch.size());
+                continue;
+            }
+            List<Record> toApply = batch.stream().filter(record -> record.sequence() > applied).toList();
+            applyBatch(walId, markerKey, toApply, lastSequence, counterMarkers);
+            batch.forEach(record -> addPending(record.postId(), record.field(), -record.delta()));
+            replayed.addAndGet(toApply.size());
+            skipped.addAndGet(batch.size() - toApply.size());
+        }
+        // 文件重放完成后即被删除，计数器标记不再需要（删除失败时随 TTL 过期）
+        try {
+            redisTemplate.delete(counterMarkers);
+        } catch (Exception e) {
+            log.debug("删除计数 WAL 重放标记失败: file={}, error={}", fileName, e.getMessage());
+        }
+        log.info("计数 WAL 已重放: file={}, records={}", fileName, records.size());
+    }
+
+    private void applyBatch(String walId, String markerKey, List<Record> records, long lastSequence,
+                            Set<String> counterMarkers) {
+        // 任一命令失败时 executePipelined 抛出异常
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (Record record : records) {
+                    String field = PostMetricsKeys.FIELDS.get(record.field());
+                    applyOnce(ops, PostMetricsKeys.metrics(record.postId()), walId, record, field, 0, counterMarkers);
+                    ops.opsForSet().add(PostMetricsKeys.DIRTY_SET, record.postId());
+                    if (includeDaily) {
+                        LocalDate date = LocalDate.ofEpochDay(record.epochDay());
+                        applyOnce(ops, PostMetricsKeys.daily(date, record.postId()), walId, record, field,
+                                PostMetricsKeys.DAILY_TTL.toMillis(), counterMarkers);
+                        ops.opsForSet().add(PostMetricsKeys.dailyIndex(date), record.postId());
+                        ops.expire(PostMetricsKeys.dailyIndex(date), PostMetricsKeys.DAILY_TTL);
+                    }
+                }
+                return null;
+            }
+        });
+        // 整批成功后才推进进度，部分失败时下次从本批开始，已生效的记录由计数器标记跳过
+        redisTemplate.opsForValue().set(markerKey, lastSequence, MARKER_TTL);
+    }
+
+    private static void applyOnce(RedisOperations<String, Object> ops, String counterKey, String walId,
+                                  Record record, String field, long counterTtlMillis, Set<String> counterMarkers) {
+        String marker = RedisKeys.colocated(counterKey, ":wal");
+        counterMarkers.add(marker);
+        ops.execute(APPLY_ONCE_SCRIPT, StringRedisSerializer.UTF_8, LONG_RESULT,
+                List.of(counterKey, marker),
+                walId, String.valueOf(record.sequence()), field, String.valueOf(record.delta()),
+                String.valueOf(counterTtlMillis), String.valueOf(MARKER_TTL.toMillis()));
+    }
+
+    private void addPending(int postId, int fieldIndex, long delta) {
+        pending.compute(postId, (id, existing) -> {
+            long[] deltas = existing != null ? existing : new long[3];
+            deltas[fieldIndex] += delta;
+            return deltas[0] == 0 && deltas[1] == 0 && deltas[2] == 0 ? null : deltas;
+        });
+    }
+
+    private static List<Record> readRecords(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        List<Record> records = new ArrayList<>(bytes.length / RECORD_SIZE);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int offset = 0; offset + RECORD_SIZE <= bytes.length; offset += RECORD_SIZE) {
+            byte[] record = new byte[RECORD_SIZE];
+            buffer.get(offset, record);
+            if (ByteBuffer.wrap(record).getInt(PAYLOAD_SIZE) != checksum(record)) {
+                // 崩溃时写了一半的记录，之后不会再有有效数据
+                break;
+            }
+            ByteBuffer view = ByteBuffer.wrap(record);
+            records.add(new Record(view.getLong(0), view.getInt(8), view.getInt(12), view.get(16), view.getLong(20)));
+        }
+        return records;
+    }
+
+    private static int checksum(byte[] record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record, 0, PAYLOAD_SIZE);
+        return (int) crc.getValue();
+    }
+
+    private record Record(long sequence, int epochDay, int postId, int field, long delta) {
+    }
+}
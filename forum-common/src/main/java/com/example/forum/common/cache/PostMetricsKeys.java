@@ -0,0 +1,53 @@
+package com.example.forum.common.cache;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 帖子计数相关的 Redis key，帖子服务和评论服务共用。
+ */
+public final class PostMetricsKeys {
+
+    /**
+     * 有待持久化增量的帖子ID集合
+     */
+    public static final String DIRTY_SET = "post:metrics:dirty";
+
+    /**
+     * 日桶保留时长，超过后即使没有汇总也会过期
+     */
+    public static final Duration DAILY_TTL = Duration.ofDays(3);
+
+    /**
+     * 计数字段，顺序与各处 long[3] 增量数组的下标一致
+     */
+    public static final List<String> FIELDS = List.of("views", "likes", "comments");
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private PostMetricsKeys() {
+    }
+
+    /**
+     * 帖子计数增量 Hash：post:metrics:{postId} -> {views, likes, comments}
+     */
+    public static String metrics(Integer postId) {
+        return "post:metrics:" + postId;
+    }
+
+    /**
+     * 帖子单日计数 Hash：post:daily:{yyyyMMdd}:{postId} -> {views, likes, comments}
+     */
+    public static String daily(LocalDate date, Integer postId) {
+        return "post:daily:" + DAY.format(date) + ":" + postId;
+    }
+
+    /**
+     * 当日有计数的帖子ID集合：post:daily:{yyyyMMdd}:posts
+     */
+    public static String dailyIndex(LocalDate date) {
+        return "post:daily:" + DAY.format(date) + ":posts";
+    }
+}
@@ -0,0 +1,497 @@
+package com.example.forum.common.cache;
+
+import com.example.forum.common.redis.RedisBatch;
+import com.example.forum.common.redis.RedisGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * 带冷热分层的 Redis 关系集合缓存（点赞、关注、粉丝）。
+ *
+ * 每个集合都包含一个哨兵成员 {@value #LOADED_MARKER}：
+ * 有哨兵表示集合已从 MySQL 完整加载，成员不存在即"没有关系"；
+ * 没有哨兵（key 过期、被清理或旧数据）表示"未加载"，需要回源重建。
+ * 每次访问都会续期 TTL，长期无人访问的集合自然过期释放内存。
+ *
+ * 重建时同一实例内同一 owner 只查询一次数据库（single-flight），
+ * 跨实例通过 SET NX 锁保证只有一个实例写回 Redis。锁的值是每次重建唯一的令牌，
+ * 写回和释放都先核对令牌，锁过期后被其他实例取得时不会误删对方的锁、也不会写入已过时的快照。
+ *
+ * 重建读取数据库快照之后、写回之前，其他实例提交的新增/删除不在快照中，而此时集合尚未加载，
+ * 它们的 ADD/REMOVE 不会生效。因此写操作在自身回源之后重试时，若集合仍未加载且有实例持有重建锁，
+ * 把操作追加到日志 journal:{key}（过期时间与锁相同）；写回脚本在同一原子操作中写入快照、
+ * 按顺序重放日志并释放锁，写回之后的操作直接作用于已加载的集合。
+ * 锁和日志的 key 用 {集合 key} 作为 hash tag，与集合位于同一个 Cluster slot。
+ *
+ * 快照按每批 {@value #REHYDRATE_CHUNK} 个成员分多次写入本次重建独有的暂存 key（同样带 hash tag），每批都核对令牌并续期锁；
+ * 全部写完后由写回脚本 RENAME 到集合 key，热门帖子的点赞集合不会以一个几 MB 的参数、长时间占用分片的单个脚本写入。
+ *
+ * Redis 不可用（熔断或调用失败）时按单条关系回源数据库，写操作把整个集合记为待删除，
+ * 恢复后删除并重新按需重建，避免镜像缺少熔断期间的变更。
+ */
+@Slf4j
+public class RelationSetCache {
+
+    public static final String LOADED_MARKER = "__loaded__";
+
+    private static final Duration LOCK_TTL = Duration.ofSeconds(10);
+    // 每次暂存脚本调用携带的最大成员数
+    private static final int REHYDRATE_CHUNK = 5000;
+    // Redis 不可用时脚本调用的降级结果
+    private static final long UNAVAILABLE = -2;
+
+    // 已加载时判断成员并续期，未加载返回 -1
+    private static final RedisScript<Long> CONTAINS_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('SISMEMBER', KEYS[1], ARGV[1]) == 0 then return -1 end
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return redis.call('SISMEMBER', KEYS[1], ARGV[2])
+            """, Long.class);
+
+    // 已加载时添加成员并续期，返回 SADD 结果；未加载返回 -1，ARGV[4] 为 1 且有实例正在重建时记入日志
+    private static final RedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('SISMEMBER', KEYS[1], ARGV[1]) == 0 then
+              if ARGV[4] == '1' then
+                local lockTtl = redis.call('PTTL', KEYS[2])
+                if lockTtl > 0 then
+                  redis.call('RPUSH', KEYS[3], '+' .. ARGV[2])
+                  redis.call('PEXPIRE', KEYS[3], lockTtl)
+                end
+              end
+              return -1
+            end
+            local added = redis.call('SADD', KEYS[1], ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return added
+            """, Long.class);
+
+    // 已加载时移除成员并续期，返回 SREM 结果；未加载返回 -1，日志规则同 ADD_SCRIPT
+    private static final RedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('SISMEMBER', KEYS[1], ARGV[1]) == 0 then
+              if ARGV[4] == '1' then
+                local lockTtl = redis.call('PTTL', KEYS[2])
+                if lockTtl > 0 then
+                  redis.call('RPUSH', KEYS[3], '-' .. ARGV[2])
+                  redis.call('PEXPIRE', KEYS[3], lockTtl)
+                end
+              end
+              return -1
+            end
+            local removed = redis.call('SREM', KEYS[1], ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return removed
+            """, Long.class);
+
+    // 持锁分批暂存快照：令牌不符（锁已过期）返回 -1 且不写入；否则把本批成员写入暂存 key，
+    // 并把锁、日志和暂存 key 续期到 LOCK_TTL，大集合分多批写入期间锁不会过期
+    private static final RedisScript<Long> STAGE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) ~= ARGV[1] then return -1 end
+            if #ARGV > 2 then
+              redis.call('SADD', KEYS[3], unpack(ARGV, 3))
+            end
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            redis.call('PEXPIRE', KEYS[2], ARGV[2])
+            redis.call('PEXPIRE', KEYS[3], ARGV[2])
+            return 1
+            """, Long.class);
+
+    // 持锁完成重建：令牌不符返回 -1 且不写入；未加载时给暂存 key 加上哨兵并 RENAME 覆盖旧数据，
+    // 然后按顺序重放日志、删除日志并释放锁。返回 1 表示写入了快照，0 表示集合已被加载、只重放了日志
+    private static final RedisScript<Long> REHYDRATE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[2]) ~= ARGV[3] then return -1 end
+            local written = 0
+            if redis.call('SISMEMBER', KEYS[1], ARGV[1]) == 0 then
+              redis.call('SADD', KEYS[4], ARGV[1])
+              redis.call('RENAME', KEYS[4], KEYS[1])
+              written = 1
+            else
+              redis.call('DEL', KEYS[4])
+            end
+            for _, op in ipairs(redis.call('LRANGE', KEYS[3], 0, -1)) do
+              if string.sub(op, 1, 1) == '+' then
+                redis.call('SADD', KEYS[1], string.sub(op, 2))
+              else
+                redis.call('SREM', KEYS[1], string.sub(op, 2))
+              end
+            end
+            redis.call('DEL', KEYS[3], KEYS[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            return written
+            """, Long.class);
+
+    // 不持锁的批量写入（管理端修复）：已加载则放弃，否则覆盖旧数据
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('SISMEMBER', KEYS[1], ARGV[1]) == 1 then return 0 end
+            redis.call('DEL', KEYS[1])
+            redis.call('SADD', KEYS[1], ARGV[1])
+            for i = 3, #ARGV, 5000 do
+              redis.call('SADD', KEYS[1], unpack(ARGV, i, math.min(i + 4999, #ARGV)))
+            end
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            return 1
+            """, Long.class);
+
+    // 只释放自己持有的锁，连同自己的暂存 key（KEYS[2]）一起删除
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1], KEYS[2]) end
+            return 0
+            """, Long.class);
+
+    private final String name;
+    private final String keyPrefix;
+    private final Duration ttl;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Function<Integer, Collection<Integer>> loader;
+    private final BiPredicate<Integer, Integer> memberQuery;
+    private final RedisGuard redisGuard;
+    private final RedisBatch redisBatch;
+
+    private final Map<Integer, CompletableFuture<Set<String>>> inflight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong rehydrations = new AtomicLong();
+    private final AtomicLong rehydratedMembers = new AtomicLong();
+    private final AtomicLong sharedLoads = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    /**
+     * @param name 缓存名称（用于日志和统计）
+     * @param keyPrefix key 前缀，如 "post:likes:"
+     * @param ttl 无访问多久后过期
+     * @param redisTemplate Redis 模板
+     * @param loader 按 owner 从数据库加载全部成员 ID 的函数（应走索引查询）
+     * @param memberQuery Redis 不可用时按 (owner, member) 查询单条关系是否存在（应走唯一索引）
+     * @param redisGuard Redis 访问保护层
+     * @param redisBatch 批量写入（{@link #loadAll}）使用的 pipeline
+     */
+    public RelationSetCache(String name,
+                            String keyPrefix,
+                            Duration ttl,
+                            RedisTemplate<String, Object> redisTemplate,
+                            Function<Integer, Collection<Integer>> loader,
+                            BiPredicate<Integer, Integer> memberQuery,
+                            RedisGuard redisGuard,
+                            RedisBatch redisBatch) {
+        this.name = name;
+        this.keyPrefix = keyPrefix;
+        this.ttl = ttl;
+        this.redisTemplate = redisTemplate;
+        this.loader = loader;
+        this.memberQuery = memberQuery;
+        this.redisGuard = redisGuard;
+        this.redisBatch = redisBatch;
+    }
+
+    public String key(Integer ownerId) {
+        return keyPrefix + ownerId;
+    }
+
+    /**
+     * 判断关系是否存在，未加载时回源重建
+     */
+    public boolean contains(Integer ownerId, Integer memberId) {
+        String member = memberId.toString();
+        Long result = redisGuard.execute(name + ".contains",
+                () -> redisTemplate.execute(CONTAINS_SCRIPT, List.of(key(ownerId)), LOADED_MARKER, member, ttl.toMillis()),
+                () -> UNAVAILABLE);
+        if (result != null && result == UNAVAILABLE) {
+            fallbacks.incrementAndGet();
+            return memberQuery.test(ownerId, memberId);
+        }
+        if (result != null && result >= 0) {
+            hits.incrementAndGet();
+            return result == 1;
+        }
+        misses.incrementAndGet();
+        return rehydrate(ownerId).contains(member);
+    }
+
+    /**
+     * 添加关系，未加载时先回源重建
+     * @return 是否为新增关系
+     */
+    public boolean add(Integer ownerId, Integer memberId) {
+        String member = memberId.toString();
+        Long result = execute("add", ADD_SCRIPT, ownerId, member, false);
+        if (result != null && result == UNAVAILABLE) {
+            fallbacks.incrementAndGet();
+            redisGuard.defer(key(ownerId));
+            return !memberQuery.test(ownerId, memberId);
+        }
+        if (result == null || result < 0) {
+            misses.incrementAndGet();
+            Set<String> loaded = rehydrate(ownerId);
+            // 其他实例仍在重建时记入日志，由其写回时重放
+            result = execute("add", ADD_SCRIPT, ownerId, member, true);
+            if (result != null && result == UNAVAILABLE) {
+                redisGuard.defer(key(ownerId));
+            }
+            if (result == null || result < 0) {
+                // 其他实例正在重建且尚未写回，以数据库结果为准，由重建方负责写入
+                return !loaded.contains(member);
+            }
+        } else {
+            hits.incrementAndGet();
+        }
+        return result > 0;
+    }
+
+    /**
+     * 移除关系，未加载时先回源重建
+     * @return 是否确实移除了关系
+     */
+    public boolean remove(Integer ownerId, Integer memberId) {
+        String member = memberId.toString();
+        Long result = execute("remove", REMOVE_SCRIPT, ownerId, member, false);
+        if (result != null && result == UNAVAILABLE) {
+            fallbacks.incrementAndGet();
+            redisGuard.defer(key(ownerId));
+            return memberQuery.test(ownerId, memberId);
+        }
+        if (result == null || result < 0) {
+            misses.incrementAndGet();
+            Set<String> loaded = rehydrate(ownerId);
+            result = execute("remove", REMOVE_SCRIPT, ownerId, member, true);
+            if (result != null && result == UNAVAILABLE) {
+                redisGuard.defer(key(ownerId));
+            }
+            if (result == null || result < 0) {
+                return loaded.contains(member);
+            }
+        } else {
+            hits.incrementAndGet();
+        }
+        return result > 0;
+    }
+
+    /**
+     * 仅在集合已加载时添加成员（用于回滚和对端集合同步），未加载时交给下次重建；正在重建时记入日志
+     */
+    public void addIfLoaded(Integer ownerId, Integer memberId) {
+        Long result = execute("add", ADD_SCRIPT, ownerId, memberId.toString(), true);
+        if (result != null && result == UNAVAILABLE) {
+            redisGuard.defer(key(ownerId));
+        }
+    }
+
+    /**
+     * 仅在集合已加载时移除成员；正在重建时记入日志
+     */
+    public void removeIfLoaded(Integer ownerId, Integer memberId) {
+        Long result = execute("remove", REMOVE_SCRIPT, ownerId, memberId.toString(), true);
+        if (result != null && result == UNAVAILABLE) {
+            redisGuard.defer(key(ownerId));
+        }
+    }
+
+    /**
+     * 用给定的完整成员列表写入集合（批量修复用），集合已加载时不覆盖
+     */
+    public void load(Integer ownerId, Collection<Integer> memberIds) {
+        List<String> members = memberIds.stream().map(String::valueOf).toList();
+        Long written = redisTemplate.execute(LOAD_SCRIPT, List.of(key(ownerId)), loadArgs(members));
+        if (written != null && written > 0) {
+            rehydrations.incrementAndGet();
+            rehydratedMembers.addAndGet(members.size());
+        }
+    }
+
+    /**
+     * 批量写入多个集合，所有重建脚本放在同一批 pipeline 中发送，已加载的集合不覆盖
+     * @return 实际写入的集合数
+     */
+    public int loadAll(Map<Integer, ? extends Collection<Integer>> membersByOwner) {
+        if (membersByOwner.isEmpty()) {
+            return 0;
+        }
+        RedisBatch.Batch batch = redisBatch.batch(name + ".load");
+        membersByOwner.forEach((ownerId, memberIds) -> {
+            Object[] args = loadArgs(memberIds.stream().map(String::valueOf).toList());
+            batch.add(ops -> ops.execute(LOAD_SCRIPT, List.of(key(ownerId)), args));
+        });
+        int written = 0;
+        for (Object reply : batch.execute()) {
+            if (reply instanceof Long value && value > 0) {
+                written++;
+            }
+        }
+        rehydrations.addAndGet(written);
+        log.info("关系集合已批量写入: cache={}, owners={}, written={}", name, membersByOwner.size(), written);
+        return written;
+    }
+
+    /**
+     * 统计给定集合的关系总数（不含哨兵成员），每个 key 的 SCARD 与哨兵判断放在同一批 pipeline 中
+     */
+    public long countMembers(Collection<String> keys) {
+        RedisBatch.Batch batch = redisBatch.batch(name + ".count");
+        for (String key : keys) {
+            batch.add(ops -> ops.opsForSet().size(key));
+            batch.add(ops -> ops.opsForSet().isMember(key, LOADED_MARKER));
+        }
+        List<Object> replies = batch.execute();
+        long total = 0;
+        for (int i = 0; i + 1 < replies.size(); i += 2) {
+            if (replies.get(i) instanceof Long size) {
+                total += size;
+            }
+            if (Boolean.TRUE.equals(replies.get(i + 1))) {
+                total--;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 删除集合，下次访问时重建
+     */
+    public void invalidate(Integer ownerId) {
+        redisGuard.deleteOrDefer(name + ".invalidate", key(ownerId));
+    }
+
+    /**
+     * 命中率与重建统计，用于评估 TTL 与内存占用的取舍
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("ttlSeconds", ttl.toSeconds());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("rehydrations", rehydrations.get());
+        stats.put("rehydratedMembers", rehydratedMembers.get());
+        stats.put("sharedLoads", sharedLoads.get());
+        stats.put("fallbacks", fallbacks.get());
+        return stats;
+    }
+
+    /**
+     * @param journal 集合未加载且有实例正在重建时是否记入日志
+     */
+    private Long execute(String operation, RedisScript<Long> script, Integer ownerId, String member, boolean journal) {
+        String key = key(ownerId);
+        return redisGuard.execute(name + "." + operation,
+                () -> redisTemplate.execute(script, List.of(key, lockKey(key), journalKey(key)),
+                        LOADED_MARKER, member, ttl.toMillis(), journal ? 1 : 0),
+                () -> UNAVAILABLE);
+    }
+
+    private static String lockKey(String key) {
+        return "lock:{" + key + "}";
+    }
+
+    private static String journalKey(String key) {
+        return "journal:{" + key + "}";
+    }
+
+    private static String stagingKey(String key, String token) {
+        return "rehydrate:{" + key + "}:" + token;
+    }
+
+    private Set<String> rehydrate(Integer ownerId) {
+        CompletableFuture<Set<String>> mine = new CompletableFuture<>();
+        CompletableFuture<Set<String>> existing = inflight.putIfAbsent(ownerId, mine);
+        if (existing != null) {
+            sharedLoads.incrementAndGet();
+            return existing.join();
+        }
+        try {
+            Set<String> members = loadAndStore(ownerId);
+            mine.complete(members);
+            return members;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(ownerId, mine);
+        }
+    }
+
+    private Set<String> loadAndStore(Integer ownerId) {
+        String key = key(ownerId);
+        String lockKey = lockKey(key);
+        String token = UUID.randomUUID().toString();
+        // 先取锁再读数据库：快照之后提交的变更一定能看到锁并记入日志
+        Boolean locked = redisGuard.execute(name + ".lock",
+                () -> redisTemplate.opsForValue().setIfAbsent(lockKey, token, LOCK_TTL), () -> false);
+
+        Set<String> members = new HashSet<>();
+        for (Integer id : loader.apply(ownerId)) {
+            members.add(id.toString());
+        }
+
+        if (!Boolean.TRUE.equals(locked)) {
+            // 其他实例正在写回（或 Redis 不可用），本次直接使用数据库结果
+            sharedLoads.incrementAndGet();
+            return members;
+        }
+        String stagingKey = stagingKey(key, token);
+        Long written = stage(lockKey, journalKey(key), stagingKey, token, new ArrayList<>(members))
+                ? redisGuard.execute(name + ".rehydrate",
+                        () -> redisTemplate.execute(REHYDRATE_SCRIPT, List.of(key, lockKey, journalKey(key), stagingKey),
+                                LOADED_MARKER, ttl.toMillis(), token),
+                        () -> UNAVAILABLE)
+                : null;
+        if (written != null && written > 0) {
+            rehydrations.incrementAndGet();
+            rehydratedMembers.addAndGet(members.size());
+            log.debug("关系集合已从数据库重建: cache={}, ownerId={}, size={}", name, ownerId, members.size());
+        } else if (written == null || written < 0) {
+            // 写回失败或锁已过期：只释放自己的锁，日志随锁一起过期，集合保持未加载，下次访问重新回源
+            redisGuard.execute(name + ".unlock",
+                    () -> redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey, stagingKey), token), () -> UNAVAILABLE);
+        }
+        return members;
+    }
+
+    /**
+     * 把快照分批写入暂存 key
+     * @return 全部写入成功时为 true；锁已不属于自己或 Redis 调用失败时为 false
+     */
+    private boolean stage(String lockKey, String journalKey, String stagingKey, String token, List<String> members) {
+        int from = 0;
+        do {
+            List<String> chunk = members.subList(from, Math.min(from + REHYDRATE_CHUNK, members.size()));
+            List<Object> args = new ArrayList<>(chunk.size() + 2);
+            args.add(token);
+            args.add(LOCK_TTL.toMillis());
+            args.addAll(chunk);
+            Long staged = redisGuard.execute(name + ".stage",
+                    () -> redisTemplate.execute(STAGE_SCRIPT, List.of(lockKey, journalKey, stagingKey), args.toArray()),
+                    () -> UNAVAILABLE);
+            if (staged == null || staged < 0) {
+                return false;
+            }
+            from += REHYDRATE_CHUNK;
+        } while (from < members.size());
+        return true;
+    }
+
+    private Object[] loadArgs(Collection<String> members) {
+        List<Object> args = new ArrayList<>(members.size() + 2);
+        args.add(LOADED_MARKER);
+        args.add(ttl.toMillis());
+        args.addAll(members);
+        return args.toArray();
+    }
+}
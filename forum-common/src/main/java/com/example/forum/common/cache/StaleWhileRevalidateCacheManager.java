@@ -0,0 +1,679 @@
+package com.example.forum.common.cache;
+
+import com.example.forum.common.redis.RedisGuard;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 支持 stale-while-revalidate 与回源合并的 CacheManager。
+ *
+ * 配置了 {@link Policy} 的缓存，条目以 {@link CacheEnvelope} 存储，带软过期和硬过期两个时间：
+ * <ul>
+ *     <li>软过期前：直接返回缓存值；按 XFetch 算法（与上次回源耗时成正比的概率）提前在后台刷新，热点 key 在过期前就已更新</li>
+ *     <li>软过期后、硬过期前：立即返回旧值，同时在后台刷新（本实例同一 key 只刷新一次，跨实例通过 SET NX 锁只刷新一次）</li>
+ *     <li>硬过期后或未命中：同步回源。本实例内同一 key 的并发请求共享一次查询；
+ *     跨实例通过短期 SET NX 锁只让一个实例查询，其他实例短暂等待其写入，超时后自行查询。
+ *     回源失败时在宽限期内继续返回旧值</li>
+ * </ul>
+ * 回源锁与刷新锁是两个 key，锁的值为每次加锁唯一的令牌，释放时先核对令牌：
+ * 回源超过锁的有效期后，不会删除已被其他实例取得的锁。
+ * Redis 中条目的 TTL 为硬过期时间加宽限期，宽限期过后条目被 Redis 删除。
+ * 只有通过 {@link Cache#get(Object, Callable)}（{@code @Cacheable(sync = true)} 或 {@link #load}）读取时才会刷新和合并，
+ * 未配置策略的缓存原样返回。
+ *
+ * 开启热点探测时，每个缓存用 {@link HotKeyDetector} 统计本实例的读取次数，热点 key 的条目在本地保留一份
+ * 短期副本（{@link HotKeyProperties#getLocalTtl()}），副本有效期内的读取不访问 Redis。
+ * 每个热点 key 对 Redis 的读取从每请求一次降为每实例每个有效期一次；其他实例的更新和失效最多延迟该有效期可见。
+ * 本地副本可以导出为快照并在重启后恢复（见 {@link LocalCacheSnapshot}），恢复的副本视为未经验证：
+ * 照常返回，但第一次读取时在后台从 Redis 重新读取，Redis 中已不存在的条目随即丢弃。
+ *
+ * 绑定 MeterRegistry 后每个缓存导出 forum.cache.requests{cache, result=hit|stale|miss}
+ * （hit 含本地副本命中，miss 为同步回源、合并等待和跨实例等待写回）与 forum.cache.local.hits{cache}。
+ */
+@Slf4j
+public class StaleWhileRevalidateCacheManager implements CacheManager, AutoCloseable, MeterBinder {
+
+    private static final Duration REFRESH_LOCK_TTL = Duration.ofSeconds(30);
+    // 跨实例回源锁，持有方应在该时间内写回缓存
+    private static final Duration LOAD_LOCK_TTL = Duration.ofSeconds(5);
+    // 未抢到回源锁时等待其他实例写回的最长时间和轮询间隔
+    private static final long LOAD_WAIT_MILLIS = 500;
+    private static final long LOAD_POLL_MILLIS = 25;
+    // XFetch 的 beta，越大越早刷新
+    private static final double XFETCH_BETA = 1.0;
+
+    // 只释放自己持有的锁
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end
+            return 0
+            """, Long.class);
+
+    /**
+     * @param softTtl 软过期时间，之后返回旧值并后台刷新
+     * @param hardTtl 硬过期时间，之后必须同步回源
+     * @param grace 硬过期后回源失败时仍可返回旧值的时长
+     */
+    public record Policy(Duration softTtl, Duration hardTtl, Duration grace) {
+
+        /**
+         * Redis 中条目的实际 TTL
+         */
+        public Duration redisTtl() {
+            return hardTtl.plus(grace);
+        }
+    }
+
+    private final CacheManager delegate;
+    private final Map<String, Policy> policies;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisGuard redisGuard;
+    private final HotKeyProperties hotKeyProperties;
+    private final Map<String, StaleWhileRevalidateCache> caches = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    // 后台刷新线程池，队列满时放弃本次刷新（下次读取旧值时会再次触发）
+    private final ThreadPoolExecutor refresher = new ThreadPoolExecutor(
+            1, 4, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(256), r -> {
+        Thread thread = new Thread(r, "cache-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 热点探测窗口轮转
+    private final ScheduledExecutorService hotKeyScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cache-hot-key");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StaleWhileRevalidateCacheManager(CacheManager delegate,
+                                            Map<String, Policy> policies,
+                                            RedisTemplate<String, Object> redisTemplate,
+                                            RedisGuard redisGuard,
+                                            HotKeyProperties hotKeyProperties) {
+        this.delegate = delegate;
+        this.policies = Map.copyOf(policies);
+        this.redisTemplate = redisTemplate;
+        this.redisGuard = redisGuard;
+        this.hotKeyProperties = hotKeyProperties;
+        if (hotKeyProperties.isEnabled()) {
+            long interval = hotKeyProperties.getWindow().toMillis() / hotKeyProperties.getSlices();
+            hotKeyScheduler.scheduleAtFixedRate(this::rotateHotKeys, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Policy policy = policies.get(name);
+        if (policy == null) {
+            return delegate.getCache(name);
+        }
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> {
+            StaleWhileRevalidateCache created = new StaleWhileRevalidateCache(target, policy);
+            MeterRegistry registry = meterRegistry;
+            if (registry != null) {
+                created.bindTo(registry);
+            }
+            return created;
+        });
+    }
+
+    /**
+     * 绑定已创建的缓存，之后创建的缓存在创建时绑定
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        caches.values().forEach(cache -> cache.bindTo(registry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+        hotKeyScheduler.shutdownNow();
+    }
+
+    /**
+     * 各缓存的新鲜命中、旧值命中与刷新统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        caches.forEach((name, cache) -> stats.put(name, cache.getStats()));
+        return stats;
+    }
+
+    /**
+     * 各缓存当前的热点 key 及窗口内的估计访问次数
+     */
+    public Map<String, List<HotKeyDetector.HotKey>> getHotKeys() {
+        Map<String, List<HotKeyDetector.HotKey>> hotKeys = new TreeMap<>();
+        caches.forEach((name, cache) -> {
+            if (cache.hotKeys != null) {
+                hotKeys.put(name, cache.hotKeys.getHotKeys());
+            }
+        });
+        return hotKeys;
+    }
+
+    /**
+     * 导出各缓存的本地副本及其热度，硬过期的条目不导出
+     */
+    public List<LocalEntry> exportLocalCopies() {
+        List<LocalEntry> entries = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        caches.forEach((name, cache) -> {
+            if (cache.hotKeys == null) {
+                return;
+            }
+            cache.localCopies.forEach((key, copy) -> {
+                if (now < copy.envelope().getHardExpireAt()) {
+                    entries.add(new LocalEntry(name, key, cache.hotKeys.estimate(key), copy.envelope()));
+                }
+            });
+        });
+        return entries;
+    }
+
+    /**
+     * 恢复本地副本：key 预置为热点，副本在第一次读取时后台向 Redis 验证。
+     * 未配置策略、未开启热点探测或已硬过期的条目跳过
+     * @return 恢复的条目数
+     */
+    public int restoreLocalCopies(List<LocalEntry> entries) {
+        if (!hotKeyProperties.isEnabled()) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        Map<StaleWhileRevalidateCache, Map<Object, Long>> seeds = new LinkedHashMap<>();
+        int restored = 0;
+        for (LocalEntry entry : entries) {
+            if (now >= entry.envelope().getHardExpireAt()
+                    || !(getCache(entry.cache()) instanceof StaleWhileRevalidateCache cache)) {
+                continue;
+            }
+            seeds.computeIfAbsent(cache, c -> new HashMap<>()).put(entry.key(), entry.count());
+            cache.localCopies.putIfAbsent(entry.key(), new LocalCopy(entry.envelope(), Long.MAX_VALUE, true));
+            restored++;
+        }
+        seeds.forEach((cache, counts) -> cache.hotKeys.seed(counts));
+        return restored;
+    }
+
+    private void rotateHotKeys() {
+        caches.values().forEach(cache -> {
+            try {
+                cache.rotateHotKeys();
+            } catch (Exception e) {
+                log.warn("热点 key 窗口轮转失败: cache={}, error={}", cache.name, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 通过缓存读取，未命中时调用 loader；cache 为 null 时直接调用 loader。
+     * loader 抛出的运行时异常原样抛出（不包装为 {@link Cache.ValueRetrievalException}）
+     */
+    public static <T> T load(Cache cache, Object key, Supplier<T> loader) {
+        if (cache == null) {
+            return loader.get();
+        }
+        try {
+            return cache.get(key, loader::get);
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    final class StaleWhileRevalidateCache implements Cache {
+
+        private final Cache delegate;
+        private final Policy policy;
+        private final String name;
+
+        private final Map<Object, CompletableFuture<Object>> inflight = new ConcurrentHashMap<>();
+        private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+        // 未开启热点探测时为 null
+        private final HotKeyDetector hotKeys;
+        private final long localTtlMillis;
+        private final Map<Object, LocalCopy> localCopies = new ConcurrentHashMap<>();
+
+        private final AtomicLong freshHits = new AtomicLong();
+        private final AtomicLong earlyRefreshes = new AtomicLong();
+        private final AtomicLong remoteFills = new AtomicLong();
+        private final AtomicLong staleHits = new AtomicLong();
+        private final AtomicLong staleOnError = new AtomicLong();
+        private final AtomicLong loads = new AtomicLong();
+        private final AtomicLong sharedLoads = new AtomicLong();
+        private final AtomicLong refreshes = new AtomicLong();
+        private final AtomicLong refreshFailures = new AtomicLong();
+        private final AtomicLong refreshRejected = new AtomicLong();
+        private final AtomicLong localHits = new AtomicLong();
+        private final Set<Object> revalidating = ConcurrentHashMap.newKeySet();
+        private final AtomicLong restoredHits = new AtomicLong();
+        private final AtomicLong restoredDropped = new AtomicLong();
+
+        StaleWhileRevalidateCache(Cache delegate, Policy policy) {
+            this.delegate = delegate;
+            this.policy = policy;
+            this.name = delegate.getName();
+            this.hotKeys = hotKeyProperties.isEnabled()
+                    ? new HotKeyDetector(hotKeyProperties.getWidth(), hotKeyProperties.getDepth(),
+                    hotKeyProperties.getSlices(), hotKeyProperties.getTopK(), hotKeyProperties.getThreshold())
+                    : null;
+            this.localTtlMillis = hotKeyProperties.getLocalTtl().toMillis();
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return delegate.getNativeCache();
+        }
+
+        /**
+         * 不带 loader 的读取不会触发刷新，硬过期的条目视为未命中
+         */
+        @Override
+        public ValueWrapper get(Object key) {
+            CacheEnvelope envelope = read(key);
+            if (envelope == null || System.currentTimeMillis() >= envelope.getHardExpireAt()) {
+                return null;
+            }
+            return new SimpleValueWrapper(envelope.getValue());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Class<T> type) {
+            ValueWrapper wrapper = get(key);
+            Object value = wrapper != null ? wrapper.get() : null;
+            if (value != null && type != null && !type.isInstance(value)) {
+                throw new IllegalStateException("缓存值类型不匹配: cache=" + name + ", key=" + key
+                        + ", required=" + type.getName() + ", actual=" + value.getClass().getName());
+            }
+            return (T) value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            CacheEnvelope envelope = read(key);
+            long now = System.currentTimeMillis();
+            if (envelope != null && now < envelope.getSoftExpireAt()) {
+                freshHits.incrementAndGet();
+                if (shouldRefreshEarly(envelope, now)) {
+                    earlyRefreshes.incrementAndGet();
+                    refreshAsync(key, valueLoader);
+                }
+                return (T) envelope.getValue();
+            }
+            if (envelope != null && now < envelope.getHardExpireAt()) {
+                staleHits.incrementAndGet();
+                refreshAsync(key, valueLoader);
+                return (T) envelope.getValue();
+            }
+            try {
+                return loadShared(key, valueLoader);
+            } catch (ValueRetrievalException e) {
+                if (envelope == null) {
+                    throw e;
+                }
+                // 已过硬过期但仍在宽限期内，数据库异常时返回旧值
+                staleOnError.incrementAndGet();
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("回源失败，返回过期缓存: cache={}, key={}, error={}", name, key, cause.getMessage());
+                return (T) envelope.getValue();
+            }
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            store(key, value, 0);
+        }
+
+        private void store(Object key, Object value, long computeMillis) {
+            if (value == null) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            long hardTtl = policy.hardTtl().toMillis();
+            // 软过期时间加 ±10% 抖动，避免同一批写入的条目同时触发刷新
+            long softTtl = Math.min((long) (policy.softTtl().toMillis() * ThreadLocalRandom.current().nextDouble(0.9, 1.1)), hardTtl);
+            CacheEnvelope envelope = new CacheEnvelope(value, now + softTtl, now + hardTtl, computeMillis);
+            delegate.put(key, envelope);
+            // 本实例刷新后立即更新本地副本
+            localCopies.replace(key, new LocalCopy(envelope, now + localTtlMillis, false));
+        }
+
+        @Override
+        public void evict(Object key) {
+            delegate.evict(key);
+            localCopies.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+            localCopies.clear();
+        }
+
+        void bindTo(MeterRegistry registry) {
+            // FunctionCounter 只弱引用统计对象，这里引用缓存本身（由 CacheManager 持有）
+            cacheRequests(registry, "hit", cache -> cache.freshHits.get());
+            cacheRequests(registry, "stale", cache -> cache.staleHits.get() + cache.staleOnError.get());
+            cacheRequests(registry, "miss", cache -> cache.loads.get() + cache.sharedLoads.get() + cache.remoteFills.get());
+            FunctionCounter.builder("forum.cache.local.hits", this, cache -> cache.localHits.get())
+                    .description("热点 key 由本地副本提供、未访问 Redis 的次数")
+                    .tag("cache", name)
+                    .register(registry);
+        }
+
+        private void cacheRequests(MeterRegistry registry, String result, ToDoubleFunction<StaleWhileRevalidateCache> count) {
+            FunctionCounter.builder("forum.cache.requests", this, count)
+                    .description("经过 stale-while-revalidate 读取的次数")
+                    .tag("cache", name)
+                    .tag("result", result)
+                    .register(registry);
+        }
+
+        Map<String, Object> getStats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("softTtlSeconds", policy.softTtl().toSeconds());
+            stats.put("hardTtlSeconds", policy.hardTtl().toSeconds());
+            stats.put("graceSeconds", policy.grace().toSeconds());
+            stats.put("freshHits", freshHits.get());
+            stats.put("earlyRefreshes", earlyRefreshes.get());
+            stats.put("staleHits", staleHits.get());
+            stats.put("staleOnError", staleOnError.get());
+            stats.put("loads", loads.get());
+            stats.put("sharedLoads", sharedLoads.get());
+            stats.put("remoteFills", remoteFills.get());
+            stats.put("refreshes", refreshes.get());
+            stats.put("refreshFailures", refreshFailures.get());
+            stats.put("refreshRejected", refreshRejected.get());
+            stats.put("hotKeys", hotKeys != null ? hotKeys.getHotKeys().size() : 0);
+            stats.put("localHits", localHits.get());
+            stats.put("restoredHits", restoredHits.get());
+            stats.put("restoredDropped", restoredDropped.get());
+            return stats;
+        }
+
+        void rotateHotKeys() {
+            if (hotKeys == null) {
+                return;
+            }
+            hotKeys.rotate();
+            localCopies.keySet().removeIf(key -> !hotKeys.isHot(key));
+        }
+
+        /**
+         * 读取条目：热点 key 优先使用本地副本，副本过期后从 Redis 读取并更新副本
+         */
+        private CacheEnvelope read(Object key) {
+            if (hotKeys == null || !hotKeys.record(key)) {
+                return readRemote(key);
+            }
+            long now = System.currentTimeMillis();
+            LocalCopy copy = localCopies.get(key);
+            if (copy != null && copy.restored()) {
+                restoredHits.incrementAndGet();
+                revalidateAsync(key, copy);
+                return copy.envelope();
+            }
+            if (copy != null && now < copy.expireAt()) {
+                localHits.incrementAndGet();
+                return copy.envelope();
+            }
+            CacheEnvelope envelope = readRemote(key);
+            if (envelope != null) {
+                localCopies.put(key, new LocalCopy(envelope, now + localTtlMillis, false));
+            }
+            return envelope;
+        }
+
+        /**
+         * 后台验证从快照恢复的副本：以 Redis 中的条目替换，Redis 中已不存在时丢弃；
+         * Redis 熔断期间保留副本，恢复后再次读取时重新验证
+         */
+        private void revalidateAsync(Object key, LocalCopy copy) {
+            if (!revalidating.add(key)) {
+                return;
+            }
+            try {
+                refresher.execute(() -> {
+                    try {
+                        if (redisGuard.isOpen()) {
+                            return;
+                        }
+                        CacheEnvelope envelope = readRemote(key);
+                        if (envelope != null) {
+                            localCopies.replace(key, copy,
+                                    new LocalCopy(envelope, System.currentTimeMillis() + localTtlMillis, false));
+                        } else if (localCopies.remove(key, copy)) {
+                            restoredDropped.incrementAndGet();
+                        }
+                    } finally {
+                        revalidating.remove(key);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                revalidating.remove(key);
+            }
+        }
+
+        private CacheEnvelope readRemote(Object key) {
+            ValueWrapper wrapper = delegate.get(key);
+            // 非 CacheEnvelope（升级前写入的旧格式）视为未命中
+            return wrapper != null && wrapper.get() instanceof CacheEnvelope envelope ? envelope : null;
+        }
+
+        /**
+         * XFetch：now - delta * beta * ln(rand) >= expiry 时提前刷新，
+         * 回源越慢、越接近过期，提前刷新的概率越大（delta 为上次回源耗时）
+         */
+        private boolean shouldRefreshEarly(CacheEnvelope envelope, long now) {
+            long delta = envelope.getComputeMillis();
+            if (delta <= 0) {
+                return false;
+            }
+            double gap = -delta * XFETCH_BETA * Math.log(1 - ThreadLocalRandom.current().nextDouble());
+            return now + gap >= envelope.getSoftExpireAt();
+        }
+
+        private String loadLockKey(Object key) {
+            return "lock:cache:load:" + name + "::" + key;
+        }
+
+        private String refreshLockKey(Object key) {
+            return "lock:cache:refresh:" + name + "::" + key;
+        }
+
+        private void unlock(String operation, String lockKey, String token) {
+            redisGuard.run(operation, () -> redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), token));
+        }
+
+        /**
+         * 同步回源，本实例内同一 key 的并发请求共享一次查询
+         */
+        @SuppressWarnings("unchecked")
+        private <T> T loadShared(Object key, Callable<T> valueLoader) {
+            CompletableFuture<Object> mine = new CompletableFuture<>();
+            CompletableFuture<Object> existing = inflight.putIfAbsent(key, mine);
+            if (existing != null) {
+                sharedLoads.incrementAndGet();
+                try {
+                    return (T) existing.join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof ValueRetrievalException cause) {
+                        throw cause;
+                    }
+                    throw new ValueRetrievalException(key, valueLoader, e.getCause());
+                }
+            }
+            try {
+                T value = loadWithLock(key, valueLoader);
+                mine.complete(value);
+                return value;
+            } catch (Exception e) {
+                ValueRetrievalException error = new ValueRetrievalException(key, valueLoader, e);
+                mine.completeExceptionally(error);
+                throw error;
+            } finally {
+                inflight.remove(key, mine);
+            }
+        }
+
+        /**
+         * 跨实例合并：抢到锁的实例查询并写回，其他实例等待写回后直接读取；
+         * Redis 不可用时直接查询
+         */
+        @SuppressWarnings("unchecked")
+        private <T> T loadWithLock(Object key, Callable<T> valueLoader) throws Exception {
+            String lockKey = loadLockKey(key);
+            String token = UUID.randomUUID().toString();
+            Boolean locked = redisGuard.execute("cache.load-lock",
+                    () -> redisTemplate.opsForValue().setIfAbsent(lockKey, token, LOAD_LOCK_TTL), () -> null);
+            if (Boolean.FALSE.equals(locked)) {
+                CacheEnvelope filled = awaitFill(key);
+                if (filled != null) {
+                    remoteFills.incrementAndGet();
+                    return (T) filled.getValue();
+                }
+            }
+            try {
+                loads.incrementAndGet();
+                long start = System.nanoTime();
+                T value = valueLoader.call();
+                store(key, value, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                return value;
+            } finally {
+                if (Boolean.TRUE.equals(locked)) {
+                    unlock("cache.load-unlock", lockKey, token);
+                }
+            }
+        }
+
+        private CacheEnvelope awaitFill(Object key) {
+            long deadline = System.currentTimeMillis() + LOAD_WAIT_MILLIS;
+            while (System.currentTimeMillis() < deadline) {
+                try {
+                    Thread.sleep(LOAD_POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+                CacheEnvelope envelope = readRemote(key);
+                if (envelope != null && System.currentTimeMillis() < envelope.getHardExpireAt()) {
+                    return envelope;
+                }
+            }
+            return null;
+        }
+
+        private void refreshAsync(Object key, Callable<?> valueLoader) {
+            if (!refreshing.add(key)) {
+                return;
+            }
+            try {
+                refresher.execute(() -> {
+                    try {
+                        refresh(key, valueLoader);
+                    } finally {
+                        refreshing.remove(key);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                refreshing.remove(key);
+                refreshRejected.incrementAndGet();
+            }
+        }
+
+        private void refresh(Object key, Callable<?> valueLoader) {
+            String lockKey = refreshLockKey(key);
+            String token = UUID.randomUUID().toString();
+            Boolean locked = redisGuard.execute("cache.refresh-lock",
+                    () -> redisTemplate.opsForValue().setIfAbsent(lockKey, token, REFRESH_LOCK_TTL), () -> false);
+            if (!Boolean.TRUE.equals(locked)) {
+                // 其他实例正在刷新
+                return;
+            }
+            try {
+                refreshes.incrementAndGet();
+                long start = System.nanoTime();
+                Object value = valueLoader.call();
+                store(key, value, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (Exception e) {
+                // 保留旧值，硬过期前继续返回
+                refreshFailures.incrementAndGet();
+                log.warn("后台刷新缓存失败: cache={}, key={}, error={}", name, key, e.getMessage());
+            } finally {
+                unlock("cache.refresh-unlock", lockKey, token);
+            }
+        }
+    }
+
+    /**
+     * 本地副本快照中的一个条目
+     * @param count 导出时窗口内的估计访问次数，恢复时用于预置热点
+     */
+    public record LocalEntry(String cache, Object key, long count, CacheEnvelope envelope) {
+    }
+
+    /**
+     * @param restored 从快照恢复、尚未经过 Redis 验证
+     */
+    private record LocalCopy(CacheEnvelope envelope, long expireAt, boolean restored) {
+    }
+}
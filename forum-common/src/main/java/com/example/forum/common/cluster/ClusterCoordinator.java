@@ -0,0 +1,311 @@
+package com.example.forum.common.cluster;
+
+import com.example.forum.common.redis.RedisGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 集群任务协调：为 {@link ClusterSingleton} 任务维护租约
+ *
+ * 后台线程每个 renew-interval：
+ * <ul>
+ *     <li>在 forum:cluster:{服务名}:members（ZSET，score 为过期时间）中上报本实例存活，并统计存活实例数</li>
+ *     <li>续约已持有的租约；单主任务未被持有时参与竞选，保证持有者宕机后最迟一个 TTL 内有实例接管</li>
+ *     <li>分片任务按 ceil(分片数 / 存活实例数) 计算本实例应持有的分片数，多出的主动释放（新实例加入后逐步均衡），
+ *     不足时从按实例错开的位置开始获取空闲分片</li>
+ * </ul>
+ * 容器启动完成后扫描所有 {@link ClusterSingleton} 方法并注册，新实例加入后即参与分片分配，不必等到任务第一次触发。
+ * 停机时不再开始新的执行，等待执行中的任务结束后释放全部租约，其他实例在下一个续约周期接管，而不是等待租约过期。
+ */
+@Slf4j
+public class ClusterCoordinator implements AutoCloseable, ApplicationContextAware, SmartInitializingSingleton {
+
+    private final String name;
+    private final String owner;
+    private final String membersKey;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisGuard redisGuard;
+    private final ClusterProperties properties;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private volatile int members = 1;
+    private volatile boolean closing;
+    private ApplicationContext applicationContext;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cluster-coordinator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ClusterCoordinator(String name,
+                              StringRedisTemplate stringRedisTemplate,
+                              RedisGuard redisGuard,
+                              ClusterProperties properties) {
+        this.name = name;
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+        this.membersKey = "forum:cluster:" + name + ":members";
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisGuard = redisGuard;
+        this.properties = properties;
+    }
+
+    public void start() {
+        if (!properties.isEnabled()) {
+            log.info("集群任务协调已关闭，所有实例都执行集群任务: name={}", name);
+            return;
+        }
+        long interval = properties.getRenewInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::tick, 0, interval, TimeUnit.MILLISECONDS);
+        log.info("集群任务协调已启动: name={}, owner={}", name, owner);
+    }
+
+    @Override
+    public void close() {
+        closing = true;
+        scheduler.shutdownNow();
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long deadline = System.nanoTime() + properties.getHandoffTimeout().toNanos();
+        for (Job job : jobs.values()) {
+            for (RedisLease lease : job.leases) {
+                while (lease.isExecuting() && System.nanoTime() - deadline < 0) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                if (lease.isExecuting()) {
+                    log.warn("集群任务停机时仍在执行，租约等待过期: lease={}", lease.name());
+                } else {
+                    lease.release();
+                }
+            }
+        }
+        redisGuard.run("cluster.members", () -> stringRedisTemplate.opsForZSet().remove(membersKey, owner));
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (String beanName : applicationContext.getBeanDefinitionNames()) {
+            Class<?> type = applicationContext.getType(beanName, false);
+            if (type == null) {
+                continue;
+            }
+            Map<Method, ClusterSingleton> methods = MethodIntrospector.selectMethods(type,
+                    (MethodIntrospector.MetadataLookup<ClusterSingleton>) method ->
+                            AnnotatedElementUtils.findMergedAnnotation(method, ClusterSingleton.class));
+            methods.forEach((method, annotation) -> jobs.computeIfAbsent(jobName(method, annotation),
+                    key -> new Job(key, Math.max(annotation.shards(), 1))));
+        }
+        log.info("集群任务已注册: name={}, jobs={}", name, jobs.keySet());
+    }
+
+    /**
+     * 任务名：注解指定的名称，默认为 类名.方法名
+     */
+    public static String jobName(Method method, ClusterSingleton annotation) {
+        return annotation.value().isEmpty()
+                ? method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                : annotation.value();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 执行集群任务：依次执行本实例持有的每个分片，没有持有任何分片时跳过
+     */
+    public void execute(String jobName, int shards, JobBody body) throws Throwable {
+        if (!properties.isEnabled()) {
+            body.run();
+            return;
+        }
+        if (closing) {
+            return;
+        }
+        Job job = register(jobName, shards);
+        boolean ran = false;
+        long runStartedAt = System.currentTimeMillis();
+        for (int shard = 0; shard < job.leases.size(); shard++) {
+            RedisLease lease = job.leases.get(shard);
+            long token = lease.token();
+            if (token == 0 || !lease.beginExecution()) {
+                continue;
+            }
+            ran = true;
+            long start = System.nanoTime();
+            ClusterJobContext.set(new ClusterJobContext(jobName, shard, job.leases.size(), lease, token, runStartedAt));
+            try {
+                body.run();
+            } finally {
+                ClusterJobContext.clear();
+                lease.endExecution();
+                job.runs.incrementAndGet();
+                job.lastRunMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                job.lastRunAt = System.currentTimeMillis();
+            }
+        }
+        if (!ran) {
+            job.skipped.incrementAndGet();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("owner", owner);
+        stats.put("members", members);
+        Map<String, Object> jobStats = new LinkedHashMap<>();
+        jobs.forEach((jobName, job) -> {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("shards", job.leases.size());
+            Map<Integer, Long> owned = new LinkedHashMap<>();
+            for (int shard = 0; shard < job.leases.size(); shard++) {
+                long token = job.leases.get(shard).token();
+                if (token > 0) {
+                    owned.put(shard, token);
+                }
+            }
+            item.put("ownedShards", owned);
+            item.put("runs", job.runs.get());
+            item.put("skipped", job.skipped.get());
+            item.put("lastRunAt", job.lastRunAt);
+            item.put("lastRunMillis", job.lastRunMillis);
+            jobStats.put(jobName, item);
+        });
+        stats.put("jobs", jobStats);
+        return stats;
+    }
+
+    private Job register(String jobName, int shards) {
+        Job job = jobs.get(jobName);
+        if (job != null) {
+            return job;
+        }
+        Job created = jobs.computeIfAbsent(jobName, key -> new Job(key, Math.max(shards, 1)));
+        if (created.leases.size() != Math.max(shards, 1)) {
+            throw new IllegalStateException("集群任务分片数不一致: job=" + jobName);
+        }
+        balance(created);
+        return created;
+    }
+
+    private void tick() {
+        try {
+            heartbeat();
+            for (Job job : jobs.values()) {
+                balance(job);
+            }
+        } catch (RuntimeException e) {
+            log.warn("集群任务协调失败: name={}, error={}", name, e.getMessage());
+        }
+    }
+
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        long expireAt = now + properties.getLeaseTtl().toMillis();
+        List<Object> results = redisGuard.execute("cluster.members",
+                () -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection strings = (StringRedisConnection) connection;
+                    strings.zAdd(membersKey, expireAt, owner);
+                    strings.zRemRangeByScore(membersKey, Double.NEGATIVE_INFINITY, now);
+                    strings.zCard(membersKey);
+                    strings.pExpire(membersKey, properties.getLeaseTtl().toMillis() * 2);
+                    return null;
+                }),
+                () -> null);
+        if (results != null && results.get(2) instanceof Long count && count > 0) {
+            members = count.intValue();
+        }
+    }
+
+    private void balance(Job job) {
+        synchronized (job) {
+            int shards = job.leases.size();
+            List<RedisLease> held = new ArrayList<>();
+            for (RedisLease lease : job.leases) {
+                if (lease.token() > 0 && lease.tryAcquire()) {
+                    held.add(lease);
+                }
+            }
+            int target = shards == 1 ? 1 : (shards + members - 1) / members;
+            // 多出的分片从后往前释放，正在执行的分片留到下一轮
+            for (int i = held.size() - 1; i >= 0 && held.size() > target; i--) {
+                RedisLease lease = held.get(i);
+                if (!lease.isExecuting()) {
+                    lease.release();
+                    held.remove(i);
+                }
+            }
+            if (held.size() >= target) {
+                return;
+            }
+            int offset = Math.floorMod(owner.hashCode(), shards);
+            for (int i = 0; i < shards && held.size() < target; i++) {
+                RedisLease lease = job.leases.get((offset + i) % shards);
+                if (!held.contains(lease) && lease.tryAcquire()) {
+                    held.add(lease);
+                }
+            }
+        }
+    }
+
+    /**
+     * 集群任务的方法体，本实例持有多个分片时每个分片调用一次
+     */
+    @FunctionalInterface
+    public interface JobBody {
+        void run() throws Throwable;
+    }
+
+    private final class Job {
+        private final List<RedisLease> leases;
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private volatile long lastRunAt;
+        private volatile long lastRunMillis;
+
+        private Job(String jobName, int shards) {
+            List<RedisLease> list = new ArrayList<>(shards);
+            for (int shard = 0; shard < shards; shard++) {
+                String leaseName = shards == 1 ? jobName : jobName + "#" + shard;
+                list.add(new RedisLease(leaseName, "forum:lease:" + name + ":" + leaseName, owner,
+                        properties.getLeaseTtl(), stringRedisTemplate, redisGuard));
+            }
+            this.leases = List.copyOf(list);
+        }
+    }
+}
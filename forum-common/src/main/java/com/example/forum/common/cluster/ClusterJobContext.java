@@ -0,0 +1,114 @@
+package com.example.forum.common.cluster;
+
+/**
+ * 当前线程正在执行的集群任务分片
+ *
+ * 由 {@link ClusterCoordinator} 在执行 {@link ClusterSingleton} 方法期间设置；不在集群任务中（如管理接口手动触发、
+ * 协调关闭）时为覆盖全部范围的单分片，且始终有效，任务代码无需区分两种情况。
+ */
+public final class ClusterJobContext {
+
+    private static final ThreadLocal<ClusterJobContext> CURRENT = new ThreadLocal<>();
+    private static final ClusterJobContext UNSHARDED = new ClusterJobContext(null, 0, 1, null, 0, 0);
+
+    private final String job;
+    private final int shard;
+    private final int shards;
+    private final RedisLease lease;
+    private final long fencingToken;
+    private final long runStartedAt;
+
+    ClusterJobContext(String job, int shard, int shards, RedisLease lease, long fencingToken, long runStartedAt) {
+        this.job = job;
+        this.shard = shard;
+        this.shards = shards;
+        this.lease = lease;
+        this.fencingToken = fencingToken;
+        this.runStartedAt = runStartedAt;
+    }
+
+    public static ClusterJobContext current() {
+        ClusterJobContext context = CURRENT.get();
+        return context != null ? context : UNSHARDED;
+    }
+
+    static void set(ClusterJobContext context) {
+        CURRENT.set(context);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    public String job() {
+        return job;
+    }
+
+    public int shard() {
+        return shard;
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    /**
+     * 开始执行时的租约令牌（集群内单调递增），不在集群任务中时为 0
+     */
+    public long fencingToken() {
+        return fencingToken;
+    }
+
+    /**
+     * 本次触发的开始时间，同一次触发中本实例执行的各分片相同，用于汇总各分片的结果；不在集群任务中时为 0
+     */
+    public long runStartedAt() {
+        return runStartedAt;
+    }
+
+    /**
+     * 租约仍由本实例持有且令牌未变（期间没有丢失后重新获取）
+     */
+    public boolean isValid() {
+        return lease == null || lease.token() == fencingToken;
+    }
+
+    /**
+     * 写入前调用：租约已丢失时抛出异常中止任务，避免与接管的实例同时写入
+     */
+    public void checkValid() {
+        if (!isValid()) {
+            throw new IllegalStateException("集群任务租约已丢失: job=" + job + ", shard=" + shard + ", token=" + fencingToken);
+        }
+    }
+
+    /**
+     * 把 [min, max] 按分片均分，返回当前分片负责的子区间（左闭右开），分片之间不重叠且覆盖全部范围
+     */
+    public KeyRange range(long min, long max) {
+        long span = max - min + 1;
+        if (span <= 0) {
+            return new KeyRange(min, min);
+        }
+        return new KeyRange(min + span * shard / shards, min + span * (shard + 1) / shards);
+    }
+
+    @Override
+    public String toString() {
+        return job == null ? "unsharded" : job + "#" + shard + "/" + shards + "@" + fencingToken;
+    }
+
+    /**
+     * key 区间 [from, to)
+     */
+    public record KeyRange(long from, long to) {
+
+        public boolean isEmpty() {
+            return from >= to;
+        }
+
+        public boolean contains(long key) {
+            return key >= from && key < to;
+        }
+    }
+}
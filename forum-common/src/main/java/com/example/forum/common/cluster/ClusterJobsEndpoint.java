@@ -0,0 +1,24 @@
+package com.example.forum.common.cluster;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * /actuator/clusterjobs：本实例标识、存活实例数，以及各集群任务本实例持有的分片（令牌）和执行/跳过次数
+ */
+@Endpoint(id = "clusterjobs")
+public class ClusterJobsEndpoint {
+
+    private final ClusterCoordinator coordinator;
+
+    public ClusterJobsEndpoint(ClusterCoordinator coordinator) {
+        this.coordinator = coordinator;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return coordinator.getStats();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.forum.common.cluster;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * 集群任务协调配置（forum.cluster.*）
+ */
+@Data
+public class ClusterProperties {
+
+    /**
+     * 关闭后不再选主，每个实例都执行全部 {@link ClusterSingleton} 任务（单实例部署或排查问题时使用）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 租约有效期：持有者宕机后，其他实例最迟在该时长后接管
+     */
+    private Duration leaseTtl = Duration.ofSeconds(30);
+
+    /**
+     * 续约、上报存活以及重新分配分片的间隔，需明显小于 lease-ttl
+     */
+    private Duration renewInterval = Duration.ofSeconds(10);
+
+    /**
+     * 停机时等待正在执行的任务结束的最长时间，超时未结束的任务不主动释放租约，由租约自然过期
+     */
+    private Duration handoffTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,30 @@
+package com.example.forum.common.cluster;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记集群内只由租约持有者执行的定时任务，与 {@code @Scheduled} 一起使用
+ *
+ * 每个实例照常触发，没有持有租约的实例直接跳过。shards 大于 1 时任务分成多个分片，每个分片一个租约，
+ * 分片在存活实例间均分，实例对持有的每个分片各执行一次方法，方法内通过 {@link ClusterJobContext#current()}
+ * 取得当前分片并只处理对应的 key 范围。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ClusterSingleton {
+
+    /**
+     * 任务名（同一服务内唯一），默认为 类名.方法名
+     */
+    String value() default "";
+
+    /**
+     * 分片数，1 表示单主执行
+     */
+    int shards() default 1;
+}
@@ -0,0 +1,51 @@
+package com.example.forum.common.cluster;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * 拦截 {@link ClusterSingleton} 方法，交给 {@link ClusterCoordinator} 按租约执行
+ *
+ * 与 @Transactional 一样基于代理，同一个类内部的自调用不会被拦截。
+ */
+public class ClusterSingletonInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<ClusterCoordinator> clusterCoordinator;
+
+    public ClusterSingletonInterceptor(ObjectProvider<ClusterCoordinator> clusterCoordinator) {
+        this.clusterCoordinator = clusterCoordinator;
+    }
+
+    /**
+     * 为 {@link ClusterSingleton} 方法创建代理的 Advisor
+     */
+    public static Advisor advisor(ObjectProvider<ClusterCoordinator> clusterCoordinator) {
+        return new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(null, ClusterSingleton.class, true),
+                new ClusterSingletonInterceptor(clusterCoordinator));
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        ClusterCoordinator coordinator = clusterCoordinator.getIfAvailable();
+        Method method = invocation.getMethod();
+        ClusterSingleton annotation = AnnotatedElementUtils.findMergedAnnotation(method, ClusterSingleton.class);
+        if (coordinator == null || annotation == null) {
+            return invocation.proceed();
+        }
+        // 分片任务每个分片执行一次方法体；MethodInvocation 只能 proceed 一次，之后的拦截器链会被跳过，
+        // 因此每个分片使用一份副本，排在本拦截器之后的通知（如 @Transactional）对每个分片都生效
+        ClusterCoordinator.JobBody body = invocation instanceof ProxyMethodInvocation proxyInvocation
+                ? () -> proxyInvocation.invocableClone().proceed()
+                : invocation::proceed;
+        coordinator.execute(ClusterCoordinator.jobName(method, annotation), annotation.shards(), body);
+        return null;
+    }
+}
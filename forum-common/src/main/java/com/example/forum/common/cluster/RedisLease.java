@@ -0,0 +1,153 @@
+package com.example.forum.common.cluster;
+
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.common.redis.RedisKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 基于 Redis 的租约
+ *
+ * 租约 key 的值为 "持有者|令牌"，带 TTL；另有同槽位的计数 key 生成令牌。获取成功时令牌递增，
+ * 同一持有者续约时令牌不变，因此令牌在整个集群中单调递增，可作为 fencing token：
+ * 存储侧记录见过的最大令牌，拒绝更小令牌的写入，就能挡住"暂停后恢复、以为自己仍持有租约"的旧持有者。
+ *
+ * 本地按获取请求发出的时刻计算有效期，并扣除 10% 余量抵消各节点时钟速率差异：Redis 不可用、无法续约时
+ * 本地先于 Redis 中的 key 过期放弃租约，其他实例只有在 key 过期后才能获取，两者不会同时认为自己持有。
+ */
+@Slf4j
+public class RedisLease {
+
+    /**
+     * 获取或续约：未被持有时生成新令牌，已由自己持有时只延长 TTL
+     * KEYS: 租约 key, 令牌计数 key；ARGV: 持有者, TTL（毫秒）
+     * @return 令牌，被其他实例持有时返回 0
+     */
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[1])
+            if current then
+              local owner, token = string.match(current, '^(.*)|(%d+)$')
+              if owner ~= ARGV[1] then return 0 end
+              redis.call('PEXPIRE', KEYS[1], ARGV[2])
+              return tonumber(token)
+            end
+            local token = redis.call('INCR', KEYS[2])
+            redis.call('SET', KEYS[1], ARGV[1] .. '|' .. token, 'PX', ARGV[2])
+            return token
+            """, Long.class);
+
+    /**
+     * 释放：只删除自己持有的租约
+     * KEYS: 租约 key；ARGV: 持有者, 令牌
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] .. '|' .. ARGV[2] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final String name;
+    private final String key;
+    private final String fenceKey;
+    private final String owner;
+    private final long ttlMillis;
+    private final long validNanos;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisGuard redisGuard;
+
+    private volatile long token;
+    private volatile long validUntil;
+    private final AtomicBoolean executing = new AtomicBoolean();
+
+    public RedisLease(String name, String key, String owner, Duration ttl,
+                      StringRedisTemplate stringRedisTemplate, RedisGuard redisGuard) {
+        this.name = name;
+        this.key = key;
+        this.fenceKey = RedisKeys.colocated(key, ":fence");
+        this.owner = owner;
+        this.ttlMillis = ttl.toMillis();
+        this.validNanos = ttl.toNanos() / 10 * 9;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisGuard = redisGuard;
+    }
+
+    /**
+     * 获取或续约
+     * @return 当前是否持有租约（Redis 不可用时按本地有效期判断）
+     */
+    public boolean tryAcquire() {
+        long requestedAt = System.nanoTime();
+        Long result = redisGuard.execute("cluster.lease",
+                () -> stringRedisTemplate.execute(ACQUIRE_SCRIPT, List.of(key, fenceKey), owner, Long.toString(ttlMillis)),
+                () -> null);
+        if (result == null) {
+            return isHeld();
+        }
+        long previous = token;
+        if (result > 0) {
+            validUntil = requestedAt + validNanos;
+            token = result;
+            if (previous != result) {
+                log.info("已获取租约: lease={}, owner={}, token={}", name, owner, result);
+            }
+            return true;
+        }
+        token = 0;
+        if (previous != 0) {
+            log.warn("租约已被其他实例持有: lease={}, owner={}, token={}", name, owner, previous);
+        }
+        return false;
+    }
+
+    /**
+     * 主动释放，其他实例在下一次续约周期即可接管，无需等待 TTL
+     */
+    public void release() {
+        long held = token;
+        if (held == 0) {
+            return;
+        }
+        token = 0;
+        // Redis 不可用时释放失败，租约按 TTL 过期
+        redisGuard.run("cluster.lease",
+                () -> stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(key), owner, Long.toString(held)));
+        log.info("已释放租约: lease={}, owner={}, token={}", name, owner, held);
+    }
+
+    public boolean isHeld() {
+        return token > 0 && System.nanoTime() - validUntil < 0;
+    }
+
+    /**
+     * 当前令牌，未持有时为 0
+     */
+    public long token() {
+        return isHeld() ? token : 0;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 标记开始执行任务，已在执行时返回 false
+     */
+    boolean beginExecution() {
+        return executing.compareAndSet(false, true);
+    }
+
+    void endExecution() {
+        executing.set(false);
+    }
+
+    boolean isExecuting() {
+        return executing.get();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.forum.common.event;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 领域事件
+ *
+ * @param id 事件 ID（UUID），重复投递时不变，处理方据此去重
+ * @param type 事件类型
+ * @param aggregateId 事件主体 ID：帖子、点赞、评论事件为帖子 ID，关注事件为关注者 ID
+ * @param actorId 操作者 ID（系统操作为 null）
+ * @param attributes 其余字段，值统一为字符串
+ * @param occurredAt 发生时间（毫秒）
+ */
+public record DomainEvent(String id,
+                          DomainEventType type,
+                          Integer aggregateId,
+                          Integer actorId,
+                          Map<String, String> attributes,
+                          long occurredAt) {
+
+    static final String FIELD_ID = "id";
+    static final String FIELD_TYPE = "type";
+    static final String FIELD_AGGREGATE_ID = "aggregateId";
+    static final String FIELD_ACTOR_ID = "actorId";
+    static final String FIELD_OCCURRED_AT = "occurredAt";
+    // 属性在 Stream 条目中带前缀，避免与固定字段冲突
+    static final String ATTRIBUTE_PREFIX = "a.";
+
+    public DomainEvent {
+        attributes = attributes == null ? Map.of() : Map.copyOf(attributes);
+    }
+
+    public static DomainEvent of(DomainEventType type, Integer aggregateId, Integer actorId, Map<String, String> attributes) {
+        return new DomainEvent(UUID.randomUUID().toString(), type, aggregateId, actorId, attributes, System.currentTimeMillis());
+    }
+
+    public static DomainEvent postCreated(Integer postId, Integer authorId, String status) {
+        return of(DomainEventType.POST_CREATED, postId, authorId, Map.of("status", status));
+    }
+
+    public static DomainEvent postModerated(Integer postId, String status) {
+        return of(DomainEventType.POST_MODERATED, postId, null, Map.of("status", status));
+    }
+
+    public static DomainEvent postDeleted(Integer postId, Integer authorId) {
+        return of(DomainEventType.POST_DELETED, postId, null,
+                authorId != null ? Map.of("authorId", authorId.toString()) : Map.of());
+    }
+
+    /**
+     * 定时发布的帖子到期，状态从 scheduled 变为 status
+     */
+    public static DomainEvent postPublished(Integer postId, Integer authorId, String status) {
+        return of(DomainEventType.POST_PUBLISHED, postId, authorId, Map.of("status", status));
+    }
+
+    public static DomainEvent liked(Integer postId, Integer userId) {
+        return of(DomainEventType.LIKED, postId, userId, Map.of());
+    }
+
+    public static DomainEvent unliked(Integer postId, Integer userId) {
+        return of(DomainEventType.UNLIKED, postId, userId, Map.of());
+    }
+
+    public static DomainEvent commentAdded(Integer postId, Integer commentId, Integer userId) {
+        return of(DomainEventType.COMMENT_ADDED, postId, userId, Map.of("commentId", commentId.toString()));
+    }
+
+    /**
+     * @param affected 随根评论一起删除的评论数（含回复）
+     */
+    public static DomainEvent commentDeleted(Integer postId, Integer commentId, Integer operatorId, int affected) {
+        return of(DomainEventType.COMMENT_DELETED, postId, operatorId,
+                Map.of("commentId", commentId.toString(), "affected", Integer.toString(affected)));
+    }
+
+    public static DomainEvent followed(Integer followerId, Integer followeeId) {
+        return of(DomainEventType.FOLLOWED, followerId, followerId, Map.of("followeeId", followeeId.toString()));
+    }
+
+    public static DomainEvent unfollowed(Integer followerId, Integer followeeId) {
+        return of(DomainEventType.UNFOLLOWED, followerId, followerId, Map.of("followeeId", followeeId.toString()));
+    }
+
+    public String attribute(String name) {
+        return attributes.get(name);
+    }
+
+    public Integer intAttribute(String name) {
+        String value = attributes.get(name);
+        return value != null ? Integer.valueOf(value) : null;
+    }
+
+    /**
+     * 转换为 Stream 条目字段
+     */
+    public Map<String, String> toFields() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(FIELD_ID, id);
+        fields.put(FIELD_TYPE, type.code());
+        if (aggregateId != null) {
+            fields.put(FIELD_AGGREGATE_ID, aggregateId.toString());
+        }
+        if (actorId != null) {
+            fields.put(FIELD_ACTOR_ID, actorId.toString());
+        }
+        fields.put(FIELD_OCCURRED_AT, Long.toString(occurredAt));
+        attributes.forEach((name, value) -> fields.put(ATTRIBUTE_PREFIX + name, value));
+        return fields;
+    }
+
+    /**
+     * 从 Stream 条目解析，类型未知或缺少必需字段时抛出 IllegalArgumentException
+     */
+    public static DomainEvent fromFields(Map<String, String> fields) {
+        String id = fields.get(FIELD_ID);
+        DomainEventType type = DomainEventType.fromCode(fields.getOrDefault(FIELD_TYPE, ""));
+        if (id == null || type == null) {
+            throw new IllegalArgumentException("无法解析的领域事件: " + fields);
+        }
+        Map<String, String> attributes = new HashMap<>();
+        fields.forEach((name, value) -> {
+            if (name.startsWith(ATTRIBUTE_PREFIX)) {
+                attributes.put(name.substring(ATTRIBUTE_PREFIX.length()), value);
+            }
+        });
+        String aggregateId = fields.get(FIELD_AGGREGATE_ID);
+        String actorId = fields.get(FIELD_ACTOR_ID);
+        String occurredAt = fields.get(FIELD_OCCURRED_AT);
+        return new DomainEvent(id, type,
+                aggregateId != null ? Integer.valueOf(aggregateId) : null,
+                actorId != null ? Integer.valueOf(actorId) : null,
+                attributes,
+                occurredAt != null ? Long.parseLong(occurredAt) : 0L);
+    }
+}
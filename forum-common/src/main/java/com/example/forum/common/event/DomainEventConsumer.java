@@ -0,0 +1,365 @@
+package com.example.forum.common.event;
+
+import com.example.forum.common.redis.RedisGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 领域事件消费者：以消费组方式读取处理方关心的 Stream，并按批交给处理方
+ *
+ * 一个服务一个消费组（通常为服务名），同一服务的多个实例分摊事件，不同服务各自收到全部事件。
+ * 单个后台线程循环 XREADGROUP（每次最多 consumer-batch-size 条，没有新事件时阻塞 block-timeout），
+ * 所有处理方成功后 XACK；某个处理方整批失败时逐条重试，仍失败的事件不确认，留在待确认列表中。
+ *
+ * 每隔 claim-interval 检查待确认列表：空闲超过 claim-idle 的事件（处理失败或原消费者宕机）由本消费者认领重新处理，
+ * 投递次数达到 max-deliveries 的事件转入死信 Stream 并确认。Redis 熔断期间暂停消费。
+ */
+@Slf4j
+public class DomainEventConsumer implements AutoCloseable {
+
+    private static final long ERROR_BACKOFF_MILLIS = 1000;
+
+    private final String group;
+    private final String consumerName;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisGuard redisGuard;
+    private final EventBusProperties properties;
+    private final List<DomainEventHandler> handlers;
+    private final List<String> streams;
+
+    private volatile boolean running;
+    private Thread worker;
+    private boolean groupsReady;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong acknowledged = new AtomicLong();
+    private final AtomicLong handlerFailures = new AtomicLong();
+    private final AtomicLong redelivered = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong readErrors = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public DomainEventConsumer(String group,
+                               StringRedisTemplate stringRedisTemplate,
+                               RedisGuard redisGuard,
+                               EventBusProperties properties,
+                               List<DomainEventHandler> handlers) {
+        this.group = group;
+        this.consumerName = ManagementFactory.getRuntimeMXBean().getName();
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisGuard = redisGuard;
+        this.properties = properties;
+        this.handlers = List.copyOf(handlers);
+        Set<String> names = new LinkedHashSet<>();
+        for (DomainEventHandler handler : handlers) {
+            handler.types().forEach(type -> names.add(type.stream()));
+        }
+        this.streams = List.copyOf(names);
+    }
+
+    public void start() {
+        if (!properties.isEnabled() || streams.isEmpty()) {
+            log.info("领域事件消费者未启动: group={}, enabled={}, streams={}", group, properties.isEnabled(), streams);
+            return;
+        }
+        running = true;
+        worker = new Thread(this::consumeLoop, "domain-event-consumer");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("领域事件消费者已启动: group={}, consumer={}, streams={}", group, consumerName, streams);
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            // 最多等待一次阻塞读取返回
+            worker.join(properties.getBlockTimeout().toMillis() + TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        removeIdleConsumer();
+    }
+
+    /**
+     * 认领并处理空闲过久的待确认事件，返回重新处理的事件数
+     */
+    public int reclaim() {
+        StreamOperations<String, Object, Object> ops = stringRedisTemplate.opsForStream();
+        long minIdleMillis = properties.getClaimIdle().toMillis();
+        int total = 0;
+        for (String stream : streams) {
+            PendingMessages pending = ops.pending(stream, group, Range.unbounded(), properties.getConsumerBatchSize());
+            Map<RecordId, Long> deliveries = new LinkedHashMap<>();
+            for (PendingMessage message : pending) {
+                if (message.getElapsedTimeSinceLastDelivery().toMillis() >= minIdleMillis) {
+                    deliveries.put(message.getId(), message.getTotalDeliveryCount());
+                }
+            }
+            if (deliveries.isEmpty()) {
+                continue;
+            }
+            List<MapRecord<String, Object, Object>> claimed = ops.claim(stream, group, consumerName,
+                    properties.getClaimIdle(), deliveries.keySet().toArray(RecordId[]::new));
+            Set<RecordId> found = new HashSet<>();
+            List<MapRecord<String, Object, Object>> retry = new ArrayList<>();
+            for (MapRecord<String, Object, Object> record : claimed) {
+                found.add(record.getId());
+                long count = deliveries.getOrDefault(record.getId(), 0L);
+                if (count >= properties.getMaxDeliveries()) {
+                    deadLetter(record, "投递 " + count + " 次仍未处理成功");
+                    ops.acknowledge(stream, group, record.getId());
+                } else {
+                    retry.add(record);
+                }
+            }
+            // 已被 MAXLEN 裁剪掉的条目无法再认领，直接从待确认列表移除
+            List<RecordId> trimmed = deliveries.keySet().stream().filter(id -> !found.contains(id)).toList();
+            if (!trimmed.isEmpty()) {
+                ops.acknowledge(stream, group, trimmed.toArray(RecordId[]::new));
+                log.warn("待确认的领域事件已被裁剪: stream={}, group={}, count={}", stream, group, trimmed.size());
+            }
+            if (!retry.isEmpty()) {
+                redelivered.addAndGet(retry.size());
+                process(retry);
+                total += retry.size();
+            }
+        }
+        return total;
+    }
+
+    public Map<String, Object> getStats() {
+        long batchCount = batches.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", running);
+        stats.put("group", group);
+        stats.put("consumer", consumerName);
+        stats.put("handlers", handlers.size());
+        stats.put("batches", batchCount);
+        stats.put("delivered", delivered.get());
+        stats.put("acknowledged", acknowledged.get());
+        stats.put("handlerFailures", handlerFailures.get());
+        stats.put("redelivered", redelivered.get());
+        stats.put("deadLettered", deadLettered.get());
+        stats.put("readErrors", readErrors.get());
+        stats.put("avgBatchSize", batchCount == 0 ? 0.0 : (double) delivered.get() / batchCount);
+        stats.put("avgBatchMillis", batchCount == 0 ? 0.0 : totalNanos.get() / 1_000_000.0 / batchCount);
+        stats.put("maxBatchMillis", TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+        stats.put("streams", redisGuard.execute("event.lag", this::streamLag, Map::of));
+        return stats;
+    }
+
+    /**
+     * 每个 Stream 的长度、本消费组的待确认数和滞后：lagMillis 为最新条目与本组最后读取条目的时间差
+     */
+    private Map<String, Object> streamLag() {
+        StreamOperations<String, Object, Object> ops = stringRedisTemplate.opsForStream();
+        Map<String, Object> lag = new LinkedHashMap<>();
+        for (String stream : streams) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(stream))) {
+                item.put("length", 0);
+                lag.put(stream, item);
+                continue;
+            }
+            StreamInfo.XInfoStream info = ops.info(stream);
+            item.put("length", info.streamLength());
+            for (StreamInfo.XInfoGroup groupInfo : ops.groups(stream)) {
+                if (group.equals(groupInfo.groupName())) {
+                    item.put("pending", groupInfo.pendingCount());
+                    item.put("lastDeliveredId", groupInfo.lastDeliveredId());
+                    long newest = RecordId.of(info.lastGeneratedId()).getTimestamp();
+                    long deliveredUpTo = RecordId.of(groupInfo.lastDeliveredId()).getTimestamp();
+                    item.put("lagMillis", Math.max(newest - deliveredUpTo, 0));
+                }
+            }
+            lag.put(stream, item);
+        }
+        return lag;
+    }
+
+    private void consumeLoop() {
+        StreamOperations<String, Object, Object> ops = stringRedisTemplate.opsForStream();
+        Consumer consumer = Consumer.from(group, consumerName);
+        StreamReadOptions options = StreamReadOptions.empty()
+                .count(properties.getConsumerBatchSize())
+                .block(properties.getBlockTimeout());
+        @SuppressWarnings("unchecked")
+        StreamOffset<String>[] offsets = streams.stream()
+                .map(stream -> StreamOffset.create(stream, ReadOffset.lastConsumed()))
+                .toArray(StreamOffset[]::new);
+        long claimIntervalNanos = properties.getClaimInterval().toNanos();
+        // 启动后先处理一次上次遗留的待确认事件
+        long nextClaim = System.nanoTime();
+        while (running) {
+            // 阻塞读取不经过 RedisGuard（阻塞时长会被计为慢调用），熔断期间只等待
+            if (redisGuard.isOpen()) {
+                sleep(ERROR_BACKOFF_MILLIS);
+                continue;
+            }
+            try {
+                if (!groupsReady) {
+                    createGroups();
+                }
+                if (System.nanoTime() - nextClaim >= 0) {
+                    reclaim();
+                    nextClaim = System.nanoTime() + claimIntervalNanos;
+                }
+                List<MapRecord<String, Object, Object>> records = ops.read(consumer, options, offsets);
+                if (records != null && !records.isEmpty()) {
+                    process(records);
+                }
+            } catch (RuntimeException e) {
+                readErrors.incrementAndGet();
+                log.warn("读取领域事件失败: group={}, error={}", group, e.getMessage());
+                sleep(ERROR_BACKOFF_MILLIS);
+            }
+        }
+        log.info("领域事件消费者已停止: group={}, acknowledged={}", group, acknowledged.get());
+    }
+
+    private void process(List<MapRecord<String, Object, Object>> records) {
+        long start = System.nanoTime();
+        List<MapRecord<String, Object, Object>> accepted = new ArrayList<>(records.size());
+        List<DomainEvent> events = new ArrayList<>(records.size());
+        Map<String, List<RecordId>> acks = new LinkedHashMap<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            try {
+                events.add(DomainEvent.fromFields(toStrings(record.getValue())));
+                accepted.add(record);
+            } catch (IllegalArgumentException e) {
+                deadLetter(record, e.getMessage());
+                acks.computeIfAbsent(record.getStream(), key -> new ArrayList<>()).add(record.getId());
+            }
+        }
+
+        Set<String> failedEventIds = new HashSet<>();
+        for (DomainEventHandler handler : handlers) {
+            List<DomainEvent> subset = events.stream().filter(event -> handler.types().contains(event.type())).toList();
+            if (subset.isEmpty()) {
+                continue;
+            }
+            try {
+                handler.handle(subset);
+            } catch (RuntimeException batchError) {
+                // 整批失败时逐条重试，只保留真正失败的事件
+                for (DomainEvent event : subset) {
+                    try {
+                        handler.handle(List.of(event));
+                    } catch (RuntimeException e) {
+                        handlerFailures.incrementAndGet();
+                        failedEventIds.add(event.id());
+                        log.warn("领域事件处理失败，稍后重新投递: group={}, handler={}, type={}, eventId={}, error={}",
+                                group, handler.getClass().getSimpleName(), event.type().code(), event.id(), e.getMessage());
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < accepted.size(); i++) {
+            if (!failedEventIds.contains(events.get(i).id())) {
+                MapRecord<String, Object, Object> record = accepted.get(i);
+                acks.computeIfAbsent(record.getStream(), key -> new ArrayList<>()).add(record.getId());
+            }
+        }
+        StreamOperations<String, Object, Object> ops = stringRedisTemplate.opsForStream();
+        acks.forEach((stream, ids) -> {
+            ops.acknowledge(stream, group, ids.toArray(RecordId[]::new));
+            acknowledged.addAndGet(ids.size());
+        });
+
+        long elapsed = System.nanoTime() - start;
+        batches.incrementAndGet();
+        delivered.addAndGet(records.size());
+        totalNanos.addAndGet(elapsed);
+        maxNanos.accumulateAndGet(elapsed, Math::max);
+    }
+
+    private void deadLetter(MapRecord<String, Object, Object> record, String error) {
+        Map<String, String> fields = new LinkedHashMap<>(toStrings(record.getValue()));
+        fields.put("dlq.stream", record.getStream());
+        fields.put("dlq.group", group);
+        fields.put("dlq.recordId", record.getId().getValue());
+        fields.put("dlq.error", String.valueOf(error));
+        stringRedisTemplate.opsForStream().add(
+                StreamRecords.string(fields).withStreamKey(DomainEventType.DEAD_LETTER_STREAM));
+        deadLettered.incrementAndGet();
+        log.error("领域事件转入死信: stream={}, group={}, recordId={}, error={}",
+                record.getStream(), group, record.getId(), error);
+    }
+
+    private void createGroups() {
+        for (String stream : streams) {
+            try {
+                // 从头开始：消费组创建前已发布的事件同样会被处理
+                stringRedisTemplate.execute((RedisCallback<String>) connection ->
+                        ((StringRedisConnection) connection).xGroupCreate(stream, ReadOffset.from("0-0"), group, true));
+            } catch (RedisSystemException e) {
+                if (e.getMessage() == null || !e.getMessage().contains("BUSYGROUP")) {
+                    throw e;
+                }
+            }
+        }
+        groupsReady = true;
+    }
+
+    /**
+     * 停止时本消费者没有待确认事件则从消费组中移除，避免重启后遗留大量空闲消费者
+     */
+    private void removeIdleConsumer() {
+        redisGuard.run("event.consumer.remove", () -> {
+            StreamOperations<String, Object, Object> ops = stringRedisTemplate.opsForStream();
+            Consumer consumer = Consumer.from(group, consumerName);
+            for (String stream : streams) {
+                if (ops.pending(stream, consumer, Range.unbounded(), 1).isEmpty()) {
+                    ops.deleteConsumer(stream, consumer);
+                }
+            }
+        });
+    }
+
+    private static Map<String, String> toStrings(Map<Object, Object> value) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        value.forEach((name, field) -> fields.put(String.valueOf(name), String.valueOf(field)));
+        return fields;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
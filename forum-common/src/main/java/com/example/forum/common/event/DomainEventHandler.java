@@ -0,0 +1,24 @@
+package com.example.forum.common.event;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 领域事件处理方，由 {@link DomainEventConsumer} 按批调用
+ *
+ * 投递语义是至少一次：处理失败、消费者宕机或同一批中其他处理方失败时事件会被再次投递，
+ * 处理逻辑需要幂等（缓存失效天然幂等，计数类操作用 {@link IdempotentEventHandler} 包装）。
+ * 抛出异常时该批事件会逐条重试，仍然失败的事件留待稍后重新投递，多次失败后转入死信。
+ */
+public interface DomainEventHandler {
+
+    /**
+     * 关心的事件类型
+     */
+    Set<DomainEventType> types();
+
+    /**
+     * 处理一批事件（同一 Stream 内按发布顺序排列），批内可以合并同一对象的多次变化
+     */
+    void handle(List<DomainEvent> events);
+}
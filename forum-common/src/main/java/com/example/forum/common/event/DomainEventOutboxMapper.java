@@ -0,0 +1,62 @@
+package com.example.forum.common.event;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 发件箱表访问（SQL 定义）
+ *
+ * Mapper 扫描只覆盖各服务自己的包，各服务在 repo 包中声明一个继承本接口的空 {@code @Mapper} 接口。
+ */
+public interface DomainEventOutboxMapper {
+
+    @Insert("""
+            INSERT INTO domain_event_outbox (event_id, event_type, aggregate_id, actor_id, attributes, occurred_at)
+            VALUES (#{eventId}, #{eventType}, #{aggregateId}, #{actorId}, #{attributes}, #{occurredAt})
+            """)
+    int insertEvent(OutboxRecord record);
+
+    /**
+     * 按写入顺序取出一批未发布的事件并加行锁；其他实例的中继跳过已锁定的行，不会重复发布同一批
+     */
+    @Select("""
+            SELECT id, event_id, event_type, aggregate_id, actor_id, attributes, occurred_at
+            FROM domain_event_outbox
+            WHERE published_at IS NULL
+            ORDER BY id
+            LIMIT #{limit}
+            FOR UPDATE SKIP LOCKED
+            """)
+    List<OutboxRecord> lockUnpublished(@Param("limit") int limit);
+
+    @Update("""
+            <script>
+            UPDATE domain_event_outbox SET published_at = #{publishedAt}
+            WHERE id IN
+            <foreach collection="ids" item="id" open="(" separator="," close=")">#{id}</foreach>
+            </script>
+            """)
+    int markPublished(@Param("ids") List<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    /**
+     * 分批删除已发布的旧事件，每次最多 limit 行
+     */
+    @Delete("""
+            DELETE FROM domain_event_outbox
+            WHERE published_at IS NOT NULL AND published_at < #{before}
+            LIMIT #{limit}
+            """)
+    int deletePublishedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    @Select("SELECT COUNT(*) FROM domain_event_outbox WHERE published_at IS NULL")
+    long countUnpublished();
+
+    @Select("SELECT MIN(occurred_at) FROM domain_event_outbox WHERE published_at IS NULL")
+    Long oldestUnpublished();
+}
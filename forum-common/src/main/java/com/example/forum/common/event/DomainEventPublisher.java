@@ -0,0 +1,48 @@
+package com.example.forum.common.event;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 领域事件发布入口（事务性发件箱）
+ *
+ * {@link #publish} 只把事件写入 domain_event_outbox，与业务数据处于同一个数据库事务：
+ * 业务回滚时事件一起回滚，业务提交后事件一定存在，由 {@link OutboxRelay} 异步发布到 Redis Stream。
+ * 因此应在业务写入成功之后、事务提交之前调用，且只在状态确实发生变化时调用。
+ */
+public class DomainEventPublisher {
+
+    private final DomainEventOutboxMapper outboxMapper;
+    private final OutboxRelay outboxRelay;
+
+    private final AtomicLong published = new AtomicLong();
+
+    public DomainEventPublisher(DomainEventOutboxMapper outboxMapper, OutboxRelay outboxRelay) {
+        this.outboxMapper = outboxMapper;
+        this.outboxRelay = outboxRelay;
+    }
+
+    public void publish(DomainEvent event) {
+        outboxMapper.insertEvent(OutboxRecord.from(event));
+        published.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxRelay.wakeUp();
+                }
+            });
+        } else {
+            outboxRelay.wakeUp();
+        }
+    }
+
+    /**
+     * 本实例写入发件箱的事件数
+     */
+    public long getPublishedCount() {
+        return published.get();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.forum.common.event;
+
+/**
+ * 领域事件类型及其所在的 Stream
+ *
+ * 所有 Stream 使用同一个哈希标签 {forum:events}，集群模式下位于同一槽位，
+ * 一条 XREADGROUP 可以同时读取多个 Stream（见 {@link com.example.forum.common.redis.RedisKeys}）。
+ */
+public enum DomainEventType {
+
+    POST_CREATED("post.created", DomainEventType.POST_STREAM),
+    POST_MODERATED("post.moderated", DomainEventType.POST_STREAM),
+    POST_DELETED("post.deleted", DomainEventType.POST_STREAM),
+    POST_PUBLISHED("post.published", DomainEventType.POST_STREAM),
+    LIKED("post.liked", DomainEventType.POST_STREAM),
+    UNLIKED("post.unliked", DomainEventType.POST_STREAM),
+    COMMENT_ADDED("comment.added", DomainEventType.COMMENT_STREAM),
+    COMMENT_DELETED("comment.deleted", DomainEventType.COMMENT_STREAM),
+    FOLLOWED("user.followed", DomainEventType.USER_STREAM),
+    UNFOLLOWED("user.unfollowed", DomainEventType.USER_STREAM);
+
+    public static final String POST_STREAM = "{forum:events}:post";
+    public static final String COMMENT_STREAM = "{forum:events}:comment";
+    public static final String USER_STREAM = "{forum:events}:user";
+    /**
+     * 多次处理失败或无法解析的事件转入死信 Stream，附带来源 Stream、消费组和失败原因
+     */
+    public static final String DEAD_LETTER_STREAM = "{forum:events}:dlq";
+
+    private final String code;
+    private final String stream;
+
+    DomainEventType(String code, String stream) {
+        this.code = code;
+        this.stream = stream;
+    }
+
+    /**
+     * 写入 Stream 和发件箱的类型名，改名会导致旧事件无法解析
+     */
+    public String code() {
+        return code;
+    }
+
+    public String stream() {
+        return stream;
+    }
+
+    public static DomainEventType fromCode(String code) {
+        for (DomainEventType type : values()) {
+            if (type.code.equals(code)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
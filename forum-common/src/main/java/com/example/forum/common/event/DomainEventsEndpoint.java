@@ -0,0 +1,33 @@
+package com.example.forum.common.event;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/domainevents：本实例发件箱写入数、中继发布情况（含发件箱积压）以及消费组的处理统计与各 Stream 的滞后
+ */
+@Endpoint(id = "domainevents")
+public class DomainEventsEndpoint {
+
+    private final DomainEventPublisher publisher;
+    private final OutboxRelay relay;
+    private final DomainEventConsumer consumer;
+
+    public DomainEventsEndpoint(DomainEventPublisher publisher, OutboxRelay relay, DomainEventConsumer consumer) {
+        this.publisher = publisher;
+        this.relay = relay;
+        this.consumer = consumer;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("outboxWrites", publisher.getPublishedCount());
+        stats.put("relay", relay.getStats());
+        stats.put("consumer", consumer.getStats());
+        return stats;
+    }
+}
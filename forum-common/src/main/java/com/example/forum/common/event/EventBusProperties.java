@@ -0,0 +1,67 @@
+package com.example.forum.common.event;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * 领域事件总线配置（forum.events.*）
+ */
+@Data
+public class EventBusProperties {
+
+    /**
+     * 关闭后不再中继发件箱、不再消费 Stream（事件仍写入发件箱，重新开启后补发）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 中继轮询发件箱的间隔；事务提交后会立即唤醒中继，轮询只用于兜底（如其他实例写入的事件）
+     */
+    private Duration relayInterval = Duration.ofSeconds(1);
+
+    /**
+     * 中继每批发布的事件数（一个事务 + 一个 pipeline）
+     */
+    private int relayBatchSize = 200;
+
+    /**
+     * 每个 Stream 保留的大致条目数（XADD MAXLEN ~）
+     */
+    private long streamMaxLength = 100_000;
+
+    /**
+     * 已发布事件在发件箱中的保留时间
+     */
+    private Duration outboxRetention = Duration.ofDays(1);
+
+    /**
+     * 消费者每次读取的最大条目数，即处理方一次收到的批量上限
+     */
+    private int consumerBatchSize = 100;
+
+    /**
+     * 没有新事件时 XREADGROUP 的阻塞时长，需小于 Redis 命令超时
+     */
+    private Duration blockTimeout = Duration.ofSeconds(2);
+
+    /**
+     * 检查待确认事件（处理失败或消费者宕机）的间隔
+     */
+    private Duration claimInterval = Duration.ofSeconds(30);
+
+    /**
+     * 待确认超过该时长的事件由当前消费者认领并重新处理
+     */
+    private Duration claimIdle = Duration.ofMinutes(1);
+
+    /**
+     * 投递次数达到该值仍未确认的事件转入死信 Stream
+     */
+    private int maxDeliveries = 5;
+
+    /**
+     * 幂等处理记录（已处理的事件 ID）的保留时间，需大于事件可能被重复投递的时间窗口
+     */
+    private Duration dedupTtl = Duration.ofDays(1);
+}
@@ -0,0 +1,74 @@
+package com.example.forum.common.event;
+
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 幂等处理包装：跳过已处理过的事件 ID
+ *
+ * 处理前批量检查 forum:events:done:{scope}:{事件ID}，只把未处理过的事件交给被包装的处理方，
+ * 处理成功后再写入标记（保留 dedup-ttl）。处理成功但写标记失败时事件仍可能重复处理一次，
+ * 因此本类用于把"经常重复"降为"极少重复"，不能替代处理逻辑本身的幂等。
+ */
+public class IdempotentEventHandler implements DomainEventHandler {
+
+    private static final String KEY_PREFIX = "forum:events:done:";
+
+    private final String scope;
+    private final DomainEventHandler delegate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Duration ttl;
+
+    /**
+     * @param scope 去重范围，同一事件在不同范围内各处理一次，通常为"服务名:处理方"
+     */
+    public IdempotentEventHandler(String scope, DomainEventHandler delegate,
+                                  StringRedisTemplate stringRedisTemplate, Duration ttl) {
+        this.scope = scope;
+        this.delegate = delegate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Set<DomainEventType> types() {
+        return delegate.types();
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        List<String> keys = events.stream().map(this::key).toList();
+        List<String> done = stringRedisTemplate.opsForValue().multiGet(keys);
+        List<DomainEvent> fresh = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            if (done == null || done.get(i) == null) {
+                fresh.add(events.get(i));
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+        delegate.handle(fresh);
+        Expiration expiration = Expiration.from(ttl.toMillis(), TimeUnit.MILLISECONDS);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection strings = (StringRedisConnection) connection;
+            for (DomainEvent event : fresh) {
+                strings.set(key(event), "1", expiration, RedisStringCommands.SetOption.upsert());
+            }
+            return null;
+        });
+    }
+
+    private String key(DomainEvent event) {
+        return KEY_PREFIX + scope + ":" + event.id();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.forum.common.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 发件箱表 domain_event_outbox 的一行
+ */
+@Data
+@Accessors(chain = true)
+public class OutboxRecord {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<Map<String, String>> ATTRIBUTES_TYPE = new TypeReference<>() {
+    };
+
+    private Long id;
+    private String eventId;
+    private String eventType;
+    private Integer aggregateId;
+    private Integer actorId;
+    /**
+     * 属性 JSON
+     */
+    private String attributes;
+    private Long occurredAt;
+    private LocalDateTime publishedAt;
+
+    public static OutboxRecord from(DomainEvent event) {
+        try {
+            return new OutboxRecord()
+                    .setEventId(event.id())
+                    .setEventType(event.type().code())
+                    .setAggregateId(event.aggregateId())
+                    .setActorId(event.actorId())
+                    .setAttributes(JSON.writeValueAsString(event.attributes()))
+                    .setOccurredAt(event.occurredAt());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("领域事件属性无法序列化: " + event, e);
+        }
+    }
+
+    /**
+     * 还原为领域事件，类型未知或属性无法解析时抛出 IllegalArgumentException
+     */
+    public DomainEvent toEvent() {
+        DomainEventType type = DomainEventType.fromCode(eventType);
+        if (type == null) {
+            throw new IllegalArgumentException("未知的领域事件类型: " + eventType);
+        }
+        try {
+            Map<String, String> values = attributes != null ? JSON.readValue(attributes, ATTRIBUTES_TYPE) : Map.of();
+            return new DomainEvent(eventId, type, aggregateId, actorId, values, occurredAt != null ? occurredAt : 0L);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("领域事件属性无法解析: id=" + eventId, e);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.forum.common.event;
+
+import com.example.forum.common.redis.RedisGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 发件箱中继：把已提交的发件箱事件发布到 Redis Stream
+ *
+ * 单个后台线程循环执行：在一个事务中用 FOR UPDATE SKIP LOCKED 取出一批未发布的事件，
+ * 通过一个 pipeline XADD 到各自的 Stream，再标记为已发布后提交。多实例同时运行时各自锁定不同的行。
+ * Redis 熔断或发布失败时事务回滚，事件留在发件箱中等待下一轮；XADD 成功但标记失败时事件会被再次发布，
+ * 因此投递语义是至少一次，处理方按事件 ID 去重（见 {@link IdempotentEventHandler}）。
+ *
+ * {@link DomainEventPublisher} 在事务提交后调用 {@link #wakeUp()}，事件通常在提交后几毫秒内发布；
+ * relay-interval 轮询用于兜底。已发布的事件保留 outbox-retention 后分批删除。
+ */
+@Slf4j
+public class OutboxRelay implements AutoCloseable {
+
+    private static final long PURGE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private final String name;
+    private final DomainEventOutboxMapper outboxMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisGuard redisGuard;
+    private final EventBusProperties properties;
+
+    private volatile boolean running;
+    private Thread worker;
+    // 单靠 unpark 的许可不可靠：发布过程中 JDBC/Lettuce 内部的 park 会把许可消费掉
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong purged = new AtomicLong();
+    private volatile long lastPublishedAt;
+
+    public OutboxRelay(String name,
+                       DomainEventOutboxMapper outboxMapper,
+                       TransactionTemplate transactionTemplate,
+                       StringRedisTemplate stringRedisTemplate,
+                       RedisGuard redisGuard,
+                       EventBusProperties properties) {
+        this.name = name;
+        this.outboxMapper = outboxMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisGuard = redisGuard;
+        this.properties = properties;
+    }
+
+    public void start() {
+        if (!properties.isEnabled()) {
+            log.info("领域事件中继已关闭: name={}", name);
+            return;
+        }
+        running = true;
+        worker = new Thread(this::relayLoop, "outbox-relay");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 有新事件提交，立即开始下一轮发布
+     */
+    public void wakeUp() {
+        wakeRequested.set(true);
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * 发布一批事件
+     * @return 发布的事件数，没有待发布事件或发布失败时为 0
+     */
+    public int relayOnce() {
+        if (redisGuard.isOpen()) {
+            return 0;
+        }
+        Integer count = transactionTemplate.execute(status -> {
+            List<OutboxRecord> records = outboxMapper.lockUnpublished(properties.getRelayBatchSize());
+            if (records.isEmpty()) {
+                return 0;
+            }
+            int[] unknown = new int[1];
+            boolean sent = redisGuard.run("event.relay", () -> xAdd(records, unknown));
+            if (!sent) {
+                status.setRollbackOnly();
+                failures.incrementAndGet();
+                return 0;
+            }
+            outboxMapper.markPublished(records.stream().map(OutboxRecord::getId).toList(), LocalDateTime.now());
+            deadLettered.addAndGet(unknown[0]);
+            return records.size();
+        });
+        int relayed = count != null ? count : 0;
+        if (relayed > 0) {
+            batches.incrementAndGet();
+            published.addAndGet(relayed);
+            lastPublishedAt = System.currentTimeMillis();
+        }
+        return relayed;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", running);
+        stats.put("batches", batches.get());
+        stats.put("published", published.get());
+        stats.put("deadLettered", deadLettered.get());
+        stats.put("failures", failures.get());
+        stats.put("purged", purged.get());
+        stats.put("lastPublishedAt", lastPublishedAt);
+        try {
+            long pending = outboxMapper.countUnpublished();
+            Long oldest = pending > 0 ? outboxMapper.oldestUnpublished() : null;
+            stats.put("outboxPending", pending);
+            stats.put("outboxOldestAgeMillis", oldest != null ? Math.max(System.currentTimeMillis() - oldest, 0) : 0);
+        } catch (RuntimeException e) {
+            stats.put("outboxError", e.getMessage());
+        }
+        return stats;
+    }
+
+    private void xAdd(List<OutboxRecord> records, int[] unknown) {
+        RedisStreamCommands.XAddOptions options = RedisStreamCommands.XAddOptions
+                .maxlen(properties.getStreamMaxLength())
+                .approximateTrimming(true);
+        List<Map<String, String>> entries = new ArrayList<>(records.size());
+        List<String> streams = new ArrayList<>(records.size());
+        for (OutboxRecord record : records) {
+            try {
+                DomainEvent event = record.toEvent();
+                entries.add(event.toFields());
+                streams.add(event.type().stream());
+            } catch (IllegalArgumentException e) {
+                // 其他版本写入的未知类型等，不阻塞后续事件
+                Map<String, String> fields = new LinkedHashMap<>();
+                fields.put(DomainEvent.FIELD_ID, String.valueOf(record.getEventId()));
+                fields.put(DomainEvent.FIELD_TYPE, String.valueOf(record.getEventType()));
+                fields.put("outboxId", String.valueOf(record.getId()));
+                fields.put("error", String.valueOf(e.getMessage()));
+                entries.add(fields);
+                streams.add(DomainEventType.DEAD_LETTER_STREAM);
+                unknown[0]++;
+                log.warn("发件箱事件无法解析，转入死信: outboxId={}, error={}", record.getId(), e.getMessage());
+            }
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection strings = (StringRedisConnection) connection;
+            for (int i = 0; i < entries.size(); i++) {
+                strings.xAdd(StreamRecords.string(entries.get(i)).withStreamKey(streams.get(i)), options);
+            }
+            return null;
+        });
+    }
+
+    private void relayLoop() {
+        long intervalNanos = properties.getRelayInterval().toNanos();
+        long lastPurge = System.nanoTime();
+        while (running) {
+            int relayed = 0;
+            try {
+                relayed = relayOnce();
+                if (System.nanoTime() - lastPurge >= PURGE_INTERVAL_NANOS) {
+                    purge();
+                    lastPurge = System.nanoTime();
+                }
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+                log.warn("领域事件中继失败: name={}, error={}", name, e.getMessage());
+            }
+            // 整批取满说明还有积压，发布期间又有新提交也立即继续
+            if (relayed < properties.getRelayBatchSize() && !wakeRequested.getAndSet(false)) {
+                LockSupport.parkNanos(intervalNanos);
+            }
+        }
+        log.info("领域事件中继已停止: name={}, published={}", name, published.get());
+    }
+
+    private void purge() {
+        LocalDateTime before = LocalDateTime.now().minus(properties.getOutboxRetention());
+        int deleted;
+        do {
+            deleted = outboxMapper.deletePublishedBefore(before, PURGE_BATCH_SIZE);
+            purged.addAndGet(deleted);
+        } while (deleted == PURGE_BATCH_SIZE && running);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.forum.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 业务热点操作的耗时指标
+ *
+ * forum.operation{operation, outcome}：operation 为 {@link Metered} 上的固定操作名，
+ * outcome 为 success / client_error / error，标签组合有限；计数即调用次数，不再另设计数器。
+ * 直方图桶限定在 1ms ~ 10s，每个时间序列约 60 个桶。
+ */
+public class ForumMetrics {
+
+    public static final String OPERATION = "forum.operation";
+
+    public static final String SUCCESS = "success";
+    public static final String CLIENT_ERROR = "client_error";
+    public static final String ERROR = "error";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public ForumMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void record(String operation, String outcome, Timer.Sample sample) {
+        String key = operation + '|' + outcome;
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(key, k -> latencyTimer(OPERATION, Duration.ofMillis(1), Duration.ofSeconds(10))
+                    .description("业务热点操作耗时")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+        sample.stop(timer);
+    }
+
+    /**
+     * 带直方图的 Timer，桶的范围限定在 [min, max]
+     */
+    public static Timer.Builder latencyTimer(String name, Duration min, Duration max) {
+        return Timer.builder(name)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(min)
+                .maximumExpectedValue(max);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.forum.common.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记需要记录耗时的热点操作，见 {@link ForumMetrics#OPERATION}
+ *
+ * 同一操作可以标记在多个方法上（如新旧两个路径的同一接口），指标按操作名合并。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Metered {
+
+    /**
+     * 操作名，作为 operation 标签的值，应为固定的字面量（如 post.detail）
+     */
+    String value();
+}
@@ -0,0 +1,63 @@
+package com.example.forum.common.metrics;
+
+import com.example.forum.common.exception.ApiException;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * 拦截 {@link Metered} 方法，按返回结果记录 success / client_error / error
+ *
+ * 返回 4xx 的 ResponseEntity 或抛出 4xx 的 {@link ApiException} 记为 client_error，
+ * 5xx 和其他异常记为 error。与 @Transactional 一样基于代理，同一个类内部的自调用不会被拦截。
+ */
+public class MeteredInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<ForumMetrics> forumMetrics;
+
+    public MeteredInterceptor(ObjectProvider<ForumMetrics> forumMetrics) {
+        this.forumMetrics = forumMetrics;
+    }
+
+    /**
+     * 为 {@link Metered} 方法创建代理的 Advisor
+     */
+    public static Advisor advisor(ObjectProvider<ForumMetrics> forumMetrics) {
+        return new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(null, Metered.class, true),
+                new MeteredInterceptor(forumMetrics));
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        ForumMetrics metrics = forumMetrics.getIfAvailable();
+        Metered annotation = AnnotatedElementUtils.findMergedAnnotation(invocation.getMethod(), Metered.class);
+        if (metrics == null || annotation == null) {
+            return invocation.proceed();
+        }
+        Timer.Sample sample = metrics.start();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            boolean clientError = e instanceof ApiException api && api.getStatus().is4xxClientError();
+            metrics.record(annotation.value(), clientError ? ForumMetrics.CLIENT_ERROR : ForumMetrics.ERROR, sample);
+            throw e;
+        }
+        String outcome = ForumMetrics.SUCCESS;
+        if (result instanceof ResponseEntity<?> response) {
+            if (response.getStatusCode().is4xxClientError()) {
+                outcome = ForumMetrics.CLIENT_ERROR;
+            } else if (response.getStatusCode().is5xxServerError()) {
+                outcome = ForumMetrics.ERROR;
+            }
+        }
+        metrics.record(annotation.value(), outcome, sample);
+        return result;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.forum.common.redis;
+
+import com.example.forum.common.cache.CacheEnvelope;
+import com.example.forum.common.vo.CursorPageResponse;
+import com.example.forum.common.vo.PageResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link CompactRedisSerializer} 的类型别名表：已登记的类型用短别名代替全限定类名写入类型信息。
+ *
+ * 别名一经使用就会出现在 Redis 中的数据里，只能新增，不能修改或复用；
+ * 未登记的类型仍写入全限定类名，读取时两种形式都能识别。
+ */
+public class CodecTypeRegistry {
+
+    // 别名前缀，类名不会以该字符开头
+    static final char ALIAS_PREFIX = '~';
+
+    private final Map<Class<?>, String> aliases = new ConcurrentHashMap<>();
+    private final Map<String, Class<?>> types = new ConcurrentHashMap<>();
+
+    /**
+     * 预先登记 JDK 集合和 forum-common 中的缓存类型
+     */
+    public static CodecTypeRegistry withDefaults() {
+        return new CodecTypeRegistry()
+                .register("list", ArrayList.class)
+                .register("hashmap", HashMap.class)
+                .register("map", LinkedHashMap.class)
+                .register("hashset", HashSet.class)
+                .register("set", LinkedHashSet.class)
+                .register("envelope", CacheEnvelope.class)
+                .register("page", PageResponse.class)
+                .register("cursor-page", CursorPageResponse.class);
+    }
+
+    public CodecTypeRegistry register(String alias, Class<?> type) {
+        String id = ALIAS_PREFIX + alias;
+        Class<?> existing = types.putIfAbsent(id, type);
+        if (existing != null && existing != type) {
+            throw new IllegalStateException("类型别名重复: alias=" + alias + ", existing=" + existing.getName()
+                    + ", type=" + type.getName());
+        }
+        aliases.put(type, id);
+        return this;
+    }
+
+    /**
+     * 类型的别名（含前缀），未登记时返回 null
+     */
+    String aliasOf(Class<?> type) {
+        return aliases.get(type);
+    }
+
+    /**
+     * 别名对应的类型，未登记时返回 null
+     */
+    Class<?> typeOf(String id) {
+        return types.get(id);
+    }
+}
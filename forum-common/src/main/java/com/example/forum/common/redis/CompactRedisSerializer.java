@@ -0,0 +1,215 @@
+package com.example.forum.common.redis;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
+import com.fasterxml.jackson.databind.jsontype.impl.ClassNameIdResolver;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 缓存值的紧凑二进制编码。
+ *
+ * 格式：1 字节魔数 + 1 字节格式版本 + 1 字节标志位 + Smile 编码的正文（标志位 bit0 表示正文经过 deflate 压缩）。
+ * <ul>
+ *     <li>Smile 是 Jackson 的二进制 JSON，字段名和短字符串在同一条数据内重复出现时只写一次，之后用 1~2 字节引用</li>
+ *     <li>类型信息：{@link CodecTypeRegistry} 中登记过的类型写短别名，其余写全限定类名</li>
+ *     <li>正文超过压缩阈值时 deflate 压缩，压缩后没有变小则保留原文</li>
+ * </ul>
+ * 读取时首字节不是魔数的数据（切换前写入的 JSON）交给 {@link GenericJackson2JsonRedisSerializer} 解析，
+ * 两种格式可以在同一个缓存中共存，旧条目随 TTL 自然淘汰。关闭紧凑写入后仍能读取已写入的紧凑格式，便于回滚。
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    // JSON 文本（UTF-8）不会以该字节开头
+    static final byte MAGIC = (byte) 0xF5;
+    static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = 3;
+    private static final byte FLAG_DEFLATE = 1;
+
+    private final ObjectMapper mapper;
+    private final GenericJackson2JsonRedisSerializer legacy;
+    private final int compressThreshold;
+    private final boolean writeCompact;
+
+    /**
+     * @param jsonMapper 原 JSON 序列化使用的 ObjectMapper，复制其模块和特性配置
+     * @param registry 类型别名表
+     * @param compressThreshold 正文超过该字节数时压缩，小于等于 0 表示不压缩
+     * @param writeCompact false 时按原 JSON 格式写入
+     */
+    public CompactRedisSerializer(ObjectMapper jsonMapper, CodecTypeRegistry registry,
+                                  int compressThreshold, boolean writeCompact) {
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        this.mapper = jsonMapper.copyWith(smileFactory);
+        this.mapper.setDefaultTyping(new AliasTypeResolverBuilder(registry)
+                .init(JsonTypeInfo.Id.CLASS, null)
+                .inclusion(JsonTypeInfo.As.PROPERTY));
+        this.legacy = new GenericJackson2JsonRedisSerializer(jsonMapper);
+        this.compressThreshold = compressThreshold;
+        this.writeCompact = writeCompact;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (!writeCompact) {
+            return legacy.serialize(value);
+        }
+        byte[] body;
+        try {
+            body = mapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("缓存值编码失败: " + value.getClass().getName(), e);
+        }
+        byte flags = 0;
+        if (compressThreshold > 0 && body.length > compressThreshold) {
+            byte[] compressed = deflate(body);
+            if (compressed.length < body.length) {
+                body = compressed;
+                flags |= FLAG_DEFLATE;
+            }
+        }
+        byte[] bytes = new byte[HEADER_LENGTH + body.length];
+        bytes[0] = MAGIC;
+        bytes[1] = VERSION;
+        bytes[2] = flags;
+        System.arraycopy(body, 0, bytes, HEADER_LENGTH, body.length);
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return legacy.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[1] != VERSION) {
+            throw new SerializationException("不支持的缓存编码版本: " + (bytes.length > 1 ? bytes[1] : -1));
+        }
+        byte[] body = Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+        if ((bytes[2] & FLAG_DEFLATE) != 0) {
+            body = inflate(body);
+        }
+        try {
+            return mapper.readValue(body, Object.class);
+        } catch (IOException e) {
+            throw new SerializationException("缓存值解码失败", e);
+        }
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SerializationException("缓存值解压失败: 数据不完整");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new SerializationException("缓存值解压失败", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 与 activateDefaultTyping(NON_FINAL, PROPERTY) 相同的类型信息规则，只替换类型 ID 的写法
+     */
+    private static final class AliasTypeResolverBuilder extends ObjectMapper.DefaultTypeResolverBuilder {
+
+        private final CodecTypeRegistry registry;
+
+        AliasTypeResolverBuilder(CodecTypeRegistry registry) {
+            super(ObjectMapper.DefaultTyping.NON_FINAL, LaissezFaireSubTypeValidator.instance);
+            this.registry = registry;
+        }
+
+        @Override
+        protected TypeIdResolver idResolver(MapperConfig<?> config, JavaType baseType,
+                                            PolymorphicTypeValidator subtypeValidator,
+                                            Collection<NamedType> subtypes, boolean forSer, boolean forDeser) {
+            return new AliasTypeIdResolver(baseType, config, subtypeValidator, registry);
+        }
+    }
+
+    private static final class AliasTypeIdResolver extends ClassNameIdResolver {
+
+        private final CodecTypeRegistry registry;
+
+        AliasTypeIdResolver(JavaType baseType, MapperConfig<?> config,
+                            PolymorphicTypeValidator subtypeValidator, CodecTypeRegistry registry) {
+            super(baseType, config.getTypeFactory(), subtypeValidator);
+            this.registry = registry;
+        }
+
+        @Override
+        public String idFromValue(Object value) {
+            String alias = registry.aliasOf(value.getClass());
+            return alias != null ? alias : super.idFromValue(value);
+        }
+
+        @Override
+        public String idFromValueAndType(Object value, Class<?> type) {
+            String alias = registry.aliasOf(type);
+            return alias != null ? alias : super.idFromValueAndType(value, type);
+        }
+
+        @Override
+        public JavaType typeFromId(DatabindContext context, String id) throws IOException {
+            if (!id.isEmpty() && id.charAt(0) == CodecTypeRegistry.ALIAS_PREFIX) {
+                Class<?> type = registry.typeOf(id);
+                if (type == null) {
+                    throw new IOException("未登记的类型别名: " + id);
+                }
+                return context.constructSpecializedType(_baseType, type);
+            }
+            return super.typeFromId(context, id);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.forum.common.redis;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 经过 {@link RedisGuard} 的 CacheManager：熔断或 Redis 异常时读取视为未命中、写入直接跳过，
+ * 失效操作记录下来在恢复后执行，@Cacheable 方法退化为直接查询数据库。
+ */
+public class GuardedCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final RedisGuard redisGuard;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public GuardedCacheManager(CacheManager delegate, RedisGuard redisGuard) {
+        this.delegate = delegate;
+        this.redisGuard = redisGuard;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        return target != null ? caches.computeIfAbsent(name, n -> new GuardedCache(target, redisGuard)) : null;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    static final class GuardedCache implements Cache {
+
+        private final Cache delegate;
+        private final RedisGuard redisGuard;
+        private final String getOperation;
+        private final String putOperation;
+        private final String evictOperation;
+
+        GuardedCache(Cache delegate, RedisGuard redisGuard) {
+            this.delegate = delegate;
+            this.redisGuard = redisGuard;
+            this.getOperation = "cache.get:" + delegate.getName();
+            this.putOperation = "cache.put:" + delegate.getName();
+            this.evictOperation = "cache.evict:" + delegate.getName();
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return delegate.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return redisGuard.execute(getOperation, () -> delegate.get(key), () -> null);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return redisGuard.execute(getOperation, () -> delegate.get(key, type), () -> null);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            ValueWrapper cached = get(key);
+            if (cached != null) {
+                @SuppressWarnings("unchecked")
+                T value = (T) cached.get();
+                return value;
+            }
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            put(key, value);
+            return value;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            redisGuard.run(putOperation, () -> delegate.put(key, value));
+        }
+
+        @Override
+        public void evict(Object key) {
+            if (!redisGuard.run(evictOperation, () -> delegate.evict(key))) {
+                // RedisCache 的 key 为 "缓存名::key"
+                redisGuard.defer(delegate.getName() + "::" + key);
+            }
+        }
+
+        @Override
+        public void clear() {
+            if (!redisGuard.run(evictOperation, delegate::clear)) {
+                redisGuard.deferPattern(delegate.getName() + "::*");
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.forum.common.redis;
+
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Redis 批量命令（各服务共用）：先收集命令，再通过 pipeline 一次发送，结果按添加顺序返回。
+ *
+ * 用法：
+ * <pre>
+ * RedisBatch.Batch batch = redisBatch.batch("post.likes.status");
+ * for (String key : keys) {
+ *     batch.add(ops -> ops.opsForSet().size(key));
+ * }
+ * List&lt;Object&gt; sizes = batch.execute();
+ * </pre>
+ * 每个命令回调只能发出一条 Redis 命令（脚本算一条），结果列表与添加顺序一一对应。
+ * 命令数超过 chunkSize 时拆分为多个 pipeline，批次整体耗时超过 timeout 后不再发送剩余部分，
+ * 抛出 {@link QueryTimeoutException}（已发送的命令不会回滚）。pipeline 不保证原子性，需要原子性时使用脚本。
+ *
+ * 本类不处理熔断，调用方按需放在 {@link RedisGuard#run} / {@link RedisGuard#execute} 中执行。
+ */
+public class RedisBatch {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisBatchProperties properties;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong commands = new AtomicLong();
+    private final AtomicLong pipelines = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public RedisBatch(RedisTemplate<String, Object> redisTemplate, RedisBatchProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * 创建一个新批次（非线程安全，每次调用单独创建）
+     * @param operation 操作名（用于异常信息）
+     */
+    public Batch batch(String operation) {
+        return new Batch(operation);
+    }
+
+    /**
+     * 对每个元素发出一条命令并一次执行，结果与 items 的迭代顺序对应
+     */
+    public <T> List<Object> executeEach(String operation, Collection<T> items,
+                                        BiConsumer<RedisOperations<String, Object>, T> command) {
+        Batch batch = batch(operation);
+        for (T item : items) {
+            batch.add(ops -> command.accept(ops, item));
+        }
+        return batch.execute();
+    }
+
+    /**
+     * 批次数、命令数、实际 pipeline 数（即网络往返数）与耗时统计
+     */
+    public Map<String, Object> getStats() {
+        long batchCount = batches.get();
+        long commandCount = commands.get();
+        long pipelineCount = pipelines.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("chunkSize", properties.getChunkSize());
+        stats.put("timeoutMillis", properties.getTimeout().toMillis());
+        stats.put("batches", batchCount);
+        stats.put("commands", commandCount);
+        stats.put("pipelines", pipelineCount);
+        stats.put("roundTripsSaved", commandCount - pipelineCount);
+        stats.put("failures", failures.get());
+        stats.put("timeouts", timeouts.get());
+        stats.put("avgMillis", batchCount == 0 ? 0.0 : totalNanos.get() / 1_000_000.0 / batchCount);
+        stats.put("maxMillis", TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+        return stats;
+    }
+
+    private List<Object> run(String operation, List<Consumer<RedisOperations<String, Object>>> queued) {
+        if (queued.isEmpty()) {
+            return List.of();
+        }
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        long start = System.nanoTime();
+        long deadline = start + properties.getTimeout().toNanos();
+        List<Object> results = new ArrayList<>(queued.size());
+        batches.incrementAndGet();
+        commands.addAndGet(queued.size());
+        try {
+            for (int from = 0; from < queued.size(); from += chunkSize) {
+                if (from > 0 && System.nanoTime() - deadline > 0) {
+                    timeouts.incrementAndGet();
+                    throw new QueryTimeoutException("Redis 批量命令超时: operation=" + operation
+                            + ", sent=" + from + ", total=" + queued.size());
+                }
+                List<Consumer<RedisOperations<String, Object>>> chunk =
+                        queued.subList(from, Math.min(from + chunkSize, queued.size()));
+                List<Object> replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <K, V> Object execute(RedisOperations<K, V> operations) {
+                        RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                        for (Consumer<RedisOperations<String, Object>> command : chunk) {
+                            command.accept(ops);
+                        }
+                        return null;
+                    }
+                });
+                pipelines.incrementAndGet();
+                if (replies.size() != chunk.size()) {
+                    throw new IllegalStateException("Redis 批量命令结果数与命令数不一致，每个回调只能发出一条命令: operation="
+                            + operation + ", commands=" + chunk.size() + ", replies=" + replies.size());
+                }
+                results.addAll(replies);
+            }
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            totalNanos.addAndGet(elapsed);
+            maxNanos.accumulateAndGet(elapsed, Math::max);
+        }
+        return results;
+    }
+
+    /**
+     * 一个待执行的批次
+     */
+    public final class Batch {
+
+        private final String operation;
+        private final List<Consumer<RedisOperations<String, Object>>> queued = new ArrayList<>();
+
+        private Batch(String operation) {
+            this.operation = operation;
+        }
+
+        /**
+         * 添加一条命令
+         * @return 该命令的结果在 {@link #execute()} 返回列表中的下标
+         */
+        public int add(Consumer<RedisOperations<String, Object>> command) {
+            queued.add(command);
+            return queued.size() - 1;
+        }
+
+        public int size() {
+            return queued.size();
+        }
+
+        /**
+         * 执行所有命令，返回与添加顺序对应的结果（写命令的结果通常可以忽略）
+         */
+        public List<Object> execute() {
+            return run(operation, queued);
+        }
+    }
+}
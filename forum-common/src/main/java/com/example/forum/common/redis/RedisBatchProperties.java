@@ -0,0 +1,22 @@
+package com.example.forum.common.redis;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Redis 批量命令配置（forum.redis.batch.*）
+ */
+@Data
+public class RedisBatchProperties {
+
+    /**
+     * 单个 pipeline 最多包含的命令数，超过时拆分为多个 pipeline 依次执行
+     */
+    private int chunkSize = 500;
+
+    /**
+     * 一个批次（所有 pipeline 合计）的最长耗时，超过后不再发送剩余的 pipeline
+     */
+    private Duration timeout = Duration.ofSeconds(2);
+}
@@ -0,0 +1,207 @@
+package com.example.forum.common.redis;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Redis 熔断器
+ *
+ * CLOSED：正常调用，按秒分桶统计窗口内的失败率与慢调用率，超过阈值转为 OPEN；连接失败直接转为 OPEN。
+ * OPEN：拒绝调用（调用方走降级路径），openDuration 后转为 HALF_OPEN。
+ * HALF_OPEN：放行 halfOpenProbes 个探测调用，全部成功（且不慢）转为 CLOSED，任一失败重新 OPEN。
+ */
+public class RedisCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final RedisGuardProperties properties;
+    private final Bucket[] buckets;
+    private final long slowCallNanos;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private volatile long openedAt;
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    private final AtomicLong opens = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final Runnable onOpen;
+    private final Runnable onClose;
+
+    /**
+     * @param onOpen 转为 OPEN 时回调（在触发的线程中执行）
+     * @param onClose 由 HALF_OPEN 恢复为 CLOSED 时回调（在触发的线程中执行）
+     */
+    public RedisCircuitBreaker(RedisGuardProperties properties, Runnable onOpen, Runnable onClose) {
+        this.properties = properties;
+        this.buckets = new Bucket[(int) Math.max(properties.getWindow().toSeconds(), 1)];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.slowCallNanos = properties.getSlowCallThreshold().toNanos();
+        this.onOpen = onOpen;
+        this.onClose = onClose;
+    }
+
+    public State state() {
+        return state.get();
+    }
+
+    /**
+     * 申请一次调用许可，返回 false 时调用方应直接降级
+     */
+    public boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.OPEN) {
+            if (System.nanoTime() - openedAt < properties.getOpenDuration().toNanos()
+                    || !toHalfOpen()) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            current = State.HALF_OPEN;
+        }
+        if (current == State.HALF_OPEN) {
+            if (halfOpenPermits.decrementAndGet() < 0) {
+                rejected.incrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 等待 OPEN 状态到期（后台探测用）
+     */
+    public boolean isProbeDue() {
+        State current = state.get();
+        return current == State.HALF_OPEN
+                || current == State.OPEN && System.nanoTime() - openedAt >= properties.getOpenDuration().toNanos();
+    }
+
+    public void onSuccess(long elapsedNanos) {
+        boolean slow = elapsedNanos >= slowCallNanos;
+        State current = state.get();
+        if (current == State.HALF_OPEN) {
+            if (slow) {
+                open();
+            } else if (halfOpenSuccesses.incrementAndGet() >= properties.getHalfOpenProbes()
+                    && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+                resetWindow();
+                onClose.run();
+            }
+            return;
+        }
+        Bucket bucket = currentBucket();
+        bucket.calls.increment();
+        if (slow) {
+            bucket.slow.increment();
+            evaluate();
+        }
+    }
+
+    /**
+     * @param connectionFailure 无法建立连接，无需等待统计直接熔断
+     */
+    public void onFailure(boolean connectionFailure) {
+        State current = state.get();
+        if (current == State.HALF_OPEN || connectionFailure) {
+            open();
+            return;
+        }
+        Bucket bucket = currentBucket();
+        bucket.calls.increment();
+        bucket.failures.increment();
+        evaluate();
+    }
+
+    public Map<String, Object> getStats() {
+        long[] totals = totals();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.get().name());
+        stats.put("windowCalls", totals[0]);
+        stats.put("windowFailures", totals[1]);
+        stats.put("windowSlowCalls", totals[2]);
+        stats.put("opens", opens.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+
+    private void evaluate() {
+        long[] totals = totals();
+        long calls = totals[0];
+        if (calls < properties.getMinimumCalls()) {
+            return;
+        }
+        if ((double) totals[1] / calls >= properties.getFailureRateThreshold()
+                || (double) totals[2] / calls >= properties.getSlowCallRateThreshold()) {
+            open();
+        }
+    }
+
+    private void open() {
+        State previous = state.getAndSet(State.OPEN);
+        openedAt = System.nanoTime();
+        if (previous != State.OPEN) {
+            opens.incrementAndGet();
+            onOpen.run();
+        }
+    }
+
+    private boolean toHalfOpen() {
+        if (!state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            return state.get() == State.HALF_OPEN;
+        }
+        halfOpenSuccesses.set(0);
+        halfOpenPermits.set(properties.getHalfOpenProbes());
+        return true;
+    }
+
+    private Bucket currentBucket() {
+        long second = System.currentTimeMillis() / 1000;
+        Bucket bucket = buckets[(int) (second % buckets.length)];
+        if (bucket.second != second) {
+            synchronized (bucket) {
+                if (bucket.second != second) {
+                    bucket.calls.reset();
+                    bucket.failures.reset();
+                    bucket.slow.reset();
+                    bucket.second = second;
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private long[] totals() {
+        long oldest = System.currentTimeMillis() / 1000 - buckets.length;
+        long[] totals = new long[3];
+        for (Bucket bucket : buckets) {
+            if (bucket.second > oldest) {
+                totals[0] += bucket.calls.sum();
+                totals[1] += bucket.failures.sum();
+                totals[2] += bucket.slow.sum();
+            }
+        }
+        return totals;
+    }
+
+    private void resetWindow() {
+        for (Bucket bucket : buckets) {
+            synchronized (bucket) {
+                bucket.second = 0;
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private volatile long second;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+    }
+}
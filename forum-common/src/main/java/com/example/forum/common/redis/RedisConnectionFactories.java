@@ -0,0 +1,103 @@
+package com.example.forum.common.redis;
+
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisNode;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 按 spring.data.redis.* 配置创建 Lettuce 连接工厂，支持三种部署方式：
+ * <ul>
+ *     <li>集群：配置了 cluster.nodes，开启拓扑自适应刷新（MOVED/ASK 重定向、节点断开时立即刷新）和周期刷新</li>
+ *     <li>哨兵：配置了 sentinel.master 与 sentinel.nodes，主从切换后自动连接新的主节点</li>
+ *     <li>单机：以上都未配置时使用 host/port/database（原有配置方式不变）</li>
+ * </ul>
+ * 集群模式下没有 database 的概念，database 配置被忽略；多 key 命令与脚本的约束见 {@link RedisKeys}。
+ */
+public final class RedisConnectionFactories {
+
+    private static final Duration DEFAULT_REFRESH_PERIOD = Duration.ofSeconds(30);
+
+    private RedisConnectionFactories() {
+    }
+
+    public static LettuceConnectionFactory create(RedisProperties properties) {
+        RedisProperties.Cluster cluster = properties.getCluster();
+        if (cluster != null && cluster.getNodes() != null && !cluster.getNodes().isEmpty()) {
+            RedisClusterConfiguration config = new RedisClusterConfiguration(cluster.getNodes());
+            if (cluster.getMaxRedirects() != null) {
+                config.setMaxRedirects(cluster.getMaxRedirects());
+            }
+            config.setUsername(properties.getUsername());
+            config.setPassword(password(properties.getPassword()));
+            return new LettuceConnectionFactory(config, clientConfiguration(properties, true));
+        }
+
+        RedisProperties.Sentinel sentinel = properties.getSentinel();
+        if (sentinel != null && StringUtils.hasText(sentinel.getMaster())) {
+            RedisSentinelConfiguration config = new RedisSentinelConfiguration();
+            config.master(sentinel.getMaster());
+            config.setSentinels(nodes(sentinel.getNodes()));
+            config.setSentinelUsername(sentinel.getUsername());
+            config.setSentinelPassword(password(sentinel.getPassword()));
+            config.setUsername(properties.getUsername());
+            config.setPassword(password(properties.getPassword()));
+            config.setDatabase(properties.getDatabase());
+            return new LettuceConnectionFactory(config, clientConfiguration(properties, false));
+        }
+
+        RedisStandaloneConfiguration config =
+                new RedisStandaloneConfiguration(properties.getHost(), properties.getPort());
+        config.setUsername(properties.getUsername());
+        config.setPassword(password(properties.getPassword()));
+        config.setDatabase(properties.getDatabase());
+        return new LettuceConnectionFactory(config, clientConfiguration(properties, false));
+    }
+
+    /**
+     * 连接工厂是否连接的是 Redis 集群
+     */
+    public static boolean isCluster(RedisConnectionFactory connectionFactory) {
+        return connectionFactory instanceof LettuceConnectionFactory lettuce && lettuce.isClusterAware();
+    }
+
+    private static LettuceClientConfiguration clientConfiguration(RedisProperties properties, boolean cluster) {
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder = LettuceClientConfiguration.builder();
+        if (properties.getTimeout() != null) {
+            builder.commandTimeout(properties.getTimeout());
+        }
+        if (properties.getSsl() != null && properties.getSsl().isEnabled()) {
+            builder.useSsl();
+        }
+        if (cluster) {
+            RedisProperties.Lettuce.Cluster.Refresh refresh = properties.getLettuce().getCluster().getRefresh();
+            ClusterTopologyRefreshOptions.Builder refreshOptions = ClusterTopologyRefreshOptions.builder()
+                    .dynamicRefreshSources(refresh.isDynamicRefreshSources())
+                    .enablePeriodicRefresh(refresh.getPeriod() != null ? refresh.getPeriod() : DEFAULT_REFRESH_PERIOD)
+                    .enableAllAdaptiveRefreshTriggers();
+            builder.clientOptions(ClusterClientOptions.builder()
+                    .topologyRefreshOptions(refreshOptions.build())
+                    .build());
+        }
+        return builder.build();
+    }
+
+    private static List<RedisNode> nodes(List<String> nodes) {
+        return nodes.stream().map(RedisNode::fromString).toList();
+    }
+
+    private static RedisPassword password(String password) {
+        return StringUtils.hasText(password) ? RedisPassword.of(password) : RedisPassword.none();
+    }
+}
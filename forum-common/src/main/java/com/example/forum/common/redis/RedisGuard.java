@@ -0,0 +1,382 @@
+package com.example.forum.common.redis;
+
+import com.example.forum.common.metrics.ForumMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Redis 访问保护层（各服务共用）
+ *
+ * 所有 Redis 调用经过 {@link RedisCircuitBreaker}：熔断期间直接执行降级逻辑（回源数据库或使用本地状态），
+ * 不再等待 Lettuce 超时；Redis 相关异常同样走降级逻辑，其他异常（如回源查询数据库失败）照常抛出。
+ * 失败日志按操作限流，只输出异常信息，不再每次打印堆栈。
+ *
+ * 熔断期间无法执行的删除（缓存失效、关系集合失效等）先记录下来，恢复后统一删除，避免恢复后读到旧数据。
+ * 恢复（以及启动后第一次探测成功）时依次执行 {@link #onRecovery} 注册的回调。
+ *
+ * 绑定 MeterRegistry 后按操作名记录耗时 forum.redis.operation{operation, outcome=success|failure}，
+ * 操作名都是代码中的固定字面量（缓存操作带缓存名），标签组合有限；熔断拒绝的调用只计入 forum.redis.fallbacks。
+ */
+@Slf4j
+public class RedisGuard implements AutoCloseable, MeterBinder {
+
+    private final String name;
+    private final RedisConnectionFactory connectionFactory;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisGuardProperties properties;
+    private final RedisCircuitBreaker breaker;
+
+    private final List<Runnable> recoveryListeners = new CopyOnWriteArrayList<>();
+    private final Set<String> deferredDeletes = ConcurrentHashMap.newKeySet();
+    private final Set<String> deferredPatterns = ConcurrentHashMap.newKeySet();
+    private final Map<String, LogWindow> logWindows = new ConcurrentHashMap<>();
+    private volatile boolean recoveryPending = true;
+
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong droppedDeletes = new AtomicLong();
+
+    private volatile MeterRegistry meterRegistry;
+    private final Map<String, Timer> successTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> failureTimers = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "redis-guard-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RedisGuard(String name,
+                      RedisConnectionFactory connectionFactory,
+                      RedisTemplate<String, Object> redisTemplate,
+                      RedisGuardProperties properties) {
+        this.name = name;
+        this.connectionFactory = connectionFactory;
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.breaker = new RedisCircuitBreaker(properties,
+                () -> log.warn("Redis 熔断已打开，进入降级模式: name={}", name),
+                () -> {
+                    log.info("Redis 熔断已关闭: name={}", name);
+                    recoveryPending = true;
+                });
+    }
+
+    public void start() {
+        long interval = properties.getProbeInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::probe, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("forum.redis.fallbacks", fallbacks, AtomicLong::get)
+                .description("熔断或 Redis 异常时执行降级逻辑的次数")
+                .tag("guard", name)
+                .register(registry);
+        Gauge.builder("forum.redis.breaker.open", breaker, b -> b.state() == RedisCircuitBreaker.State.OPEN ? 1 : 0)
+                .description("Redis 熔断器是否打开")
+                .tag("guard", name)
+                .register(registry);
+        this.meterRegistry = registry;
+    }
+
+    /**
+     * 执行 Redis 调用，熔断或 Redis 异常时返回降级结果
+     * @param operation 操作名（用于日志限流）
+     */
+    public <T> T execute(String operation, Supplier<T> action, Supplier<T> fallback) {
+        if (!breaker.tryAcquire()) {
+            fallbacks.incrementAndGet();
+            return fallback.get();
+        }
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            long elapsed = System.nanoTime() - start;
+            if (!isRedisFailure(e)) {
+                breaker.onSuccess(elapsed);
+                throw e;
+            }
+            if (isConnectivityFailure(e)) {
+                breaker.onFailure(e instanceof RedisConnectionFailureException);
+            } else {
+                breaker.onSuccess(elapsed);
+            }
+            recordLatency(failureTimers, operation, "failure", elapsed);
+            logFailure(operation, e);
+            fallbacks.incrementAndGet();
+            return fallback.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        breaker.onSuccess(elapsed);
+        recordLatency(successTimers, operation, "success", elapsed);
+        return result;
+    }
+
+    /**
+     * 执行没有返回值的 Redis 调用
+     * @return 是否执行成功（熔断或失败时返回 false）
+     */
+    public boolean run(String operation, Runnable action) {
+        return execute(operation, () -> {
+            action.run();
+            return true;
+        }, () -> false);
+    }
+
+    /**
+     * 删除 key，失败时记录下来在恢复后删除
+     */
+    public void deleteOrDefer(String operation, String key) {
+        if (!run(operation, () -> redisTemplate.delete(key))) {
+            defer(key);
+        }
+    }
+
+    /**
+     * 一条 DEL 删除多个 key，失败时全部记录下来在恢复后删除
+     */
+    public void deleteOrDefer(String operation, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (!run(operation, () -> redisTemplate.delete(keys))) {
+            keys.forEach(this::defer);
+        }
+    }
+
+    /**
+     * 记录一个需要在 Redis 恢复后删除的 key
+     */
+    public void defer(String key) {
+        if (deferredDeletes.size() >= properties.getMaxDeferredDeletes()) {
+            droppedDeletes.incrementAndGet();
+            logFailure("defer-delete", new IllegalStateException("待删除 key 已达上限，恢复后可能读到旧数据: " + key));
+            return;
+        }
+        deferredDeletes.add(key);
+    }
+
+    /**
+     * 记录一个需要在 Redis 恢复后按模式（SCAN MATCH）删除的 key 集合，如整个缓存的清理
+     */
+    public void deferPattern(String pattern) {
+        deferredPatterns.add(pattern);
+    }
+
+    private void recordLatency(Map<String, Timer> timers, String operation, String outcome, long nanos) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        Timer timer = timers.get(operation);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(operation, op ->
+                    ForumMetrics.latencyTimer("forum.redis.operation", Duration.ofNanos(100_000), Duration.ofSeconds(1))
+                            .description("Redis 调用耗时（含 pipeline 与脚本）")
+                            .tag("guard", name)
+                            .tag("operation", op)
+                            .tag("outcome", outcome)
+                            .register(registry));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 熔断器当前是否拒绝调用（只用于跳过可有可无的后台任务）
+     */
+    public boolean isOpen() {
+        return breaker.state() == RedisCircuitBreaker.State.OPEN;
+    }
+
+    /**
+     * 注册恢复回调，在探测线程中执行
+     */
+    public void onRecovery(Runnable listener) {
+        recoveryListeners.add(listener);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.putAll(breaker.getStats());
+        stats.put("fallbacks", fallbacks.get());
+        stats.put("deferredDeletes", deferredDeletes.size());
+        stats.put("deferredPatterns", deferredPatterns.size());
+        stats.put("droppedDeletes", droppedDeletes.get());
+        return stats;
+    }
+
+    private void probe() {
+        if (breaker.isProbeDue() && breaker.tryAcquire()) {
+            long start = System.nanoTime();
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                connection.ping();
+                breaker.onSuccess(System.nanoTime() - start);
+            } catch (Exception e) {
+                breaker.onFailure(true);
+            }
+        }
+        if (recoveryPending && breaker.state() == RedisCircuitBreaker.State.CLOSED) {
+            recover();
+        }
+    }
+
+    private void recover() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.ping();
+        } catch (Exception e) {
+            breaker.onFailure(true);
+            return;
+        }
+        recoveryPending = false;
+        flushDeferredDeletes();
+        for (Runnable listener : recoveryListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                // 下个探测周期重试
+                recoveryPending = true;
+                if (isConnectivityFailure(e)) {
+                    breaker.onFailure(e instanceof RedisConnectionFailureException);
+                }
+                log.error("Redis 恢复回调执行失败: name={}, error={}", name, e.getMessage());
+            }
+        }
+    }
+
+    private void flushDeferredDeletes() {
+        for (String pattern : new ArrayList<>(deferredPatterns)) {
+            List<String> matched;
+            try {
+                matched = scanKeys(pattern);
+            } catch (Exception e) {
+                recoveryPending = true;
+                breaker.onFailure(isConnectivityFailure(e));
+                logFailure("defer-delete", e);
+                return;
+            }
+            matched.forEach(deferredDeletes::add);
+            deferredPatterns.remove(pattern);
+        }
+        if (deferredDeletes.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(deferredDeletes);
+        for (int from = 0; from < keys.size(); from += 1000) {
+            List<String> batch = keys.subList(from, Math.min(from + 1000, keys.size()));
+            try {
+                redisTemplate.delete(batch);
+                batch.forEach(deferredDeletes::remove);
+            } catch (Exception e) {
+                recoveryPending = true;
+                breaker.onFailure(isConnectivityFailure(e));
+                logFailure("defer-delete", e);
+                return;
+            }
+        }
+        log.info("Redis 恢复后已删除熔断期间积压的 key: name={}, count={}", name, keys.size());
+    }
+
+    /**
+     * SCAN 匹配的 key；集群模式下 SCAN 只作用于单个节点，需要逐个主节点扫描
+     */
+    private List<String> scanKeys(String pattern) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(1000).build();
+        List<String> matched = new ArrayList<>();
+        if (!RedisConnectionFactories.isCluster(connectionFactory)) {
+            try (Cursor<String> cursor = redisTemplate.scan(options)) {
+                cursor.forEachRemaining(matched::add);
+            }
+            return matched;
+        }
+        try (RedisClusterConnection connection = connectionFactory.getClusterConnection()) {
+            for (RedisClusterNode node : connection.clusterGetNodes()) {
+                if (!node.isMaster() || !node.isConnected()) {
+                    continue;
+                }
+                try (Cursor<byte[]> cursor = connection.scan(node, options)) {
+                    cursor.forEachRemaining(key -> matched.add(new String(key, StandardCharsets.UTF_8)));
+                }
+            }
+        }
+        return matched;
+    }
+
+    private void logFailure(String operation, Exception e) {
+        LogWindow window = logWindows.computeIfAbsent(operation, op -> new LogWindow());
+        long now = System.nanoTime();
+        long last = window.lastLogged.get();
+        if (now - last >= properties.getLogInterval().toNanos() && window.lastLogged.compareAndSet(last, now)) {
+            long suppressed = window.suppressed.getAndSet(0);
+            log.warn("Redis 调用失败，已降级: name={}, operation={}, suppressed={}, error={}",
+                    name, operation, suppressed, e.getMessage());
+        } else {
+            window.suppressed.incrementAndGet();
+            log.debug("Redis 调用失败，已降级: name={}, operation={}", name, operation, e);
+        }
+    }
+
+    private static boolean isRedisFailure(Throwable error) {
+        return error instanceof RedisSystemException
+                || error instanceof RedisConnectionFailureException
+                || error instanceof QueryTimeoutException
+                || error instanceof SerializationException;
+    }
+
+    private static boolean isConnectivityFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RedisConnectionFailureException
+                    || cause instanceof QueryTimeoutException
+                    || cause instanceof TimeoutException
+                    || cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class LogWindow {
+        private final AtomicLong lastLogged = new AtomicLong(System.nanoTime() - Long.MAX_VALUE / 2);
+        private final AtomicLong suppressed = new AtomicLong();
+    }
+}
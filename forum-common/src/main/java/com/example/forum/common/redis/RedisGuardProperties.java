@@ -0,0 +1,62 @@
+package com.example.forum.common.redis;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Redis 熔断配置（forum.redis.guard.*）
+ */
+@Data
+public class RedisGuardProperties {
+
+    /**
+     * 统计窗口，按秒分桶
+     */
+    private Duration window = Duration.ofSeconds(10);
+
+    /**
+     * 窗口内调用数达到该值才按比例判断是否熔断
+     */
+    private int minimumCalls = 20;
+
+    /**
+     * 失败率阈值（0~1）
+     */
+    private double failureRateThreshold = 0.5;
+
+    /**
+     * 超过该耗时的调用计为慢调用
+     */
+    private Duration slowCallThreshold = Duration.ofMillis(200);
+
+    /**
+     * 慢调用比例阈值（0~1）
+     */
+    private double slowCallRateThreshold = 0.8;
+
+    /**
+     * 熔断后等待多久进入半开状态
+     */
+    private Duration openDuration = Duration.ofSeconds(5);
+
+    /**
+     * 半开状态允许的探测调用数，全部成功才关闭熔断
+     */
+    private int halfOpenProbes = 3;
+
+    /**
+     * 熔断期间后台 PING 探测的间隔
+     */
+    private Duration probeInterval = Duration.ofSeconds(1);
+
+    /**
+     * 同一操作的失败日志最短间隔
+     */
+    private Duration logInterval = Duration.ofSeconds(10);
+
+    /**
+     * 熔断期间最多记录多少个待恢复后删除的 key
+     */
+    private int maxDeferredDeletes = 100_000;
+}
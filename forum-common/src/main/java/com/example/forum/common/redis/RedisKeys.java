@@ -0,0 +1,64 @@
+package com.example.forum.common.redis;
+
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+
+import java.util.Collection;
+
+/**
+ * 集群模式下的 key 槽位规则。
+ *
+ * Redis 集群按 key 的哈希标签（第一对 {} 中的非空内容，没有时为整个 key）计算槽位，
+ * 同一个 MULTI/EXEC、Lua 脚本或多 key 命令中的 key 必须落在同一个槽位。约定：
+ * <ul>
+ *     <li>需要原子操作的辅助 key 用 {@link #colocated} 生成，与主 key 同槽位，主 key 本身不改名（线上数据无需迁移）</li>
+ *     <li>脚本只操作 KEYS 中传入的 key，且 KEYS 全部同槽位，由调用方用 {@link #requireSameSlot} 校验</li>
+ *     <li>跨槽位的 DEL、MGET 由 Spring Data Redis 按槽位拆分执行（非原子），pipeline 按槽位分发到各节点</li>
+ * </ul>
+ */
+public final class RedisKeys {
+
+    private RedisKeys() {
+    }
+
+    /**
+     * key 参与槽位计算的部分
+     */
+    public static String hashTag(String key) {
+        int start = key.indexOf('{');
+        if (start >= 0) {
+            int end = key.indexOf('}', start + 1);
+            if (end > start + 1) {
+                return key.substring(start + 1, end);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * 与 key 同槽位的辅助 key：{hashTag(key)}suffix，如 post:metrics:123 -> {post:metrics:123}:wal
+     */
+    public static String colocated(String key, String suffix) {
+        return "{" + hashTag(key) + "}" + suffix;
+    }
+
+    public static int slot(String key) {
+        return ClusterSlotHashUtil.calculateSlot(key);
+    }
+
+    /**
+     * 校验 key 是否全部同槽位，不满足时抛出异常（在单机环境也校验，避免上线集群后才发现）
+     */
+    public static void requireSameSlot(Collection<String> keys) {
+        if (keys.size() < 2) {
+            return;
+        }
+        int slot = -1;
+        for (String key : keys) {
+            int current = slot(key);
+            if (slot >= 0 && current != slot) {
+                throw new IllegalArgumentException("多 key 操作的 key 不在同一槽位: " + keys);
+            }
+            slot = current;
+        }
+    }
+}
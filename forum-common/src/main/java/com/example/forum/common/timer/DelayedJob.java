@@ -0,0 +1,12 @@
+package com.example.forum.common.timer;
+
+/**
+ * 到期的持久化延迟任务
+ *
+ * @param type 任务类型（决定由哪个处理方执行）
+ * @param payload 任务数据，同类型下相同 payload 的任务视为同一个，重复提交只会更新到期时间
+ * @param dueAt 到期时间（毫秒）；超时重新投递的任务为重新投递的时间
+ * @param attempt 第几次投递，从 1 开始
+ */
+public record DelayedJob(String type, String payload, long dueAt, int attempt) {
+}
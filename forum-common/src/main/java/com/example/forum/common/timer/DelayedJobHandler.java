@@ -0,0 +1,13 @@
+package com.example.forum.common.timer;
+
+/**
+ * 持久化延迟任务的处理方
+ *
+ * 任务至少投递一次：处理超时、实例宕机或与重复提交交错时可能再次收到同一任务，处理需幂等。
+ * 抛出异常时任务在 visibility-timeout 后重新投递，达到 max-attempts 后转入死信集合。
+ */
+@FunctionalInterface
+public interface DelayedJobHandler {
+
+    void handle(DelayedJob job);
+}
@@ -0,0 +1,34 @@
+package com.example.forum.common.timer;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * 持久化延迟任务配置（forum.delayed-jobs.*）
+ */
+@Data
+public class DelayedJobProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 兜底轮询间隔：其他实例提交的任务、重试中的任务最迟在该间隔后被发现
+     */
+    private Duration pollInterval = Duration.ofSeconds(5);
+
+    /**
+     * 每次认领的最大任务数
+     */
+    private int batchSize = 100;
+
+    /**
+     * 认领后未确认的任务在该时长后重新投递（处理失败或实例宕机）
+     */
+    private Duration visibilityTimeout = Duration.ofMinutes(1);
+
+    /**
+     * 投递次数达到该值仍失败的任务转入死信集合
+     */
+    private int maxAttempts = 5;
+}
@@ -0,0 +1,336 @@
+package com.example.forum.common.timer;
+
+import com.example.forum.common.redis.RedisGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 持久化延迟任务队列（Redis ZSET + 时间轮）
+ *
+ * 任务以 "类型|payload" 为成员、到期时间为分数写入 {forum:delayed:服务名}，重启后不会丢失。
+ * 本实例只在 {@link TimingWheel} 上为最早到期的任务挂一个唤醒定时器，到期时用脚本把已到期的任务从队列移入
+ * 处理中集合（分数为确认超时时间）并累加投递次数，多实例同时认领时每个任务只会被一个实例取走；
+ * 同一批处理成功的任务一次确认删除，失败或实例宕机的任务在超时后回到队列重新投递。pollInterval 兜底轮询用于发现其他实例提交的任务。
+ * 所有 key 共用一个哈希标签，集群模式下脚本同样适用。
+ */
+@Slf4j
+public class DelayedJobQueue implements AutoCloseable {
+
+    private static final String SEPARATOR = "|";
+    private static final long DEAD_LETTER_LIMIT = 10_000;
+
+    /**
+     * 超时未确认的任务放回队列，再认领已到期的任务
+     * KEYS: 队列, 处理中, 投递次数；ARGV: 当前时间（毫秒）, 最大数量, 确认超时（毫秒）
+     * 返回 [成员, 到期时间, 投递次数, ...]
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[1])
+            local expired = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', now, 'LIMIT', 0, ARGV[2])
+            for _, member in ipairs(expired) do
+              redis.call('ZREM', KEYS[2], member)
+              redis.call('ZADD', KEYS[1], now, member)
+            end
+            local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', now, 'WITHSCORES', 'LIMIT', 0, ARGV[2])
+            local result = {}
+            for i = 1, #due, 2 do
+              local member = due[i]
+              redis.call('ZREM', KEYS[1], member)
+              redis.call('ZADD', KEYS[2], now + tonumber(ARGV[3]), member)
+              result[#result + 1] = member
+              result[#result + 1] = due[i + 1]
+              result[#result + 1] = tostring(redis.call('HINCRBY', KEYS[3], member, 1))
+            end
+            return result
+            """, List.class);
+
+    private final String name;
+    private final String queueKey;
+    private final String inflightKey;
+    private final String attemptsKey;
+    private final String deadKey;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisGuard redisGuard;
+    private final TimingWheel timingWheel;
+    private final DelayedJobProperties properties;
+
+    private final Map<String, DelayedJobHandler> handlers = new ConcurrentHashMap<>();
+    // 唤醒、认领和处理都在这个线程上串行执行
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "delayed-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object armLock = new Object();
+    private TimingWheel.Timeout wakeTimeout;
+    private long wakeAt = Long.MAX_VALUE;
+    private volatile boolean running;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong maxDelayMillis = new AtomicLong();
+
+    public DelayedJobQueue(String name,
+                           StringRedisTemplate stringRedisTemplate,
+                           RedisGuard redisGuard,
+                           TimingWheel timingWheel,
+                           DelayedJobProperties properties) {
+        this.name = name;
+        this.queueKey = "{forum:delayed:" + name + "}";
+        this.inflightKey = queueKey + ":inflight";
+        this.attemptsKey = queueKey + ":attempts";
+        this.deadKey = queueKey + ":dead";
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisGuard = redisGuard;
+        this.timingWheel = timingWheel;
+        this.properties = properties;
+    }
+
+    /**
+     * 注册任务类型的处理方，需在 start 之前完成
+     */
+    public void register(String type, DelayedJobHandler handler) {
+        if (type.contains(SEPARATOR)) {
+            throw new IllegalArgumentException("延迟任务类型不能包含 " + SEPARATOR + ": " + type);
+        }
+        handlers.put(type, handler);
+    }
+
+    public void start() {
+        if (!properties.isEnabled()) {
+            log.info("延迟任务队列已关闭: name={}", name);
+            return;
+        }
+        running = true;
+        arm(System.currentTimeMillis());
+        log.info("延迟任务队列已启动: name={}, types={}", name, handlers.keySet());
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        synchronized (armLock) {
+            if (wakeTimeout != null) {
+                wakeTimeout.cancel();
+            }
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 提交任务；同类型、同 payload 的任务已存在时改为新的到期时间
+     * @return 是否写入成功（Redis 不可用时返回 false，由调用方决定是否拒绝请求）
+     */
+    public boolean schedule(String type, String payload, Instant dueAt) {
+        if (!handlers.containsKey(type)) {
+            throw new IllegalArgumentException("未注册的延迟任务类型: " + type);
+        }
+        long score = dueAt.toEpochMilli();
+        boolean written = redisGuard.run("delayed.schedule",
+                () -> stringRedisTemplate.opsForZSet().add(queueKey, type + SEPARATOR + payload, score));
+        if (written) {
+            submitted.incrementAndGet();
+            arm(score);
+        }
+        return written;
+    }
+
+    /**
+     * 取消尚未被认领的任务
+     */
+    public boolean cancel(String type, String payload) {
+        Long removed = redisGuard.execute("delayed.cancel",
+                () -> stringRedisTemplate.opsForZSet().remove(queueKey, type + SEPARATOR + payload),
+                () -> 0L);
+        return removed != null && removed > 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", running);
+        stats.put("submitted", submitted.get());
+        stats.put("claimed", claimed.get());
+        stats.put("succeeded", succeeded.get());
+        stats.put("failed", failed.get());
+        stats.put("deadLettered", deadLettered.get());
+        stats.put("maxDelayMillis", maxDelayMillis.get());
+        synchronized (armLock) {
+            stats.put("nextWakeAt", wakeAt == Long.MAX_VALUE ? null : wakeAt);
+        }
+        List<Object> sizes = redisGuard.execute("delayed.stats",
+                () -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection strings = (StringRedisConnection) connection;
+                    strings.zCard(queueKey);
+                    strings.zCard(inflightKey);
+                    strings.zCard(deadKey);
+                    return null;
+                }),
+                () -> null);
+        if (sizes != null) {
+            stats.put("queued", sizes.get(0));
+            stats.put("inflight", sizes.get(1));
+            stats.put("dead", sizes.get(2));
+        }
+        return stats;
+    }
+
+    /**
+     * 在时间轮上挂一个不晚于 dueAt 的唤醒定时器，已有更早的唤醒时不重复挂
+     */
+    private void arm(long dueAt) {
+        synchronized (armLock) {
+            if (!running) {
+                return;
+            }
+            boolean armed = wakeTimeout != null && !wakeTimeout.isExpired() && !wakeTimeout.isCancelled();
+            if (armed && wakeAt <= dueAt) {
+                return;
+            }
+            if (armed) {
+                wakeTimeout.cancel();
+            }
+            wakeAt = dueAt;
+            long delay = Math.max(dueAt - System.currentTimeMillis(), 0);
+            wakeTimeout = timingWheel.schedule(this::poll, Duration.ofMillis(delay), executor);
+        }
+    }
+
+    private void poll() {
+        if (!running) {
+            return;
+        }
+        try {
+            if (!redisGuard.isOpen()) {
+                List<DelayedJob> jobs;
+                do {
+                    jobs = claim();
+                    List<String> handled = new ArrayList<>(jobs.size());
+                    for (DelayedJob job : jobs) {
+                        if (dispatch(job)) {
+                            handled.add(job.type() + SEPARATOR + job.payload());
+                        }
+                    }
+                    ack(handled);
+                } while (jobs.size() >= properties.getBatchSize() && running);
+            }
+        } catch (RuntimeException e) {
+            log.warn("延迟任务认领失败: name={}, error={}", name, e.getMessage());
+        }
+        long next = System.currentTimeMillis() + properties.getPollInterval().toMillis();
+        Set<ZSetOperations.TypedTuple<String>> earliest = redisGuard.execute("delayed.peek",
+                () -> stringRedisTemplate.opsForZSet().rangeWithScores(queueKey, 0, 0),
+                Set::of);
+        if (earliest != null) {
+            for (ZSetOperations.TypedTuple<String> tuple : earliest) {
+                if (tuple.getScore() != null) {
+                    next = Math.min(next, tuple.getScore().longValue());
+                }
+            }
+        }
+        // 触发本次认领的唤醒已到期，arm 会重新挂上；期间提交的任务已挂了更早的唤醒时保留
+        arm(next);
+    }
+
+    private List<DelayedJob> claim() {
+        long now = System.currentTimeMillis();
+        List<?> result = redisGuard.execute("delayed.claim",
+                () -> stringRedisTemplate.execute(CLAIM_SCRIPT, List.of(queueKey, inflightKey, attemptsKey),
+                        Long.toString(now), Integer.toString(properties.getBatchSize()),
+                        Long.toString(properties.getVisibilityTimeout().toMillis())),
+                List::of);
+        if (result == null || result.isEmpty()) {
+            return List.of();
+        }
+        List<DelayedJob> jobs = new ArrayList<>(result.size() / 3);
+        for (int i = 0; i + 2 < result.size(); i += 3) {
+            String member = String.valueOf(result.get(i));
+            int separator = member.indexOf(SEPARATOR);
+            String type = separator >= 0 ? member.substring(0, separator) : member;
+            String payload = separator >= 0 ? member.substring(separator + 1) : "";
+            long dueAt = (long) Double.parseDouble(String.valueOf(result.get(i + 1)));
+            jobs.add(new DelayedJob(type, payload, dueAt, Integer.parseInt(String.valueOf(result.get(i + 2)))));
+            maxDelayMillis.accumulateAndGet(now - dueAt, Math::max);
+        }
+        claimed.addAndGet(jobs.size());
+        return jobs;
+    }
+
+    /**
+     * @return 是否处理成功，成功的任务由调用方批量确认
+     */
+    private boolean dispatch(DelayedJob job) {
+        String member = job.type() + SEPARATOR + job.payload();
+        DelayedJobHandler handler = handlers.get(job.type());
+        if (handler == null || job.attempt() > properties.getMaxAttempts()) {
+            deadLetter(member, handler == null ? "no handler" : "max attempts");
+            return false;
+        }
+        try {
+            handler.handle(job);
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("延迟任务处理失败，超时后重试: name={}, job={}, attempt={}, error={}",
+                    name, member, job.attempt(), e.getMessage());
+            return false;
+        }
+        succeeded.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 一次往返确认整批任务，避免逐个确认的往返拖慢同一批次中靠后的任务
+     */
+    private void ack(List<String> members) {
+        if (members.isEmpty()) {
+            return;
+        }
+        String[] values = members.toArray(String[]::new);
+        redisGuard.run("delayed.ack", () -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection strings = (StringRedisConnection) connection;
+            strings.zRem(inflightKey, values);
+            strings.hDel(attemptsKey, values);
+            return null;
+        }));
+    }
+
+    private void deadLetter(String member, String reason) {
+        deadLettered.incrementAndGet();
+        log.error("延迟任务转入死信: name={}, job={}, reason={}", name, member, reason);
+        long now = System.currentTimeMillis();
+        redisGuard.run("delayed.dead", () -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection strings = (StringRedisConnection) connection;
+            strings.zRem(inflightKey, member);
+            strings.hDel(attemptsKey, member);
+            strings.zAdd(deadKey, now, member);
+            strings.zRemRange(deadKey, 0, -DEAD_LETTER_LIMIT - 1);
+            return null;
+        }));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.forum.common.timer;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/timers：时间轮的待执行定时器数与最大延迟，以及持久化延迟任务的队列长度和处理统计
+ */
+@Endpoint(id = "timers")
+public class TimersEndpoint {
+
+    private final TimingWheel timingWheel;
+    private final DelayedJobQueue delayedJobQueue;
+
+    public TimersEndpoint(TimingWheel timingWheel, DelayedJobQueue delayedJobQueue) {
+        this.timingWheel = timingWheel;
+        this.delayedJobQueue = delayedJobQueue;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("timingWheel", timingWheel.getStats());
+        stats.put("delayedJobs", delayedJobQueue.getStats());
+        return stats;
+    }
+}
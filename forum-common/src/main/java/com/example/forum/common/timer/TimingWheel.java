@@ -0,0 +1,391 @@
+package com.example.forum.common.timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 分层时间轮（进程内定时器）
+ *
+ * 4 层、每层 256 个槽，第 0 层每槽一个 tick，第 n 层每槽 256^n 个 tick；tick 为 10ms 时各层覆盖
+ * 2.56 秒、11 分钟、46 小时、497 天，更远的定时器先放在最高层，到期时重新放入。
+ * 定时器按到期 tick 与当前 tick 的距离放入对应层的槽（侵入式双向链表），第 0 层转完一圈时把上一层当前槽的
+ * 定时器重新分配到下层（与 Linux 内核定时器相同的级联方式），因此添加、取消都是 O(1)，
+ * 每个定时器在到期前最多被级联 3 次，与待执行的定时器总数无关；ScheduledThreadPoolExecutor 的堆则是 O(log n)。
+ *
+ * 单个工作线程推进时间轮，其他线程提交和取消只写入无锁队列，由工作线程在下一个 tick 统一处理；
+ * 在放入槽之前就被取消的定时器（防抖、超时等大多如此）不再进入取消队列，转入时直接丢弃。
+ * 到期的任务交给执行器运行，不占用推进线程。定时精度为一个 tick，任务不会早于到期时间执行。
+ */
+@Slf4j
+public class TimingWheel implements AutoCloseable {
+
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_TICKS = (1L << (WHEEL_BITS * LEVELS)) - 1;
+    // 每个 tick 最多从提交队列转入的定时器数，避免瞬间大量提交时推迟到期处理
+    private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+    private final String name;
+    private final long tickNanos;
+    private final ExecutorService taskExecutor;
+    private final long startNanos = System.nanoTime();
+
+    private final Bucket[][] wheels = new Bucket[LEVELS][WHEEL_SIZE];
+    private final Queue<Timeout> submitted = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    // 下一个待处理的 tick，仅工作线程访问
+    private long currentTick;
+
+    private volatile boolean running;
+    private volatile boolean closed;
+    private Thread worker;
+
+    // 提交和取消在调用方线程计数，用 LongAdder 避免多线程争用同一缓存行
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder cancelledCount = new LongAdder();
+    private final LongAdder cascaded = new LongAdder();
+    private volatile long maxLatenessNanos;
+
+    /**
+     * @param name 名称（线程名、日志）
+     * @param tick 时间精度
+     * @param taskThreads 运行到期任务的线程数
+     */
+    public TimingWheel(String name, Duration tick, int taskThreads) {
+        this.name = name;
+        this.tickNanos = Math.max(tick.toNanos(), TimeUnit.MILLISECONDS.toNanos(1));
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.taskExecutor = Executors.newFixedThreadPool(Math.max(taskThreads, 1), r -> {
+            Thread thread = new Thread(r, name + "-task-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                wheels[level][slot] = new Bucket();
+            }
+        }
+    }
+
+    public void start() {
+        running = true;
+        worker = new Thread(this::workerLoop, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        running = false;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        taskExecutor.shutdown();
+        long dropped = pendingTimeouts();
+        if (dropped > 0) {
+            log.info("时间轮已停止，未到期的定时器被丢弃: name={}, pending={}", name, dropped);
+        }
+    }
+
+    /**
+     * 延迟执行任务，在时间轮的任务线程上运行
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        return schedule(task, delay, taskExecutor);
+    }
+
+    /**
+     * 延迟执行任务，到期后交给指定执行器（如需要与其他操作串行的单线程执行器）
+     */
+    public Timeout schedule(Runnable task, Duration delay, Executor executor) {
+        if (closed) {
+            throw new IllegalStateException("时间轮已停止: " + name);
+        }
+        long deadline = System.nanoTime() - startNanos + Math.max(delay.toNanos(), 0);
+        Timeout timeout = new Timeout(this, task, executor, deadline, (deadline + tickNanos - 1) / tickNanos);
+        scheduled.increment();
+        submitted.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * 待执行的定时器数（不含已取消的）
+     */
+    public long pendingTimeouts() {
+        return scheduled.sum() - expired.sum() - cancelledCount.sum();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tickMillis", TimeUnit.NANOSECONDS.toMillis(tickNanos));
+        stats.put("pending", pendingTimeouts());
+        stats.put("scheduled", scheduled.sum());
+        stats.put("expired", expired.sum());
+        stats.put("cancelled", cancelledCount.sum());
+        stats.put("cascaded", cascaded.sum());
+        stats.put("maxLatenessMillis", TimeUnit.NANOSECONDS.toMillis(maxLatenessNanos));
+        return stats;
+    }
+
+    private void workerLoop() {
+        while (running) {
+            // 第 k 个 tick 的槽中都是到期时间不晚于 k * tick 的定时器，到这个时刻即可处理
+            long nextTickAt = startNanos + currentTick * tickNanos;
+            long sleep = nextTickAt - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+                continue;
+            }
+            try {
+                processCancelled();
+                transferSubmitted();
+                long nowTick = (System.nanoTime() - startNanos) / tickNanos;
+                while (currentTick <= nowTick) {
+                    advance();
+                }
+            } catch (RuntimeException e) {
+                log.error("时间轮推进失败: name={}", name, e);
+            }
+        }
+    }
+
+    private void processCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferSubmitted() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            Timeout timeout = submitted.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.enterWheel()) {
+                add(timeout);
+            }
+        }
+    }
+
+    private void add(Timeout timeout) {
+        long expires = timeout.deadlineTick;
+        long distance = expires - currentTick;
+        Bucket bucket;
+        if (distance < 0) {
+            bucket = wheels[0][(int) (currentTick & WHEEL_MASK)];
+        } else if (distance < 1L << WHEEL_BITS) {
+            bucket = wheels[0][(int) (expires & WHEEL_MASK)];
+        } else if (distance < 1L << (2 * WHEEL_BITS)) {
+            bucket = wheels[1][(int) ((expires >>> WHEEL_BITS) & WHEEL_MASK)];
+        } else if (distance < 1L << (3 * WHEEL_BITS)) {
+            bucket = wheels[2][(int) ((expires >>> (2 * WHEEL_BITS)) & WHEEL_MASK)];
+        } else {
+            // 超出时间轮范围的先放在最高层最远的槽，到期时按真实到期 tick 重新放入
+            long capped = currentTick + Math.min(distance, MAX_TICKS);
+            bucket = wheels[3][(int) ((capped >>> (3 * WHEEL_BITS)) & WHEEL_MASK)];
+        }
+        bucket.add(timeout);
+    }
+
+    /**
+     * 处理 currentTick：第 0 层转完一圈时先逐层级联，再执行第 0 层当前槽中到期的定时器
+     */
+    private void advance() {
+        int index = (int) (currentTick & WHEEL_MASK);
+        if (index == 0) {
+            for (int level = 1; level < LEVELS; level++) {
+                if (cascade(level) != 0) {
+                    break;
+                }
+            }
+        }
+        expire(wheels[0][index]);
+        currentTick++;
+    }
+
+    private int cascade(int level) {
+        int index = (int) ((currentTick >>> (level * WHEEL_BITS)) & WHEEL_MASK);
+        Timeout timeout = wheels[level][index].clear();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.next = null;
+            timeout.prev = null;
+            cascaded.increment();
+            add(timeout);
+            timeout = next;
+        }
+        return index;
+    }
+
+    private void expire(Bucket bucket) {
+        Timeout timeout = bucket.clear();
+        long now = System.nanoTime() - startNanos;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.next = null;
+            timeout.prev = null;
+            if (timeout.deadlineTick > currentTick) {
+                add(timeout);
+            } else if (timeout.expire()) {
+                expired.increment();
+                long lateness = now - timeout.deadline;
+                if (lateness > maxLatenessNanos) {
+                    maxLatenessNanos = lateness;
+                }
+                try {
+                    timeout.executor.execute(timeout.task);
+                } catch (RejectedExecutionException e) {
+                    log.warn("定时任务无法执行，执行器已关闭: name={}", name);
+                }
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * 定时器句柄
+     */
+    public static final class Timeout {
+
+        // 已提交、尚未放入槽
+        private static final int ST_SUBMITTED = 0;
+        private static final int ST_IN_WHEEL = 1;
+        private static final int ST_CANCELLED = 2;
+        private static final int ST_EXPIRED = 3;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final Executor executor;
+        private final long deadline;
+        private final long deadlineTick;
+        private volatile int state = ST_SUBMITTED;
+
+        // 以下字段仅工作线程访问
+        private Timeout prev;
+        private Timeout next;
+        private Bucket bucket;
+
+        private Timeout(TimingWheel wheel, Runnable task, Executor executor, long deadline, long deadlineTick) {
+            this.wheel = wheel;
+            this.task = task;
+            this.executor = executor;
+            this.deadline = deadline;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * 取消尚未到期的定时器
+         * @return 是否取消成功（已到期或已取消时返回 false）
+         */
+        public boolean cancel() {
+            while (true) {
+                int current = state;
+                if (current != ST_SUBMITTED && current != ST_IN_WHEEL) {
+                    return false;
+                }
+                if (STATE.compareAndSet(this, current, ST_CANCELLED)) {
+                    wheel.cancelledCount.increment();
+                    // 还没放入槽的由工作线程转入时丢弃，已在槽中的交给工作线程摘除
+                    if (current == ST_IN_WHEEL) {
+                        wheel.cancelled.add(this);
+                    }
+                    return true;
+                }
+            }
+        }
+
+        public boolean isCancelled() {
+            return state == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+
+        private boolean enterWheel() {
+            return STATE.compareAndSet(this, ST_SUBMITTED, ST_IN_WHEEL);
+        }
+
+        private boolean expire() {
+            return STATE.compareAndSet(this, ST_IN_WHEEL, ST_EXPIRED);
+        }
+    }
+
+    /**
+     * 槽：定时器的双向链表
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /**
+         * 取出整条链表并清空槽，返回链表头
+         */
+        private Timeout clear() {
+            Timeout first = head;
+            for (Timeout timeout = head; timeout != null; timeout = timeout.next) {
+                timeout.bucket = null;
+            }
+            head = tail = null;
+            return first;
+        }
+    }
+}
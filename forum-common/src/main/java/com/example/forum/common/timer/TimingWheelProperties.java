@@ -0,0 +1,22 @@
+package com.example.forum.common.timer;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * 时间轮配置（forum.timer.*）
+ */
+@Data
+public class TimingWheelProperties {
+
+    /**
+     * 时间精度：定时任务最多比到期时间晚一个 tick 执行
+     */
+    private Duration tick = Duration.ofMillis(10);
+
+    /**
+     * 运行到期任务的线程数
+     */
+    private int taskThreads = 4;
+}
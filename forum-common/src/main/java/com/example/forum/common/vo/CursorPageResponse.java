@@ -0,0 +1,25 @@
+package com.example.forum.common.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 通用游标分页响应。
+ * nextCursor 为空表示已经到达末尾。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> records;
+    private String nextCursor;
+    private Boolean hasMore;
+
+    public static <T> CursorPageResponse<T> of(List<T> records, String nextCursor) {
+        return new CursorPageResponse<>(records, nextCursor, nextCursor != null);
+    }
+}
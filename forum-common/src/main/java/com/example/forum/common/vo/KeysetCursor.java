@@ -0,0 +1,43 @@
+package com.example.forum.common.vo;
+
+import com.example.forum.common.exception.ApiException;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * 基于 (created_at, id) 的键集分页游标。
+ * 对外以 Base64URL 编码的不透明字符串传递，内容为 "epochMillis:id"。
+ */
+public record KeysetCursor(LocalDateTime createdAt, Integer id) {
+
+    public String encode() {
+        long millis = createdAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+        String raw = millis + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，空字符串表示第一页（返回 null）
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            long millis = Long.parseLong(raw.substring(0, separator));
+            int id = Integer.parseInt(raw.substring(separator + 1));
+            LocalDateTime createdAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+            return new KeysetCursor(createdAt, id);
+        } catch (RuntimeException e) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.forum.common.warmup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动预热：实例对外提供服务之前建立连接池、加载热点数据
+ *
+ * 作为 SmartLifecycle 在 Web 服务器启动之前（阶段更早）执行，预热期间端口尚未监听、实例尚未注册到 Nacos，
+ * 健康检查和网关流量都要等预热结束才能进来。已注册的任务在固定大小的线程池中并行执行，任务可以继续拆分子任务；
+ * 总耗时受 budget 限制，超时后未完成的任务被中断并记为 timeout，启动照常继续。
+ * 单个任务失败只记录日志，不影响其他任务和启动。
+ */
+@Slf4j
+public class StartupWarmer implements SmartLifecycle {
+
+    // Web 服务器在 DEFAULT_PHASE - 2048 启动并发布 WebServerInitializedEvent（触发 Nacos 注册）
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final String name;
+    private final WarmupProperties properties;
+    private final Map<String, WarmupTask> tasks = new LinkedHashMap<>();
+    private final List<TaskRun> runs = new CopyOnWriteArrayList<>();
+
+    private final Object lock = new Object();
+    private int outstanding;
+    private ExecutorService executor;
+    private volatile long deadlineNanos;
+    private volatile boolean running;
+
+    private volatile String state = "pending";
+    private volatile long startedAt;
+    private volatile long durationMillis;
+
+    public StartupWarmer(String name, WarmupProperties properties) {
+        this.name = name;
+        this.properties = properties;
+    }
+
+    /**
+     * 注册预热任务，需在容器启动之前完成
+     */
+    public void register(String taskName, WarmupTask task) {
+        tasks.put(taskName, task);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!properties.isEnabled() || tasks.isEmpty()) {
+            state = "skipped";
+            log.info("启动预热已跳过: name={}", name);
+            return;
+        }
+        long start = System.nanoTime();
+        startedAt = System.currentTimeMillis();
+        deadlineNanos = start + properties.getBudget().toNanos();
+        state = "running";
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(properties.getParallelism(), 1), r -> {
+            Thread thread = new Thread(r, "warmup-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        tasks.forEach(this::fork);
+        boolean completed = awaitCompletion();
+        executor.shutdownNow();
+        for (TaskRun run : runs) {
+            if (run.startNanos > 0 && "running".equals(run.status)) {
+                run.millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - run.startNanos);
+            }
+            run.finish("timeout", 0, null);
+        }
+        durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        state = completed ? "completed" : "timeout";
+        long failed = runs.stream().filter(run -> !"ok".equals(run.status)).count();
+        int items = runs.stream().mapToInt(run -> run.items).sum();
+        if (completed) {
+            log.info("启动预热完成: name={}, durationMillis={}, tasks={}, items={}, failed={}",
+                    name, durationMillis, runs.size(), items, failed);
+        } else {
+            log.warn("启动预热超时，未完成的任务已放弃: name={}, durationMillis={}, tasks={}, items={}, unfinished={}",
+                    name, durationMillis, runs.size(), items, failed);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * 提交子任务，与其他任务共享线程池和时间预算；预算用完后提交的任务直接跳过
+     */
+    public void fork(String taskName, WarmupTask task) {
+        TaskRun run = new TaskRun(taskName);
+        runs.add(run);
+        if (isExpired()) {
+            run.finish("skipped", 0, null);
+            return;
+        }
+        synchronized (lock) {
+            outstanding++;
+        }
+        try {
+            executor.execute(() -> execute(run, task));
+        } catch (RejectedExecutionException e) {
+            run.finish("skipped", 0, null);
+            done();
+        }
+    }
+
+    /**
+     * 时间预算是否已用完
+     */
+    public boolean isExpired() {
+        return System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    public Map<String, Object> getReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", properties.isEnabled());
+        report.put("state", state);
+        report.put("startedAt", startedAt);
+        report.put("durationMillis", durationMillis);
+        report.put("budgetMillis", properties.getBudget().toMillis());
+        report.put("parallelism", properties.getParallelism());
+        List<Map<String, Object>> items = new ArrayList<>(runs.size());
+        for (TaskRun run : runs) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("name", run.name);
+            item.put("status", run.status);
+            item.put("items", run.items);
+            item.put("millis", run.millis);
+            if (run.error != null) {
+                item.put("error", run.error);
+            }
+            items.add(item);
+        }
+        report.put("tasks", items);
+        return report;
+    }
+
+    private void execute(TaskRun run, WarmupTask task) {
+        long start = System.nanoTime();
+        run.startNanos = start;
+        try {
+            int items = task.run(this);
+            run.millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            run.finish("ok", items, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            run.millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            run.finish("failed", 0, e.getMessage());
+            log.warn("预热任务失败: name={}, task={}, error={}", name, run.name, e.getMessage());
+        } finally {
+            done();
+        }
+    }
+
+    private void done() {
+        synchronized (lock) {
+            outstanding--;
+            if (outstanding == 0) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 等待所有任务（含子任务）结束或时间预算用完
+     * @return 是否全部结束
+     */
+    private boolean awaitCompletion() {
+        synchronized (lock) {
+            while (outstanding > 0) {
+                long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class TaskRun {
+        private final String name;
+        private volatile long startNanos;
+        private volatile String status = "running";
+        private volatile int items;
+        private volatile long millis;
+        private volatile String error;
+
+        private TaskRun(String name) {
+            this.name = name;
+        }
+
+        /**
+         * 只记录第一次结束的状态，超时后才返回的任务不再覆盖 timeout
+         */
+        private synchronized void finish(String status, int items, String error) {
+            if (!"running".equals(this.status)) {
+                return;
+            }
+            this.status = status;
+            this.items = items;
+            this.error = error;
+        }
+    }
+}
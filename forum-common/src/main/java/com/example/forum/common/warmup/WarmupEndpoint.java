@@ -0,0 +1,24 @@
+package com.example.forum.common.warmup;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * /actuator/warmup：启动预热的总耗时、是否超时，以及每个预热任务的状态、条目数和耗时
+ */
+@Endpoint(id = "warmup")
+public class WarmupEndpoint {
+
+    private final StartupWarmer startupWarmer;
+
+    public WarmupEndpoint(StartupWarmer startupWarmer) {
+        this.startupWarmer = startupWarmer;
+    }
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        return startupWarmer.getReport();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.forum.common.warmup;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * 启动预热配置（forum.warmup.*）
+ */
+@Data
+public class WarmupProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 预热总时长上限，超时未完成的任务放弃，实例照常对外提供服务
+     */
+    private Duration budget = Duration.ofSeconds(20);
+
+    /**
+     * 并行执行预热任务的线程数
+     */
+    private int parallelism = 8;
+
+    /**
+     * 预先建立的数据库连接数，不应超过连接池上限
+     */
+    private int connections = 8;
+}
@@ -0,0 +1,16 @@
+package com.example.forum.common.warmup;
+
+/**
+ * 启动预热任务
+ *
+ * 任务可以通过 {@link StartupWarmer#fork} 拆分出子任务并行执行；耗时较长的循环应检查
+ * {@link StartupWarmer#isExpired()}，时间预算用完后提前结束。
+ */
+@FunctionalInterface
+public interface WarmupTask {
+
+    /**
+     * @return 预热的条目数，仅用于报告
+     */
+    int run(StartupWarmer warmer) throws Exception;
+}
@@ -0,0 +1,57 @@
+package com.example.forum.common.warmup;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 通用的连接预热任务
+ */
+public final class WarmupTasks {
+
+    private WarmupTasks() {
+    }
+
+    /**
+     * 同时借出 connections 个数据库连接再全部归还，连接池中留下已完成握手和认证的连接
+     * （逐个借出归还只会反复使用同一个连接）
+     */
+    public static WarmupTask dataSource(DataSource dataSource, int connections) {
+        return warmer -> {
+            List<Connection> held = new ArrayList<>(connections);
+            try {
+                for (int i = 0; i < connections && !warmer.isExpired(); i++) {
+                    Connection connection = dataSource.getConnection();
+                    held.add(connection);
+                    connection.isValid(1);
+                }
+                return held.size();
+            } finally {
+                for (Connection connection : held) {
+                    try {
+                        connection.close();
+                    } catch (SQLException ignored) {
+                        // 归还失败的连接由连接池自行回收
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * 建立 Redis 连接；集群模式下 PING 会发往每个主节点，同时完成拓扑加载
+     */
+    public static WarmupTask redis(RedisConnectionFactory connectionFactory) {
+        return warmer -> {
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                connection.ping();
+            }
+            return 1;
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.forum.post.config;
+
+import com.example.forum.common.cluster.ClusterCoordinator;
+import com.example.forum.common.cluster.ClusterJobsEndpoint;
+import com.example.forum.common.cluster.ClusterProperties;
+import com.example.forum.common.cluster.ClusterSingletonInterceptor;
+import com.example.forum.common.redis.RedisGuard;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+public class ClusterConfig {
+
+    @Bean
+    @ConfigurationProperties("forum.cluster")
+    public ClusterProperties clusterProperties() {
+        return new ClusterProperties();
+    }
+
+    /**
+     * 定时任务的租约与分片分配，多实例部署时 @ClusterSingleton 任务只在租约持有者上执行
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ClusterCoordinator clusterCoordinator(StringRedisTemplate stringRedisTemplate,
+                                                 RedisGuard redisGuard,
+                                                 ClusterProperties clusterProperties,
+                                                 @Value("${spring.application.name}") String applicationName) {
+        return new ClusterCoordinator(applicationName, stringRedisTemplate, redisGuard, clusterProperties);
+    }
+
+    /**
+     * 静态方法且延迟获取协调器：Advisor 在创建代理之前实例化，不能提前拉起 Redis 相关的 Bean
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor clusterSingletonAdvisor(ObjectProvider<ClusterCoordinator> clusterCoordinator) {
+        return ClusterSingletonInterceptor.advisor(clusterCoordinator);
+    }
+
+    @Bean
+    public ClusterJobsEndpoint clusterJobsEndpoint(ClusterCoordinator clusterCoordinator) {
+        return new ClusterJobsEndpoint(clusterCoordinator);
+    }
+}
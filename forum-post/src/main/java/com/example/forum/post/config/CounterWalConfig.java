@@ -0,0 +1,29 @@
+package com.example.forum.post.config;
+
+import com.example.forum.common.cache.PostCounterWal;
+import com.example.forum.common.redis.RedisGuard;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Configuration
+public class CounterWalConfig {
+
+    /**
+     * Redis 不可用时帖子计数写入本地 WAL，恢复后重放（日计数由 DailyStatsBuffer 自行重试，不经过 WAL）
+     */
+    @Bean
+    public PostCounterWal postCounterWal(RedisTemplate<String, Object> redisTemplate,
+                                         RedisGuard redisGuard,
+                                         @Value("${forum.metrics.wal-dir:./data/counter-wal/${spring.application.name}}") String dir,
+                                         @Value("${forum.metrics.wal-replay-batch-size:500}") int batchSize) throws IOException {
+        PostCounterWal wal = new PostCounterWal(Paths.get(dir), redisTemplate, false, batchSize);
+        wal.open();
+        redisGuard.onRecovery(wal::replay);
+        return wal;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.forum.post.config;
+
+import com.example.forum.common.cache.IdExistenceFilter;
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.post.repo.PostRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class ExistenceFilterConfig {
+
+    /**
+     * posts 主键存在性过滤，帖子不存在时直接拒绝，不查询数据库
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public IdExistenceFilter postExistenceFilter(RedisTemplate<String, Object> redisTemplate,
+                                                 RedisGuard redisGuard,
+                                                 PostRepo postRepo,
+                                                 @Value("${forum.existence.negative-ttl:PT1M}") Duration negativeTtl,
+                                                 @Value("${forum.existence.rebuild-interval:PT1H}") Duration rebuildInterval) {
+        return new IdExistenceFilter("posts", redisTemplate, redisGuard,
+                postRepo::selectExistenceMaxId, postRepo::selectIdsAfter, negativeTtl, rebuildInterval);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.forum.post.config;
+
+import com.example.forum.common.cache.HotKeyDetector;
+import com.example.forum.common.cache.LocalCacheSnapshot;
+import com.example.forum.common.cache.StaleWhileRevalidateCacheManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/hotkeys：本实例当前的热点缓存 key（已在本地保留副本）及窗口内的估计访问次数，以及本地副本快照的状态
+ */
+@Component
+@Endpoint(id = "hotkeys")
+@RequiredArgsConstructor
+public class HotKeyEndpoint {
+
+    private final CacheManager cacheManager;
+    private final LocalCacheSnapshot localCacheSnapshot;
+
+    @ReadOperation
+    public Map<String, Object> hotKeys() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (!(cacheManager instanceof StaleWhileRevalidateCacheManager swrCacheManager)) {
+            return result;
+        }
+        Map<String, List<HotKeyDetector.HotKey>> hotKeys = swrCacheManager.getHotKeys();
+        // posts:detail 的 key 即帖子 ID
+        result.put("hotPostIds", hotKeys.getOrDefault("posts:detail", List.of()).stream()
+                .map(HotKeyDetector.HotKey::key)
+                .toList());
+        result.put("caches", hotKeys);
+        result.put("snapshot", localCacheSnapshot.getStats());
+        return result;
+    }
+}
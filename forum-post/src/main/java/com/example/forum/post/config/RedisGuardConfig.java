@@ -0,0 +1,48 @@
+package com.example.forum.post.config;
+
+import com.example.forum.common.redis.RedisBatch;
+import com.example.forum.common.redis.RedisBatchProperties;
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.common.redis.RedisGuardProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+@Configuration
+public class RedisGuardConfig {
+
+    @Bean
+    @ConfigurationProperties("forum.redis.guard")
+    public RedisGuardProperties redisGuardProperties() {
+        return new RedisGuardProperties();
+    }
+
+    /**
+     * 本服务所有 Redis 访问共用的熔断保护
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public RedisGuard redisGuard(RedisConnectionFactory redisConnectionFactory,
+                                 RedisTemplate<String, Object> redisTemplate,
+                                 RedisGuardProperties redisGuardProperties,
+                                 @Value("${spring.application.name}") String applicationName) {
+        return new RedisGuard(applicationName, redisConnectionFactory, redisTemplate, redisGuardProperties);
+    }
+
+    @Bean
+    @ConfigurationProperties("forum.redis.batch")
+    public RedisBatchProperties redisBatchProperties() {
+        return new RedisBatchProperties();
+    }
+
+    /**
+     * 批量命令：逐条发送的 Redis 命令改为按 pipeline 一次发送
+     */
+    @Bean
+    public RedisBatch redisBatch(RedisTemplate<String, Object> redisTemplate,
+                                 RedisBatchProperties redisBatchProperties) {
+        return new RedisBatch(redisTemplate, redisBatchProperties);
+    }
+}
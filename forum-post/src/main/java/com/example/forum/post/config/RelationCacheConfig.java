@@ -0,0 +1,30 @@
+package com.example.forum.post.config;
+
+import com.example.forum.common.cache.RelationSetCache;
+import com.example.forum.common.redis.RedisBatch;
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.post.repo.PostLikeRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class RelationCacheConfig {
+
+    /**
+     * post:likes:{postId} 点赞用户集合，冷帖子超过 TTL 未访问即过期，按需从 idx_post_likes_post_created 重建
+     */
+    @Bean
+    public RelationSetCache postLikesCache(RedisTemplate<String, Object> redisTemplate,
+                                           PostLikeRepo postLikeRepo,
+                                           RedisGuard redisGuard,
+                                           RedisBatch redisBatch,
+                                           @Value("${forum.cache.relation-ttl:P3D}") Duration ttl) {
+        return new RelationSetCache("post:likes", "post:likes:", ttl, redisTemplate, postLikeRepo::findUserIdsByPostId,
+                (postId, userId) -> postLikeRepo.findByPostAndUser(postId, userId) != null,
+                redisGuard, redisBatch);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.forum.post.config;
+
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.common.timer.DelayedJobProperties;
+import com.example.forum.common.timer.DelayedJobQueue;
+import com.example.forum.common.timer.TimersEndpoint;
+import com.example.forum.common.timer.TimingWheel;
+import com.example.forum.common.timer.TimingWheelProperties;
+import com.example.forum.post.job.ScheduledPostPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+public class TimerConfig {
+
+    @Bean
+    @ConfigurationProperties("forum.timer")
+    public TimingWheelProperties timingWheelProperties() {
+        return new TimingWheelProperties();
+    }
+
+    /**
+     * 进程内定时器：点赞防抖落库、延迟任务唤醒等
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public TimingWheel timingWheel(TimingWheelProperties timingWheelProperties) {
+        return new TimingWheel("timing-wheel", timingWheelProperties.getTick(), timingWheelProperties.getTaskThreads());
+    }
+
+    @Bean
+    @ConfigurationProperties("forum.delayed-jobs")
+    public DelayedJobProperties delayedJobProperties() {
+        return new DelayedJobProperties();
+    }
+
+    /**
+     * 重启后不丢失的延迟任务：定时发布帖子
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public DelayedJobQueue delayedJobQueue(StringRedisTemplate stringRedisTemplate,
+                                           RedisGuard redisGuard,
+                                           TimingWheel timingWheel,
+                                           DelayedJobProperties delayedJobProperties,
+                                           ScheduledPostPublisher scheduledPostPublisher,
+                                           @Value("${spring.application.name}") String applicationName) {
+        DelayedJobQueue queue = new DelayedJobQueue(applicationName, stringRedisTemplate, redisGuard, timingWheel,
+                delayedJobProperties);
+        queue.register(ScheduledPostPublisher.JOB_TYPE, scheduledPostPublisher);
+        return queue;
+    }
+
+    @Bean
+    public TimersEndpoint timersEndpoint(TimingWheel timingWheel, DelayedJobQueue delayedJobQueue) {
+        return new TimersEndpoint(timingWheel, delayedJobQueue);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.forum.post.config;
+
+import com.example.forum.common.warmup.StartupWarmer;
+import com.example.forum.common.warmup.WarmupEndpoint;
+import com.example.forum.common.warmup.WarmupProperties;
+import com.example.forum.common.warmup.WarmupTasks;
+import com.example.forum.post.client.CommentClient;
+import com.example.forum.post.client.UserClient;
+import com.example.forum.post.service.PostCacheWarmer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class WarmupConfig {
+
+    @Bean
+    @ConfigurationProperties("forum.warmup")
+    public WarmupProperties warmupProperties() {
+        return new WarmupProperties();
+    }
+
+    /**
+     * 部署后实例先预热再对外提供服务，避免所有缓存同时未命中压垮数据库
+     */
+    @Bean
+    public StartupWarmer startupWarmer(WarmupProperties warmupProperties,
+                                       DataSource dataSource,
+                                       RedisConnectionFactory redisConnectionFactory,
+                                       UserClient userClient,
+                                       CommentClient commentClient,
+                                       PostCacheWarmer postCacheWarmer,
+                                       @Value("${spring.application.name}") String applicationName) {
+        StartupWarmer warmer = new StartupWarmer(applicationName, warmupProperties);
+        warmer.register("db-pool", WarmupTasks.dataSource(dataSource, warmupProperties.getConnections()));
+        warmer.register("redis", WarmupTasks.redis(redisConnectionFactory));
+        // 首次调用会创建负载均衡上下文、拉取 Nacos 实例列表并建立 HTTP 连接；下游不可用时走降级，不影响预热
+        warmer.register("feign", w -> {
+            userClient.checkUserExists(0);
+            commentClient.getComments(0, 1, 1);
+            return 2;
+        });
+        warmer.register("categories", postCacheWarmer::warmCategories);
+        warmer.register("trending", postCacheWarmer::warmTrending);
+        warmer.register("feeds", postCacheWarmer::warmFeeds);
+        warmer.register("hot-posts", w -> postCacheWarmer.warmHotPosts(w, warmupProperties.getParallelism()));
+        return warmer;
+    }
+
+    @Bean
+    public WarmupEndpoint warmupEndpoint(StartupWarmer startupWarmer) {
+        return new WarmupEndpoint(startupWarmer);
+    }
+}
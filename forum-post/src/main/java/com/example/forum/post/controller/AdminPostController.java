@@ -1,20 +1,38 @@
 package com.example.forum.post.controller;
 
+import com.example.forum.common.cache.IdExistenceFilter;
+import com.example.forum.common.cache.PostCounterWal;
+import com.example.forum.common.cache.RelationSetCache;
+import com.example.forum.common.cache.StaleWhileRevalidateCacheManager;
+import com.example.forum.common.exception.ApiException;
+import com.example.forum.common.redis.RedisBatch;
+import com.example.forum.common.redis.RedisGuard;
 import com.example.forum.post.entity.PostLike;
+import com.example.forum.post.eventlog.PostEventLog;
+import com.example.forum.post.eventlog.PostEventLogReader;
+import com.example.forum.post.eventlog.PostEventReplayer;
+import com.example.forum.post.eventlog.PostMetricsWatermark;
+import com.example.forum.post.job.PostStatsReconcileJob;
 import com.example.forum.post.repo.PostLikeRepo;
+import com.example.forum.post.service.HotCounterSharding;
+import com.example.forum.post.service.LikeToggleCoalescer;
 import com.example.forum.post.service.PostService;
 import com.example.forum.common.vo.PageResponse;
 import com.example.forum.post.vo.AdminPostDetailView;
 import com.example.forum.post.vo.AdminPostSummary;
+import com.example.forum.post.vo.ReconcileReport;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
@@ -22,7 +40,11 @@ import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * 管理员帖子控制器
@@ -35,7 +57,20 @@ public class AdminPostController {
 
     private final PostService postService;
     private final PostLikeRepo postLikeRepo;
+    private final LikeToggleCoalescer likeToggleCoalescer;
+    private final HotCounterSharding hotCounterSharding;
+    private final PostStatsReconcileJob postStatsReconcileJob;
+    private final PostEventLog postEventLog;
+    private final PostMetricsWatermark postMetricsWatermark;
+    private final PostEventLogReader postEventLogReader;
+    private final PostEventReplayer postEventReplayer;
+    private final RedisGuard redisGuard;
+    private final RedisBatch redisBatch;
+    private final PostCounterWal postCounterWal;
+    private final RelationSetCache postLikesCache;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheManager cacheManager;
+    private final IdExistenceFilter postExistenceFilter;
     
     @Value("${com.jwt.user-secret-key:}")
     private String jwtSecretKey;
@@ -272,15 +307,13 @@ public class AdminPostController {
             List<PostLike> allLikes = postLikeRepo.selectList(null);
             log.info("从MySQL读取到 {} 条点赞关系", allLikes.size());
             
-            // 3. 重建Redis缓存
-            int syncedCount = 0;
-            for (PostLike like : allLikes) {
-                if (like.getPostId() != null && like.getUserId() != null) {
-                    String likesKey = "post:likes:" + like.getPostId();
-                    redisTemplate.opsForSet().add(likesKey, like.getUserId().toString());
-                    syncedCount++;
-                }
-            }
+            // 3. 按帖子分组重建Redis缓存（带加载标记），无点赞的帖子在访问时再按需加载
+            Map<Integer, List<Integer>> likesByPost = allLikes.stream()
+                    .filter(like -> like.getPostId() != null && like.getUserId() != null)
+                    .collect(Collectors.groupingBy(PostLike::getPostId,
+                            Collectors.mapping(PostLike::getUserId, Collectors.toList())));
+            postLikesCache.loadAll(likesByPost);
+            int syncedCount = likesByPost.values().stream().mapToInt(List::size).sum();
             
             log.info("点赞数据同步完成，已同步 {} 条记录到Redis", syncedCount);
             
@@ -317,13 +350,7 @@ public class AdminPostController {
             int redisKeys = likesKeys != null ? likesKeys.size() : 0;
             
             // 统计Redis中的总点赞数
-            int redisTotalLikes = 0;
-            if (likesKeys != null) {
-                for (String key : likesKeys) {
-                    Long size = redisTemplate.opsForSet().size(key);
-                    redisTotalLikes += (size != null ? size.intValue() : 0);
-                }
-            }
+            int redisTotalLikes = likesKeys != null ? (int) postLikesCache.countMembers(likesKeys) : 0;
             
             Map<String, Object> status = new HashMap<>();
             status.put("mysqlTotalLikes", mysqlCount);
@@ -332,7 +359,9 @@ public class AdminPostController {
             status.put("suggestion", mysqlCount > 0 && redisKeys == 0 
                 ? "检测到Redis缓存为空，建议执行数据同步" 
                 : "数据状态正常");
-            status.put("consistency", mysqlCount == redisTotalLikes ? "一致" : "不一致");
+            // 冷帖子的集合会过期，Redis 总数小于 MySQL 属正常，命中率见 cacheStats
+            status.put("consistency", mysqlCount == redisTotalLikes ? "一致" : "部分加载");
+            status.put("cacheStats", postLikesCache.getStats());
             
             return ResponseEntity.ok(status);
             
@@ -345,6 +374,130 @@ public class AdminPostController {
         }
     }
     
+    /**
+     * 查看点赞防抖合并统计（开关次数、实际落库次数、写放大）
+     */
+    @GetMapping("/sync/likes/coalescer")
+    public ResponseEntity<Map<String, Object>> getLikeCoalescerStats() {
+        return ResponseEntity.ok(likeToggleCoalescer.getStats());
+    }
+
+    /**
+     * 查看热点计数分片统计
+     */
+    @GetMapping("/sync/metrics/hot")
+    public ResponseEntity<Map<String, Object>> getHotCounterStats() {
+        return ResponseEntity.ok(hotCounterSharding.getStats());
+    }
+
+    /**
+     * 查看 Redis 熔断状态与本地计数 WAL（降级期间的待重放增量）
+     */
+    @GetMapping("/sync/metrics/wal")
+    public ResponseEntity<Map<String, Object>> getCounterWalStatus() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("redis", redisGuard.getStats());
+        result.put("wal", postCounterWal.getStats());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 查看 Redis 批量命令统计（批次数、命令数、实际 pipeline 数、耗时）
+     */
+    @GetMapping("/sync/redis/batch")
+    public ResponseEntity<Map<String, Object>> getRedisBatchStats() {
+        return ResponseEntity.ok(redisBatch.getStats());
+    }
+
+    /**
+     * 查看 stale-while-revalidate 缓存统计（新鲜命中、旧值命中、后台刷新）
+     */
+    @GetMapping("/sync/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        if (cacheManager instanceof StaleWhileRevalidateCacheManager swrCacheManager) {
+            return ResponseEntity.ok(swrCacheManager.getStats());
+        }
+        return ResponseEntity.ok(Map.of());
+    }
+
+    /**
+     * 查看帖子 ID 存在性过滤统计（范围、位图、负缓存各自拦截的次数）
+     */
+    @GetMapping("/sync/existence")
+    public ResponseEntity<Map<String, Object>> getExistenceFilterStats() {
+        return ResponseEntity.ok(postExistenceFilter.getStats());
+    }
+
+    /**
+     * 手动触发帖子计数对账（后台执行）
+     */
+    @PostMapping("/sync/metrics/reconcile")
+    public ResponseEntity<Map<String, Object>> triggerReconcile() {
+        boolean started = postStatsReconcileJob.triggerAsync();
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", started);
+        result.put("message", started ? "对账任务已启动" : "对账任务正在运行");
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(result);
+    }
+
+    /**
+     * 查看最近一次计数对账结果（含漂移分布）
+     */
+    @GetMapping("/sync/metrics/reconcile")
+    public ReconcileReport getReconcileReport() {
+        return postStatsReconcileJob.getLastReport();
+    }
+
+    /**
+     * 查看事件日志状态与段列表
+     */
+    @GetMapping("/sync/events")
+    public ResponseEntity<Map<String, Object>> getEventLogStatus() throws IOException {
+        Map<String, Object> result = new LinkedHashMap<>(postEventLog.getStats());
+        result.put("flushWatermark", postMetricsWatermark.getStats());
+        result.put("segments", postEventLogReader.listSegments());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 下载事件日志段（用于转运到分析系统），offset 用于断点续传。
+     * 连接器支持 sendfile 时交给 Tomcat 零拷贝发送，否则用 FileChannel.transferTo 写出
+     */
+    @GetMapping("/sync/events/segments/{name}")
+    public void downloadEventSegment(@PathVariable String name,
+                                     @RequestParam(defaultValue = "0") long offset,
+                                     HttpServletRequest request,
+                                     HttpServletResponse response) throws IOException {
+        Path file = postEventLogReader.resolveSegment(name);
+        long length = postEventLogReader.transferableLength(file, Math.max(offset, 0));
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "\"");
+        response.setContentLengthLong(length);
+        if (length == 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", offset);
+            request.setAttribute("org.apache.tomcat.sendfile.end", offset + length);
+            return;
+        }
+        postEventLogReader.transfer(file, offset, length, Channels.newChannel(response.getOutputStream()));
+    }
+
+    /**
+     * 从事件日志重放 [from, to) 内的计数事件到 Redis（时间为毫秒时间戳）。
+     * from 默认取本实例的持久化水位且不能更早，to 默认取最后一次确认 Redis 未丢失数据的时间；
+     * 只有检测到 Redis 丢失数据后才能实际写入（dryRun=false），见 PostEventReplayer。
+     * from 需在日志保留范围内（forum.eventlog.retention，默认 7 天），否则更早的事件已删除，报告中 truncated 为 true
+     */
+    @PostMapping("/sync/events/replay")
+    public ResponseEntity<Map<String, Object>> replayEvents(@RequestParam(required = false) Long from,
+                                                            @RequestParam(required = false) Long to,
+                                                            @RequestParam(defaultValue = "true") boolean dryRun) throws IOException {
+        return ResponseEntity.ok(postEventReplayer.replay(from, to, dryRun));
+    }
+
     /**
      * 清空所有Redis指标缓存（浏览数、点赞数、评论数）
      * 用于重置增量计数器
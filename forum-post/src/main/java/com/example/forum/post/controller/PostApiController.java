@@ -1,5 +1,6 @@
 package com.example.forum.post.controller;
 
+import com.example.forum.common.cache.IdExistenceFilter;
 import com.example.forum.common.dto.Result;
 import com.example.forum.common.enums.Code;
 import com.example.forum.post.entity.Post;
@@ -18,14 +19,14 @@ import org.springframework.web.bind.annotation.*;
 public class PostApiController {
 
     private final PostService postService;
+    private final IdExistenceFilter postExistenceFilter;
 
     /**
      * 检查帖子是否存在
      */
     @GetMapping("/{postId}/exists")
     public Result<Boolean> checkPostExists(@PathVariable Integer postId) {
-        Post post = postService.getById(postId);
-        return Result.success(post != null);
+        return Result.success(findPost(postId) != null);
     }
 
     /**
@@ -33,10 +34,24 @@ public class PostApiController {
      */
     @GetMapping("/{postId}/author-id")
     public Result<Integer> getPostAuthorId(@PathVariable Integer postId) {
-        Post post = postService.getById(postId);
+        Post post = findPost(postId);
         if (post == null) {
             return Result.error(Code.NOT_FOUND, "帖子不存在");
         }
         return Result.success(post.getAuthorId());
     }
+
+    /**
+     * 先经过存在性过滤，确认不存在的 ID 写入负缓存
+     */
+    private Post findPost(Integer postId) {
+        if (!postExistenceFilter.mightExist(postId)) {
+            return null;
+        }
+        Post post = postService.getById(postId);
+        if (post == null) {
+            postExistenceFilter.markMissing(postId);
+        }
+        return post;
+    }
 }
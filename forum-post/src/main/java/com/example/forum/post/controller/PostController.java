@@ -3,11 +3,17 @@ package com.example.forum.post.controller;
 import com.example.forum.post.dto.PostCreateRequest;
 import com.example.forum.post.entity.Post;
 import com.example.forum.post.service.PostService;
+import com.example.forum.common.vo.CursorPageResponse;
 import com.example.forum.common.vo.PageResponse;
+import com.example.forum.post.service.PostLikeService;
+import com.example.forum.post.service.PostStatsService;
+import com.example.forum.post.vo.PostDailyStatsView;
 import com.example.forum.post.vo.PostDetailView;
+import com.example.forum.post.vo.PostLikerView;
 import com.example.forum.post.vo.PostListResponse;
 import com.example.forum.post.vo.PostSummaryView;
 import com.example.forum.post.vo.TrendingPostView;
+import com.example.forum.common.metrics.Metered;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -33,6 +39,8 @@ import java.util.Optional;
 public class PostController {
 
     private final PostService postService;
+    private final PostLikeService postLikeService;
+    private final PostStatsService postStatsService;
     
     @Value("${com.jwt.user-secret-key:}")
     private String jwtSecretKey;
@@ -41,6 +49,7 @@ public class PostController {
     private String jwtTokenName;
 
     @GetMapping("/posts")
+    @Metered("post.list")
     public PostListResponse getApprovedPosts(@RequestParam(required = false) Integer page,
                                              @RequestParam(required = false) Integer size,
                                              @RequestParam(required = false) String status,
@@ -60,12 +69,14 @@ public class PostController {
     }
 
     @GetMapping("/posts/{postId}")
+    @Metered("post.detail")
     public PostDetailView getPostDetail(@PathVariable Integer postId) {
         Integer userId = resolveCurrentUserId();
         return postService.getPostDetail(postId, userId);
     }
 
     @PostMapping("/posts/{postId}/like")
+    @Metered("post.like")
     public ResponseEntity<Map<String, Object>> likePost(@PathVariable Integer postId) {
         Integer currentUserId = requireCurrentUserId();
         postService.likePost(postId, currentUserId);
@@ -73,12 +84,26 @@ public class PostController {
     }
 
     @DeleteMapping("/posts/{postId}/like")
+    @Metered("post.unlike")
     public ResponseEntity<Map<String, Object>> unlikePost(@PathVariable Integer postId) {
         Integer currentUserId = requireCurrentUserId();
         postService.unlikePost(postId, currentUserId);
         return ResponseEntity.ok(Map.of("liked", false));
     }
 
+    @GetMapping("/posts/{postId}/likes")
+    public CursorPageResponse<PostLikerView> pagePostLikers(@PathVariable Integer postId,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "20") Integer size) {
+        return postLikeService.pageLikers(postId, cursor, size);
+    }
+
+    @GetMapping("/posts/{postId}/stats")
+    public List<PostDailyStatsView> getPostDailyStats(@PathVariable Integer postId,
+                                                      @RequestParam(defaultValue = "30") Integer days) {
+        return postStatsService.getDailyStats(postId, days);
+    }
+
     @PostMapping("/posts")
     public ResponseEntity<PostDetailView> createPost(@Valid @RequestBody PostCreateRequest request) {
         Integer currentUserId = requireCurrentUserId();
@@ -95,6 +120,13 @@ public class PostController {
         return postService.pageMyPosts(currentUserId, status, page, size);
     }
 
+    @GetMapping("/users/me/likes")
+    public CursorPageResponse<PostSummaryView> pageMyLikedPosts(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "10") Integer size) {
+        Integer currentUserId = requireCurrentUserId();
+        return postService.pageLikedPosts(currentUserId, cursor, size);
+    }
+
     /**
      * 从JWT token中解析当前用户ID
      * 支持从请求头(Authorization)或Cookie中获取token
@@ -1,9 +1,11 @@
 package com.example.forum.post.dto;
 
+import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -25,4 +27,10 @@ public class PostCreateRequest {
     private String status;
 
     private Boolean pinned;
+
+    /**
+     * 定时发布时间：帖子先以 scheduled 状态保存，到期后变为 status 对应的状态；不足一分钟按立即发布处理
+     */
+    @Future(message = "定时发布时间必须晚于当前时间")
+    private LocalDateTime publishAt;
 }
@@ -0,0 +1,37 @@
+package com.example.forum.post.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.time.LocalDateTime;
+
+/**
+ * 帖子计数（与 posts 宽行分离的窄表）。
+ */
+@Data
+@Accessors(chain = true)
+@TableName("post_stats")
+public class PostStats {
+
+    @TableId(value = "post_id", type = IdType.INPUT)
+    private Integer postId;
+
+    @TableField("views")
+    private Integer views;
+
+    @TableField("likes")
+    private Integer likes;
+
+    @TableField("comments")
+    private Integer comments;
+
+    @TableField("heat")
+    private Integer heat;
+
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+}
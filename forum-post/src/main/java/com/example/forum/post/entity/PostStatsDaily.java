@@ -0,0 +1,32 @@
+package com.example.forum.post.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.time.LocalDate;
+
+/**
+ * 帖子单日计数。
+ */
+@Data
+@Accessors(chain = true)
+@TableName("post_stats_daily")
+public class PostStatsDaily {
+
+    @TableField("post_id")
+    private Integer postId;
+
+    @TableField("stat_date")
+    private LocalDate statDate;
+
+    @TableField("views")
+    private Integer views;
+
+    @TableField("likes")
+    private Integer likes;
+
+    @TableField("comments")
+    private Integer comments;
+}
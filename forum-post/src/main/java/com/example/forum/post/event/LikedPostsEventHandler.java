@@ -0,0 +1,39 @@
+package com.example.forum.post.event;
+
+import com.example.forum.common.event.DomainEvent;
+import com.example.forum.common.event.DomainEventHandler;
+import com.example.forum.common.event.DomainEventType;
+import com.example.forum.post.service.PostLikeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 点赞关系变化后递增用户的"我赞过的"版本号，一批事件中同一用户只递增一次
+ */
+@Component
+@RequiredArgsConstructor
+public class LikedPostsEventHandler implements DomainEventHandler {
+
+    private final PostLikeService postLikeService;
+
+    @Override
+    public Set<DomainEventType> types() {
+        return EnumSet.of(DomainEventType.LIKED, DomainEventType.UNLIKED);
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        Set<Integer> userIds = new LinkedHashSet<>();
+        for (DomainEvent event : events) {
+            if (event.actorId() != null) {
+                userIds.add(event.actorId());
+            }
+        }
+        postLikeService.bumpLikedPostsVersions(userIds);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.forum.post.event;
+
+import com.example.forum.common.event.DomainEvent;
+import com.example.forum.common.event.DomainEventHandler;
+import com.example.forum.common.event.DomainEventType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 帖子发布、审核、删除以及关注关系变化后失效帖子缓存
+ *
+ * 一批事件只清空一次 posts:list（原先每次写请求都同步清空一次），posts:detail 按帖子去重后失效。
+ * 审核原先通过类内调用带 @CacheEvict 的方法，注解不生效，审核后详情和列表要等 TTL 过期才更新。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PostCacheEventHandler implements DomainEventHandler {
+
+    private static final String DETAIL_CACHE = "posts:detail";
+    private static final String LIST_CACHE = "posts:list";
+
+    private final CacheManager cacheManager;
+
+    @Override
+    public Set<DomainEventType> types() {
+        return EnumSet.of(DomainEventType.POST_CREATED, DomainEventType.POST_MODERATED, DomainEventType.POST_DELETED,
+                DomainEventType.POST_PUBLISHED, DomainEventType.FOLLOWED, DomainEventType.UNFOLLOWED);
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        Set<Integer> changedPostIds = new LinkedHashSet<>();
+        for (DomainEvent event : events) {
+            if (event.type() == DomainEventType.POST_MODERATED || event.type() == DomainEventType.POST_DELETED
+                    || event.type() == DomainEventType.POST_PUBLISHED) {
+                changedPostIds.add(event.aggregateId());
+            }
+        }
+        Cache detailCache = cacheManager.getCache(DETAIL_CACHE);
+        if (detailCache != null) {
+            changedPostIds.forEach(detailCache::evict);
+        }
+        Cache listCache = cacheManager.getCache(LIST_CACHE);
+        if (listCache != null) {
+            listCache.clear();
+        }
+        log.debug("已按领域事件失效帖子缓存: events={}, details={}", events.size(), changedPostIds.size());
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.forum.post.event;
+
+import com.example.forum.common.event.DomainEvent;
+import com.example.forum.common.event.DomainEventHandler;
+import com.example.forum.common.event.DomainEventType;
+import com.example.forum.post.service.PostMetricsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 帖子删除后丢弃其尚未持久化的 Redis 计数增量，避免持久化任务反复处理已不存在的帖子
+ */
+@Component
+@RequiredArgsConstructor
+public class PostMetricsEventHandler implements DomainEventHandler {
+
+    private final PostMetricsService postMetricsService;
+
+    @Override
+    public Set<DomainEventType> types() {
+        return EnumSet.of(DomainEventType.POST_DELETED);
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        Set<Integer> postIds = new LinkedHashSet<>();
+        for (DomainEvent event : events) {
+            postIds.add(event.aggregateId());
+        }
+        postMetricsService.discardDeltas(postIds);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.forum.post.eventlog;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * 事件日志记录，定长 {@value #RECORD_SIZE} 字节：
+ * <pre>
+ * 0  long  timestamp（毫秒）
+ * 8  int   postId
+ * 12 int   userId（匿名为 0）
+ * 16 byte  type
+ * 17 byte  保留
+ * 18 short delta（取消点赞等为负）
+ * 20 int   CRC32C（前 20 字节）
+ * </pre>
+ * 段文件预分配后未写入的部分全为 0，type 为 0 或校验失败即视为段内数据结束（含崩溃时写了一半的记录）。
+ */
+public record PostEvent(long timestamp, int postId, int userId, PostEventType type, short delta) {
+
+    public static final int RECORD_SIZE = 24;
+
+    private static final int PAYLOAD_SIZE = 20;
+
+    /**
+     * 在 buffer 当前位置写入一条记录
+     */
+    public static void write(ByteBuffer buffer, long timestamp, int postId, int userId, byte type, short delta) {
+        int start = buffer.position();
+        buffer.putLong(timestamp)
+                .putInt(postId)
+                .putInt(userId)
+                .put(type)
+                .put((byte) 0)
+                .putShort(delta);
+        buffer.putInt(checksum(buffer, start));
+    }
+
+    /**
+     * 读取 offset 处的记录，空记录或校验失败返回 null
+     */
+    public static PostEvent read(ByteBuffer buffer, int offset) {
+        if (offset + RECORD_SIZE > buffer.limit()) {
+            return null;
+        }
+        PostEventType type = PostEventType.fromCode(buffer.get(offset + 16));
+        if (type == null || buffer.getInt(offset + PAYLOAD_SIZE) != checksum(buffer, offset)) {
+            return null;
+        }
+        return new PostEvent(
+                buffer.getLong(offset),
+                buffer.getInt(offset + 8),
+                buffer.getInt(offset + 12),
+                type,
+                buffer.getShort(offset + 18));
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, PAYLOAD_SIZE));
+        return (int) crc.getValue();
+    }
+}
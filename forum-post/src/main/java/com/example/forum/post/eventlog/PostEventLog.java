@@ -0,0 +1,402 @@
+package com.example.forum.post.eventlog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 帖子事件日志（浏览、点赞等计数事件）
+ *
+ * 请求线程通过无锁环形缓冲区提交事件，由单个写线程顺序写入内存映射的段文件
+ * {dir}/{段号}.events，写满后切换到下一个段。写入只是内存拷贝，进程崩溃时已写入页缓存的数据不会丢失，
+ * 写线程每隔 force-interval 调用一次 force 刷盘以应对机器掉电。
+ *
+ * 缓冲区满时丢弃事件并计数，不会阻塞请求线程；日志用于分析和 Redis 丢失后的计数重建（见 {@link PostEventReplayer}），
+ * 不是计数的唯一来源。每个实例只记录本实例处理的事件。
+ *
+ * 已封存的段按 retention（最后一条事件早于该时长）和 max-segments（段数上限，含当前段）定期删除，
+ * 正在写入的段不会被删除；重放和导出只能覆盖仍保留的段。按 retention 删除时保留含有持久化水位之后事件的段
+ * （见 {@link PostMetricsWatermark}），水位长时间不推进时只有 max-segments 限制磁盘占用。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PostEventLog {
+
+    static final Pattern SEGMENT_NAME = Pattern.compile("\\d{20}\\.events");
+
+    private final PostMetricsWatermark postMetricsWatermark;
+
+    @Value("${forum.eventlog.enabled:true}")
+    private boolean enabled;
+
+    @Value("${forum.eventlog.dir:./data/post-events}")
+    private String dir;
+
+    @Value("${forum.eventlog.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    // 环形缓冲区容量，向上取整为 2 的幂
+    @Value("${forum.eventlog.ring-size:65536}")
+    private int ringSize;
+
+    @Value("${forum.eventlog.force-interval:PT1S}")
+    private Duration forceInterval;
+
+    // 已封存的段最后一条事件早于该时长即删除，0 表示不按时间删除
+    @Value("${forum.eventlog.retention:P7D}")
+    private Duration retention;
+
+    // 最多保留的段数（含当前段），0 表示不限
+    @Value("${forum.eventlog.max-segments:0}")
+    private int maxSegments;
+
+    private Path directory;
+    private int mask;
+    private long[] timestamps;
+    private int[] postIds;
+    private int[] userIds;
+    private byte[] types;
+    private short[] deltas;
+    // 每个槽位已发布的序号，写线程据此判断数据是否就绪
+    private AtomicLongArray published;
+
+    private final AtomicLong claimed = new AtomicLong();
+    // 写线程下一个要消费的序号，只由写线程修改
+    private volatile long consumed;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private volatile long activeSegment = -1;
+    // 当前段已写入的字节数，读取方只能读到这里
+    private volatile int activeLength;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong rotations = new AtomicLong();
+    private final AtomicLong purgedSegments = new AtomicLong();
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            log.info("帖子事件日志已关闭");
+            return;
+        }
+        int capacity = Integer.highestOneBit(Math.max(ringSize, 1024) - 1) << 1;
+        mask = capacity - 1;
+        timestamps = new long[capacity];
+        postIds = new int[capacity];
+        userIds = new int[capacity];
+        types = new byte[capacity];
+        deltas = new short[capacity];
+        published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+
+        directory = Paths.get(dir).toAbsolutePath().normalize();
+        Files.createDirectories(directory);
+        List<Long> existing = listSegmentNumbers();
+        openSegment(existing.isEmpty() ? 0 : existing.get(existing.size() - 1));
+
+        running = true;
+        writer = new Thread(this::writeLoop, "post-event-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("帖子事件日志已启动: dir={}, segment={}, ringSize={}", directory, activeSegment, capacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 提交一条事件，不阻塞；缓冲区满或日志关闭时返回 false
+     */
+    public boolean append(PostEventType type, Integer postId, Integer userId, long delta) {
+        if (!running || type == null || postId == null || delta == 0) {
+            return false;
+        }
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed > mask) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & mask);
+        timestamps[slot] = System.currentTimeMillis();
+        postIds[slot] = postId;
+        userIds[slot] = userId != null ? userId : 0;
+        types[slot] = type.code();
+        deltas[slot] = (short) Math.max(Math.min(delta, Short.MAX_VALUE), Short.MIN_VALUE);
+        // volatile 写发布以上普通写
+        published.set(slot, sequence);
+        appended.incrementAndGet();
+        return true;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * 正在写入的段号，日志关闭时为 -1
+     */
+    public long activeSegment() {
+        return activeSegment;
+    }
+
+    /**
+     * 段文件中可以安全读取的字节数：当前段为已写入长度，已封存的段为整个文件
+     */
+    public long readableLength(long segmentNumber, Path file) throws IOException {
+        if (segmentNumber == activeSegment) {
+            return activeLength;
+        }
+        long size = Files.size(file);
+        return size - size % PostEvent.RECORD_SIZE;
+    }
+
+    /**
+     * 按段号升序列出所有段号
+     */
+    public List<Long> listSegmentNumbers() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return numbers;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> SEGMENT_NAME.matcher(name).matches())
+                    .map(name -> Long.valueOf(name.substring(0, 20)))
+                    .sorted()
+                    .forEach(numbers::add);
+        }
+        return numbers;
+    }
+
+    public Path segmentPath(long segmentNumber) {
+        return directory.resolve(String.format("%020d.events", segmentNumber));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", running);
+        stats.put("dir", directory != null ? directory.toString() : dir);
+        stats.put("segmentBytes", segmentSize.toBytes());
+        stats.put("activeSegment", activeSegment);
+        stats.put("activeLength", activeLength);
+        stats.put("appended", appended.get());
+        stats.put("written", written.get());
+        stats.put("dropped", dropped.get());
+        stats.put("backlog", claimed.get() - consumed);
+        stats.put("rotations", rotations.get());
+        stats.put("retention", retention.toString());
+        stats.put("maxSegments", maxSegments);
+        stats.put("purgedSegments", purgedSegments.get());
+        return stats;
+    }
+
+    /**
+     * 按保留策略删除已封存的段，从最旧的段开始，遇到第一个需要保留的段即停止
+     * @return 删除的段数
+     */
+    @Scheduled(fixedDelayString = "${forum.eventlog.retention-check-interval:PT10M}")
+    public int purgeExpiredSegments() {
+        if (!running || (retention.isZero() && maxSegments <= 0)) {
+            return 0;
+        }
+        int purged = 0;
+        try {
+            List<Long> numbers = listSegmentNumbers();
+            long cutoff = System.currentTimeMillis() - retention.toMillis();
+            long watermark = postMetricsWatermark.current();
+            if (watermark > 0) {
+                // 水位之后的事件在重放时仍需要
+                cutoff = Math.min(cutoff, watermark);
+            }
+            for (int i = 0; i < numbers.size(); i++) {
+                long number = numbers.get(i);
+                if (number >= activeSegment) {
+                    break;
+                }
+                Path file = segmentPath(number);
+                boolean overCount = maxSegments > 0 && numbers.size() - i > maxSegments;
+                boolean expired = !retention.isZero() && lastEventMillis(number, file) < cutoff;
+                if (!overCount && !expired) {
+                    break;
+                }
+                Files.deleteIfExists(file);
+                purged++;
+            }
+        } catch (IOException e) {
+            log.warn("清理帖子事件日志段失败: {}", e.getMessage());
+        }
+        if (purged > 0) {
+            purgedSegments.addAndGet(purged);
+            log.info("已删除过期的帖子事件日志段: segments={}", purged);
+        }
+        return purged;
+    }
+
+    /**
+     * 段中最后一条事件的时间，段为空时取文件修改时间
+     */
+    long lastEventMillis(long segmentNumber, Path file) throws IOException {
+        long length = readableLength(segmentNumber, file);
+        try (FileChannel readChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            // 段尾可能是预分配未写入的部分，从后往前找第一条有效记录
+            for (long offset = length - PostEvent.RECORD_SIZE; offset >= 0; offset -= PostEvent.RECORD_SIZE) {
+                PostEvent event = PostEvent.read(buffer, (int) offset);
+                if (event != null) {
+                    return event.timestamp();
+                }
+            }
+        }
+        return Files.getLastModifiedTime(file).toMillis();
+    }
+
+    private void writeLoop() {
+        long lastForce = System.nanoTime();
+        while (true) {
+            int drained = drain();
+            long now = System.nanoTime();
+            if (now - lastForce >= forceInterval.toNanos()) {
+                force();
+                lastForce = now;
+            }
+            if (drained == 0) {
+                if (!running) {
+                    break;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+        // 停止后再取一次，处理停止前最后提交的事件
+        drain();
+        force();
+        closeSegment();
+        log.info("帖子事件日志已关闭: written={}, dropped={}", written.get(), dropped.get());
+    }
+
+    private int drain() {
+        int count = 0;
+        long next = consumed;
+        while (true) {
+            int slot = (int) (next & mask);
+            if (published.get(slot) != next) {
+                break;
+            }
+            try {
+                if (segment.remaining() < PostEvent.RECORD_SIZE) {
+                    rotate();
+                }
+                PostEvent.write(segment, timestamps[slot], postIds[slot], userIds[slot], types[slot], deltas[slot]);
+                activeLength = segment.position();
+                written.incrementAndGet();
+            } catch (Exception e) {
+                dropped.incrementAndGet();
+                log.error("写入帖子事件日志失败: postId={}", postIds[slot], e);
+            }
+            next++;
+            consumed = next;
+            count++;
+        }
+        return count;
+    }
+
+    private void openSegment(long segmentNumber) throws IOException {
+        Path file = segmentPath(segmentNumber);
+        long size = Files.exists(file) ? Files.size(file) : 0;
+        long bytes = size > 0 ? size : segmentSize.toBytes();
+        bytes -= bytes % PostEvent.RECORD_SIZE;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+
+        // 重启后跳过已有记录，从第一条空记录（或写了一半的记录）处继续追加
+        int position = 0;
+        while (PostEvent.read(segment, position) != null) {
+            position += PostEvent.RECORD_SIZE;
+        }
+        segment.position(position);
+        // 先切换段号：并发读取方最多多读到一段全 0 的数据，而不会截断旧段
+        activeSegment = segmentNumber;
+        activeLength = position;
+    }
+
+    private void rotate() throws IOException {
+        long next = activeSegment + 1;
+        force();
+        closeSegment();
+        openSegment(next);
+        rotations.incrementAndGet();
+        log.debug("帖子事件日志切换段: segment={}", next);
+    }
+
+    private void force() {
+        if (segment != null) {
+            try {
+                segment.force();
+            } catch (UncheckedIOException e) {
+                log.warn("帖子事件日志刷盘失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void closeSegment() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("关闭帖子事件日志段失败: segment={}, error={}", activeSegment, e.getMessage());
+        }
+        // 映射在 MappedByteBuffer 被回收时释放
+        channel = null;
+        segment = null;
+    }
+}
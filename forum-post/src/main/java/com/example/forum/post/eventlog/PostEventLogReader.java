@@ -0,0 +1,147 @@
+package com.example.forum.post.eventlog;
+
+import com.example.forum.common.exception.ApiException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 帖子事件日志读取：按段遍历记录，或把段文件原样传输给其他系统
+ */
+@Component
+@RequiredArgsConstructor
+public class PostEventLogReader {
+
+    private final PostEventLog postEventLog;
+
+    /**
+     * 列出所有段及其可读长度
+     */
+    public List<Map<String, Object>> listSegments() throws IOException {
+        List<Map<String, Object>> segments = new ArrayList<>();
+        long active = postEventLog.activeSegment();
+        for (Long number : postEventLog.listSegmentNumbers()) {
+            Path file = postEventLog.segmentPath(number);
+            long length = postEventLog.readableLength(number, file);
+            Map<String, Object> info = new LinkedHashMap<>();
+            info.put("name", file.getFileName().toString());
+            info.put("bytes", length);
+            info.put("records", length / PostEvent.RECORD_SIZE);
+            info.put("active", number == active);
+            segments.add(info);
+        }
+        return segments;
+    }
+
+    /**
+     * 仍保留的最早一条事件的时间，没有事件时返回 -1
+     */
+    public long oldestEventMillis() throws IOException {
+        for (Long number : postEventLog.listSegmentNumbers()) {
+            Path file = postEventLog.segmentPath(number);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long length = Math.min(postEventLog.readableLength(number, file), PostEvent.RECORD_SIZE);
+                PostEvent first = PostEvent.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, length), 0);
+                if (first != null) {
+                    return first.timestamp();
+                }
+            } catch (NoSuchFileException e) {
+                // 已被保留策略删除
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 按写入顺序遍历时间范围内的事件。只能遍历仍保留的段，早于保留范围的事件已随段删除
+     * @param fromMillis 起始时间（含）
+     * @param toMillis 结束时间（不含）
+     * @return 遍历的事件数
+     */
+    public long forEach(long fromMillis, long toMillis, Consumer<PostEvent> consumer) throws IOException {
+        long count = 0;
+        for (Long number : postEventLog.listSegmentNumbers()) {
+            Path file = postEventLog.segmentPath(number);
+            long length;
+            FileChannel channel;
+            try {
+                length = postEventLog.readableLength(number, file);
+                if (length == 0) {
+                    continue;
+                }
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                // 列出后被保留策略删除，段中的事件都早于保留范围
+                continue;
+            }
+            try (channel) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+                for (int offset = 0; offset + PostEvent.RECORD_SIZE <= length; offset += PostEvent.RECORD_SIZE) {
+                    PostEvent event = PostEvent.read(buffer, offset);
+                    if (event == null) {
+                        break;
+                    }
+                    if (event.timestamp() >= fromMillis && event.timestamp() < toMillis) {
+                        consumer.accept(event);
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 解析段文件名（只接受日志自身生成的文件名，防止路径穿越）
+     */
+    public Path resolveSegment(String name) {
+        if (name == null || !PostEventLog.SEGMENT_NAME.matcher(name).matches()) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "无效的段文件名");
+        }
+        Path file = postEventLog.segmentPath(Long.parseLong(name.substring(0, 20)));
+        if (!Files.isRegularFile(file)) {
+            throw new ApiException(HttpStatus.NOT_FOUND, "段文件不存在: " + name);
+        }
+        return file;
+    }
+
+    /**
+     * 段文件中从 offset 开始可以传输的字节数
+     */
+    public long transferableLength(Path file, long offset) throws IOException {
+        long number = Long.parseLong(file.getFileName().toString().substring(0, 20));
+        return Math.max(postEventLog.readableLength(number, file) - offset, 0);
+    }
+
+    /**
+     * 用 FileChannel.transferTo 把段文件写入目标通道，目标为 socket 时由内核直接拷贝
+     * @return 传输的字节数
+     */
+    public long transfer(Path file, long offset, long length, WritableByteChannel target) throws IOException {
+        long transferred = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (transferred < length) {
+                long sent = channel.transferTo(offset + transferred, length - transferred, target);
+                if (sent <= 0) {
+                    break;
+                }
+                transferred += sent;
+            }
+        }
+        return transferred;
+    }
+}
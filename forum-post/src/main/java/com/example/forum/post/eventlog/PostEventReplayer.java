@@ -0,0 +1,123 @@
+package com.example.forum.post.eventlog;
+
+import com.example.forum.common.exception.ApiException;
+import com.example.forum.post.service.PostMetricsService;
+import com.example.forum.post.service.PostService;
+import com.example.forum.post.vo.PostMetricsDelta;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 从事件日志重建 Redis 计数
+ *
+ * Redis 数据丢失后，post:metrics:* 中尚未持久化到 post_stats 的增量也随之丢失。
+ * 重放把 [from, to) 内的事件按帖子汇总成增量加回 post:metrics:*（并登记到待持久化集合），
+ * 再按最新计数刷新 post:trending。from 默认取本实例的持久化水位（{@link PostMetricsWatermark}），
+ * 早于水位的事件已写入 post_stats，重放会重复累加，因此拒绝；to 默认取最后一次确认 Redis 未丢失数据的时间，
+ * 此后重新写入 Redis 的增量不会被重复累加。只有检测到 Redis 丢失数据（水位冻结）时才允许实际写入，
+ * 否则水位之后的增量仍在 Redis 中，重放同样会重复累加；dryRun 不受限制。
+ * from 还必须落在日志的保留范围内（forum.eventlog.retention / max-segments）：更早的段已被删除，
+ * 这部分事件无法重放，报告中 truncated 为 true，oldestRetained 为仍保留的最早事件时间。
+ * 每个实例只能重放自己的日志，多实例部署时需要在每个实例上分别执行。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PostEventReplayer {
+
+    private static final int TRENDING_BATCH_SIZE = 500;
+
+    private final PostEventLogReader postEventLogReader;
+    private final PostMetricsService postMetricsService;
+    private final PostService postService;
+    private final PostMetricsWatermark postMetricsWatermark;
+
+    /**
+     * @param from 起始时间（含），为空时取持久化水位，不能早于水位
+     * @param to 结束时间（不含），为空时取最后一次确认 Redis 未丢失数据的时间
+     * @param dryRun 只统计不写入
+     */
+    public Map<String, Object> replay(Long from, Long to, boolean dryRun) throws IOException {
+        long watermark = postMetricsWatermark.current();
+        boolean replayRequired = postMetricsWatermark.isReplayRequired();
+        if (watermark <= 0) {
+            throw new ApiException(HttpStatus.CONFLICT, "尚未记录持久化水位，无法确定重放起点");
+        }
+        long fromMillis = from != null ? from : watermark;
+        long toMillis = to != null ? to : (replayRequired ? postMetricsWatermark.confirmed() : System.currentTimeMillis());
+        if (fromMillis < watermark) {
+            throw new ApiException(HttpStatus.BAD_REQUEST,
+                    "重放起点早于持久化水位 " + watermark + "，这部分事件已写入 post_stats");
+        }
+        // 两者相等时没有可重放的事件，实际写入仍会解除水位冻结
+        if (toMillis < fromMillis) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "结束时间不能早于开始时间");
+        }
+        if (!dryRun && !replayRequired) {
+            throw new ApiException(HttpStatus.CONFLICT, "未检测到 Redis 计数丢失，水位之后的增量仍在 Redis 中，重放会重复累加");
+        }
+        long oldestRetained = postEventLogReader.oldestEventMillis();
+        boolean truncated = oldestRetained > fromMillis;
+        if (truncated) {
+            log.warn("重放起点早于事件日志保留范围，更早的事件已删除: from={}, oldestRetained={}", fromMillis, oldestRetained);
+        }
+        Map<Integer, long[]> sums = new HashMap<>();
+        long events = postEventLogReader.forEach(fromMillis, toMillis, event -> {
+            // 下标与 PostEventType 的声明顺序一致：views, likes, comments
+            long[] sum = sums.computeIfAbsent(event.postId(), id -> new long[3]);
+            sum[event.type().ordinal()] += event.delta();
+        });
+
+        List<PostMetricsDelta> deltas = new ArrayList<>(sums.size());
+        long views = 0;
+        long likes = 0;
+        long comments = 0;
+        for (Map.Entry<Integer, long[]> entry : sums.entrySet()) {
+            long[] sum = entry.getValue();
+            PostMetricsDelta delta = new PostMetricsDelta(entry.getKey(), sum[0], sum[1], sum[2]);
+            if (!delta.isEmpty()) {
+                deltas.add(delta);
+                views += sum[0];
+                likes += sum[1];
+                comments += sum[2];
+            }
+        }
+
+        if (!dryRun && !deltas.isEmpty()) {
+            postMetricsService.restoreDeltas(deltas);
+            List<Integer> postIds = deltas.stream().map(PostMetricsDelta::postId).toList();
+            for (int i = 0; i < postIds.size(); i += TRENDING_BATCH_SIZE) {
+                postService.refreshTrending(postIds.subList(i, Math.min(i + TRENDING_BATCH_SIZE, postIds.size())));
+            }
+            log.info("已从事件日志重放帖子计数: from={}, to={}, events={}, posts={}",
+                    fromMillis, toMillis, events, deltas.size());
+        }
+        if (!dryRun) {
+            postMetricsWatermark.confirmReplay();
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("from", fromMillis);
+        report.put("to", toMillis);
+        report.put("dryRun", dryRun);
+        report.put("watermark", watermark);
+        report.put("replayRequired", replayRequired);
+        report.put("oldestRetained", oldestRetained);
+        report.put("truncated", truncated);
+        report.put("events", events);
+        report.put("posts", deltas.size());
+        report.put("views", views);
+        report.put("likes", likes);
+        report.put("comments", comments);
+        return report;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.forum.post.eventlog;
+
+import com.example.forum.post.service.PostMetricsService;
+
+/**
+ * 事件日志中的事件类型，code 写入记录，0 保留用于表示"空记录"
+ */
+public enum PostEventType {
+
+    VIEW((byte) 1, PostMetricsService.FIELD_VIEWS),
+    LIKE((byte) 2, PostMetricsService.FIELD_LIKES),
+    COMMENT((byte) 3, PostMetricsService.FIELD_COMMENTS);
+
+    private final byte code;
+    private final String field;
+
+    PostEventType(byte code, String field) {
+        this.code = code;
+        this.field = field;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    public String field() {
+        return field;
+    }
+
+    public static PostEventType fromCode(byte code) {
+        for (PostEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    public static PostEventType fromField(String field) {
+        for (PostEventType type : values()) {
+            if (type.field.equals(field)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.forum.post.eventlog;
+
+import com.example.forum.common.redis.RedisGuard;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 帖子计数的持久化水位（每个实例一份，与本实例的事件日志放在同一目录）
+ *
+ * 水位 W 表示：本实例日志中时间早于 W 的事件，其增量都已写入 post_stats。由 PostMetricsSyncJob 在一轮持久化
+ * 把脏集合清空（SPOP 取出的帖子少于批次大小）且全部写库成功后推进到该轮的开始时间；重放只能从 W 开始，
+ * 更早的事件会被重复累加。
+ *
+ * 水位写在本地文件 {dir}/flush.watermark 中，Redis 丢失数据时不受影响；同时在 Redis 中保存一份副本
+ * post:eventlog:watermark:{logId}。文件有水位而副本不存在，说明 Redis 在上次确认之后丢失了数据：
+ * 此时冻结水位（否则下一轮就会越过丢失的增量），直到执行一次重放。丢失发生在最后一次确认（confirmed）之后，
+ * 重放默认截止到 confirmed，不会重复累加丢失之后重新写入 Redis 的增量；confirmed 与实际丢失时刻之间
+ * （不超过一个持久化周期）的事件无法确定是否已丢失，不做重放。
+ *
+ * 请求线程先写事件日志再写 Redis，推进水位时仍在进行中的递增（一次 Redis 往返）不在保证范围内。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PostMetricsWatermark {
+
+    private static final String FILE_NAME = "flush.watermark";
+    private static final String MIRROR_KEY_PREFIX = "post:eventlog:watermark:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisGuard redisGuard;
+
+    @Value("${forum.eventlog.enabled:true}")
+    private boolean enabled;
+
+    @Value("${forum.eventlog.dir:./data/post-events}")
+    private String dir;
+
+    private Path file;
+    // 本实例日志的标识，首次写入水位时生成
+    private String logId;
+    private volatile long watermark;
+    // 最后一次确认 Redis 副本仍存在的时间
+    private volatile long confirmed;
+    private volatile boolean replayRequired;
+
+    @PostConstruct
+    public void load() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        file = Paths.get(dir).toAbsolutePath().normalize().resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return;
+        }
+        String[] parts = Files.readString(file).trim().split("\\s+");
+        if (parts.length == 3) {
+            logId = parts[0];
+            watermark = Long.parseLong(parts[1]);
+            confirmed = Long.parseLong(parts[2]);
+            log.info("已加载帖子计数持久化水位: logId={}, watermark={}, confirmed={}", logId, watermark, confirmed);
+        } else {
+            log.warn("帖子计数持久化水位文件格式错误，重新开始记录: file={}", file);
+        }
+    }
+
+    /**
+     * 持久化水位，尚未记录时为 0
+     */
+    public long current() {
+        return watermark;
+    }
+
+    /**
+     * 最后一次确认 Redis 数据未丢失的时间
+     */
+    public long confirmed() {
+        return confirmed;
+    }
+
+    /**
+     * 是否检测到 Redis 丢失了水位之后的增量、需要重放
+     */
+    public boolean isReplayRequired() {
+        return replayRequired;
+    }
+
+    /**
+     * 一轮持久化开始时检查 Redis 副本是否仍存在
+     * @param runStart 本轮开始时间
+     * @return 副本存在（或尚未记录水位）时为 true；Redis 不可用或已丢失数据时为 false，本轮不能推进水位
+     */
+    public boolean check(long runStart) {
+        if (file == null) {
+            return false;
+        }
+        if (logId == null) {
+            return true;
+        }
+        Boolean present = redisGuard.execute("post.eventlog.watermark",
+                () -> redisTemplate.hasKey(mirrorKey()), () -> null);
+        if (present == null) {
+            return false;
+        }
+        if (!present) {
+            if (!replayRequired) {
+                replayRequired = true;
+                log.error("Redis 中的帖子计数持久化水位副本已丢失，水位冻结在 {}，需要从事件日志重放 [{}, {})",
+                        watermark, watermark, confirmed);
+            }
+            return false;
+        }
+        if (replayRequired) {
+            // 其他途径（如手工恢复）补回了副本
+            replayRequired = false;
+        }
+        write(watermark, runStart);
+        return true;
+    }
+
+    /**
+     * 一轮持久化清空了脏集合且全部写库成功后推进水位
+     * @param runStart 本轮开始时间，调用前须已通过 {@link #check}
+     */
+    public void advance(long runStart) {
+        if (file == null || replayRequired || runStart <= watermark) {
+            return;
+        }
+        if (logId == null) {
+            logId = UUID.randomUUID().toString();
+        }
+        // 先写 Redis 副本再写文件：副本写入失败时不推进，避免下一轮误判为 Redis 丢失数据
+        if (redisGuard.run("post.eventlog.watermark", () -> redisTemplate.opsForValue().set(mirrorKey(), runStart))) {
+            write(runStart, runStart);
+        }
+    }
+
+    /**
+     * 重放完成后恢复 Redis 副本，水位恢复推进
+     */
+    public void confirmReplay() {
+        if (file == null || logId == null) {
+            return;
+        }
+        redisGuard.run("post.eventlog.watermark", () -> redisTemplate.opsForValue().set(mirrorKey(), watermark));
+        replayRequired = false;
+        log.info("已从事件日志重放，恢复推进帖子计数持久化水位: watermark={}", watermark);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("logId", logId);
+        stats.put("watermark", watermark);
+        stats.put("confirmed", confirmed);
+        stats.put("replayRequired", replayRequired);
+        return stats;
+    }
+
+    private void write(long newWatermark, long newConfirmed) {
+        try {
+            Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+            Files.createDirectories(file.getParent());
+            Files.writeString(temp, logId + " " + newWatermark + " " + newConfirmed);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("写入帖子计数持久化水位失败: {}", e.getMessage());
+            return;
+        }
+        watermark = newWatermark;
+        confirmed = newConfirmed;
+    }
+
+    private String mirrorKey() {
+        return MIRROR_KEY_PREFIX + logId;
+    }
+}
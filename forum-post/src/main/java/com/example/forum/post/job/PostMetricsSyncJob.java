@@ -0,0 +1,85 @@
+package com.example.forum.post.job;
+
+import com.example.forum.common.cache.PostCounterWal;
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.post.eventlog.PostMetricsWatermark;
+import com.example.forum.post.repo.PostStatsRepo;
+import com.example.forum.post.service.HotCounterSharding;
+import com.example.forum.post.service.PostMetricsService;
+import com.example.forum.post.vo.DrainedDeltas;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * 帖子计数持久化任务
+ *
+ * 定期从 post:metrics:dirty 取出有增量的帖子，清零 Redis 增量后批量累加到 post_stats。
+ * 多实例同时运行时 SPOP 保证每个帖子只会被一个实例取出，因此不需要选主，各实例并行分担；写库失败时增量加回 Redis。
+ * 已删除帖子的增量在写入时丢弃，也不会被加回 Redis，不会因外键约束卡住后续所有帖子的持久化。
+ *
+ * 每轮开始时先把分片帖子登记为脏；一轮取空了脏集合且全部写库成功、本地 WAL 中也没有待重放的增量时，
+ * 本轮开始前的增量都已写入 post_stats，把本轮开始时间记为本实例的持久化水位（见 {@link PostMetricsWatermark}），
+ * 作为事件日志重放的起点。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PostMetricsSyncJob {
+
+    // 单次任务最多处理的批次数，避免积压时长时间占用调度线程
+    private static final int MAX_BATCHES_PER_RUN = 20;
+
+    private final PostMetricsService postMetricsService;
+    private final PostStatsRepo postStatsRepo;
+    private final RedisGuard redisGuard;
+    private final HotCounterSharding hotCounterSharding;
+    private final PostCounterWal postCounterWal;
+    private final PostMetricsWatermark postMetricsWatermark;
+
+    @Value("${forum.metrics.flush-batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${forum.metrics.flush-interval:PT30S}")
+    public void flush() {
+        if (redisGuard.isOpen()) {
+            return;
+        }
+        long runStart = System.currentTimeMillis();
+        // WAL 中的增量尚未写入 Redis，本轮无法覆盖它们
+        boolean watermarkEligible = postCounterWal.isEmpty()
+                && hotCounterSharding.markShardedDirty()
+                && postMetricsWatermark.check(runStart);
+        int flushedPosts = 0;
+        boolean emptied = false;
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN && !emptied; batch++) {
+            DrainedDeltas drained;
+            try {
+                drained = postMetricsService.drainDeltas(batchSize);
+            } catch (Exception e) {
+                log.warn("读取待持久化的帖子计数失败: {}", e.getMessage());
+                return;
+            }
+            if (!drained.deltas().isEmpty()) {
+                try {
+                    postStatsRepo.upsertDeltas(drained.deltas());
+                    flushedPosts += drained.deltas().size();
+                } catch (Exception e) {
+                    log.error("帖子计数写入 post_stats 失败，增量已放回 Redis: count={}", drained.deltas().size(), e);
+                    postMetricsService.restoreDeltas(drained.deltas());
+                    return;
+                }
+            }
+            emptied = drained.emptied();
+        }
+        if (emptied && watermarkEligible) {
+            postMetricsWatermark.advance(runStart);
+        }
+        if (flushedPosts > 0) {
+            log.debug("帖子计数已持久化: posts={}", flushedPosts);
+        }
+    }
+}
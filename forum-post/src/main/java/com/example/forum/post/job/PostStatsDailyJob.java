@@ -0,0 +1,142 @@
+package com.example.forum.post.job;
+
+import com.example.forum.common.cache.PostMetricsKeys;
+import com.example.forum.common.cluster.ClusterSingleton;
+import com.example.forum.post.entity.PostStatsDaily;
+import com.example.forum.post.repo.PostStatsDailyRepo;
+import com.example.forum.post.service.PostMetricsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 帖子日计数汇总任务
+ *
+ * 每小时扫描今天和昨天的 post:daily:{yyyyMMdd}:posts，批量读取各帖子的日计数 Hash，
+ * 以绝对值覆盖写入 post_stats_daily。重复执行结果相同，任务失败也不会重复累加；
+ * 昨天的数据在跨天后再汇总一次，补上最后一小时的计数。多实例部署时只由租约持有者执行，避免重复扫描。
+ * 单个批次写入失败时记录日志后继续处理后续批次，失败的批次在下一小时重新汇总。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PostStatsDailyJob {
+
+    private static final List<Object> FIELDS = List.of(
+            PostMetricsService.FIELD_VIEWS, PostMetricsService.FIELD_LIKES, PostMetricsService.FIELD_COMMENTS);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final PostStatsDailyRepo postStatsDailyRepo;
+
+    @Value("${forum.stats.daily-rollup-batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(cron = "${forum.stats.daily-rollup-cron:0 5 * * * *}")
+    @ClusterSingleton("post-stats-daily-rollup")
+    public void rollup() {
+        LocalDate today = LocalDate.now();
+        rollup(today.minusDays(1));
+        rollup(today);
+    }
+
+    /**
+     * 汇总指定日期的日计数
+     * @return 写入的帖子数
+     */
+    public int rollup(LocalDate date) {
+        int written = 0;
+        int failedBatches = 0;
+        List<Integer> postIds = new ArrayList<>(batchSize);
+        ScanOptions options = ScanOptions.scanOptions().count(batchSize).build();
+        try (Cursor<Object> cursor = redisTemplate.opsForSet().scan(PostMetricsKeys.dailyIndex(date), options)) {
+            while (cursor.hasNext()) {
+                postIds.add(Integer.valueOf(String.valueOf(cursor.next())));
+                if (postIds.size() >= batchSize) {
+                    int batch = writeBatch(date, postIds);
+                    written += Math.max(batch, 0);
+                    failedBatches += batch < 0 ? 1 : 0;
+                    postIds.clear();
+                }
+            }
+            if (!postIds.isEmpty()) {
+                int batch = writeBatch(date, postIds);
+                written += Math.max(batch, 0);
+                failedBatches += batch < 0 ? 1 : 0;
+            }
+        } catch (Exception e) {
+            log.error("帖子日计数汇总失败: date={}, written={}", date, written, e);
+            return written;
+        }
+        if (failedBatches > 0) {
+            log.warn("帖子日计数部分批次汇总失败: date={}, posts={}, failedBatches={}", date, written, failedBatches);
+        } else if (written > 0) {
+            log.info("帖子日计数已汇总: date={}, posts={}", date, written);
+        }
+        return written;
+    }
+
+    /**
+     * @return 写入的帖子数，失败时返回 -1
+     */
+    private int writeBatch(LocalDate date, List<Integer> postIds) {
+        try {
+            return readAndWrite(date, postIds);
+        } catch (Exception e) {
+            log.error("帖子日计数批次写入失败，跳过该批次: date={}, posts={}..{}",
+                    date, postIds.get(0), postIds.get(postIds.size() - 1), e);
+            return -1;
+        }
+    }
+
+    private int readAndWrite(LocalDate date, List<Integer> postIds) {
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (Integer postId : postIds) {
+                    ops.opsForHash().multiGet(PostMetricsKeys.daily(date, postId), FIELDS);
+                }
+                return null;
+            }
+        });
+
+        List<PostStatsDaily> rows = new ArrayList<>(postIds.size());
+        for (int i = 0; i < postIds.size(); i++) {
+            List<?> values = (List<?>) results.get(i);
+            if (values == null || values.stream().allMatch(v -> v == null)) {
+                continue;
+            }
+            rows.add(new PostStatsDaily()
+                    .setPostId(postIds.get(i))
+                    .setStatDate(date)
+                    .setViews(toInt(values.get(0)))
+                    .setLikes(toInt(values.get(1)))
+                    .setComments(toInt(values.get(2))));
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        postStatsDailyRepo.upsertAll(rows);
+        return rows.size();
+    }
+
+    private static int toInt(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        long parsed = Long.parseLong(value.toString());
+        return (int) Math.max(Math.min(parsed, Integer.MAX_VALUE), Integer.MIN_VALUE);
+    }
+}
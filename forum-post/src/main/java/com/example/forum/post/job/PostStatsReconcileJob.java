@@ -0,0 +1,246 @@
+package com.example.forum.post.job;
+
+import com.example.forum.common.cluster.ClusterJobContext;
+import com.example.forum.common.cluster.ClusterSingleton;
+import com.example.forum.post.entity.PostStats;
+import com.example.forum.post.repo.PostStatsRepo;
+import com.example.forum.post.service.PostMetricsService;
+import com.example.forum.post.vo.PostCountRepair;
+import com.example.forum.post.vo.PostCountRow;
+import com.example.forum.post.vo.PostMetricsDelta;
+import com.example.forum.post.vo.ReconcileReport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 帖子计数对账任务
+ *
+ * 按帖子主键分块，用 post_likes / post_comments 上的索引做 GROUP BY post_id 得到真实计数，
+ * 与 post_stats + Redis 未持久化增量比较，存在漂移时批量写回（写回值扣除 Redis 增量，
+ * 保证"持久化值 + 增量 = 真实值"）。每块之间按配置限速，避免压垮主库。
+ *
+ * 持久化任务与对账并发运行，读取 post_stats 与读取 Redis 增量之间被持久化的增量两边都看不到。
+ * 因此写回是比较后写入：只有计数仍等于读取时的值才更新，否则跳过（skippedPosts），留给下次对账。
+ * 剩余的误判窗口：点赞/评论已提交到数据库但计数增量尚未写入 Redis，
+ * 或增量已被持久化任务取出但尚未写库（通常只有一次批量写入的耗时），下次对账会修正。
+ *
+ * 定时对账按帖子 ID 区间分成 {@value #SHARDS} 个分片，分片在存活实例间均分，各实例只扫描自己持有的区间；
+ * 每块写回前校验租约，租约丢失（如长时间 GC 后已被其他实例接管）时中止本分片。手动触发时单实例扫描全部区间。
+ * 本实例在同一次触发中执行的各分片各有一份结果，{@link #getLastReport()} 返回它们的汇总。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PostStatsReconcileJob {
+
+    static final int SHARDS = 4;
+
+    private static final long[] BUCKET_BOUNDS = {0, 1, 5, 20, 100};
+    private static final String[] BUCKET_LABELS = {"0", "1", "2-5", "6-20", "21-100", ">100"};
+
+    private final PostStatsRepo postStatsRepo;
+    private final PostMetricsService postMetricsService;
+
+    @Value("${forum.reconcile.chunk-size:1000}")
+    private int chunkSize;
+
+    // 每秒最多处理的块数
+    @Value("${forum.reconcile.max-chunks-per-second:20}")
+    private int maxChunksPerSecond;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    // 最近一次触发中本实例执行的各分片结果
+    private List<ReconcileReport> shardReports = List.of(new ReconcileReport());
+    private long reportRunStartedAt;
+
+    @Scheduled(cron = "${forum.reconcile.cron:0 30 3 * * *}")
+    @ClusterSingleton(value = "post-stats-reconcile", shards = SHARDS)
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * 后台触发一次对账，已在运行时返回 false
+     */
+    public boolean triggerAsync() {
+        if (running.get()) {
+            return false;
+        }
+        CompletableFuture.runAsync(this::reconcile);
+        return true;
+    }
+
+    /**
+     * 最近一次触发的对账结果，本实例执行了多个分片时为各分片的汇总
+     */
+    public synchronized ReconcileReport getLastReport() {
+        if (shardReports.size() == 1) {
+            return shardReports.get(0);
+        }
+        ReconcileReport merged = newReport();
+        merged.setStartedAt(shardReports.get(0).getStartedAt());
+        merged.setRunning(false);
+        List<String> shards = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (ReconcileReport report : shardReports) {
+            shards.add(report.getShard());
+            if (report.getError() != null) {
+                errors.add(report.getShard() + ": " + report.getError());
+            }
+            merged.setRunning(merged.isRunning() || report.isRunning());
+            merged.setFinishedAt(report.getFinishedAt());
+            merged.setScannedPosts(merged.getScannedPosts() + report.getScannedPosts());
+            merged.setDriftedPosts(merged.getDriftedPosts() + report.getDriftedPosts());
+            merged.setRepairedPosts(merged.getRepairedPosts() + report.getRepairedPosts());
+            merged.setSkippedPosts(merged.getSkippedPosts() + report.getSkippedPosts());
+            report.getLikeDriftHistogram().forEach((label, count) ->
+                    merged.getLikeDriftHistogram().merge(label, count, Long::sum));
+            report.getCommentDriftHistogram().forEach((label, count) ->
+                    merged.getCommentDriftHistogram().merge(label, count, Long::sum));
+        }
+        if (merged.isRunning()) {
+            merged.setFinishedAt(null);
+        }
+        merged.setShard(String.join(",", shards));
+        merged.setError(errors.isEmpty() ? null : String.join("; ", errors));
+        return merged;
+    }
+
+    public void reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("计数对账任务已在运行，跳过本次触发");
+            return;
+        }
+        ClusterJobContext context = ClusterJobContext.current();
+        ReconcileReport report = newReport();
+        report.setShard(context.toString());
+        addReport(context, report);
+        long pacingMillis = maxChunksPerSecond > 0 ? 1000L / maxChunksPerSecond : 0;
+        try {
+            ClusterJobContext.KeyRange range = context.range(1, postStatsRepo.selectMaxPostId());
+            int afterPostId = (int) range.from() - 1;
+            int toPostId = (int) range.to() - 1;
+            while (afterPostId < toPostId) {
+                long chunkStart = System.currentTimeMillis();
+                List<PostStats> stored = postStatsRepo.selectChunk(afterPostId, toPostId, chunkSize);
+                if (stored.isEmpty()) {
+                    break;
+                }
+                afterPostId = stored.get(stored.size() - 1).getPostId();
+                reconcileChunk(stored, report, context);
+
+                long elapsed = System.currentTimeMillis() - chunkStart;
+                if (elapsed < pacingMillis) {
+                    Thread.sleep(pacingMillis - elapsed);
+                }
+            }
+            log.info("计数对账完成: shard={}, scanned={}, drifted={}, repaired={}, skipped={}",
+                    context, report.getScannedPosts(), report.getDriftedPosts(), report.getRepairedPosts(),
+                    report.getSkippedPosts());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.setError("interrupted");
+        } catch (Exception e) {
+            log.error("计数对账失败: shard={}", context, e);
+            report.setError(e.getMessage());
+        } finally {
+            report.setFinishedAt(LocalDateTime.now());
+            report.setRunning(false);
+            running.set(false);
+        }
+    }
+
+    private void reconcileChunk(List<PostStats> stored, ReconcileReport report, ClusterJobContext context) {
+        int fromPostId = stored.get(0).getPostId();
+        int toPostId = stored.get(stored.size() - 1).getPostId();
+        Map<Integer, Long> likes = toMap(postStatsRepo.countLikes(fromPostId, toPostId));
+        Map<Integer, Long> comments = toMap(postStatsRepo.countComments(fromPostId, toPostId));
+        Map<Integer, PostMetricsDelta> pending = postMetricsService.pendingDeltas(
+                stored.stream().map(PostStats::getPostId).toList());
+
+        List<PostCountRepair> repairs = new ArrayList<>();
+        for (PostStats stats : stored) {
+            Integer postId = stats.getPostId();
+            PostMetricsDelta delta = pending.get(postId);
+            long pendingLikes = delta != null ? delta.likes() : 0;
+            long pendingComments = delta != null ? delta.comments() : 0;
+            long trueLikes = likes.getOrDefault(postId, 0L);
+            long trueComments = comments.getOrDefault(postId, 0L);
+
+            long likeDrift = trueLikes - (stats.getLikes() + pendingLikes);
+            long commentDrift = trueComments - (stats.getComments() + pendingComments);
+            record(report.getLikeDriftHistogram(), likeDrift);
+            record(report.getCommentDriftHistogram(), commentDrift);
+            report.setScannedPosts(report.getScannedPosts() + 1);
+
+            if (likeDrift != 0 || commentDrift != 0) {
+                report.setDriftedPosts(report.getDriftedPosts() + 1);
+                repairs.add(new PostCountRepair(postId, stats.getUpdatedAt() != null,
+                        stats.getLikes(), stats.getComments(),
+                        trueLikes - pendingLikes, trueComments - pendingComments));
+            }
+        }
+        if (!repairs.isEmpty()) {
+            context.checkValid();
+            List<PostCountRepair> existing = repairs.stream().filter(PostCountRepair::stored).toList();
+            List<PostCountRepair> missing = repairs.stream().filter(repair -> !repair.stored()).toList();
+            int repaired = (existing.isEmpty() ? 0 : postStatsRepo.repairCounts(existing))
+                    + (missing.isEmpty() ? 0 : postStatsRepo.insertRepairedCounts(missing));
+            report.setRepairedPosts(report.getRepairedPosts() + repaired);
+            report.setSkippedPosts(report.getSkippedPosts() + repairs.size() - repaired);
+        }
+    }
+
+    /**
+     * 同一次触发的分片结果追加到一起，新的触发（或手动触发）重新开始
+     */
+    private synchronized void addReport(ClusterJobContext context, ReconcileReport report) {
+        if (context.job() == null || context.runStartedAt() != reportRunStartedAt) {
+            shardReports = new ArrayList<>();
+            reportRunStartedAt = context.runStartedAt();
+        }
+        shardReports.add(report);
+    }
+
+    private Map<Integer, Long> toMap(List<PostCountRow> rows) {
+        Map<Integer, Long> map = new HashMap<>(rows.size() * 2);
+        for (PostCountRow row : rows) {
+            map.put(row.getPostId(), row.getTotal());
+        }
+        return map;
+    }
+
+    private void record(Map<String, Long> histogram, long drift) {
+        long magnitude = Math.abs(drift);
+        int bucket = BUCKET_BOUNDS.length;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            if (magnitude <= BUCKET_BOUNDS[i]) {
+                bucket = i;
+                break;
+            }
+        }
+        histogram.merge(BUCKET_LABELS[bucket], 1L, Long::sum);
+    }
+
+    private ReconcileReport newReport() {
+        ReconcileReport report = new ReconcileReport();
+        report.setStartedAt(LocalDateTime.now());
+        report.setRunning(true);
+        for (String label : BUCKET_LABELS) {
+            report.getLikeDriftHistogram().put(label, 0L);
+            report.getCommentDriftHistogram().put(label, 0L);
+        }
+        return report;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.forum.post.job;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.example.forum.common.event.DomainEvent;
+import com.example.forum.common.event.DomainEventPublisher;
+import com.example.forum.common.timer.DelayedJob;
+import com.example.forum.common.timer.DelayedJobHandler;
+import com.example.forum.post.entity.Post;
+import com.example.forum.post.repo.PostRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * 定时发布帖子
+ *
+ * 指定了 publishAt 的帖子以 scheduled 状态保存，同时提交一个持久化延迟任务（payload 为 帖子ID:目标状态），
+ * 到期时把状态改为目标状态、created_at 改为实际发布时间，并发布 POST_PUBLISHED 事件失效缓存。只在状态仍为
+ * scheduled 时更新，重复投递、帖子已被删除或已被管理员审核时直接跳过。
+ * 发布前公开列表不返回 scheduled 状态的帖子，详情只对作者可见；作者的"我的帖子"和管理后台不受影响。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ScheduledPostPublisher implements DelayedJobHandler {
+
+    public static final String JOB_TYPE = "post.publish";
+    public static final String SCHEDULED_STATUS = "scheduled";
+
+    private final PostRepo postRepo;
+    private final DomainEventPublisher domainEventPublisher;
+
+    public static String payload(Integer postId, String status) {
+        return postId + ":" + status;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void handle(DelayedJob job) {
+        String payload = job.payload();
+        int separator = payload.indexOf(':');
+        Integer postId = Integer.valueOf(payload.substring(0, separator));
+        String status = payload.substring(separator + 1);
+
+        Post post = postRepo.selectById(postId);
+        if (post == null || !SCHEDULED_STATUS.equals(post.getStatus())) {
+            log.info("定时发布跳过，帖子已删除或状态已变更: postId={}, status={}",
+                    postId, post != null ? post.getStatus() : null);
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int updated = postRepo.update(null, Wrappers.<Post>lambdaUpdate()
+                .eq(Post::getId, postId)
+                .eq(Post::getStatus, SCHEDULED_STATUS)
+                .set(Post::getStatus, status)
+                .set(Post::getCreatedAt, now)
+                .set(Post::getUpdatedAt, now));
+        if (updated == 0) {
+            return;
+        }
+        domainEventPublisher.publish(DomainEvent.postPublished(postId, post.getAuthorId(), status));
+        log.info("定时发布完成: postId={}, status={}, delayMillis={}",
+                postId, status, System.currentTimeMillis() - job.dueAt());
+    }
+}
@@ -6,6 +6,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -21,6 +22,12 @@ public interface PostLikeRepo extends BaseMapper<PostLike> {
     PostLike findByPostAndUser(@Param("postId") Integer postId,
                                @Param("userId") Integer userId);
 
+    @Select("""
+            SELECT user_id FROM post_likes
+            WHERE post_id = #{postId}
+            """)
+    List<Integer> findUserIdsByPostId(@Param("postId") Integer postId);
+
     @Select("""
             <script>
             SELECT post_id
@@ -34,4 +41,47 @@ public interface PostLikeRepo extends BaseMapper<PostLike> {
             """)
     List<Integer> findLikedPostIds(@Param("userId") Integer userId,
                                    @Param("postIds") Collection<Integer> postIds);
+
+    /**
+     * 按点赞时间倒序的键集分页，走 idx_post_likes_post_created (post_id, created_at DESC, id DESC)
+     */
+    @Select("""
+            <script>
+            SELECT id, post_id, user_id, created_at
+            FROM post_likes
+            WHERE post_id = #{postId}
+            <if test="cursorCreatedAt != null">
+              AND (created_at &lt; #{cursorCreatedAt}
+                   OR (created_at = #{cursorCreatedAt} AND id &lt; #{cursorId}))
+            </if>
+            ORDER BY created_at DESC, id DESC
+            LIMIT #{limit}
+            </script>
+            """)
+    List<PostLike> selectLikersPage(@Param("postId") Integer postId,
+                                    @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                    @Param("cursorId") Integer cursorId,
+                                    @Param("limit") int limit);
+
+    /**
+     * 按用户点赞时间倒序的键集分页，走 idx_post_likes_user_created (user_id, created_at DESC)
+     * 二级索引隐式携带主键 id ASC，因此同一时间戳内按 id 升序推进游标
+     */
+    @Select("""
+            <script>
+            SELECT id, post_id, user_id, created_at
+            FROM post_likes
+            WHERE user_id = #{userId}
+            <if test="cursorCreatedAt != null">
+              AND (created_at &lt; #{cursorCreatedAt}
+                   OR (created_at = #{cursorCreatedAt} AND id &gt; #{cursorId}))
+            </if>
+            ORDER BY created_at DESC, id ASC
+            LIMIT #{limit}
+            </script>
+            """)
+    List<PostLike> selectLikedPage(@Param("userId") Integer userId,
+                                   @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                   @Param("cursorId") Integer cursorId,
+                                   @Param("limit") int limit);
 }
@@ -5,20 +5,27 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.example.forum.post.entity.Post;
 import org.apache.ibatis.annotations.*;
 
+import java.util.Collection;
+import java.util.List;
+
 @Mapper
 public interface PostRepo extends BaseMapper<Post> {
     @Select("""
             <script>
                 SELECT
-                  p.id, p.title, p.subtitle, p.author_id, p.status, p.heat,
-                  p.images, p.created_at, p.updated_at,
-                  p.view_count, p.like_count, p.comment_count, p.pinned, p.category_id,
+                  p.id, p.title, p.subtitle, p.author_id, p.status,
+                  p.images, p.created_at, p.updated_at, p.pinned, p.category_id,
+                  COALESCE(s.heat, 0) AS heat,
+                  COALESCE(s.views, 0) AS view_count,
+                  COALESCE(s.likes, 0) AS like_count,
+                  COALESCE(s.comments, 0) AS comment_count,
                   c.name AS category_name,
                   u.username AS author_name,
                   u.avatar_url AS author_avatar
                 FROM posts p
                 LEFT JOIN post_categories c ON c.id = p.category_id
                 LEFT JOIN users u ON u.id = p.author_id
+                LEFT JOIN post_stats s ON s.post_id = p.id
                 <where>
                   <if test="authorId != null">
                     AND p.author_id = #{authorId}
@@ -26,6 +33,9 @@ public interface PostRepo extends BaseMapper<Post> {
                   <if test="status != null and status != ''">
                     AND p.status = #{status}
                   </if>
+                  <if test="publicOnly">
+                    AND p.status != 'scheduled'
+                  </if>
                   <if test="q != null and q != ''">
                     AND (
                       p.title LIKE CONCAT('%', #{q}, '%')
@@ -51,18 +61,25 @@ public interface PostRepo extends BaseMapper<Post> {
             @Param("authorId") Integer authorId,
             @Param("status") String status,
             @Param("q") String q,
-            @Param("categoryId") Integer categoryId);
+            @Param("categoryId") Integer categoryId,
+            @Param("publicOnly") boolean publicOnly);
 
     @Select("""
             <script>
                 SELECT
-                  p.*,
+                  p.id, p.title, p.subtitle, p.content, p.author_id, p.status,
+                  p.images, p.created_at, p.updated_at, p.pinned, p.category_id,
+                  COALESCE(s.heat, 0) AS heat,
+                  COALESCE(s.views, 0) AS view_count,
+                  COALESCE(s.likes, 0) AS like_count,
+                  COALESCE(s.comments, 0) AS comment_count,
                   c.name AS category_name,
                   u.username AS author_name,
                   u.avatar_url AS author_avatar
                 FROM posts p
                 LEFT JOIN post_categories c ON c.id = p.category_id
                 LEFT JOIN users u ON u.id = p.author_id
+                LEFT JOIN post_stats s ON s.post_id = p.id
                 <where>
                   <if test="authorId != null">
                     AND p.author_id = #{authorId}
@@ -70,6 +87,9 @@ public interface PostRepo extends BaseMapper<Post> {
                   <if test="status != null and status != ''">
                     AND p.status = #{status}
                   </if>
+                  <if test="publicOnly">
+                    AND p.status != 'scheduled'
+                  </if>
                   <if test="q != null and q != ''">
                     AND (
                       p.title LIKE CONCAT('%', #{q}, '%')
@@ -96,53 +116,110 @@ public interface PostRepo extends BaseMapper<Post> {
             @Param("authorId") Integer authorId,
             @Param("status") String status,
             @Param("q") String q,
-            @Param("categoryId") Integer categoryId);
+            @Param("categoryId") Integer categoryId,
+            @Param("publicOnly") boolean publicOnly);
 
     @Select("""
-            SELECT 
-              p.*,
+            SELECT
+              p.id, p.title, p.subtitle, p.content, p.author_id, p.status,
+              p.images, p.created_at, p.updated_at, p.pinned, p.category_id,
+              COALESCE(s.heat, 0) AS heat,
+              COALESCE(s.views, 0) AS view_count,
+              COALESCE(s.likes, 0) AS like_count,
+              COALESCE(s.comments, 0) AS comment_count,
               c.name AS category_name,
               u.username AS author_name,
               u.avatar_url AS author_avatar
             FROM posts p
             LEFT JOIN post_categories c ON c.id = p.category_id
             LEFT JOIN users u ON u.id = p.author_id
+            LEFT JOIN post_stats s ON s.post_id = p.id
             WHERE p.id = #{postId}
             LIMIT 1
             """)
     @ResultMap("PostWithImagesMap")
     Post selectByIdWithAuthor(@Param("postId") Integer postId);
 
-    @Update("""
-            UPDATE posts
-            SET comment_count = GREATEST(COALESCE(comment_count, 0) + #{delta}, 0)
-            WHERE id = #{postId}
+    /**
+     * 按ID批量查询帖子摘要（与列表页相同的列），调用方负责按需排序
+     */
+    @Select("""
+            <script>
+                SELECT
+                  p.id, p.title, p.subtitle, p.author_id, p.status,
+                  p.images, p.created_at, p.updated_at, p.pinned, p.category_id,
+                  COALESCE(s.heat, 0) AS heat,
+                  COALESCE(s.views, 0) AS view_count,
+                  COALESCE(s.likes, 0) AS like_count,
+                  COALESCE(s.comments, 0) AS comment_count,
+                  c.name AS category_name,
+                  u.username AS author_name,
+                  u.avatar_url AS author_avatar
+                FROM posts p
+                LEFT JOIN post_categories c ON c.id = p.category_id
+                LEFT JOIN users u ON u.id = p.author_id
+                LEFT JOIN post_stats s ON s.post_id = p.id
+                WHERE p.id IN
+                <foreach collection="postIds" item="postId" separator="," open="(" close=")">
+                  #{postId}
+                </foreach>
+                <if test="status != null and status != ''">
+                  AND p.status = #{status}
+                </if>
+              </script>
+            """)
+    @ResultMap("PostSummaryMap")
+    List<Post> selectSummariesByIds(@Param("postIds") Collection<Integer> postIds,
+                                    @Param("status") String status);
+
+    /**
+     * 按 post_stats.heat 查询热门帖子（走 idx_post_stats_heat）
+     */
+    @Select("""
+            SELECT
+              p.id, p.title, p.author_id, p.status, p.created_at,
+              s.heat, s.views AS view_count, s.likes AS like_count, s.comments AS comment_count
+            FROM post_stats s
+            JOIN posts p ON p.id = s.post_id
+            WHERE p.status = 'approved'
+            ORDER BY s.heat DESC
+            LIMIT #{limit}
             """)
-    int updateCommentCount(@Param("postId") Integer postId,
-                           @Param("delta") int delta);
+    List<Post> selectTrending(@Param("limit") int limit);
 
     /**
-     * 更新帖子评论数为绝对值（与Redis保持一致）
+     * 创建时间早于一分钟前的最大主键，作为 ID 位图的覆盖上界（倒序扫描主键，很快命中）
      */
-    @Update("""
-            UPDATE posts
-            SET comment_count = GREATEST(#{absoluteValue}, 0)
-            WHERE id = #{postId}
+    @Select("""
+            SELECT id FROM posts
+            WHERE created_at < NOW() - INTERVAL 1 MINUTE
+            ORDER BY id DESC
+            LIMIT 1
             """)
-    int updateCommentCountAbsolute(@Param("postId") Integer postId,
-                                   @Param("absoluteValue") int absoluteValue);
+    Integer selectExistenceMaxId();
 
-    @Update("""
-            UPDATE posts
-            SET
-                view_count = GREATEST(COALESCE(view_count, 0) + #{viewsDelta}, 0),
-                like_count = GREATEST(COALESCE(like_count, 0) + #{likesDelta}, 0),
-                comment_count = GREATEST(COALESCE(comment_count, 0) + #{commentsDelta}, 0)
-            WHERE id = #{postId}
+    /**
+     * 按主键分批扫描主键，用于构建 ID 位图
+     */
+    @Select("""
+            SELECT id FROM posts
+            WHERE id > #{afterId}
+            ORDER BY id
+            LIMIT #{limit}
             """)
-    int incrementMetrics(@Param("postId") Integer postId,
-                        @Param("viewsDelta") int viewsDelta,
-                        @Param("likesDelta") int likesDelta,
-                        @Param("commentsDelta") int commentsDelta);
+    List<Integer> selectIdsAfter(@Param("afterId") int afterId, @Param("limit") int limit);
 
+    /**
+     * 给定ID中仍然存在的帖子ID
+     */
+    @Select("""
+            <script>
+                SELECT id FROM posts
+                WHERE id IN
+                <foreach collection="postIds" item="postId" separator="," open="(" close=")">
+                  #{postId}
+                </foreach>
+            </script>
+            """)
+    List<Integer> selectExistingIds(@Param("postIds") Collection<Integer> postIds);
 }
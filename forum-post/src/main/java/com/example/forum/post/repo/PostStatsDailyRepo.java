@@ -0,0 +1,51 @@
+package com.example.forum.post.repo;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.example.forum.post.entity.PostStatsDaily;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Mapper
+public interface PostStatsDailyRepo extends BaseMapper<PostStatsDaily> {
+
+    /**
+     * 按主键范围读取帖子的日计数
+     */
+    @Select("""
+            SELECT post_id, stat_date, views, likes, comments
+            FROM post_stats_daily
+            WHERE post_id = #{postId}
+              AND stat_date >= #{fromDate}
+            ORDER BY stat_date
+            """)
+    List<PostStatsDaily> selectSince(@Param("postId") Integer postId,
+                                     @Param("fromDate") LocalDate fromDate);
+
+    /**
+     * 批量写入日计数（绝对值），同一天重复汇总结果相同。
+     * 与 posts 内连接，已删除帖子的日计数直接丢弃，不会因外键约束使整批写入失败
+     */
+    @Insert("""
+            <script>
+            INSERT INTO post_stats_daily (post_id, stat_date, views, likes, comments)
+            SELECT d.post_id, d.stat_date, d.views, d.likes, d.comments
+            FROM (
+              <foreach collection="rows" item="r" separator=" UNION ALL ">
+                SELECT #{r.postId} AS post_id, #{r.statDate} AS stat_date,
+                       GREATEST(#{r.views}, 0) AS views, #{r.likes} AS likes, #{r.comments} AS comments
+              </foreach>
+            ) d
+            JOIN posts p ON p.id = d.post_id
+            ON DUPLICATE KEY UPDATE
+              views = d.views,
+              likes = d.likes,
+              comments = d.comments
+            </script>
+            """)
+    int upsertAll(@Param("rows") List<PostStatsDaily> rows);
+}
@@ -0,0 +1,141 @@
+package com.example.forum.post.repo;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.example.forum.post.entity.PostStats;
+import com.example.forum.post.vo.PostCountRepair;
+import com.example.forum.post.vo.PostCountRow;
+import com.example.forum.post.vo.PostMetricsDelta;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+@Mapper
+public interface PostStatsRepo extends BaseMapper<PostStats> {
+
+    /**
+     * 批量累加计数增量，不存在的行直接插入；heat 按累加后的值重新计算
+     * （ON DUPLICATE KEY UPDATE 按从左到右的顺序赋值，heat 读取的是更新后的计数）。
+     * 增量与 posts 内连接，已删除帖子的增量直接丢弃，不会因外键约束使整批写入失败
+     */
+    @Insert("""
+            <script>
+            INSERT INTO post_stats (post_id, views, likes, comments, heat)
+            SELECT d.post_id,
+                   GREATEST(d.views, 0),
+                   GREATEST(d.likes, 0),
+                   GREATEST(d.comments, 0),
+                   ROUND(GREATEST(d.views, 0) * 0.1 + GREATEST(d.likes, 0) * 2.0 + GREATEST(d.comments, 0) * 5.0)
+            FROM (
+              <foreach collection="deltas" item="d" separator=" UNION ALL ">
+                SELECT #{d.postId} AS post_id, #{d.views} AS views, #{d.likes} AS likes, #{d.comments} AS comments
+              </foreach>
+            ) d
+            JOIN posts p ON p.id = d.post_id
+            ON DUPLICATE KEY UPDATE
+              views = GREATEST(CAST(post_stats.views AS SIGNED) + d.views, 0),
+              likes = GREATEST(CAST(post_stats.likes AS SIGNED) + d.likes, 0),
+              comments = GREATEST(CAST(post_stats.comments AS SIGNED) + d.comments, 0),
+              heat = ROUND(post_stats.views * 0.1 + post_stats.likes * 2.0 + post_stats.comments * 5.0)
+            </script>
+            """)
+    int upsertDeltas(@Param("deltas") List<PostMetricsDelta> deltas);
+
+    @Select("SELECT COALESCE(MAX(id), 0) FROM posts")
+    int selectMaxPostId();
+
+    /**
+     * 按主键顺序分块扫描 (afterPostId, toPostId] 内的帖子及其已持久化的计数
+     * （没有 post_stats 行的帖子计数为 0，updated_at 为 null）
+     */
+    @Select("""
+            SELECT
+              p.id AS post_id,
+              COALESCE(s.views, 0) AS views,
+              COALESCE(s.likes, 0) AS likes,
+              COALESCE(s.comments, 0) AS comments,
+              s.updated_at
+            FROM posts p
+            LEFT JOIN post_stats s ON s.post_id = p.id
+            WHERE p.id > #{afterPostId} AND p.id <= #{toPostId}
+            ORDER BY p.id
+            LIMIT #{limit}
+            """)
+    List<PostStats> selectChunk(@Param("afterPostId") int afterPostId,
+                                @Param("toPostId") int toPostId,
+                                @Param("limit") int limit);
+
+    /**
+     * 统计区间内每个帖子的真实点赞数，走 uk_post_likes_post_user 的 post_id 前缀
+     */
+    @Select("""
+            SELECT post_id, COUNT(*) AS total
+            FROM post_likes
+            WHERE post_id BETWEEN #{fromPostId} AND #{toPostId}
+            GROUP BY post_id
+            """)
+    List<PostCountRow> countLikes(@Param("fromPostId") int fromPostId,
+                                  @Param("toPostId") int toPostId);
+
+    /**
+     * 统计区间内每个帖子未删除的评论数，走 idx_post_comments_post_created 的 post_id 前缀
+     */
+    @Select("""
+            SELECT post_id, COUNT(*) AS total
+            FROM post_comments
+            WHERE post_id BETWEEN #{fromPostId} AND #{toPostId}
+              AND deleted = 0
+            GROUP BY post_id
+            """)
+    List<PostCountRow> countComments(@Param("fromPostId") int fromPostId,
+                                     @Param("toPostId") int toPostId);
+
+    /**
+     * 批量写入修正后的点赞数和评论数，并重新计算 heat。
+     * 比较后写入：只更新计数仍等于对账时读到的值的行，期间被持久化任务改动过的行保持不变
+     * @return 实际更新的行数
+     */
+    @Update("""
+            <script>
+            UPDATE post_stats s
+            JOIN (
+              <foreach collection="rows" item="r" separator=" UNION ALL ">
+                SELECT #{r.postId} AS post_id,
+                       #{r.expectedLikes} AS expected_likes,
+                       #{r.expectedComments} AS expected_comments,
+                       GREATEST(#{r.likes}, 0) AS likes,
+                       GREATEST(#{r.comments}, 0) AS comments
+              </foreach>
+            ) r ON r.post_id = s.post_id
+            SET s.likes = r.likes,
+                s.comments = r.comments,
+                s.heat = ROUND(s.views * 0.1 + r.likes * 2.0 + r.comments * 5.0)
+            WHERE s.likes = r.expected_likes
+              AND s.comments = r.expected_comments
+            </script>
+            """)
+    int repairCounts(@Param("rows") List<PostCountRepair> rows);
+
+    /**
+     * 为还没有 post_stats 行的帖子写入修正后的计数；期间已被持久化任务创建的行和已删除的帖子跳过
+     * @return 实际插入的行数
+     */
+    @Insert("""
+            <script>
+            INSERT IGNORE INTO post_stats (post_id, views, likes, comments, heat)
+            SELECT d.post_id, 0, d.likes, d.comments, ROUND(d.likes * 2.0 + d.comments * 5.0)
+            FROM (
+              <foreach collection="rows" item="r" separator=" UNION ALL ">
+                SELECT #{r.postId} AS post_id,
+                       GREATEST(#{r.likes}, 0) AS likes,
+                       GREATEST(#{r.comments}, 0) AS comments
+              </foreach>
+            ) d
+            JOIN posts p ON p.id = d.post_id
+            </script>
+            """)
+    int insertRepairedCounts(@Param("rows") List<PostCountRepair> rows);
+}
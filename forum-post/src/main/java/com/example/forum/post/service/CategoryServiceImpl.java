@@ -3,12 +3,16 @@ package com.example.forum.post.service;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.example.forum.common.cache.StaleWhileRevalidateCacheManager;
 import com.example.forum.post.dto.CategoryRequest;
 import com.example.forum.post.entity.Category;
 import com.example.forum.common.exception.ApiException;
 import com.example.forum.post.repo.CategoryRepo;
 import com.example.forum.common.vo.PageResponse;
 import com.example.forum.post.vo.CategoryResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -18,8 +22,14 @@ import java.util.List;
 import java.util.Objects;
 
 @Service
+@RequiredArgsConstructor
 public class CategoryServiceImpl extends ServiceImpl<CategoryRepo, Category> implements CategoryService {
 
+    // 分类很少变化，每次帖子详情回源都会读取；修改、删除时失效
+    private static final String CATEGORY_CACHE = "categories";
+
+    private final CacheManager cacheManager;
+
     @Override
     public PageResponse<CategoryResponse> pageCategories(int page, int size) {
         int current = Math.max(page, 1);
@@ -72,17 +82,20 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryRepo, Category> imp
         if (!updated) {
             throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to update category");
         }
+        evictCategory(categoryId);
         Category refreshed = this.getById(categoryId);
         return toCategoryResponse(Objects.requireNonNullElse(refreshed, existing));
     }
 
     @Override
     public CategoryResponse getCategory(Integer categoryId) {
-        Category category = this.getById(categoryId);
-        if (category == null) {
-            throw new ApiException(HttpStatus.NOT_FOUND, "Category not found");
-        }
-        return toCategoryResponse(category);
+        return StaleWhileRevalidateCacheManager.load(cacheManager.getCache(CATEGORY_CACHE), categoryId, () -> {
+            Category category = this.getById(categoryId);
+            if (category == null) {
+                throw new ApiException(HttpStatus.NOT_FOUND, "Category not found");
+            }
+            return toCategoryResponse(category);
+        });
     }
 
     @Override
@@ -98,6 +111,14 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryRepo, Category> imp
         if (!removed) {
             throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete category");
         }
+        evictCategory(categoryId);
+    }
+
+    private void evictCategory(Integer categoryId) {
+        Cache cache = cacheManager.getCache(CATEGORY_CACHE);
+        if (cache != null) {
+            cache.evict(categoryId);
+        }
     }
 
     private CategoryResponse toCategoryResponse(Category category) {
@@ -0,0 +1,112 @@
+package com.example.forum.post.service;
+
+import com.example.forum.common.cache.PostMetricsKeys;
+import com.example.forum.common.redis.RedisGuard;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 帖子按日计数的本地缓冲
+ *
+ * 浏览、点赞的递增先在本实例内按 (日期, 帖子) 合并，每隔几秒用一次 pipeline 写入
+ * post:daily:{yyyyMMdd}:{postId}，避免每次浏览都多一次 Redis 往返。
+ * 停机时写出剩余数据；进程异常退出最多丢失一个刷新周期的日统计（总计数不受影响）。
+ * Redis 不可用期间数据保留在内存中，恢复后的下一个周期写出。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DailyStatsBuffer {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisGuard redisGuard;
+
+    private final Map<DayPost, long[]> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次增量
+     * @param field {@link PostMetricsService} 中的计数字段
+     */
+    public void record(Integer postId, String field, long delta) {
+        int index = switch (field) {
+            case PostMetricsService.FIELD_VIEWS -> 0;
+            case PostMetricsService.FIELD_LIKES -> 1;
+            case PostMetricsService.FIELD_COMMENTS -> 2;
+            default -> -1;
+        };
+        if (postId == null || index < 0 || delta == 0) {
+            return;
+        }
+        long[] increment = new long[3];
+        increment[index] = delta;
+        // merge 对同一 key 原子执行，flush 中的 remove 不会丢失并发写入
+        pending.merge(new DayPost(LocalDate.now(), postId), increment, DailyStatsBuffer::sum);
+    }
+
+    @Scheduled(fixedDelayString = "${forum.stats.daily-flush-interval:PT5S}")
+    public void flush() {
+        // Redis 不可用期间留在本地，恢复后一并写入
+        if (pending.isEmpty() || redisGuard.isOpen()) {
+            return;
+        }
+        Map<DayPost, long[]> batch = new ConcurrentHashMap<>();
+        for (DayPost key : new ArrayList<>(pending.keySet())) {
+            long[] counts = pending.remove(key);
+            if (counts != null) {
+                batch.put(key, counts);
+            }
+        }
+        if (!redisGuard.run("post.daily.flush", () -> write(batch))) {
+            batch.forEach((key, counts) -> pending.merge(key, counts, DailyStatsBuffer::sum));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void write(Map<DayPost, long[]> batch) {
+        List<String> fields = List.of(
+                PostMetricsService.FIELD_VIEWS, PostMetricsService.FIELD_LIKES, PostMetricsService.FIELD_COMMENTS);
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                batch.forEach((key, counts) -> {
+                    String dailyKey = PostMetricsKeys.daily(key.date(), key.postId());
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] != 0) {
+                            ops.opsForHash().increment(dailyKey, fields.get(i), counts[i]);
+                        }
+                    }
+                    ops.expire(dailyKey, PostMetricsKeys.DAILY_TTL);
+                    String indexKey = PostMetricsKeys.dailyIndex(key.date());
+                    ops.opsForSet().add(indexKey, key.postId());
+                    ops.expire(indexKey, PostMetricsKeys.DAILY_TTL);
+                });
+                return null;
+            }
+        });
+    }
+
+    private static long[] sum(long[] a, long[] b) {
+        return new long[]{a[0] + b[0], a[1] + b[1], a[2] + b[2]};
+    }
+
+    private record DayPost(LocalDate date, Integer postId) {
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.forum.post.service;
+
+import com.example.forum.common.cache.PostMetricsKeys;
+import com.example.forum.common.redis.RedisGuard;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 热点帖子计数分片
+ *
+ * 单个帖子在本实例的每秒递增次数超过阈值时，将其登记到 post:metrics:hot（ZSET，score 为热点截止时间），
+ * 之后该帖子的递增随机分散到 N 个分片 Hash：post:metrics:shard:{postId#salt}。
+ * salt 经过挑选，使各分片的哈希标签均匀分布在整个槽位空间，从而分散到不同的主节点。
+ * 读取时把基准 key 与所有分片放在同一个 pipeline 中求和。
+ *
+ * 分片与基准 key、脏集合位于不同槽位，集群下无法用一个脚本把分片原子地加回基准 key，
+ * 因此分片不做折叠：PostMetricsSyncJob 逐个 key 原子取出基准 key 和分片后持久化。
+ * 分片递增不逐次写脏集合（单个 key，会把热点重新集中到一个节点），改由同步登记表时把所有分片帖子登记为脏。
+ * 热度消退后后台任务确认分片已清空，再把帖子移出登记表；仍有增量的分片留到下一轮。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class HotCounterSharding {
+
+    static final String HOT_REGISTRY_KEY = "post:metrics:hot";
+
+    // 原子读取并删除分片（单 key，集群下安全）
+    private static final RedisScript<List> DRAIN_SCRIPT = new DefaultRedisScript<>("""
+            local values = redis.call('HGETALL', KEYS[1])
+            redis.call('DEL', KEYS[1])
+            return values
+            """, List.class);
+
+    // 截止时间仍不晚于 ARGV[2] 时才移出登记表，期间被重新登记为热点的帖子保留（单 key，集群下安全）
+    private static final RedisScript<Long> RETIRE_SCRIPT = new DefaultRedisScript<>("""
+            local score = redis.call('ZSCORE', KEYS[1], ARGV[1])
+            if score and tonumber(score) <= tonumber(ARGV[2]) then
+              return redis.call('ZREM', KEYS[1], ARGV[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisGuard redisGuard;
+
+    // 单实例每秒递增次数超过该值即进入分片模式
+    @Value("${forum.metrics.hot-threshold:500}")
+    private long hotThreshold;
+
+    @Value("${forum.metrics.hot-shards:8}")
+    private int shardCount;
+
+    // 最后一次超过阈值后保持分片模式的时长
+    @Value("${forum.metrics.hot-cooldown:PT30S}")
+    private Duration coolDown;
+
+    private volatile Map<Integer, AtomicLong> windowCounts = new ConcurrentHashMap<>();
+    // 仍处于热点期、递增写入分片的帖子
+    private volatile Set<Integer> hotPosts = Collections.emptySet();
+    // 登记表中所有帖子（含冷却中尚未折叠的），读取时需要合并分片
+    private volatile Set<Integer> shardedPosts = Collections.emptySet();
+    private final Map<Integer, List<String>> shardKeyCache = new ConcurrentHashMap<>();
+
+    private final AtomicLong shardedIncrements = new AtomicLong();
+    private final AtomicLong promotions = new AtomicLong();
+    private final AtomicLong retirements = new AtomicLong();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "hot-counter-sharding");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleAtFixedRate(this::rollWindow, 1, 1, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::refreshHotPosts, 0, 2, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::retireCooledPosts, 10, 10, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 记录一次递增并返回应写入的 key：热点帖子随机选一个分片，否则返回基准 key
+     */
+    public String routeIncrement(Integer postId, String baseKey) {
+        AtomicLong count = windowCounts.computeIfAbsent(postId, id -> new AtomicLong());
+        if (count.incrementAndGet() == hotThreshold) {
+            promote(postId);
+        }
+        if (!hotPosts.contains(postId)) {
+            return baseKey;
+        }
+        shardedIncrements.incrementAndGet();
+        List<String> keys = shardKeys(postId);
+        return keys.get(ThreadLocalRandom.current().nextInt(keys.size()));
+    }
+
+    /**
+     * 帖子当前是否处于分片模式（含冷却中尚未折叠的帖子）
+     */
+    public boolean isSharded(Integer postId) {
+        return shardedPosts.contains(postId);
+    }
+
+    /**
+     * 帖子的全部分片 key。槽位空间等分为 N 段，每段挑一个 salt 使分片落在该段：
+     * 主节点按连续区间分配槽位，各节点分到的分片数因此与其槽位数成比例
+     */
+    public List<String> shardKeys(Integer postId) {
+        return shardKeyCache.computeIfAbsent(postId, id -> {
+            String[] keys = new String[shardCount];
+            int filled = 0;
+            for (int salt = 0; filled < shardCount && salt < shardCount * 1024; salt++) {
+                String key = "post:metrics:shard:{" + id + "#" + salt + "}";
+                int range = ClusterSlotHashUtil.calculateSlot(key) * shardCount / ClusterSlotHashUtil.SLOT_COUNT;
+                if (keys[range] == null) {
+                    keys[range] = key;
+                    filled++;
+                }
+            }
+            return Arrays.stream(keys).filter(Objects::nonNull).toList();
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threshold", hotThreshold);
+        stats.put("shards", shardCount);
+        stats.put("hotPosts", hotPosts.size());
+        stats.put("shardedPosts", shardedPosts.size());
+        stats.put("promotions", promotions.get());
+        stats.put("shardedIncrements", shardedIncrements.get());
+        stats.put("retirements", retirements.get());
+        return stats;
+    }
+
+    /**
+     * 原子取出并删除一个计数 Hash，返回 字段 -> 增量
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Map<String, Long> drainHash(String key) {
+        // 字段和值都是纯文本（HINCRBY 写入），用字符串序列化读取
+        RedisSerializer<String> serializer = StringRedisSerializer.UTF_8;
+        List<?> values = redisTemplate.execute(DRAIN_SCRIPT, serializer, (RedisSerializer) serializer, List.of(key));
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (values == null) {
+            return result;
+        }
+        for (int i = 0; i + 1 < values.size(); i += 2) {
+            result.merge(values.get(i).toString(), Long.parseLong(values.get(i + 1).toString()), Long::sum);
+        }
+        return result;
+    }
+
+    private void promote(Integer postId) {
+        long hotUntil = System.currentTimeMillis() + coolDown.toMillis();
+        // 熔断时不登记，帖子继续写基准 key
+        boolean registered = redisGuard.run("post.metrics.promote",
+                () -> redisTemplate.opsForZSet().add(HOT_REGISTRY_KEY, postId.toString(), hotUntil));
+        if (!registered) {
+            return;
+        }
+        Set<Integer> updated = new HashSet<>(hotPosts);
+        updated.add(postId);
+        // 持续高于阈值时每个窗口都会续期截止时间
+        if (!hotPosts.contains(postId)) {
+            hotPosts = Set.copyOf(updated);
+            Set<Integer> sharded = new HashSet<>(shardedPosts);
+            sharded.add(postId);
+            shardedPosts = Set.copyOf(sharded);
+            promotions.incrementAndGet();
+            log.info("帖子计数进入分片模式: postId={}, shards={}", postId, shardCount);
+        }
+    }
+
+    private void rollWindow() {
+        windowCounts = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * 立即同步登记表并把所有分片帖子登记为脏（PostMetricsSyncJob 每轮开始时调用），
+     * 本轮开始前写入分片的增量都会被本轮取出
+     * @return 是否同步成功
+     */
+    public boolean markShardedDirty() {
+        return refreshHotPosts();
+    }
+
+    /**
+     * 从 Redis 同步热点登记表，其他实例登记的热点帖子也会在这里生效；
+     * 同时把分片帖子登记到脏集合，使同步任务取出分片中的增量
+     */
+    private boolean refreshHotPosts() {
+        if (redisGuard.isOpen()) {
+            return false;
+        }
+        try {
+            Set<ZSetOperations.TypedTuple<Object>> members =
+                    redisTemplate.opsForZSet().rangeWithScores(HOT_REGISTRY_KEY, 0, -1);
+            long now = System.currentTimeMillis();
+            Set<Integer> hot = new HashSet<>();
+            Set<Integer> sharded = new HashSet<>();
+            if (members != null) {
+                for (ZSetOperations.TypedTuple<Object> member : members) {
+                    Integer postId = Integer.valueOf(String.valueOf(member.getValue()));
+                    sharded.add(postId);
+                    if (member.getScore() != null && member.getScore() > now) {
+                        hot.add(postId);
+                    }
+                }
+            }
+            hotPosts = Set.copyOf(hot);
+            shardedPosts = Set.copyOf(sharded);
+            shardKeyCache.keySet().retainAll(sharded);
+            if (!sharded.isEmpty()) {
+                redisTemplate.opsForSet().add(PostMetricsService.DIRTY_SET_KEY, sharded.toArray());
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("同步热点帖子登记表失败: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 移出已冷却的帖子：热点截止时间过后各实例在下一个同步周期停止写分片，再留出余量；
+     * 分片中剩余的增量交给 PostMetricsSyncJob 取出，全部清空后才移出登记表，
+     * 在此之前读取和同步任务仍会合并分片
+     */
+    private void retireCooledPosts() {
+        if (redisGuard.isOpen()) {
+            return;
+        }
+        try {
+            long cutoff = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(6);
+            Set<ZSetOperations.TypedTuple<Object>> cooled =
+                    redisTemplate.opsForZSet().rangeByScoreWithScores(HOT_REGISTRY_KEY, 0, cutoff);
+            if (cooled == null) {
+                return;
+            }
+            for (ZSetOperations.TypedTuple<Object> tuple : cooled) {
+                Integer postId = Integer.valueOf(String.valueOf(tuple.getValue()));
+                boolean drained = shardKeys(postId).stream()
+                        .noneMatch(key -> Boolean.TRUE.equals(redisTemplate.hasKey(key)));
+                if (!drained) {
+                    // 确保剩余增量被同步任务取出
+                    redisTemplate.opsForSet().add(PostMetricsService.DIRTY_SET_KEY, postId);
+                    continue;
+                }
+                Long removed = redisTemplate.execute(RETIRE_SCRIPT, List.of(HOT_REGISTRY_KEY), tuple.getValue(), cutoff);
+                if (removed != null && removed > 0) {
+                    retirements.incrementAndGet();
+                    log.info("帖子计数退出分片模式: postId={}", postId);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("移出已冷却的热点帖子失败: {}", e.getMessage());
+        }
+    }
+}
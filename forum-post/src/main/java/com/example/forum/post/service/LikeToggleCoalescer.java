@@ -0,0 +1,247 @@
+package com.example.forum.post.service;
+
+import com.example.forum.common.cache.IdExistenceFilter;
+import com.example.forum.common.timer.TimingWheel;
+import com.example.forum.post.repo.PostRepo;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 点赞开关防抖合并器
+ *
+ * 同一 (用户, 帖子) 在防抖窗口内的连续点赞/取消点赞只记录最终状态，
+ * 窗口结束后调用一次 {@link PostLikeService} 落库。由于落库路径本身是幂等的
+ * （Redis SET 已存在则跳过），计数器只会按净变化 ±1 调整，posts:detail 也只失效一次。
+ *
+ * 合并状态只存在于当前实例内存中；多实例部署时各实例独立合并，最终写入依旧幂等。
+ * 窗口定时器挂在共享的 {@link TimingWheel} 上，每个待处理 key 只占一个链表节点，不再为每次点赞向堆式调度队列插入任务。
+ *
+ * 合并路径在窗口结束前就向客户端返回成功，落库失败时 PostLikeService 已回滚 Redis 集合和计数，
+ * 读接口随即回到数据库中的真实状态，但这次操作已无法通知客户端。因此落库失败后在 failure-cooldown 内暂停合并，
+ * 点赞/取消点赞改为同步落库，数据库仍不可用时错误直接返回给客户端；失败次数记录为 forum.like.flush.failures。
+ * 同一 key 的落库（窗口结束或同步）按分段锁串行，后提交的状态总是最后写入。
+ *
+ * 窗口结束后的落库由 flush-threads 个线程并行执行，不同 key 互不等待；线程数应小于数据库连接池大小，
+ * 给同步请求留出连接。每个待处理 key 只排一个落库任务，队列长度不超过 pending。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LikeToggleCoalescer implements MeterBinder {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final PostLikeService postLikeService;
+    private final PostRepo postRepo;
+    private final IdExistenceFilter postExistenceFilter;
+    private final TimingWheel timingWheel;
+
+    // 防抖窗口，PT0S 表示关闭合并，直接落库
+    @Value("${forum.like.debounce-window:PT0.5S}")
+    private Duration window;
+
+    // 落库失败后暂停合并、改为同步落库的时长
+    @Value("${forum.like.failure-cooldown:PT30S}")
+    private Duration failureCooldown;
+
+    // 窗口结束后落库的线程数，占用同样数量的数据库连接（HikariCP 默认连接池为 10）
+    @Value("${forum.like.flush-threads:4}")
+    private int flushThreads;
+
+    private volatile long suspendedUntil;
+
+    private final Map<String, PendingToggle> pending = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor flushExecutor;
+
+    private final AtomicLong toggleCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+
+    private final Object[] locks = Stream.generate(Object::new).limit(LOCK_STRIPES).toArray();
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(flushThreads, 1);
+        flushExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "like-toggle-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 提交一次点赞开关操作
+     * @param postId 帖子ID
+     * @param userId 用户ID
+     * @param liked 期望的最终状态
+     * @return 同步落库时为落库结果；进入防抖窗口时为 true（落库失败见类注释）
+     */
+    public boolean submit(Integer postId, Integer userId, boolean liked) {
+        if (userId == null) {
+            throw new IllegalArgumentException("未登录用户无法点赞");
+        }
+        toggleCount.incrementAndGet();
+        String key = key(postId, userId);
+
+        if (!isCoalescing()) {
+            // 丢弃窗口内尚未落库的旧状态，以本次同步写入为准
+            synchronized (lock(key)) {
+                pending.remove(key);
+                flushCount.incrementAndGet();
+                return apply(postId, userId, liked);
+            }
+        }
+
+        // 仅在窗口内第一次点赞时校验帖子是否存在，后续开关不再访问数据库
+        if (liked && !pending.containsKey(key)
+                && (!postExistenceFilter.mightExist(postId) || postRepo.selectById(postId) == null)) {
+            postExistenceFilter.markMissing(postId);
+            throw new NoSuchElementException("帖子不存在");
+        }
+
+        pending.compute(key, (k, existing) -> {
+            PendingToggle toggle = existing;
+            if (toggle == null) {
+                toggle = new PendingToggle(postId, userId);
+                timingWheel.schedule(() -> flush(k), window, flushExecutor);
+            }
+            toggle.liked = liked;
+            toggle.toggles++;
+            return toggle;
+        });
+        return true;
+    }
+
+    /**
+     * 是否进入防抖窗口：窗口未关闭，且不在落库失败后的暂停期内
+     */
+    public boolean isCoalescing() {
+        return window != null && !window.isZero() && !window.isNegative()
+                && System.currentTimeMillis() >= suspendedUntil;
+    }
+
+    /**
+     * 获取尚未落库的点赞状态
+     * @return 待落库的最终状态，没有待处理操作时返回 null
+     */
+    public Boolean pendingState(Integer postId, Integer userId) {
+        if (postId == null || userId == null) {
+            return null;
+        }
+        PendingToggle toggle = pending.get(key(postId, userId));
+        return toggle != null ? toggle.liked : null;
+    }
+
+    /**
+     * 合并统计：写放大 = flushes / toggles
+     */
+    public Map<String, Object> getStats() {
+        long toggles = toggleCount.get();
+        long flushes = flushCount.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("windowMillis", window != null ? window.toMillis() : 0);
+        stats.put("toggles", toggles);
+        stats.put("flushes", flushes);
+        stats.put("collapsed", toggles - flushes);
+        stats.put("failedFlushes", failedFlushCount.get());
+        stats.put("coalescing", isCoalescing());
+        stats.put("suspendedUntil", suspendedUntil);
+        stats.put("pending", pending.size());
+        stats.put("flushThreads", flushExecutor.getMaximumPoolSize());
+        stats.put("flushQueue", flushExecutor.getQueue().size());
+        stats.put("writeAmplification", toggles == 0 ? 0.0 : (double) flushes / toggles);
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("forum.like.toggles", toggleCount, AtomicLong::get)
+                .description("提交的点赞/取消点赞次数")
+                .register(registry);
+        FunctionCounter.builder("forum.like.flushes", flushCount, AtomicLong::get)
+                .description("点赞状态落库次数（窗口合并后）")
+                .register(registry);
+        FunctionCounter.builder("forum.like.flush.failures", failedFlushCount, AtomicLong::get)
+                .description("防抖窗口结束后落库失败、已向客户端返回成功的点赞操作数")
+                .register(registry);
+    }
+
+    private void flush(String key) {
+        synchronized (lock(key)) {
+            PendingToggle toggle = pending.remove(key);
+            if (toggle == null) {
+                return;
+            }
+            flushCount.incrementAndGet();
+            if (toggle.toggles > 1) {
+                log.debug("合并点赞开关: postId={}, userId={}, toggles={}, finalLiked={}",
+                        toggle.postId, toggle.userId, toggle.toggles, toggle.liked);
+            }
+            try {
+                apply(toggle.postId, toggle.userId, toggle.liked);
+            } catch (Exception e) {
+                failedFlushCount.incrementAndGet();
+                suspendedUntil = System.currentTimeMillis() + failureCooldown.toMillis();
+                log.error("点赞状态落库失败，暂停合并改为同步落库: postId={}, userId={}, liked={}, cooldown={}",
+                        toggle.postId, toggle.userId, toggle.liked, failureCooldown, e);
+            }
+        }
+    }
+
+    private boolean apply(Integer postId, Integer userId, boolean liked) {
+        return liked
+                ? postLikeService.likePost(postId, userId)
+                : postLikeService.unlikePost(postId, userId);
+    }
+
+    private Object lock(String key) {
+        return locks[(key.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdownNow();
+        List<String> keys = new ArrayList<>(pending.keySet());
+        if (!keys.isEmpty()) {
+            log.info("停机前落库待处理的点赞操作: count={}", keys.size());
+        }
+        keys.forEach(this::flush);
+    }
+
+    private static String key(Integer postId, Integer userId) {
+        return postId + ":" + userId;
+    }
+
+    private static final class PendingToggle {
+        private final Integer postId;
+        private final Integer userId;
+        private volatile boolean liked;
+        private int toggles;
+
+        private PendingToggle(Integer postId, Integer userId) {
+            this.postId = postId;
+            this.userId = userId;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.forum.post.service;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.example.forum.common.warmup.StartupWarmer;
+import com.example.forum.post.entity.Category;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 帖子服务的启动预热任务：分类、热门榜、各分类信息流首页、热门帖子详情（含计数）
+ *
+ * 预热读取与线上请求使用相同的缓存 key（信息流按 PostController 的默认参数），只写入共享的 Redis 缓存，
+ * 缓存已存在时只是一次命中；多个实例同时启动时由缓存的跨实例回源锁保证每个 key 只查一次数据库。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PostCacheWarmer {
+
+    private final PostService postService;
+    private final CategoryService categoryService;
+
+    // 与 PostController 的默认参数一致
+    @Value("${forum.warmup.trending-limit:5}")
+    private int trendingLimit;
+
+    @Value("${forum.warmup.feed-page-size:10}")
+    private int feedPageSize;
+
+    @Value("${forum.warmup.feed-pages:1}")
+    private int feedPages;
+
+    @Value("${forum.warmup.hot-posts:100}")
+    private int hotPosts;
+
+    public int warmCategories(StartupWarmer warmer) {
+        int warmed = 0;
+        for (Integer categoryId : categoryIds()) {
+            if (warmer.isExpired()) {
+                break;
+            }
+            categoryService.getCategory(categoryId);
+            warmed++;
+        }
+        return warmed;
+    }
+
+    public int warmTrending(StartupWarmer warmer) {
+        return postService.getTrendingPostViews(trendingLimit).size();
+    }
+
+    /**
+     * 全部分类和每个分类的信息流前几页，每个分类一个子任务
+     */
+    public int warmFeeds(StartupWarmer warmer) {
+        List<Integer> categoryIds = new ArrayList<>();
+        categoryIds.add(null);
+        categoryIds.addAll(categoryIds());
+        for (Integer categoryId : categoryIds) {
+            warmer.fork("feed:" + (categoryId == null ? "all" : categoryId), w -> {
+                int pages = 0;
+                for (int page = 1; page <= feedPages && !w.isExpired(); page++) {
+                    postService.pageWithSummary(page, feedPageSize, null, null, null, categoryId, null);
+                    pages++;
+                }
+                return pages;
+            });
+        }
+        return categoryIds.size();
+    }
+
+    /**
+     * 热门帖子的详情和计数，按线程数拆成子任务并行加载
+     */
+    public int warmHotPosts(StartupWarmer warmer, int parallelism) {
+        List<Integer> postIds = postService.getHotPostIds(hotPosts);
+        int chunks = Math.max(Math.min(parallelism, postIds.size()), 1);
+        int chunkSize = (postIds.size() + chunks - 1) / chunks;
+        for (int from = 0; from < postIds.size(); from += chunkSize) {
+            List<Integer> chunk = postIds.subList(from, Math.min(from + chunkSize, postIds.size()));
+            warmer.fork("hot-posts#" + from / chunkSize, w -> {
+                int loaded = 0;
+                for (Integer postId : chunk) {
+                    if (w.isExpired()) {
+                        break;
+                    }
+                    if (postService.preloadPostDetail(postId)) {
+                        loaded++;
+                    }
+                }
+                return loaded;
+            });
+        }
+        return postIds.size();
+    }
+
+    private List<Integer> categoryIds() {
+        return categoryService.list(Wrappers.<Category>lambdaQuery().select(Category::getId))
+                .stream()
+                .map(Category::getId)
+                .toList();
+    }
+}
@@ -1,5 +1,10 @@
 package com.example.forum.post.service;
 
+import com.example.forum.common.vo.CursorPageResponse;
+import com.example.forum.post.vo.PostLikerView;
+
+import java.util.Collection;
+
 /**
  * 帖子点赞服务接口
  * 负责处理帖子的点赞、取消点赞和点赞状态查询
@@ -29,4 +34,26 @@ public interface PostLikeService {
      * @return 是否已点赞
      */
     boolean isPostLikedByUser(Integer postId, Integer userId);
+
+    /**
+     * 按点赞时间倒序分页查询点赞用户（键集分页）
+     * @param postId 帖子ID
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param size 每页大小
+     * @return 点赞用户列表
+     */
+    CursorPageResponse<PostLikerView> pageLikers(Integer postId, String cursor, int size);
+
+    /**
+     * 获取用户点赞列表的版本号，点赞/取消点赞时递增，用于失效"我赞过的"分页缓存
+     * @param userId 用户ID
+     * @return 版本号，Redis 不可用时返回 -1
+     */
+    long getLikedPostsVersion(Integer userId);
+
+    /**
+     * 递增用户点赞列表的版本号（由点赞领域事件处理方批量调用）
+     * @param userIds 点赞关系发生变化的用户
+     */
+    void bumpLikedPostsVersions(Collection<Integer> userIds);
 }
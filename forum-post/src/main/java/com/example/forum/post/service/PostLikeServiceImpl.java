@@ -2,10 +2,19 @@ package com.example.forum.post.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.example.forum.common.event.DomainEvent;
+import com.example.forum.common.event.DomainEventPublisher;
+import com.example.forum.common.redis.RedisBatch;
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.common.cache.RelationSetCache;
+import com.example.forum.common.vo.CursorPageResponse;
+import com.example.forum.common.vo.KeysetCursor;
+import com.example.forum.post.entity.Author;
 import com.example.forum.post.entity.Post;
 import com.example.forum.post.entity.PostLike;
 import com.example.forum.post.repo.PostLikeRepo;
 import com.example.forum.post.repo.PostRepo;
+import com.example.forum.post.vo.PostLikerView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
@@ -14,6 +23,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 /**
@@ -27,11 +39,19 @@ public class PostLikeServiceImpl implements PostLikeService {
 
     private final PostLikeRepo postLikeRepo;
     private final PostRepo postRepo;
+    private final UserCardService userCardService;
+    private final RelationSetCache postLikesCache;
+    private final PostMetricsService postMetricsService;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisGuard redisGuard;
+    private final RedisBatch redisBatch;
+    private final DomainEventPublisher domainEventPublisher;
+
+    private static final String LIKED_VERSION_KEY_PREFIX = "post:liked:ver:";
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    @CacheEvict(cacheNames = "posts:detail", allEntries = true)
+    @CacheEvict(cacheNames = "posts:detail", key = "#postId")
     public boolean likePost(Integer postId, Integer userId) {
         if (userId == null) {
             throw new IllegalArgumentException("未登录用户无法点赞");
@@ -45,28 +65,17 @@ public class PostLikeServiceImpl implements PostLikeService {
         // 先检查MySQL是否已存在点赞记录
         PostLike existing = postLikeRepo.findByPostAndUser(postId, userId);
         if (existing != null) {
-            // MySQL中已存在，同步到Redis
-            String likesKey = "post:likes:" + postId;
-            redisTemplate.opsForSet().add(likesKey, userId.toString());
+            // MySQL中已存在，同步到Redis（集合未加载时由下次重建带上）
+            postLikesCache.addIfLoaded(postId, userId);
             log.debug("点赞记录已存在于MySQL，已同步到Redis: postId={}, userId={}", postId, userId);
             return true;
         }
 
-        // Redis 集合镜像：使用 SET 存储点赞关系
-        String likesKey = "post:likes:" + postId;
-        Long added = redisTemplate.opsForSet().add(likesKey, userId.toString());
-
-        if (Boolean.TRUE.equals(added != null && added > 0)) {
+        // Redis 集合镜像：使用 SET 存储点赞关系，未加载时先从MySQL重建
+        if (postLikesCache.add(postId, userId)) {
             // Redis SET 添加成功，说明是新点赞
-            String metricsKey = "post:metrics:" + postId;
-            
             // 1. 使用原子 INCR 操作更新 Redis 点赞增量
-            try {
-                redisTemplate.opsForHash().increment(metricsKey, "likes", 1);
-                log.debug("增量更新Redis点赞数: postId={}, delta=+1", postId);
-            } catch (Exception e) {
-                log.warn("更新Redis点赞数失败: postId={}, userId={}", postId, userId, e);
-            }
+            postMetricsService.increment(postId, userId, PostMetricsService.FIELD_LIKES, 1);
 
             // 2. 数据库操作（持久化点赞记录）
             try {
@@ -75,28 +84,21 @@ public class PostLikeServiceImpl implements PostLikeService {
                         .setUserId(userId)
                         .setCreatedAt(LocalDateTime.now());
                 postLikeRepo.insert(like);
+                // "我赞过的"版本号由事件处理方递增（LikedPostsEventHandler）
+                domainEventPublisher.publish(DomainEvent.liked(postId, userId));
                 log.debug("点赞成功: postId={}, userId={}", postId, userId);
             } catch (org.springframework.dao.DuplicateKeyException e) {
                 // 唯一键冲突：MySQL中已有记录，但Redis中没有（Redis被清空导致数据不同步）
                 // 需要回滚Redis metrics的增量（因为这次点赞实际上是重复的）
                 log.warn("点赞记录已存在（MySQL和Redis不同步），回滚Redis增量: postId={}, userId={}", postId, userId);
-                try {
-                    redisTemplate.opsForHash().increment(metricsKey, "likes", -1);
-                    log.debug("已回滚Redis增量，保持Redis SET同步: postId={}, userId={}", postId, userId);
-                } catch (Exception rollbackEx) {
-                    log.error("回滚Redis点赞数失败: postId={}", postId, rollbackEx);
-                }
+                postMetricsService.increment(postId, userId, PostMetricsService.FIELD_LIKES, -1);
                 // 保留Redis SET中的记录（这样下次就能正确检测到已点赞）
                 return true; // 返回成功，对用户来说已经点赞了
             } catch (Exception e) {
                 // 其他数据库错误，回滚 Redis
-                redisTemplate.opsForSet().remove(likesKey, userId.toString());
+                postLikesCache.removeIfLoaded(postId, userId);
                 // 回滚点赞计数（INCR -1）
-                try {
-                    redisTemplate.opsForHash().increment(metricsKey, "likes", -1);
-                } catch (Exception rollbackEx) {
-                    log.error("回滚Redis点赞数失败: postId={}", postId, rollbackEx);
-                }
+                postMetricsService.increment(postId, userId, PostMetricsService.FIELD_LIKES, -1);
                 log.error("数据库写入点赞失败，已回滚Redis: postId={}, userId={}", postId, userId, e);
                 throw e;
             }
@@ -111,7 +113,7 @@ public class PostLikeServiceImpl implements PostLikeService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    @CacheEvict(cacheNames = "posts:detail", allEntries = true)
+    @CacheEvict(cacheNames = "posts:detail", key = "#postId")
     public boolean unlikePost(Integer postId, Integer userId) {
         if (userId == null) {
             return false;
@@ -122,21 +124,11 @@ public class PostLikeServiceImpl implements PostLikeService {
             return false;
         }
 
-        // Redis 集合镜像：从 SET 移除点赞关系
-        String likesKey = "post:likes:" + postId;
-        Long removed = redisTemplate.opsForSet().remove(likesKey, userId.toString());
-
-        if (Boolean.TRUE.equals(removed != null && removed > 0)) {
+        // Redis 集合镜像：从 SET 移除点赞关系，未加载时先从MySQL重建
+        if (postLikesCache.remove(postId, userId)) {
             // Redis SET 移除成功，说明确实有点赞
-            String metricsKey = "post:metrics:" + postId;
-            
             // 1. 使用原子 INCR 操作更新 Redis 点赞增量（-1）
-            try {
-                redisTemplate.opsForHash().increment(metricsKey, "likes", -1);
-                log.debug("增量更新Redis点赞数: postId={}, delta=-1", postId);
-            } catch (Exception e) {
-                log.warn("更新Redis点赞数失败: postId={}, userId={}", postId, userId, e);
-            }
+            postMetricsService.increment(postId, userId, PostMetricsService.FIELD_LIKES, -1);
 
             // 2. 数据库操作（删除点赞记录）
             try {
@@ -144,16 +136,13 @@ public class PostLikeServiceImpl implements PostLikeService {
                         .eq(PostLike::getPostId, postId)
                         .eq(PostLike::getUserId, userId);
                 postLikeRepo.delete(wrapper);
+                domainEventPublisher.publish(DomainEvent.unliked(postId, userId));
                 log.debug("取消点赞成功: postId={}, userId={}", postId, userId);
             } catch (Exception e) {
                 // 数据库删除失败，回滚 Redis
-                redisTemplate.opsForSet().add(likesKey, userId.toString());
+                postLikesCache.addIfLoaded(postId, userId);
                 // 回滚点赞计数（INCR +1）
-                try {
-                    redisTemplate.opsForHash().increment(metricsKey, "likes", 1);
-                } catch (Exception rollbackEx) {
-                    log.error("回滚Redis点赞数失败: postId={}", postId, rollbackEx);
-                }
+                postMetricsService.increment(postId, userId, PostMetricsService.FIELD_LIKES, 1);
                 log.error("数据库删除点赞失败，已回滚Redis: postId={}, userId={}", postId, userId, e);
                 throw e;
             }
@@ -172,28 +161,61 @@ public class PostLikeServiceImpl implements PostLikeService {
             return false;
         }
 
-        // 优先从 Redis SET 判断是否点赞
-        String likesKey = "post:likes:" + postId;
-        try {
-            Boolean isMember = redisTemplate.opsForSet().isMember(likesKey, userId.toString());
-            if (Boolean.TRUE.equals(isMember)) {
-                // Redis缓存命中，直接返回
-                return true;
-            }
+        // 集合已加载时直接以 Redis 为准（不存在即未点赞），未加载时整体从MySQL重建；Redis 不可用时直接查询MySQL
+        return postLikesCache.contains(postId, userId);
+    }
 
-            // Redis缓存未命中，回源数据库查询
-            PostLike dbLike = postLikeRepo.findByPostAndUser(postId, userId);
-            if (dbLike != null) {
-                // 数据库中有点赞记录，同步到Redis
-                redisTemplate.opsForSet().add(likesKey, userId.toString());
-                log.debug("同步点赞关系到Redis: postId={}, userId={}", postId, userId);
-                return true;
-            }
+    @Override
+    public CursorPageResponse<PostLikerView> pageLikers(Integer postId, String cursor, int size) {
+        int safeSize = Math.max(Math.min(size, 50), 1);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        // 多取一条用于判断是否还有下一页
+        List<PostLike> rows = postLikeRepo.selectLikersPage(
+                postId,
+                after != null ? after.createdAt() : null,
+                after != null ? after.id() : null,
+                safeSize + 1
+        );
+        boolean hasMore = rows.size() > safeSize;
+        List<PostLike> page = hasMore ? rows.subList(0, safeSize) : rows;
+
+        Map<Integer, Author> cards = userCardService.getUserCards(
+                page.stream().map(PostLike::getUserId).toList());
+        List<PostLikerView> records = page.stream()
+                .map(like -> new PostLikerView(
+                        cards.getOrDefault(like.getUserId(), new Author(like.getUserId(), null, null, null)),
+                        like.getCreatedAt()))
+                .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            PostLike last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return CursorPageResponse.of(records, nextCursor);
+    }
 
-            return false;
-        } catch (Exception e) {
-            log.warn("Redis查询失败，回退到数据库: postId={}, userId={}", postId, userId, e);
-            return postLikeRepo.findByPostAndUser(postId, userId) != null;
+    @Override
+    public long getLikedPostsVersion(Integer userId) {
+        return redisGuard.execute("post.liked.version", () -> {
+            Object version = redisTemplate.opsForValue().get(LIKED_VERSION_KEY_PREFIX + userId);
+            return version instanceof Number number ? number.longValue() : 0L;
+        }, () -> -1L);
+    }
+
+    /**
+     * 点赞关系变化后递增版本号，使这些用户"我赞过的"分页缓存整体失效（一个 pipeline）
+     */
+    @Override
+    public void bumpLikedPostsVersions(Collection<Integer> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        boolean bumped = redisGuard.run("post.liked.bump", () -> redisBatch.executeEach("post.liked.bump", userIds,
+                (ops, userId) -> ops.opsForValue().increment(LIKED_VERSION_KEY_PREFIX + userId)));
+        if (!bumped) {
+            // 由事件消费者稍后重试，期间这些用户的分页缓存最多在 TTL（1 分钟）内保持旧数据
+            throw new IllegalStateException("递增点赞列表版本号失败: users=" + userIds.size());
         }
     }
 }
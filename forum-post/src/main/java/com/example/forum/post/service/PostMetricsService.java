@@ -0,0 +1,80 @@
+package com.example.forum.post.service;
+
+import com.example.forum.common.cache.PostMetricsKeys;
+import com.example.forum.post.entity.Post;
+import com.example.forum.post.vo.DrainedDeltas;
+import com.example.forum.post.vo.PostMetrics;
+import com.example.forum.post.vo.PostMetricsDelta;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 帖子计数服务
+ * 计数 = 数据库基准值（post_stats）+ Redis 增量（post:metrics:{postId}）
+ */
+public interface PostMetricsService {
+
+    String FIELD_VIEWS = "views";
+    String FIELD_LIKES = "likes";
+    String FIELD_COMMENTS = "comments";
+
+    /**
+     * 有待持久化增量的帖子ID集合
+     */
+    String DIRTY_SET_KEY = PostMetricsKeys.DIRTY_SET;
+
+    /**
+     * 原子递增 Redis 中的计数增量，失败时仅记录日志
+     * @param postId 帖子ID
+     * @param field 字段名（views/likes/comments）
+     * @param delta 增量
+     */
+    default void increment(Integer postId, String field, long delta) {
+        increment(postId, null, field, delta);
+    }
+
+    /**
+     * 原子递增 Redis 中的计数增量并写入事件日志，失败时仅记录日志
+     * @param postId 帖子ID
+     * @param userId 触发事件的用户ID，匿名为 null
+     * @param field 字段名（views/likes/comments）
+     * @param delta 增量
+     */
+    void increment(Integer postId, Integer userId, String field, long delta);
+
+    /**
+     * 计算单个帖子的最终计数
+     */
+    PostMetrics resolve(Post post);
+
+    /**
+     * 批量计算帖子的最终计数，所有帖子的 Redis 增量在一次 pipeline 中读取
+     * @return postId -> 计数
+     */
+    Map<Integer, PostMetrics> resolveAll(Collection<Post> posts);
+
+    /**
+     * 读取帖子尚未持久化的 Redis 增量（含热点分片），Redis 不可用时抛出异常
+     * @return postId -> 增量，没有增量的帖子不在结果中
+     */
+    Map<Integer, PostMetricsDelta> pendingDeltas(Collection<Integer> postIds);
+
+    /**
+     * 取出一批待持久化的增量并清零对应的 Redis 计数
+     * @param batchSize 最多处理的帖子数
+     * @return 非空增量列表，以及这一批是否取空了脏集合
+     */
+    DrainedDeltas drainDeltas(int batchSize);
+
+    /**
+     * 持久化失败时把增量加回 Redis，等待下次重试；已删除帖子的增量不再放回
+     */
+    void restoreDeltas(List<PostMetricsDelta> deltas);
+
+    /**
+     * 帖子删除后丢弃其尚未持久化的 Redis 增量（含热点分片）并移出脏集合
+     */
+    void discardDeltas(Collection<Integer> postIds);
+}
@@ -0,0 +1,315 @@
+package com.example.forum.post.service;
+
+import com.example.forum.common.cache.PostCounterWal;
+import com.example.forum.common.cache.PostMetricsKeys;
+import com.example.forum.common.redis.RedisBatch;
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.post.entity.Post;
+import com.example.forum.post.eventlog.PostEventLog;
+import com.example.forum.post.eventlog.PostEventType;
+import com.example.forum.post.repo.PostRepo;
+import com.example.forum.post.vo.DrainedDeltas;
+import com.example.forum.post.vo.PostMetrics;
+import com.example.forum.post.vo.PostMetricsDelta;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+import java.util.*;
+
+/**
+ * 帖子计数服务实现
+ *
+ * Redis Hash结构：post:metrics:{postId} -> {views: +5, likes: +2, comments: +3}
+ * 热点帖子的增量会分散到多个分片，见 {@link HotCounterSharding}
+ * 策略：数据库值（基准） + Redis增量 = 最终显示值
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PostMetricsServiceImpl implements PostMetricsService {
+
+    private static final List<Object> METRIC_FIELDS = List.of(FIELD_VIEWS, FIELD_LIKES, FIELD_COMMENTS);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final HotCounterSharding hotCounterSharding;
+    private final DailyStatsBuffer dailyStatsBuffer;
+    private final PostEventLog postEventLog;
+    private final RedisGuard redisGuard;
+    private final RedisBatch redisBatch;
+    private final PostCounterWal postCounterWal;
+    private final PostRepo postRepo;
+
+    @Override
+    public void increment(Integer postId, Integer userId, String field, long delta) {
+        postEventLog.append(PostEventType.fromField(field), postId, userId, delta);
+        dailyStatsBuffer.record(postId, field, delta);
+        boolean written = redisGuard.run("post.metrics.increment", () -> {
+            String baseKey = metricsKey(postId);
+            String key = hotCounterSharding.routeIncrement(postId, baseKey);
+            if (!key.equals(baseKey)) {
+                // 分片递增不逐次登记脏集合（否则热点仍集中在脏集合所在节点），由 HotCounterSharding 定期登记
+                redisTemplate.opsForHash().increment(key, field, delta);
+                return;
+            }
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    ops.opsForHash().increment(key, field, delta);
+                    ops.opsForSet().add(DIRTY_SET_KEY, postId);
+                    return null;
+                }
+            });
+        });
+        if (written) {
+            log.debug("增量更新Redis计数: postId={}, field={}, delta={}", postId, field, delta);
+        } else {
+            // 熔断或写入失败时记入本地 WAL，Redis 恢复后重放；
+            // 命令已在服务端执行但响应超时的情况下会多计一次
+            postCounterWal.append(postId, field, delta);
+        }
+    }
+
+    @Override
+    public PostMetrics resolve(Post post) {
+        if (post == null || post.getId() == null) {
+            return PostMetrics.ZERO;
+        }
+        return resolveAll(List.of(post)).getOrDefault(post.getId(), PostMetrics.ZERO);
+    }
+
+    @Override
+    public Map<Integer, PostMetrics> resolveAll(Collection<Post> posts) {
+        if (CollectionUtils.isEmpty(posts)) {
+            return Collections.emptyMap();
+        }
+        List<Post> withIds = posts.stream()
+                .filter(post -> post != null && post.getId() != null)
+                .toList();
+        Map<Integer, long[]> deltas = readDeltas(withIds);
+
+        Map<Integer, PostMetrics> result = new HashMap<>(withIds.size() * 2);
+        for (Post post : withIds) {
+            long[] fieldDeltas = deltas.get(post.getId());
+            result.put(post.getId(), new PostMetrics(
+                    combine(post.getViewCount(), fieldDeltas, 0),
+                    combine(post.getLikeCount(), fieldDeltas, 1),
+                    combine(post.getCommentCount(), fieldDeltas, 2)
+            ));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Integer, PostMetricsDelta> pendingDeltas(Collection<Integer> postIds) {
+        if (CollectionUtils.isEmpty(postIds)) {
+            return Collections.emptyMap();
+        }
+        Map<Integer, long[]> remote = redisGuard.execute("post.metrics.pending",
+                () -> fetchDeltas(new ArrayList<>(postIds)),
+                () -> {
+                    throw new IllegalStateException("Redis 不可用");
+                });
+        Map<Integer, long[]> sums = mergeLocal(remote, postIds);
+        Map<Integer, PostMetricsDelta> result = new HashMap<>(sums.size() * 2);
+        sums.forEach((postId, sum) -> result.put(postId, new PostMetricsDelta(postId, sum[0], sum[1], sum[2])));
+        return result;
+    }
+
+    private Map<Integer, long[]> readDeltas(List<Post> posts) {
+        if (posts.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Integer> postIds = posts.stream().map(Post::getId).toList();
+        // Redis 不可用时只使用数据库值与本地增量
+        Map<Integer, long[]> remote = redisGuard.execute("post.metrics.read",
+                () -> fetchDeltas(postIds), HashMap::new);
+        return mergeLocal(remote, postIds);
+    }
+
+    /**
+     * 叠加本地 WAL 中尚未重放的增量
+     */
+    private Map<Integer, long[]> mergeLocal(Map<Integer, long[]> deltas, Collection<Integer> postIds) {
+        postCounterWal.pending(postIds).forEach((postId, local) -> deltas.merge(postId, local, (a, b) -> {
+            long[] sum = a.clone();
+            for (int i = 0; i < sum.length; i++) {
+                sum[i] += b[i];
+            }
+            return sum;
+        }));
+        return deltas;
+    }
+
+    /**
+     * 一次 pipeline 读取所有帖子的增量：每个帖子一个基准 key 的 HMGET，
+     * 处于分片模式的帖子额外读取所有分片，最后按帖子求和
+     */
+    private Map<Integer, long[]> fetchDeltas(List<Integer> postIds) {
+        List<Integer> owners = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        for (Integer postId : postIds) {
+            owners.add(postId);
+            keys.add(metricsKey(postId));
+            if (hotCounterSharding.isSharded(postId)) {
+                for (String shardKey : hotCounterSharding.shardKeys(postId)) {
+                    owners.add(postId);
+                    keys.add(shardKey);
+                }
+            }
+        }
+
+        List<Object> replies = redisBatch.executeEach("post.metrics.read", keys,
+                (ops, key) -> ops.opsForHash().multiGet(key, METRIC_FIELDS));
+
+        Map<Integer, long[]> sums = new HashMap<>(postIds.size() * 2);
+        for (int i = 0; i < owners.size() && i < replies.size(); i++) {
+            if (!(replies.get(i) instanceof List<?> values)) {
+                continue;
+            }
+            long[] sum = sums.computeIfAbsent(owners.get(i), id -> new long[METRIC_FIELDS.size()]);
+            for (int f = 0; f < sum.length && f < values.size(); f++) {
+                sum[f] += parseDelta(values.get(f));
+            }
+        }
+        return sums;
+    }
+
+    private long parseDelta(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+            log.warn("Redis计数增量格式错误: value={}", value);
+            return 0;
+        }
+    }
+
+    private int combine(Integer dbValue, long[] fieldDeltas, int index) {
+        int baseValue = Optional.ofNullable(dbValue).orElse(0);
+        if (fieldDeltas == null) {
+            return baseValue;
+        }
+        return (int) Math.max(0, baseValue + fieldDeltas[index]);
+    }
+
+    @Override
+    public DrainedDeltas drainDeltas(int batchSize) {
+        List<Object> ids = redisTemplate.opsForSet().pop(DIRTY_SET_KEY, batchSize);
+        if (CollectionUtils.isEmpty(ids)) {
+            return new DrainedDeltas(Collections.emptyList(), true);
+        }
+        boolean emptied = ids.size() < batchSize;
+        List<PostMetricsDelta> deltas = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            Integer postId = Integer.valueOf(id.toString());
+            // 热点帖子的分片与基准 key 一样逐个原子取出，由持久化失败时的回写兜底，不在 Redis 中跨 key 搬运
+            List<String> keys = new ArrayList<>();
+            keys.add(metricsKey(postId));
+            if (hotCounterSharding.isSharded(postId)) {
+                keys.addAll(hotCounterSharding.shardKeys(postId));
+            }
+            Map<String, Long> fields = new HashMap<>();
+            boolean failed = false;
+            for (String key : keys) {
+                try {
+                    hotCounterSharding.drainHash(key).forEach((field, value) -> fields.merge(field, value, Long::sum));
+                } catch (Exception e) {
+                    // 取出失败的 key 增量仍在 Redis 中，放回脏集合等待下次
+                    failed = true;
+                    log.warn("取出Redis计数增量失败: postId={}, key={}, error={}", postId, key, e.getMessage());
+                }
+            }
+            if (failed) {
+                redisTemplate.opsForSet().add(DIRTY_SET_KEY, postId);
+                emptied = false;
+            }
+            PostMetricsDelta delta = new PostMetricsDelta(
+                    postId,
+                    fields.getOrDefault(FIELD_VIEWS, 0L),
+                    fields.getOrDefault(FIELD_LIKES, 0L),
+                    fields.getOrDefault(FIELD_COMMENTS, 0L));
+            if (!delta.isEmpty()) {
+                deltas.add(delta);
+            }
+        }
+        return new DrainedDeltas(deltas, emptied);
+    }
+
+    @Override
+    public void restoreDeltas(List<PostMetricsDelta> deltas) {
+        deltas = withoutDeletedPosts(deltas);
+        if (CollectionUtils.isEmpty(deltas)) {
+            return;
+        }
+        RedisBatch.Batch batch = redisBatch.batch("post.metrics.restore");
+        for (PostMetricsDelta delta : deltas) {
+            String key = metricsKey(delta.postId());
+            if (delta.views() != 0) {
+                batch.add(ops -> ops.opsForHash().increment(key, FIELD_VIEWS, delta.views()));
+            }
+            if (delta.likes() != 0) {
+                batch.add(ops -> ops.opsForHash().increment(key, FIELD_LIKES, delta.likes()));
+            }
+            if (delta.comments() != 0) {
+                batch.add(ops -> ops.opsForHash().increment(key, FIELD_COMMENTS, delta.comments()));
+            }
+            batch.add(ops -> ops.opsForSet().add(DIRTY_SET_KEY, delta.postId()));
+        }
+        try {
+            batch.execute();
+        } catch (Exception e) {
+            log.error("回写Redis计数增量失败，未写入的增量丢失: deltas={}", deltas, e);
+        }
+    }
+
+    @Override
+    public void discardDeltas(Collection<Integer> postIds) {
+        if (CollectionUtils.isEmpty(postIds)) {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        for (Integer postId : postIds) {
+            keys.add(metricsKey(postId));
+            if (hotCounterSharding.isSharded(postId)) {
+                keys.addAll(hotCounterSharding.shardKeys(postId));
+            }
+        }
+        // 未能移出脏集合的帖子由持久化任务取出后丢弃（post_stats 写入与 posts 内连接）
+        redisGuard.run("post.metrics.discard", () -> redisTemplate.opsForSet().remove(DIRTY_SET_KEY, postIds.toArray()));
+        redisGuard.deleteOrDefer("post.metrics.discard", keys);
+    }
+
+    /**
+     * 去掉已删除帖子的增量；查询失败（如数据库不可用）时原样返回，持久化时仍会丢弃
+     */
+    private List<PostMetricsDelta> withoutDeletedPosts(List<PostMetricsDelta> deltas) {
+        if (CollectionUtils.isEmpty(deltas)) {
+            return deltas;
+        }
+        Set<Integer> existing;
+        try {
+            existing = new HashSet<>(postRepo.selectExistingIds(deltas.stream().map(PostMetricsDelta::postId).toList()));
+        } catch (Exception e) {
+            log.warn("查询帖子是否存在失败，增量全部放回: error={}", e.getMessage());
+            return deltas;
+        }
+        List<PostMetricsDelta> live = deltas.stream().filter(delta -> existing.contains(delta.postId())).toList();
+        if (live.size() < deltas.size()) {
+            log.info("丢弃已删除帖子的计数增量: posts={}", deltas.size() - live.size());
+        }
+        return live;
+    }
+
+    private String metricsKey(Integer postId) {
+        return PostMetricsKeys.metrics(postId);
+    }
+}
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.example.forum.post.dto.PostCreateRequest;
 import com.example.forum.post.entity.Post;
+import com.example.forum.common.vo.CursorPageResponse;
 import com.example.forum.common.vo.PageResponse;
 import com.example.forum.post.vo.AdminPostDetailView;
 import com.example.forum.post.vo.AdminPostSummary;
@@ -13,6 +14,7 @@ import com.example.forum.post.vo.PostListResponse;
 import com.example.forum.post.vo.PostSummaryView;
 import com.example.forum.post.vo.TrendingPostView;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PostService extends IService<Post> {
@@ -27,10 +29,31 @@ public interface PostService extends IService<Post> {
 
     List<TrendingPostView> getTrendingPostViews(int limit);
 
+    /**
+     * 按最新计数刷新指定帖子在 post:trending 中的热度
+     */
+    void refreshTrending(Collection<Integer> postIds);
+
+    /**
+     * 热度最高的帖子ID，post:trending 为空时按数据库中的热度查询
+     */
+    List<Integer> getHotPostIds(int limit);
+
+    /**
+     * 加载帖子详情缓存（不计浏览量），用于启动预热
+     * @return 帖子不存在时返回 false
+     */
+    boolean preloadPostDetail(Integer postId);
+
     PostDetailView getPostDetail(Integer postId, Integer currentUserId);
 
     PageResponse<PostSummaryView> pageMyPosts(Integer userId, String status, int page, int size);
 
+    /**
+     * 按点赞时间倒序分页查询用户赞过的帖子（键集分页）
+     */
+    CursorPageResponse<PostSummaryView> pageLikedPosts(Integer userId, String cursor, int size);
+
     Post createPost(PostCreateRequest request, Integer authorId);
 
     boolean likePost(Integer postId, Integer userId);
@@ -11,24 +11,36 @@ import com.example.forum.post.client.CommentClient;
 import com.example.forum.post.dto.PostCreateRequest;
 import com.example.forum.post.entity.Author;
 import com.example.forum.post.entity.Post;
+import com.example.forum.post.entity.PostLike;
+import com.example.forum.post.job.ScheduledPostPublisher;
 import com.example.forum.post.repo.PostLikeRepo;
 import com.example.forum.post.repo.PostRepo;
+import com.example.forum.common.cache.IdExistenceFilter;
+import com.example.forum.common.cache.StaleWhileRevalidateCacheManager;
+import com.example.forum.common.event.DomainEvent;
+import com.example.forum.common.event.DomainEventPublisher;
 import com.example.forum.common.exception.ApiException;
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.common.timer.DelayedJobQueue;
+import com.example.forum.common.vo.CursorPageResponse;
+import com.example.forum.common.vo.KeysetCursor;
 import com.example.forum.common.vo.PageResponse;
 import com.example.forum.post.vo.AdminPostDetailView;
 import com.example.forum.post.vo.AdminPostSummary;
 import com.example.forum.post.vo.CategoryResponse;
 import com.example.forum.post.vo.PostDetailView;
+import com.example.forum.post.vo.PostMetrics;
 import com.example.forum.post.vo.PostListResponse;
 import com.example.forum.post.vo.PostSummaryView;
 import com.example.forum.post.vo.TrendingPostView;
 import com.example.forum.common.dto.Result;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,6 +48,7 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -50,25 +63,58 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
     private final CommentClient commentClient;
     private final CategoryService categoryService;
     private final PostLikeService postLikeService;
+    private final PostMetricsService postMetricsService;
+    private final LikeToggleCoalescer likeToggleCoalescer;
+    private final CacheManager cacheManager;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisGuard redisGuard;
+    private final IdExistenceFilter postExistenceFilter;
+    private final DomainEventPublisher domainEventPublisher;
+    private final DelayedJobQueue delayedJobQueue;
+
+    private static final String LIKED_POSTS_CACHE = "posts:liked";
+    private static final String DETAIL_CACHE = "posts:detail";
+    private static final String LIST_CACHE = "posts:list";
+    private static final String TRENDING_CACHE = "posts:trending";
+    private static final String TRENDING_KEY = "post:trending";
+    // 不足一分钟的定时发布按立即发布处理
+    private static final long MIN_SCHEDULE_LEAD_MINUTES = 1;
 
     @Override
     public Page<Post> pageWithAuthorName(Integer current, Integer size,
                                          String status, String q, Integer categoryId) {
         Page<Post> page = Page.of(Math.max(1, current), Math.min(size, 100));
-        return baseMapper.selectPageWithAuthorAndCategory(page, null, status, q, categoryId);
+        return baseMapper.selectPageWithAuthorAndCategory(page, null, status, q, categoryId, true);
     }
 
     @Override
     public PostListResponse pageWithSummary(Integer current, Integer pageSize, Wrapper<Post> wrapper,
                                             String status, String q, Integer categoryId, Integer currentUserId) {
+        // 缓存不含当前用户相关字段，所有用户共享同一份；点赞、关注状态每次单独查询
+        String cacheKey = current + ":" + pageSize + ":" + Objects.toString(status, "") + ":"
+                + Objects.toString(categoryId, "") + ":" + Objects.toString(q, "");
+        PostListResponse response = StaleWhileRevalidateCacheManager.load(cacheManager.getCache(LIST_CACHE), cacheKey,
+                () -> loadPostPage(current, pageSize, status, q, categoryId));
+        if (currentUserId == null || CollectionUtils.isEmpty(response.getRecords())) {
+            return response;
+        }
+        return new PostListResponse(
+                applyViewerState(response.getRecords(), currentUserId),
+                response.getTotal(),
+                response.getExtra(),
+                response.getPages(),
+                response.getEnd()
+        );
+    }
+
+    private PostListResponse loadPostPage(Integer current, Integer pageSize, String status, String q, Integer categoryId) {
         Page<Post> pageRequest = Page.of(current, pageSize);
-        Page<Post> pageResult = baseMapper.selectPageSummaryWithAuthor(pageRequest, null, status, q, categoryId);
+        Page<Post> pageResult = baseMapper.selectPageSummaryWithAuthor(pageRequest, null, status, q, categoryId, true);
         log.debug("Page query completed - total records: {}, current page: {}/{}",
                 pageResult.getTotal(), pageResult.getCurrent(), pageResult.getPages());
 
         List<Post> postRecords = pageResult.getRecords();
-        List<PostSummaryView> records = enrichSummaryViews(postRecords, currentUserId);
+        List<PostSummaryView> records = enrichSummaryViews(postRecords, null);
 
         return new PostListResponse(
                 records,
@@ -93,7 +139,8 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
                 null,
                 normalizedStatus,
                 trimmedKeyword,
-                categoryId
+                categoryId,
+                false
         );
         List<AdminPostSummary> records = pageResult.getRecords()
                 .stream()
@@ -110,17 +157,24 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public AdminPostSummary approvePost(Integer postId) {
         return moderatePostStatus(postId, "approved");
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public AdminPostSummary rejectPost(Integer postId) {
         return moderatePostStatus(postId, "rejected");
     }
 
     @Override
     public List<TrendingPostView> getTrendingPostViews(int limit) {
+        return StaleWhileRevalidateCacheManager.load(cacheManager.getCache(TRENDING_CACHE), limit,
+                () -> loadTrendingPostViews(limit));
+    }
+
+    private List<TrendingPostView> loadTrendingPostViews(int limit) {
         List<TrendingPostView> cachedTrending = getTrendingFromRedis(limit);
         if (!cachedTrending.isEmpty()) {
             log.debug("从 Redis 缓存返回热门帖子，数量: {}", cachedTrending.size());
@@ -128,11 +182,7 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
         }
 
         log.debug("Redis 缓存为空，从数据库查询热门帖子");
-        LambdaQueryWrapper<Post> wrapper = Wrappers.lambdaQuery(Post.class)
-                .eq(Post::getStatus, "approved")
-                .orderByDesc(Post::getHeat)
-                .last("LIMIT " + limit);
-        List<Post> posts = this.list(wrapper);
+        List<Post> posts = baseMapper.selectTrending(limit);
 
         syncTrendingPostsToRedis(posts);
 
@@ -147,23 +197,42 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
 
     @Override
     public PostDetailView getPostDetail(Integer postId, Integer currentUserId) {
-        incrementViewCount(postId);
-        return getPostDetailCached(postId, currentUserId);
+        if (!postExistenceFilter.mightExist(postId)) {
+            throw new NoSuchElementException("帖子不存在");
+        }
+        PostDetailView detail;
+        try {
+            // 缓存不含当前用户相关字段，所有用户共享同一份；点赞、关注状态每次单独查询
+            detail = StaleWhileRevalidateCacheManager.load(cacheManager.getCache(DETAIL_CACHE), postId,
+                    () -> loadPostDetail(postId));
+        } catch (NoSuchElementException e) {
+            postExistenceFilter.markMissing(postId);
+            throw e;
+        }
+        Integer authorId = detail.getAuthor() != null ? detail.getAuthor().getId() : null;
+        // 定时发布的帖子在发布前只对作者可见（帖子存在，不写入负缓存）
+        if (ScheduledPostPublisher.SCHEDULED_STATUS.equals(detail.getStatus())
+                && (currentUserId == null || !currentUserId.equals(authorId))) {
+            throw new NoSuchElementException("帖子不存在");
+        }
+        incrementViewCount(postId, currentUserId);
+        if (currentUserId == null) {
+            return detail;
+        }
+        return detail.toBuilder()
+                .liked(isPostLikedByUser(postId, currentUserId))
+                .followed(isAuthorFollowedBy(authorId, currentUserId))
+                .build();
     }
 
-    @Cacheable(cacheNames = "posts:detail", key = "#postId + ':' + (#currentUserId != null ? #currentUserId : 'anon')")
-    public PostDetailView getPostDetailCached(Integer postId, Integer currentUserId) {
+    private PostDetailView loadPostDetail(Integer postId) {
         Post post = baseMapper.selectByIdWithAuthor(postId);
         if (post == null) {
             throw new NoSuchElementException("帖子不存在");
         }
-        boolean liked = currentUserId != null && isPostLikedByUser(postId, currentUserId);
-        boolean followed = currentUserId != null && isAuthorFollowedBy(post.getAuthorId(), currentUserId);
         List<String> images = Optional.ofNullable(post.getImages()).orElse(Collections.emptyList());
 
-        int viewCount = getMetricFromRedis(postId, "views", post.getViewCount());
-        int likeCount = getMetricFromRedis(postId, "likes", post.getLikeCount());
-        int commentCount = getMetricFromRedis(postId, "comments", post.getCommentCount());
+        PostMetrics metrics = postMetricsService.resolve(post);
 
         Author author = new Author(
                 post.getAuthorId(),
@@ -189,12 +258,12 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
                 .images(images)
                 .author(author)
                 .category(category)
-                .likeCount(likeCount)
-                .likes(likeCount)
-                .liked(liked)
-                .commentCount(commentCount)
-                .viewCount(viewCount)
-                .followed(followed)
+                .likeCount(metrics.likes())
+                .likes(metrics.likes())
+                .liked(false)
+                .commentCount(metrics.comments())
+                .viewCount(metrics.views())
+                .followed(false)
                 .pinned(post.getPinned())
                 .status(post.getStatus())
                 .createdAt(post.getCreatedAt())
@@ -207,10 +276,11 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
         Page<Post> pageReq = Page.of(Math.max(page, 1), Math.min(size, 100));
         Integer authorId = userId;
         String normalizedStatus = StringUtils.hasText(status) ? status : null;
-        Page<Post> pageResult = baseMapper.selectPageSummaryWithAuthor(pageReq, authorId, normalizedStatus, null, null);
+        Page<Post> pageResult = baseMapper.selectPageSummaryWithAuthor(pageReq, authorId, normalizedStatus, null, null, false);
+        Map<Integer, PostMetrics> metrics = postMetricsService.resolveAll(pageResult.getRecords());
         List<PostSummaryView> records = pageResult.getRecords()
                 .stream()
-                .map(post -> toPostSummaryView(post, false, false))
+                .map(post -> toPostSummaryView(post, metrics.get(post.getId()), false, false))
                 .toList();
         return PageResponse.of(
                 records,
@@ -222,9 +292,14 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
         );
     }
 
+    /**
+     * posts:list 由 PostCacheEventHandler 按 POST_CREATED 事件失效
+     *
+     * 指定 publishAt 时帖子以 scheduled 状态保存并提交定时发布任务（见 ScheduledPostPublisher），
+     * 任务写入失败时整体回滚，避免帖子停留在永远不会发布的 scheduled 状态。
+     */
     @Override
     @Transactional(rollbackFor = Exception.class)
-    @CacheEvict(cacheNames = "posts:list", allEntries = true)
     public Post createPost(PostCreateRequest request, Integer authorId) {
         if (authorId != null) {
             Result<Boolean> existsResult = userClient.checkUserExists(authorId);
@@ -232,6 +307,13 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
                 throw new NoSuchElementException("用户不存在");
             }
         }
+        LocalDateTime now = LocalDateTime.now();
+        String status = determineStatus(request.getStatus());
+        LocalDateTime publishAt = request.getPublishAt();
+        boolean scheduled = publishAt != null && publishAt.isAfter(now.plusMinutes(MIN_SCHEDULE_LEAD_MINUTES));
+        if (scheduled && "draft".equals(status)) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "草稿不能定时发布");
+        }
         Post post = new Post()
                 .setTitle(request.getTitle())
                 .setSubtitle(request.getSubtitle())
@@ -239,29 +321,41 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
                 .setCategoryId(request.getCategoryId())
                 .setImages(Optional.ofNullable(request.getImages()).orElse(Collections.emptyList()))
                 .setAuthorId(authorId)
-                .setStatus(determineStatus(request.getStatus()))
+                .setStatus(scheduled ? ScheduledPostPublisher.SCHEDULED_STATUS : status)
                 .setPinned(Boolean.TRUE.equals(request.getPinned()))
                 .setViewCount(0)
                 .setLikeCount(0)
                 .setCommentCount(0)
-                .setCreatedAt(LocalDateTime.now())
-                .setUpdatedAt(LocalDateTime.now());
+                .setCreatedAt(now)
+                .setUpdatedAt(now);
         this.save(post);
+        postExistenceFilter.onInsert(post.getId());
+        if (scheduled && !delayedJobQueue.schedule(ScheduledPostPublisher.JOB_TYPE,
+                ScheduledPostPublisher.payload(post.getId(), status),
+                publishAt.atZone(ZoneId.systemDefault()).toInstant())) {
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "定时发布暂不可用，请稍后重试");
+        }
+        domainEventPublisher.publish(DomainEvent.postCreated(post.getId(), authorId, post.getStatus()));
         return post;
     }
 
     @Override
     public boolean likePost(Integer postId, Integer userId) {
-        return postLikeService.likePost(postId, userId);
+        return likeToggleCoalescer.submit(postId, userId, true);
     }
 
     @Override
     public boolean unlikePost(Integer postId, Integer userId) {
-        return postLikeService.unlikePost(postId, userId);
+        return likeToggleCoalescer.submit(postId, userId, false);
     }
 
     @Override
     public boolean isPostLikedByUser(Integer postId, Integer userId) {
+        // 防抖窗口内尚未落库的状态优先
+        Boolean pendingLiked = likeToggleCoalescer.pendingState(postId, userId);
+        if (pendingLiked != null) {
+            return pendingLiked;
+        }
         return postLikeService.isPostLikedByUser(postId, userId);
     }
 
@@ -306,11 +400,12 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
         );
     }
 
+    /**
+     * 详情缓存同步失效（删除后立即返回 404），posts:list 由 PostCacheEventHandler 按 POST_DELETED 事件失效
+     */
     @Override
-    @Caching(evict = {
-            @CacheEvict(cacheNames = "posts:detail", allEntries = true),
-            @CacheEvict(cacheNames = "posts:list", allEntries = true)
-    })
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = "posts:detail", key = "#postId")
     public void deletePostAsAdmin(Integer postId) {
         if (postId == null) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Post id is required");
@@ -323,24 +418,84 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
         if (!removed) {
             throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete post");
         }
+        postExistenceFilter.onDelete(postId);
+        domainEventPublisher.publish(DomainEvent.postDeleted(postId, existing.getAuthorId()));
         log.info("Admin deleted post {}", postId);
     }
 
+    @Override
+    public CursorPageResponse<PostSummaryView> pageLikedPosts(Integer userId, String cursor, int size) {
+        int safeSize = Math.max(Math.min(size, 50), 1);
+        long version = postLikeService.getLikedPostsVersion(userId);
+        Cache cache = version >= 0 ? cacheManager.getCache(LIKED_POSTS_CACHE) : null;
+        String cacheKey = userId + ":" + version + ":" + Objects.toString(cursor, "") + ":" + safeSize;
+        if (cache != null) {
+            CursorPageResponse<PostSummaryView> cached = getCachedLikedPage(cache, cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        // 多取一条用于判断是否还有下一页
+        List<PostLike> rows = postLikeRepo.selectLikedPage(
+                userId,
+                after != null ? after.createdAt() : null,
+                after != null ? after.id() : null,
+                safeSize + 1
+        );
+        boolean hasMore = rows.size() > safeSize;
+        List<PostLike> page = hasMore ? rows.subList(0, safeSize) : rows;
+
+        List<Post> posts = Collections.emptyList();
+        if (!page.isEmpty()) {
+            List<Integer> postIds = page.stream().map(PostLike::getPostId).toList();
+            Map<Integer, Post> postMap = baseMapper.selectSummariesByIds(postIds, "approved")
+                    .stream()
+                    .collect(Collectors.toMap(Post::getId, post -> post, (a, b) -> a));
+            // 保持点赞时间顺序，已删除或未通过审核的帖子直接跳过
+            posts = postIds.stream()
+                    .map(postMap::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            PostLike last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        CursorPageResponse<PostSummaryView> response =
+                CursorPageResponse.of(enrichSummaryViews(posts, userId), nextCursor);
+
+        if (cache != null) {
+            try {
+                cache.put(cacheKey, response);
+            } catch (Exception e) {
+                log.warn("写入点赞列表缓存失败: userId={}", userId, e);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * 读取缓存的点赞列表；缓存中只会写入 CursorPageResponse<PostSummaryView>，其他类型的值视为未命中
+     */
+    @SuppressWarnings("unchecked")
+    private static CursorPageResponse<PostSummaryView> getCachedLikedPage(Cache cache, String cacheKey) {
+        Cache.ValueWrapper wrapper = cache.get(cacheKey);
+        return wrapper != null && wrapper.get() instanceof CursorPageResponse<?> page
+                ? (CursorPageResponse<PostSummaryView>) page
+                : null;
+    }
+
     /**
      * 递增帖子浏览量（仅更新Redis增量，不更新MySQL）
      * 
-     * 策略：使用 INCR 原子操作更新 Redis 增量，定时任务每5分钟持久化到 MySQL
      * Redis Hash: post:metrics:{postId} -> {views: 增量值}
      */
-    private void incrementViewCount(Integer postId) {
-        try {
-            String metricsKey = "post:metrics:" + postId;
-            // 使用原子 INCR 操作
-            redisTemplate.opsForHash().increment(metricsKey, "views", 1);
-            log.debug("增量递增帖子浏览量: postId={}, delta=+1 (MySQL将由定时任务同步)", postId);
-        } catch (Exception e) {
-            log.warn("更新浏览量失败: postId={}, error={}", postId, e.getMessage());
-        }
+    private void incrementViewCount(Integer postId, Integer userId) {
+        postMetricsService.increment(postId, userId, PostMetricsService.FIELD_VIEWS, 1);
     }
 
     private boolean isAuthorFollowedBy(Integer authorId, Integer followerId) {
@@ -361,20 +516,29 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
             return Collections.emptyList();
         }
 
-        if (currentUserId == null) {
-            return posts.stream()
-                    .map(post -> toPostSummaryView(post, false, false))
-                    .toList();
+        Map<Integer, PostMetrics> metrics = postMetricsService.resolveAll(posts);
+        List<PostSummaryView> views = posts.stream()
+                .map(post -> toPostSummaryView(post, metrics.get(post.getId()), false, false))
+                .toList();
+        return applyViewerState(views, currentUserId);
+    }
+
+    /**
+     * 填充当前用户的点赞、关注状态（返回副本，不修改传入的视图，缓存中的列表可以安全复用）
+     */
+    private List<PostSummaryView> applyViewerState(List<PostSummaryView> views, Integer currentUserId) {
+        if (currentUserId == null || CollectionUtils.isEmpty(views)) {
+            return views;
         }
 
-        List<Integer> postIds = posts.stream()
-                .map(Post::getId)
+        List<Integer> postIds = views.stream()
+                .map(view -> parseId(view.getId()))
                 .filter(Objects::nonNull)
                 .distinct()
                 .toList();
 
-        List<Integer> authorIds = posts.stream()
-                .map(Post::getAuthorId)
+        List<Integer> authorIds = views.stream()
+                .map(view -> parseId(view.getAuthorId()))
                 .filter(Objects::nonNull)
                 .distinct()
                 .toList();
@@ -383,19 +547,6 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
                 ? Collections.emptySet()
                 : new HashSet<>(postLikeRepo.findLikedPostIds(currentUserId, postIds));
 
-        // 同步批量查询的点赞关系到Redis缓存
-        if (!likedPostIds.isEmpty()) {
-            try {
-                for (Integer postId : likedPostIds) {
-                    String likesKey = "post:likes:" + postId;
-                    redisTemplate.opsForSet().add(likesKey, currentUserId.toString());
-                }
-                log.debug("批量查询点赞关系，已同步到Redis: userId={}, count={}", currentUserId, likedPostIds.size());
-            } catch (Exception e) {
-                log.warn("同步点赞关系到Redis失败: userId={}", currentUserId, e);
-            }
-        }
-
         Set<Integer> followedAuthorIds = Collections.emptySet();
         if (!authorIds.isEmpty()) {
             try {
@@ -410,25 +561,31 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
         
         final Set<Integer> finalFollowedAuthorIds = followedAuthorIds;
 
-        return posts.stream()
-                .map(post -> {
-                    boolean liked = post.getId() != null && likedPostIds.contains(post.getId());
-                    boolean following = post.getAuthorId() != null && finalFollowedAuthorIds.contains(post.getAuthorId());
-                    return toPostSummaryView(post, liked, following);
+        return views.stream()
+                .map(view -> {
+                    Integer postId = parseId(view.getId());
+                    Integer authorId = parseId(view.getAuthorId());
+                    Boolean pendingLiked = postId != null ? likeToggleCoalescer.pendingState(postId, currentUserId) : null;
+                    boolean liked = pendingLiked != null
+                            ? pendingLiked
+                            : postId != null && likedPostIds.contains(postId);
+                    boolean following = authorId != null && finalFollowedAuthorIds.contains(authorId);
+                    return view.toBuilder().liked(liked).following(following).build();
                 })
                 .toList();
     }
 
-    private PostSummaryView toPostSummaryView(Post post, boolean liked, boolean following) {
+    private static Integer parseId(String id) {
+        return StringUtils.hasText(id) ? Integer.valueOf(id) : null;
+    }
+
+    private PostSummaryView toPostSummaryView(Post post, PostMetrics metrics, boolean liked, boolean following) {
         if (post == null) {
             return null;
         }
         List<String> images = Optional.ofNullable(post.getImages()).orElse(Collections.emptyList());
         String contentPreview = generatePreview(post.getContent());
-
-        int viewCount = getMetricFromRedis(post.getId(), "views", post.getViewCount());
-        int likeCount = getMetricFromRedis(post.getId(), "likes", post.getLikeCount());
-        int commentCount = getMetricFromRedis(post.getId(), "comments", post.getCommentCount());
+        PostMetrics counts = metrics != null ? metrics : postMetricsService.resolve(post);
 
         return PostSummaryView.builder()
                 .id(post.getId() != null ? String.valueOf(post.getId()) : null)
@@ -444,9 +601,9 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
                 .categoryId(post.getCategoryId() != null ? String.valueOf(post.getCategoryId()) : null)
                 .categoryName(post.getCategoryName())
                 .createdAt(post.getCreatedAt())
-                .commentCount(commentCount)
-                .viewCount(viewCount)
-                .likeCount(likeCount)
+                .commentCount(counts.comments())
+                .viewCount(counts.views())
+                .likeCount(counts.likes())
                 .liked(liked)
                 .following(following)
                 .build();
@@ -512,10 +669,9 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
         };
     }
 
-    @Caching(evict = {
-            @CacheEvict(cacheNames = "posts:detail", allEntries = true),
-            @CacheEvict(cacheNames = "posts:list", allEntries = true)
-    })
+    /**
+     * 由 approvePost / rejectPost 在其事务内调用；详情和列表缓存由 PostCacheEventHandler 按 POST_MODERATED 事件失效
+     */
     protected AdminPostSummary moderatePostStatus(Integer postId, String targetStatus) {
         if (postId == null) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Post id is required");
@@ -538,6 +694,7 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
         if (!updated) {
             throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to update post status");
         }
+        domainEventPublisher.publish(DomainEvent.postModerated(postId, normalizedStatus));
         Post refreshed = baseMapper.selectByIdWithAuthor(postId);
         return toAdminPostSummary(refreshed != null ? refreshed : existing);
     }
@@ -561,104 +718,89 @@ public class PostServiceImpl extends ServiceImpl<PostRepo, Post> implements Post
         return plain.length() > 100 ? plain.substring(0, 100) + "..." : plain;
     }
 
-    /**
-     * 从 Redis Hash 获取指标值（增量模式）
-     * 
-     * Redis Hash结构：post:metrics:{postId} -> {views: +5, likes: +2, comments: +3}
-     * 策略：数据库值（基准） + Redis增量 = 最终显示值
-     * 
-     * @param postId 帖子ID
-     * @param field 字段名（views/likes/comments）
-     * @param dbValue 数据库中的基准值
-     * @return 指标最终值（基准值 + 增量）
-     */
-    private int getMetricFromRedis(Integer postId, String field, Integer dbValue) {
-        try {
-            String metricsKey = "post:metrics:" + postId;
-            Object deltaObj = redisTemplate.opsForHash().get(metricsKey, field);
-
-            // 数据库基准值
-            int baseValue = Optional.ofNullable(dbValue).orElse(0);
-            
-            if (deltaObj != null) {
-                // Redis中有增量，加到基准值上
-                int delta = Integer.parseInt(deltaObj.toString());
-                int finalValue = Math.max(0, baseValue + delta);
-                log.debug("计算指标值: postId={}, field={}, base={}, delta={}, final={}", 
-                         postId, field, baseValue, delta, finalValue);
-                return finalValue;
-            } else {
-                // Redis中没有增量，直接返回数据库值
-                return baseValue;
-            }
-        } catch (Exception e) {
-            log.warn("从 Redis 读取计数失败, postId={}, field={}, 使用数据库值", postId, field, e);
-            return Optional.ofNullable(dbValue).orElse(0);
-        }
-    }
-
     private List<TrendingPostView> getTrendingFromRedis(int limit) {
-        try {
-            String trendingKey = "post:trending";
-            Set<Object> topPostIds = redisTemplate.opsForZSet().reverseRange(trendingKey, 0, limit - 1);
+        // 一次读取成员和分数；Redis 不可用时返回空列表，由调用方回源数据库
+        Set<ZSetOperations.TypedTuple<Object>> top = redisGuard.execute("post.trending.read",
+                () -> redisTemplate.opsForZSet().reverseRangeWithScores(TRENDING_KEY, 0, limit - 1),
+                Collections::emptySet);
+        if (CollectionUtils.isEmpty(top)) {
+            return Collections.emptyList();
+        }
 
-            if (CollectionUtils.isEmpty(topPostIds)) {
-                return Collections.emptyList();
+        Map<Integer, Integer> scores = new LinkedHashMap<>();
+        for (ZSetOperations.TypedTuple<Object> tuple : top) {
+            if (tuple.getValue() != null) {
+                scores.put(Integer.parseInt(tuple.getValue().toString()),
+                        tuple.getScore() != null ? tuple.getScore().intValue() : 0);
             }
+        }
 
-            List<Integer> postIds = topPostIds.stream()
-                    .map(id -> Integer.parseInt(id.toString()))
-                    .toList();
+        List<Post> posts = listByIds(scores.keySet());
+        if (CollectionUtils.isEmpty(posts)) {
+            return Collections.emptyList();
+        }
 
-            List<Post> posts = listByIds(postIds);
-            if (CollectionUtils.isEmpty(posts)) {
-                return Collections.emptyList();
-            }
+        Map<Integer, Post> postMap = posts.stream()
+                .collect(Collectors.toMap(Post::getId, p -> p));
 
-            Map<Integer, Post> postMap = posts.stream()
-                    .collect(Collectors.toMap(Post::getId, p -> p));
+        return scores.entrySet().stream()
+                .filter(entry -> postMap.containsKey(entry.getKey()))
+                .map(entry -> new TrendingPostView(
+                        String.valueOf(entry.getKey()),
+                        postMap.get(entry.getKey()).getTitle(),
+                        entry.getValue()
+                ))
+                .toList();
+    }
 
-            return postIds.stream()
-                    .map(postMap::get)
-                    .filter(Objects::nonNull)
-                    .map(post -> {
-                        Double score = redisTemplate.opsForZSet().score("post:trending", post.getId().toString());
-                        int heatScore = score != null ? score.intValue() : 0;
-                        return new TrendingPostView(
-                                String.valueOf(post.getId()),
-                                post.getTitle(),
-                                heatScore
-                        );
-                    })
-                    .toList();
+    @Override
+    public List<Integer> getHotPostIds(int limit) {
+        Set<Object> top = redisGuard.execute("post.trending.read",
+                () -> redisTemplate.opsForZSet().reverseRange(TRENDING_KEY, 0, limit - 1),
+                Collections::emptySet);
+        if (!CollectionUtils.isEmpty(top)) {
+            return top.stream().map(id -> Integer.parseInt(id.toString())).toList();
+        }
+        return baseMapper.selectTrending(limit).stream().map(Post::getId).toList();
+    }
 
-        } catch (Exception e) {
-            log.error("从 Redis 读取热门帖子失败", e);
-            return Collections.emptyList();
+    @Override
+    public boolean preloadPostDetail(Integer postId) {
+        try {
+            StaleWhileRevalidateCacheManager.load(cacheManager.getCache(DETAIL_CACHE), postId,
+                    () -> loadPostDetail(postId));
+            return true;
+        } catch (NoSuchElementException e) {
+            postExistenceFilter.markMissing(postId);
+            return false;
         }
     }
 
+    @Override
+    public void refreshTrending(Collection<Integer> postIds) {
+        if (CollectionUtils.isEmpty(postIds)) {
+            return;
+        }
+        syncTrendingPostsToRedis(baseMapper.selectSummariesByIds(postIds, null));
+    }
+
     private void syncTrendingPostsToRedis(List<Post> posts) {
         if (CollectionUtils.isEmpty(posts)) {
             return;
         }
 
-        try {
-            String trendingKey = "post:trending";
-
-            for (Post post : posts) {
-                int viewCount = getMetricFromRedis(post.getId(), "views", post.getViewCount());
-                int likeCount = getMetricFromRedis(post.getId(), "likes", post.getLikeCount());
-                int commentCount = getMetricFromRedis(post.getId(), "comments", post.getCommentCount());
-
-                double heatScore = calculateHeatScore(viewCount, likeCount, commentCount);
-                redisTemplate.opsForZSet().add(trendingKey, post.getId().toString(), heatScore);
-            }
-
+        Map<Integer, PostMetrics> metrics = postMetricsService.resolveAll(posts);
+        // 所有帖子放在一条 ZADD 中写入
+        Set<ZSetOperations.TypedTuple<Object>> scores = new HashSet<>(posts.size() * 2);
+        for (Post post : posts) {
+            PostMetrics counts = metrics.getOrDefault(post.getId(), PostMetrics.ZERO);
+            double heatScore = calculateHeatScore(counts.views(), counts.likes(), counts.comments());
+            scores.add(ZSetOperations.TypedTuple.of(post.getId().toString(), heatScore));
+        }
+        boolean synced = redisGuard.run("post.trending.write",
+                () -> redisTemplate.opsForZSet().add(TRENDING_KEY, scores));
+        if (synced) {
             log.debug("同步 {} 个帖子到 Redis trending 榜单", posts.size());
-
-        } catch (Exception e) {
-            log.error("同步帖子到 Redis 失败", e);
         }
     }
 
@@ -0,0 +1,19 @@
+package com.example.forum.post.service;
+
+import com.example.forum.post.vo.PostDailyStatsView;
+
+import java.util.List;
+
+/**
+ * 帖子按日统计服务
+ */
+public interface PostStatsService {
+
+    /**
+     * 查询帖子最近若干天的日计数，没有数据的日期补 0
+     * @param postId 帖子ID
+     * @param days 天数（含今天），范围 1~365
+     * @return 按日期升序的日计数
+     */
+    List<PostDailyStatsView> getDailyStats(Integer postId, int days);
+}
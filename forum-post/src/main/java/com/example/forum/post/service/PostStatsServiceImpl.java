@@ -0,0 +1,50 @@
+package com.example.forum.post.service;
+
+import com.example.forum.common.cache.IdExistenceFilter;
+import com.example.forum.post.entity.PostStatsDaily;
+import com.example.forum.post.repo.PostRepo;
+import com.example.forum.post.repo.PostStatsDailyRepo;
+import com.example.forum.post.vo.PostDailyStatsView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+@Service
+@RequiredArgsConstructor
+public class PostStatsServiceImpl implements PostStatsService {
+
+    private final PostRepo postRepo;
+    private final PostStatsDailyRepo postStatsDailyRepo;
+    private final IdExistenceFilter postExistenceFilter;
+
+    @Override
+    public List<PostDailyStatsView> getDailyStats(Integer postId, int days) {
+        if (!postExistenceFilter.mightExist(postId) || postRepo.selectById(postId) == null) {
+            postExistenceFilter.markMissing(postId);
+            throw new NoSuchElementException("帖子不存在");
+        }
+        int safeDays = Math.max(Math.min(days, 365), 1);
+        LocalDate today = LocalDate.now();
+        LocalDate fromDate = today.minusDays(safeDays - 1L);
+
+        Map<LocalDate, PostStatsDaily> byDate = new HashMap<>();
+        for (PostStatsDaily row : postStatsDailyRepo.selectSince(postId, fromDate)) {
+            byDate.put(row.getStatDate(), row);
+        }
+
+        List<PostDailyStatsView> series = new ArrayList<>(safeDays);
+        for (LocalDate date = fromDate; !date.isAfter(today); date = date.plusDays(1)) {
+            PostStatsDaily row = byDate.get(date);
+            series.add(row != null
+                    ? new PostDailyStatsView(date, row.getViews(), row.getLikes(), row.getComments())
+                    : new PostDailyStatsView(date, 0, 0, 0));
+        }
+        return series;
+    }
+}
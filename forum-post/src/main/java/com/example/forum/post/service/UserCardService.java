@@ -0,0 +1,20 @@
+package com.example.forum.post.service;
+
+import com.example.forum.post.entity.Author;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 用户名片服务
+ * 为帖子服务提供批量的作者/点赞用户简要信息（用户名、头像、简介）
+ */
+public interface UserCardService {
+
+    /**
+     * 批量获取用户名片，优先读取 Redis 缓存，未命中的部分通过一次 Feign 批量调用补齐
+     * @param userIds 用户ID集合
+     * @return userId -> 名片，查询不到的用户不会出现在结果中
+     */
+    Map<Integer, Author> getUserCards(Collection<Integer> userIds);
+}
@@ -0,0 +1,110 @@
+package com.example.forum.post.service;
+
+import com.example.forum.common.dto.Result;
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.post.client.UserClient;
+import com.example.forum.post.entity.Author;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 用户名片服务实现
+ *
+ * Redis: user:card:{userId} -> Author，TTL 10 分钟
+ * 读取时一次 MGET，未命中的用户一次 Feign 批量查询后通过 pipeline 回写
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserCardServiceImpl implements UserCardService {
+
+    private static final Duration CARD_TTL = Duration.ofMinutes(10);
+
+    private final UserClient userClient;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisGuard redisGuard;
+
+    @Override
+    public Map<Integer, Author> getUserCards(Collection<Integer> userIds) {
+        if (CollectionUtils.isEmpty(userIds)) {
+            return Collections.emptyMap();
+        }
+        List<Integer> ids = userIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Integer, Author> cards = new HashMap<>(ids.size() * 2);
+        List<Integer> missing = new ArrayList<>();
+
+        // Redis 不可用时全部回源用户服务
+        List<Object> cached = redisGuard.execute("user.card.read",
+                () -> redisTemplate.opsForValue().multiGet(ids.stream().map(this::cardKey).toList()),
+                () -> null);
+        for (int i = 0; i < ids.size(); i++) {
+            Object value = cached != null ? cached.get(i) : null;
+            if (value instanceof Author author) {
+                cards.put(ids.get(i), author);
+            } else {
+                missing.add(ids.get(i));
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Integer, Author> loaded = loadFromUserService(missing);
+            cards.putAll(loaded);
+            cacheCards(loaded);
+        }
+        return cards;
+    }
+
+    private Map<Integer, Author> loadFromUserService(List<Integer> userIds) {
+        String joinedIds = userIds.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        try {
+            Result<Map<Integer, Map<String, Object>>> result = userClient.getUsersByIds(joinedIds);
+            if (result == null || result.getResult() == null) {
+                return Collections.emptyMap();
+            }
+            Map<Integer, Author> loaded = new HashMap<>();
+            result.getResult().forEach((userId, user) -> loaded.put(userId, new Author(
+                    userId,
+                    Objects.toString(user.get("username"), null),
+                    Objects.toString(user.get("avatarUrl"), null),
+                    Objects.toString(user.get("bio"), null)
+            )));
+            return loaded;
+        } catch (Exception e) {
+            log.warn("调用用户服务批量获取用户信息失败: userIds={}, error={}", joinedIds, e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    private void cacheCards(Map<Integer, Author> cards) {
+        if (cards.isEmpty()) {
+            return;
+        }
+        redisGuard.run("user.card.write", () -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                cards.forEach((userId, card) -> ops.opsForValue().set(cardKey(userId), card, CARD_TTL));
+                return null;
+            }
+        }));
+    }
+
+    private String cardKey(Integer userId) {
+        return "user:card:" + userId;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.forum.post.vo;
+
+import java.util.List;
+
+/**
+ * 一批从 Redis 取出的待持久化增量。
+ * emptied 为 true 表示这次 SPOP 取空了脏集合（取出的帖子少于批次大小）且每个 key 都取出成功，
+ * 即此前登记为脏的帖子都已取出。
+ */
+public record DrainedDeltas(List<PostMetricsDelta> deltas, boolean emptied) {
+}
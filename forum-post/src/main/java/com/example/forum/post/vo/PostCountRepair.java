@@ -0,0 +1,9 @@
+package com.example.forum.post.vo;
+
+/**
+ * 对账写回的一行：仅当 post_stats 中的计数仍等于对账时读到的值时写入修正值。
+ * stored 为 false 表示对账时该帖子还没有 post_stats 行。
+ */
+public record PostCountRepair(Integer postId, boolean stored, long expectedLikes, long expectedComments,
+                              long likes, long comments) {
+}
@@ -0,0 +1,12 @@
+package com.example.forum.post.vo;
+
+import lombok.Data;
+
+/**
+ * 按帖子分组的计数聚合结果。
+ */
+@Data
+public class PostCountRow {
+    private Integer postId;
+    private Long total;
+}
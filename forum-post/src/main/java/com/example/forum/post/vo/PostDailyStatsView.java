@@ -0,0 +1,17 @@
+package com.example.forum.post.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostDailyStatsView {
+    private LocalDate date;
+    private Integer views;
+    private Integer likes;
+    private Integer comments;
+}
@@ -0,0 +1,21 @@
+package com.example.forum.post.vo;
+
+import com.example.forum.post.entity.Author;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 帖子点赞用户列表项。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostLikerView {
+    private Author user;
+    private LocalDateTime likedAt;
+}
@@ -0,0 +1,9 @@
+package com.example.forum.post.vo;
+
+/**
+ * 帖子计数快照（浏览数、点赞数、评论数）。
+ */
+public record PostMetrics(int views, int likes, int comments) {
+
+    public static final PostMetrics ZERO = new PostMetrics(0, 0, 0);
+}
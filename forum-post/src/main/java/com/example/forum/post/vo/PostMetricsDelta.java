@@ -0,0 +1,11 @@
+package com.example.forum.post.vo;
+
+/**
+ * 从 Redis 取出的待持久化计数增量。
+ */
+public record PostMetricsDelta(Integer postId, long views, long likes, long comments) {
+
+    public boolean isEmpty() {
+        return views == 0 && likes == 0 && comments == 0;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.forum.post.vo;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 帖子计数对账结果。
+ * 漂移 = 真实行数 - (post_stats 持久化值 + Redis 未持久化增量)。
+ */
+@Data
+public class ReconcileReport {
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private boolean running;
+    /**
+     * 本次对账的分片（job#分片/分片数@令牌），手动触发时为 unsharded
+     */
+    private String shard;
+    private long scannedPosts;
+    private long driftedPosts;
+    private long repairedPosts;
+    /**
+     * 写回时计数已被持久化任务改动而跳过的帖子数，留给下次对账
+     */
+    private long skippedPosts;
+    private String error;
+    private Map<String, Long> likeDriftHistogram = new LinkedHashMap<>();
+    private Map<String, Long> commentDriftHistogram = new LinkedHashMap<>();
+}
@@ -0,0 +1,70 @@
+package com.example.forum.user.config;
+
+import com.example.forum.common.event.DomainEventConsumer;
+import com.example.forum.common.event.DomainEventPublisher;
+import com.example.forum.common.event.DomainEventsEndpoint;
+import com.example.forum.common.event.EventBusProperties;
+import com.example.forum.common.event.IdempotentEventHandler;
+import com.example.forum.common.event.OutboxRelay;
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.user.event.FollowersCacheEventHandler;
+import com.example.forum.user.repo.DomainEventOutboxRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Configuration
+public class EventBusConfig {
+
+    @Bean
+    @ConfigurationProperties("forum.events")
+    public EventBusProperties eventBusProperties() {
+        return new EventBusProperties();
+    }
+
+    /**
+     * 把本服务（以及其他服务）写入发件箱的事件发布到 Redis Stream
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public OutboxRelay outboxRelay(DomainEventOutboxRepo domainEventOutboxRepo,
+                                   PlatformTransactionManager transactionManager,
+                                   StringRedisTemplate stringRedisTemplate,
+                                   RedisGuard redisGuard,
+                                   EventBusProperties eventBusProperties,
+                                   @Value("${spring.application.name}") String applicationName) {
+        return new OutboxRelay(applicationName, domainEventOutboxRepo, new TransactionTemplate(transactionManager),
+                stringRedisTemplate, redisGuard, eventBusProperties);
+    }
+
+    @Bean
+    public DomainEventPublisher domainEventPublisher(DomainEventOutboxRepo domainEventOutboxRepo, OutboxRelay outboxRelay) {
+        return new DomainEventPublisher(domainEventOutboxRepo, outboxRelay);
+    }
+
+    /**
+     * 消费组 forum-user-service：关注关系变化后同步粉丝列表（按事件 ID 去重）
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public DomainEventConsumer domainEventConsumer(StringRedisTemplate stringRedisTemplate,
+                                                   RedisGuard redisGuard,
+                                                   EventBusProperties eventBusProperties,
+                                                   FollowersCacheEventHandler followersCacheEventHandler,
+                                                   @Value("${spring.application.name}") String applicationName) {
+        return new DomainEventConsumer(applicationName, stringRedisTemplate, redisGuard, eventBusProperties,
+                List.of(new IdempotentEventHandler(applicationName + ":followers", followersCacheEventHandler,
+                        stringRedisTemplate, eventBusProperties.getDedupTtl())));
+    }
+
+    @Bean
+    public DomainEventsEndpoint domainEventsEndpoint(DomainEventPublisher domainEventPublisher,
+                                                     OutboxRelay outboxRelay,
+                                                     DomainEventConsumer domainEventConsumer) {
+        return new DomainEventsEndpoint(domainEventPublisher, outboxRelay, domainEventConsumer);
+    }
+}
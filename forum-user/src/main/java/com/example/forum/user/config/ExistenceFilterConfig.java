@@ -0,0 +1,28 @@
+package com.example.forum.user.config;
+
+import com.example.forum.common.cache.IdExistenceFilter;
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.user.repo.UserRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class ExistenceFilterConfig {
+
+    /**
+     * users 主键存在性过滤，用户不存在时直接拒绝，不查询数据库
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public IdExistenceFilter userExistenceFilter(RedisTemplate<String, Object> redisTemplate,
+                                                 RedisGuard redisGuard,
+                                                 UserRepo userRepo,
+                                                 @Value("${forum.existence.negative-ttl:PT1M}") Duration negativeTtl,
+                                                 @Value("${forum.existence.rebuild-interval:PT1H}") Duration rebuildInterval) {
+        return new IdExistenceFilter("users", redisTemplate, redisGuard,
+                userRepo::selectExistenceMaxId, userRepo::selectIdsAfter, negativeTtl, rebuildInterval);
+    }
+}
@@ -1,12 +1,23 @@
 package com.example.forum.user.config;
 
+import com.example.forum.common.cache.HotKeyProperties;
+import com.example.forum.common.cache.StaleWhileRevalidateCacheManager;
+import com.example.forum.common.cache.StaleWhileRevalidateCacheManager.Policy;
+import com.example.forum.common.redis.CodecTypeRegistry;
+import com.example.forum.common.redis.CompactRedisSerializer;
+import com.example.forum.common.redis.GuardedCacheManager;
+import com.example.forum.common.redis.RedisConnectionFactories;
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.user.entity.AppUser;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -14,15 +25,12 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.connection.RedisPassword;
-import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
-import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
-import org.springframework.util.StringUtils;
 
 import java.time.Duration;
 import java.util.Map;
@@ -44,15 +52,12 @@ public class RedisConfig {
         return mapper;
     }
 
+    /**
+     * 单机 / 哨兵 / 集群由 spring.data.redis.* 配置决定，见 {@link RedisConnectionFactories}
+     */
     @Bean
-    public RedisConnectionFactory redisConnectionFactory(RedisProperties properties){
-        RedisStandaloneConfiguration config =
-                new RedisStandaloneConfiguration(properties.getHost(),properties.getPort());
-        if(StringUtils.hasText(properties.getPassword())){
-            config.setPassword(RedisPassword.of(properties.getPassword()));
-        }
-        config.setDatabase(properties.getDatabase());
-        return new LettuceConnectionFactory(config);
+    public RedisConnectionFactory redisConnectionFactory(RedisProperties properties) {
+        return RedisConnectionFactories.create(properties);
     }
 
     @Bean
@@ -68,10 +73,28 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * 用户资料用于登录鉴权，默认不启用热点本地副本（副本有效期内其他实例的修改不可见）
+     */
+    @Bean
+    @ConfigurationProperties("forum.cache.hot-key")
+    public HotKeyProperties hotKeyProperties() {
+        HotKeyProperties properties = new HotKeyProperties();
+        properties.setEnabled(false);
+        return properties;
+    }
+
     @Bean
     public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
-                                     @Qualifier("redisObjectMapper") ObjectMapper redisMapper){
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(redisMapper);
+                                     @Qualifier("redisObjectMapper") ObjectMapper redisMapper,
+                                     RedisTemplate<String,Object> redisTemplate,
+                                     RedisGuard redisGuard,
+                                     HotKeyProperties hotKeyProperties,
+                                     @Value("${forum.redis.codec.compact:true}") boolean compactCodec,
+                                     @Value("${forum.redis.codec.compress-threshold:1024}") int compressThreshold){
+        // 缓存值使用紧凑二进制编码，compact=false 时写回 JSON（两种格式都能读取）
+        RedisSerializer<Object> serializer = new CompactRedisSerializer(redisMapper,
+                codecTypes(CodecTypeRegistry.withDefaults()), compressThreshold, compactCodec);
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10))
                 .disableCachingNullValues()
@@ -82,9 +105,24 @@ public class RedisConfig {
                 "users:profile", defaultConfig.entryTtl(Duration.ofMinutes(30)),
                 "comments:page", defaultConfig.entryTtl(Duration.ofMinutes(2))
         );
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigs)
                 .build();
+        // 用户资料不返回过期数据（软硬过期相同），只做回源合并和过期前的提前刷新
+        Map<String, Policy> policies = Map.of(
+                "users:profile", new Policy(Duration.ofMinutes(30), Duration.ofMinutes(30), Duration.ZERO)
+        );
+        // 熔断期间缓存读写直接跳过，@Cacheable 退化为查询数据库
+        return new StaleWhileRevalidateCacheManager(
+                new GuardedCacheManager(redisCacheManager, redisGuard), policies, redisTemplate, redisGuard, hotKeyProperties);
+    }
+
+    /**
+     * 本服务缓存值类型的编码别名，别名会写入 Redis 中的数据，只能新增，不能修改
+     */
+    public static CodecTypeRegistry codecTypes(CodecTypeRegistry registry) {
+        return registry
+                .register("user", AppUser.class);
     }
 }
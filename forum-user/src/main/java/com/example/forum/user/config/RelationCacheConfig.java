@@ -0,0 +1,46 @@
+package com.example.forum.user.config;
+
+import com.example.forum.common.cache.RelationSetCache;
+import com.example.forum.common.redis.RedisBatch;
+import com.example.forum.common.redis.RedisGuard;
+import com.example.forum.user.repo.UserFollowRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class RelationCacheConfig {
+
+    /**
+     * user:follows:{followerId} 关注列表，按需从 uk_user_follows 重建
+     */
+    @Bean
+    public RelationSetCache followsCache(RedisTemplate<String, Object> redisTemplate,
+                                         UserFollowRepo userFollowRepo,
+                                         RedisGuard redisGuard,
+                                         RedisBatch redisBatch,
+                                         @Value("${forum.cache.relation-ttl:P3D}") Duration ttl) {
+        return new RelationSetCache("user:follows", "user:follows:", ttl, redisTemplate,
+                userFollowRepo::findAllFolloweeIds,
+                (followerId, followeeId) -> userFollowRepo.findRelation(followerId, followeeId) != null,
+                redisGuard, redisBatch);
+    }
+
+    /**
+     * user:followers:{followeeId} 粉丝列表，按需从 idx_user_follows_followee 重建
+     */
+    @Bean
+    public RelationSetCache followersCache(RedisTemplate<String, Object> redisTemplate,
+                                           UserFollowRepo userFollowRepo,
+                                           RedisGuard redisGuard,
+                                           RedisBatch redisBatch,
+                                           @Value("${forum.cache.relation-ttl:P3D}") Duration ttl) {
+        return new RelationSetCache("user:followers", "user:followers:", ttl, redisTemplate,
+                userFollowRepo::findAllFollowerIds,
+                (followeeId, followerId) -> userFollowRepo.findRelation(followerId, followeeId) != null,
+                redisGuard, redisBatch);
+    }
+}
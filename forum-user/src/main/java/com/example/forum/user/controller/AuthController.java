@@ -16,6 +16,7 @@ import com.example.forum.user.utils.CodeUtils;
 import com.example.forum.user.utils.IpUtils;
 import com.example.forum.user.vo.LoginResponse;
 import com.example.forum.user.vo.UserProfileResponse;
+import com.example.forum.common.metrics.Metered;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -91,6 +92,7 @@ public class AuthController {
     }
 
     @PostMapping("/auth/refresh")
+    @Metered("auth.refresh")
     public ResponseEntity<?> refreshToken(@RequestBody TokenRefreshRequest request) {
         if (request == null || !StringUtils.hasText(request.getRefreshToken())) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
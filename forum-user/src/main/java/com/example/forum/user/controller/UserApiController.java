@@ -1,5 +1,6 @@
 package com.example.forum.user.controller;
 
+import com.example.forum.common.cache.IdExistenceFilter;
 import com.example.forum.common.dto.Result;
 import com.example.forum.common.enums.Code;
 import com.example.forum.user.entity.AppUser;
@@ -7,7 +8,6 @@ import com.example.forum.user.repo.UserFollowRepo;
 import com.example.forum.user.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
@@ -24,14 +24,14 @@ public class UserApiController {
 
     private final UserService userService;
     private final UserFollowRepo userFollowRepo;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final IdExistenceFilter userExistenceFilter;
 
     /**
      * 根据用户ID获取用户信息
      */
     @GetMapping("/id/{userId}")
     public Result<Map<String, Object>> getUserById(@PathVariable Integer userId) {
-        AppUser user = userService.getById(userId);
+        AppUser user = findUser(userId);
         if (user == null) {
             return Result.error(Code.NOT_FOUND, "用户不存在");
         }
@@ -97,7 +97,7 @@ public class UserApiController {
      */
     @GetMapping("/{userId}/exists")
     public Result<Boolean> checkUserExists(@PathVariable Integer userId) {
-        boolean exists = userService.getById(userId) != null;
+        boolean exists = findUser(userId) != null;
         return Result.success(exists);
     }
 
@@ -113,27 +113,12 @@ public class UserApiController {
 
     /**
      * 批量查询关注关系，返回已关注的用户ID列表
-     * 查询后会同步数据到Redis缓存
      */
     @GetMapping("/{followerId}/following/ids")
     public Result<List<Integer>> getFollowedUserIds(@PathVariable Integer followerId,
                                                     @RequestParam("followeeIds") Collection<Integer> followeeIds) {
         List<Integer> followedIds = userFollowRepo.findFolloweeIds(followerId, followeeIds);
         
-        // 同步查询结果到Redis缓存
-        if (!followedIds.isEmpty()) {
-            try {
-                String followsKey = "user:follows:" + followerId;
-                String[] followeeIdsArray = followedIds.stream()
-                        .map(String::valueOf)
-                        .toArray(String[]::new);
-                redisTemplate.opsForSet().add(followsKey, (Object[]) followeeIdsArray);
-                log.debug("批量查询关注关系，已同步到Redis: followerId={}, count={}", followerId, followedIds.size());
-            } catch (Exception e) {
-                log.warn("同步关注关系到Redis失败: followerId={}", followerId, e);
-            }
-        }
-        
         return Result.success(followedIds);
     }
 
@@ -142,7 +127,7 @@ public class UserApiController {
      */
     @GetMapping("/{userId}/author-info")
     public Result<Map<String, Object>> getAuthorInfo(@PathVariable Integer userId) {
-        AppUser user = userService.getById(userId);
+        AppUser user = findUser(userId);
         if (user == null) {
             return Result.error(Code.NOT_FOUND, "用户不存在");
         }
@@ -153,4 +138,18 @@ public class UserApiController {
         author.put("bio", user.getBio());
         return Result.success(author);
     }
+
+    /**
+     * 先经过存在性过滤，确认不存在的 ID 写入负缓存
+     */
+    private AppUser findUser(Integer userId) {
+        if (!userExistenceFilter.mightExist(userId)) {
+            return null;
+        }
+        AppUser user = userService.getById(userId);
+        if (user == null) {
+            userExistenceFilter.markMissing(userId);
+        }
+        return user;
+    }
 }
@@ -14,6 +14,7 @@ import com.example.forum.user.utils.IpUtils;
 import com.example.forum.user.vo.LoginResponse;
 import com.example.forum.user.vo.UserProfileResponse;
 import com.example.forum.common.dto.Result;
+import com.example.forum.common.metrics.Metered;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -62,6 +63,7 @@ public class UserController {
     private VerificationCodeService verificationCodeService;
 
     @PostMapping("/api/login")
+    @Metered("auth.login")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest){
         log.info("收到登录请求: {}", loginRequest);
         try {
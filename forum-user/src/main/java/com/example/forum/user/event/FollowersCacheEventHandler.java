@@ -0,0 +1,59 @@
+package com.example.forum.user.event;
+
+import com.example.forum.common.cache.RelationSetCache;
+import com.example.forum.common.event.DomainEvent;
+import com.example.forum.common.event.DomainEventHandler;
+import com.example.forum.common.event.DomainEventType;
+import com.example.forum.user.repo.UserFollowRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 关注关系变化后同步已加载的粉丝列表 user:followers:{followeeId}
+ *
+ * 事件只说明哪一对关注关系发生了变化，不按事件类型增删：事件投递不保证顺序，先关注后取消的两条事件倒序到达时
+ * 会留下错误的成员。每批事件按关注者分组重新查询 user_follows，以数据库中的当前状态设置成员。
+ * 两个批次并发处理同一对关系时，先查询的一方可能后写入，集合按 TTL 过期后从数据库重建。
+ */
+@Component
+@RequiredArgsConstructor
+public class FollowersCacheEventHandler implements DomainEventHandler {
+
+    private final RelationSetCache followersCache;
+    private final UserFollowRepo userFollowRepo;
+
+    @Override
+    public Set<DomainEventType> types() {
+        return EnumSet.of(DomainEventType.FOLLOWED, DomainEventType.UNFOLLOWED);
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        // followerId -> 关系发生变化的 followeeId
+        Map<Integer, Set<Integer>> changed = new LinkedHashMap<>();
+        for (DomainEvent event : events) {
+            Integer followeeId = event.intAttribute("followeeId");
+            if (followeeId != null) {
+                changed.computeIfAbsent(event.aggregateId(), k -> new LinkedHashSet<>()).add(followeeId);
+            }
+        }
+        changed.forEach((followerId, followeeIds) -> {
+            Set<Integer> following = new HashSet<>(userFollowRepo.findFolloweeIds(followerId, followeeIds));
+            for (Integer followeeId : followeeIds) {
+                if (following.contains(followeeId)) {
+                    followersCache.addIfLoaded(followeeId, followerId);
+                } else {
+                    followersCache.removeIfLoaded(followeeId, followerId);
+                }
+            }
+        });
+    }
+}
@@ -72,4 +72,16 @@ public interface UserFollowRepo extends BaseMapper<UserFollow> {
             """)
     List<Integer> findFolloweeIds(@Param("followerId") Integer followerId,
                                   @Param("followeeIds") Collection<Integer> followeeIds);
+
+    @Select("""
+            SELECT followee_id FROM user_follows
+            WHERE follower_id = #{followerId}
+            """)
+    List<Integer> findAllFolloweeIds(@Param("followerId") Integer followerId);
+
+    @Select("""
+            SELECT follower_id FROM user_follows
+            WHERE followee_id = #{followeeId}
+            """)
+    List<Integer> findAllFollowerIds(@Param("followeeId") Integer followeeId);
 }
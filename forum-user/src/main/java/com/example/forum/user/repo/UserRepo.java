@@ -3,7 +3,32 @@ package com.example.forum.user.repo;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.example.forum.user.entity.AppUser;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
 
 @Mapper
 public interface UserRepo extends BaseMapper<AppUser> {
+    /**
+     * 创建时间早于一分钟前的最大主键，作为 ID 位图的覆盖上界（倒序扫描主键，很快命中）
+     */
+    @Select("""
+            SELECT id FROM users
+            WHERE created_at < NOW() - INTERVAL 1 MINUTE
+            ORDER BY id DESC
+            LIMIT 1
+            """)
+    Integer selectExistenceMaxId();
+
+    /**
+     * 按主键分批扫描主键，用于构建 ID 位图
+     */
+    @Select("""
+            SELECT id FROM users
+            WHERE id > #{afterId}
+            ORDER BY id
+            LIMIT #{limit}
+            """)
+    List<Integer> selectIdsAfter(@Param("afterId") int afterId, @Param("limit") int limit);
 }
@@ -3,6 +3,7 @@ package com.example.forum.user.service;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.example.forum.common.redis.RedisGuard;
 import com.example.forum.user.config.JwtProperties;
 import com.example.forum.user.utils.JwtUtils;
 import com.example.forum.user.entity.RefreshToken;
@@ -16,6 +17,7 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Slf4j
@@ -25,6 +27,7 @@ public class RefreshTokenServiceImpl extends ServiceImpl<RefreshTokenRepo, Refre
         implements RefreshTokenService {
     private final JwtProperties jwtProperties;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisGuard redisGuard;
     private String tokenKey(String token) { return "auth:refresh:" + token; }
 
 
@@ -54,15 +57,12 @@ public class RefreshTokenServiceImpl extends ServiceImpl<RefreshTokenRepo, Refre
         save(entity);
 
         // 缓存到Redis，使用与JWT相同的TTL
-        try {
-            redisTemplate.opsForValue().set(
-                    tokenKey(refreshToken),
-                    entity,
-                    Duration.ofMillis(refreshTtl)
-            );
+        if (redisGuard.run("refresh-token.cache", () -> redisTemplate.opsForValue().set(
+                tokenKey(refreshToken),
+                entity,
+                Duration.ofMillis(refreshTtl)
+        ))) {
             log.debug("将RefreshToken缓存到Redis: userId={}", userId);
-        } catch (Exception e) {
-            log.warn("RefreshToken缓存到Redis失败: userId={}, error={}", userId, e.getMessage());
         }
 
         if (log.isDebugEnabled()) {
@@ -77,8 +77,9 @@ public class RefreshTokenServiceImpl extends ServiceImpl<RefreshTokenRepo, Refre
             return Optional.empty();
         }
 
-        // 1. 先从Redis缓存中查询
-        RefreshToken stored = (RefreshToken) redisTemplate.opsForValue().get(tokenKey(token));
+        // 1. 先从Redis缓存中查询（Redis 不可用时视为未命中）
+        RefreshToken stored = redisGuard.execute("refresh-token.read",
+                () -> (RefreshToken) redisTemplate.opsForValue().get(tokenKey(token)), () -> null);
 
         // 2. 缓存命中，验证有效性
         if (stored != null) {
@@ -100,14 +101,10 @@ public class RefreshTokenServiceImpl extends ServiceImpl<RefreshTokenRepo, Refre
         }
 
         // 4. 回写缓存（Cache-Aside模式）
-        try {
-            long ttl = Duration.between(LocalDateTime.now(), dbToken.getExpiresAt()).toMillis();
-            if (ttl > 0) {
-                redisTemplate.opsForValue().set(tokenKey(token), dbToken, Duration.ofMillis(ttl));
-                log.debug("将数据库查询结果回写Redis缓存");
-            }
-        } catch (Exception e) {
-            log.warn("回写Redis缓存失败: error={}", e.getMessage());
+        long ttl = Duration.between(LocalDateTime.now(), dbToken.getExpiresAt()).toMillis();
+        if (ttl > 0 && redisGuard.run("refresh-token.cache",
+                () -> redisTemplate.opsForValue().set(tokenKey(token), dbToken, Duration.ofMillis(ttl)))) {
+            log.debug("将数据库查询结果回写Redis缓存");
         }
 
         return Optional.of(dbToken);
@@ -127,14 +124,10 @@ public class RefreshTokenServiceImpl extends ServiceImpl<RefreshTokenRepo, Refre
                 .set(RefreshToken::getRevokedAt, LocalDateTime.now());
         boolean dbUpdated = update(wrapper);
 
-        // 2. 删除Redis缓存
-        try {
-            Boolean deleted = redisTemplate.delete(tokenKey(token));
-            log.debug("撤销RefreshToken: token={}, dbUpdated={}, redisDeleted={}",
-                    token.substring(0, Math.min(20, token.length())), dbUpdated, deleted);
-        } catch (Exception e) {
-            log.warn("删除Redis缓存失败: error={}", e.getMessage());
-        }
+        // 2. 删除Redis缓存，Redis 不可用时在恢复后删除，避免已撤销的令牌从缓存中读出
+        redisGuard.deleteOrDefer("refresh-token.revoke", tokenKey(token));
+        log.debug("撤销RefreshToken: token={}, dbUpdated={}",
+                token.substring(0, Math.min(20, token.length())), dbUpdated);
     }
 
     @Override
@@ -162,23 +155,15 @@ public class RefreshTokenServiceImpl extends ServiceImpl<RefreshTokenRepo, Refre
                 .set(RefreshToken::getRevokedAt, LocalDateTime.now());
         boolean dbUpdated = update(updateWrapper);
 
-        // 3. 循环删除Redis中的缓存
-        int deletedCount = 0;
-        for (RefreshToken token : tokens) {
-            if (token.getToken() != null) {
-                try {
-                    Boolean deleted = redisTemplate.delete(tokenKey(token.getToken()));
-                    if (Boolean.TRUE.equals(deleted)) {
-                        deletedCount++;
-                    }
-                } catch (Exception e) {
-                    log.warn("删除用户RefreshToken的Redis缓存失败: userId={}, tokenId={}, error={}",
-                            userId, token.getId(), e.getMessage());
-                }
-            }
-        }
+        // 3. 一条 DEL 删除Redis中的缓存，失败的在 Redis 恢复后删除
+        List<String> keys = tokens.stream()
+                .map(RefreshToken::getToken)
+                .filter(Objects::nonNull)
+                .map(this::tokenKey)
+                .toList();
+        redisGuard.deleteOrDefer("refresh-token.revoke", keys);
 
-        log.info("撤销用户所有RefreshToken: userId={}, total={}, dbUpdated={}, redisCacheDeleted={}",
-                userId, tokens.size(), dbUpdated, deletedCount);
+        log.info("撤销用户所有RefreshToken: userId={}, total={}, dbUpdated={}",
+                userId, tokens.size(), dbUpdated);
     }
 }
@@ -2,6 +2,10 @@ package com.example.forum.user.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.example.forum.common.cache.IdExistenceFilter;
+import com.example.forum.common.cache.RelationSetCache;
+import com.example.forum.common.event.DomainEvent;
+import com.example.forum.common.event.DomainEventPublisher;
 import com.example.forum.user.entity.AppUser;
 import com.example.forum.user.entity.UserFollow;
 import com.example.forum.user.repo.UserFollowRepo;
@@ -10,8 +14,6 @@ import com.example.forum.user.vo.FollowingView;
 import com.example.forum.common.vo.PageResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,11 +28,16 @@ public class UserFollowServiceImpl extends ServiceImpl<UserFollowRepo, UserFollo
 
     private final UserFollowRepo userFollowRepo;
     private final UserRepo userRepo;
-    private final RedisTemplate<String, Object> redisTemplate;
-
+    private final RelationSetCache followsCache;
+    private final RelationSetCache followersCache;
+    private final IdExistenceFilter userExistenceFilter;
+    private final DomainEventPublisher domainEventPublisher;
+
+    /**
+     * 粉丝列表镜像和 posts:list 失效由 FOLLOWED 事件的处理方完成（本服务 FollowersCacheEventHandler、帖子服务 PostCacheEventHandler）
+     */
     @Override
     @Transactional(rollbackFor = Exception.class)
-    @CacheEvict(cacheNames = "posts:list", allEntries = true)
     public boolean follow(Integer followerId, Integer followeeId) {
         if (followerId == null || followeeId == null) {
             throw new IllegalArgumentException("关注双方信息不完整");
@@ -40,26 +47,19 @@ public class UserFollowServiceImpl extends ServiceImpl<UserFollowRepo, UserFollo
         }
         ensureUsersExist(followerId, followeeId);
 
-        String followsKey = "user:follows:" + followerId;
-        String followersKey = "user:followers:" + followeeId;
-
         // 先检查MySQL是否已存在关注关系
         UserFollow existing = userFollowRepo.findRelation(followerId, followeeId);
         if (existing != null) {
-            // MySQL中已存在，同步到Redis
-            redisTemplate.opsForSet().add(followsKey, followeeId.toString());
-            redisTemplate.opsForSet().add(followersKey, followerId.toString());
+            // MySQL中已存在，同步到已加载的Redis集合
+            followsCache.addIfLoaded(followerId, followeeId);
+            followersCache.addIfLoaded(followeeId, followerId);
             log.debug("关注关系已存在于MySQL，已同步到Redis: followerId={}, followeeId={}", followerId, followeeId);
             return true;
         }
 
-        // MySQL中不存在，尝试添加到Redis
-        Long added = redisTemplate.opsForSet().add(followsKey, followeeId.toString());
-
-        if (Boolean.TRUE.equals(added != null && added > 0)) {
+        // MySQL中不存在，尝试添加到Redis（关注列表未加载时先从MySQL重建）
+        if (followsCache.add(followerId, followeeId)) {
             try {
-                redisTemplate.opsForSet().add(followersKey, followerId.toString());
-
                 UserFollow relation = new UserFollow()
                         .setFollowerId(followerId)
                         .setFolloweeId(followeeId)
@@ -69,12 +69,12 @@ public class UserFollowServiceImpl extends ServiceImpl<UserFollowRepo, UserFollo
                 if (!dbSuccess) {
                     throw new RuntimeException("数据库插入失败");
                 }
+                domainEventPublisher.publish(DomainEvent.followed(followerId, followeeId));
 
                 log.debug("关注成功: followerId={}, followeeId={}", followerId, followeeId);
                 return true;
             } catch (Exception e) {
-                redisTemplate.opsForSet().remove(followsKey, followeeId.toString());
-                redisTemplate.opsForSet().remove(followersKey, followerId.toString());
+                followsCache.removeIfLoaded(followerId, followeeId);
                 log.error("数据库写入关注失败，已回滚Redis: followerId={}, followeeId={}", followerId, followeeId, e);
                 throw e;
             }
@@ -88,6 +88,7 @@ public class UserFollowServiceImpl extends ServiceImpl<UserFollowRepo, UserFollo
                         .setFolloweeId(followeeId)
                         .setCreatedAt(LocalDateTime.now());
                 userFollowRepo.insert(relation);
+                domainEventPublisher.publish(DomainEvent.followed(followerId, followeeId));
             }
             log.debug("关注关系已存在: followerId={}, followeeId={}", followerId, followeeId);
             return true;
@@ -96,34 +97,26 @@ public class UserFollowServiceImpl extends ServiceImpl<UserFollowRepo, UserFollo
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    @CacheEvict(cacheNames = "posts:list", allEntries = true)
     public boolean unfollow(Integer followerId, Integer followeeId) {
         if (followerId == null || followeeId == null) {
             return false;
         }
 
-        String followsKey = "user:follows:" + followerId;
-        String followersKey = "user:followers:" + followeeId;
-
-        Long removed = redisTemplate.opsForSet().remove(followsKey, followeeId.toString());
-
-        if (Boolean.TRUE.equals(removed != null && removed > 0)) {
+        if (followsCache.remove(followerId, followeeId)) {
             try {
-                redisTemplate.opsForSet().remove(followersKey, followerId.toString());
-
                 UserFollow existing = userFollowRepo.findRelation(followerId, followeeId);
                 if (existing != null) {
                     boolean dbSuccess = userFollowRepo.deleteById(existing.getId()) > 0;
                     if (!dbSuccess) {
                         throw new RuntimeException("数据库删除失败");
                     }
+                    domainEventPublisher.publish(DomainEvent.unfollowed(followerId, followeeId));
                     log.debug("取消关注成功: followerId={}, followeeId={}", followerId, followeeId);
                 }
 
                 return true;
             } catch (Exception e) {
-                redisTemplate.opsForSet().add(followsKey, followeeId.toString());
-                redisTemplate.opsForSet().add(followersKey, followerId.toString());
+                followsCache.addIfLoaded(followerId, followeeId);
                 log.error("数据库删除关注失败，已回滚Redis: followerId={}, followeeId={}", followerId, followeeId, e);
                 throw e;
             }
@@ -139,26 +132,8 @@ public class UserFollowServiceImpl extends ServiceImpl<UserFollowRepo, UserFollo
             return false;
         }
 
-        String followsKey = "user:follows:" + followerId;
-        try {
-            Boolean isMember = redisTemplate.opsForSet().isMember(followsKey, followeeId.toString());
-            if (Boolean.TRUE.equals(isMember)) {
-                return true;
-            }
-
-            UserFollow dbRelation = userFollowRepo.findRelation(followerId, followeeId);
-            if (dbRelation != null) {
-                redisTemplate.opsForSet().add(followsKey, followeeId.toString());
-                redisTemplate.opsForSet().add("user:followers:" + followeeId, followerId.toString());
-                log.debug("同步关注关系到Redis: followerId={}, followeeId={}", followerId, followeeId);
-                return true;
-            }
-
-            return false;
-        } catch (Exception e) {
-            log.warn("Redis查询失败，回退到数据库: followerId={}, followeeId={}", followerId, followeeId, e);
-            return userFollowRepo.findRelation(followerId, followeeId) != null;
-        }
+        // 关注列表已加载时直接以 Redis 为准，未加载时整体从MySQL重建；Redis 不可用时直接查询MySQL
+        return followsCache.contains(followerId, followeeId);
     }
 
     @Override
@@ -178,9 +153,13 @@ public class UserFollowServiceImpl extends ServiceImpl<UserFollowRepo, UserFollo
     }
 
     private void ensureUsersExist(Integer followerId, Integer followeeId) {
+        if (!userExistenceFilter.mightExist(followerId) || !userExistenceFilter.mightExist(followeeId)) {
+            throw new NoSuchElementException("关注用户不存在");
+        }
         AppUser follower = userRepo.selectById(followerId);
         AppUser followee = userRepo.selectById(followeeId);
         if (follower == null || followee == null) {
+            userExistenceFilter.markMissing(follower == null ? followerId : followeeId);
             throw new NoSuchElementException("关注用户不存在");
         }
     }
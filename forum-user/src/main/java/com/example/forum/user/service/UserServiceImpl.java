@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.example.forum.common.cache.IdExistenceFilter;
 import com.example.forum.user.dto.UpdateUserProfileRequest;
 import com.example.forum.user.entity.AppUser;
 import com.example.forum.common.exception.ApiException;
@@ -45,8 +46,12 @@ public class UserServiceImpl extends ServiceImpl<UserRepo, AppUser> implements U
     @Resource
     private CacheManager cacheManager;
 
+    @Resource
+    private IdExistenceFilter userExistenceFilter;
+
     @Override
-    @Cacheable(cacheNames = "users:profile", key = "#name", unless = "#result == null")
+    // sync = true 时并发未命中合并为一次查询；null 结果由缓存层跳过，不会写入
+    @Cacheable(cacheNames = "users:profile", key = "#name", sync = true)
     public AppUser findByUserName(String name) {
         return userRepo.selectOne(new LambdaQueryWrapper<AppUser>()
                 .eq(AppUser::getUserName, name));
@@ -54,7 +59,9 @@ public class UserServiceImpl extends ServiceImpl<UserRepo, AppUser> implements U
 
     @Override
     public int regUser(AppUser appUser) {
-        return userRepo.insert(appUser);
+        int rows = userRepo.insert(appUser);
+        userExistenceFilter.onInsert(appUser.getId());
+        return rows;
     }
 
     @Override
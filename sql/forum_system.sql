@@ -30,6 +30,24 @@ CREATE TABLE `ban_records`  (
   PRIMARY KEY (`id`) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 1 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = Dynamic;
 
+-- ----------------------------
+-- Table structure for domain_event_outbox
+-- ----------------------------
+DROP TABLE IF EXISTS `domain_event_outbox`;
+CREATE TABLE `domain_event_outbox`  (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `event_id` char(36) CHARACTER SET ascii COLLATE ascii_general_ci NOT NULL,
+  `event_type` varchar(64) CHARACTER SET ascii COLLATE ascii_general_ci NOT NULL,
+  `aggregate_id` int NULL DEFAULT NULL,
+  `actor_id` int NULL DEFAULT NULL,
+  `attributes` varchar(1024) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL DEFAULT '{}',
+  `occurred_at` bigint NOT NULL COMMENT '发生时间（毫秒）',
+  `published_at` datetime NULL DEFAULT NULL,
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE INDEX `uk_outbox_event_id`(`event_id`) USING BTREE,
+  INDEX `idx_outbox_published`(`published_at`, `id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci ROW_FORMAT = Dynamic;
+
 -- ----------------------------
 -- Table structure for post_categories
 -- ----------------------------
@@ -81,10 +99,41 @@ CREATE TABLE `post_likes`  (
   PRIMARY KEY (`id`) USING BTREE,
   UNIQUE INDEX `uk_post_likes_post_user`(`post_id` ASC, `user_id` ASC) USING BTREE,
   INDEX `idx_post_likes_user_created`(`user_id` ASC, `created_at` DESC) USING BTREE,
+  INDEX `idx_post_likes_post_created`(`post_id` ASC, `created_at` DESC, `id` DESC) USING BTREE,
   CONSTRAINT `fk_post_likes_post` FOREIGN KEY (`post_id`) REFERENCES `posts` (`id`) ON DELETE CASCADE ON UPDATE RESTRICT,
   CONSTRAINT `fk_post_likes_user` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE ON UPDATE RESTRICT
 ) ENGINE = InnoDB AUTO_INCREMENT = 9 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci ROW_FORMAT = Dynamic;
 
+-- ----------------------------
+-- Table structure for post_stats
+-- ----------------------------
+DROP TABLE IF EXISTS `post_stats`;
+CREATE TABLE `post_stats`  (
+  `post_id` int NOT NULL,
+  `views` int UNSIGNED NOT NULL DEFAULT 0,
+  `likes` int UNSIGNED NOT NULL DEFAULT 0,
+  `comments` int UNSIGNED NOT NULL DEFAULT 0,
+  `heat` int NOT NULL DEFAULT 0,
+  `updated_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`post_id`) USING BTREE,
+  INDEX `idx_post_stats_heat`(`heat` DESC) USING BTREE,
+  CONSTRAINT `fk_post_stats_post` FOREIGN KEY (`post_id`) REFERENCES `posts` (`id`) ON DELETE CASCADE ON UPDATE RESTRICT
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci ROW_FORMAT = Dynamic;
+
+-- ----------------------------
+-- Table structure for post_stats_daily
+-- ----------------------------
+DROP TABLE IF EXISTS `post_stats_daily`;
+CREATE TABLE `post_stats_daily`  (
+  `post_id` int NOT NULL,
+  `stat_date` date NOT NULL,
+  `views` int UNSIGNED NOT NULL DEFAULT 0,
+  `likes` int NOT NULL DEFAULT 0,
+  `comments` int NOT NULL DEFAULT 0,
+  PRIMARY KEY (`post_id`, `stat_date`) USING BTREE,
+  CONSTRAINT `fk_post_stats_daily_post` FOREIGN KEY (`post_id`) REFERENCES `posts` (`id`) ON DELETE CASCADE ON UPDATE RESTRICT
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci ROW_FORMAT = Dynamic;
+
 -- ----------------------------
 -- Table structure for posts
 -- ----------------------------
@@ -0,0 +1,4 @@
+-- 点赞用户列表（GET /api/posts/{postId}/likes）的游标分页索引
+-- 按 (post_id, created_at DESC, id DESC) 顺序扫描，任意深度翻页都只读取 LIMIT 行
+ALTER TABLE `post_likes`
+  ADD INDEX `idx_post_likes_post_created`(`post_id` ASC, `created_at` DESC, `id` DESC) USING BTREE;
@@ -0,0 +1,39 @@
+-- 帖子计数拆分到窄表 post_stats，计数写入不再锁定携带 content/images 的 posts 宽行
+-- posts.view_count/like_count/comment_count/heat 保留但不再写入，列表和详情改为 LEFT JOIN post_stats
+CREATE TABLE IF NOT EXISTS `post_stats`  (
+  `post_id` int NOT NULL,
+  `views` int UNSIGNED NOT NULL DEFAULT 0,
+  `likes` int UNSIGNED NOT NULL DEFAULT 0,
+  `comments` int UNSIGNED NOT NULL DEFAULT 0,
+  `heat` int NOT NULL DEFAULT 0,
+  `updated_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`post_id`) USING BTREE,
+  INDEX `idx_post_stats_heat`(`heat` DESC) USING BTREE,
+  CONSTRAINT `fk_post_stats_post` FOREIGN KEY (`post_id`) REFERENCES `posts` (`id`) ON DELETE CASCADE ON UPDATE RESTRICT
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci ROW_FORMAT = Dynamic;
+
+-- 按主键分批回填，每批 10000 行，避免长事务和大 undo
+DROP PROCEDURE IF EXISTS `backfill_post_stats`;
+DELIMITER $$
+CREATE PROCEDURE `backfill_post_stats`()
+BEGIN
+  DECLARE last_id INT DEFAULT 0;
+  DECLARE max_id INT DEFAULT 0;
+  SELECT COALESCE(MAX(id), 0) INTO max_id FROM posts;
+  WHILE last_id < max_id DO
+    INSERT INTO post_stats (post_id, views, likes, comments, heat)
+    SELECT id,
+           COALESCE(view_count, 0),
+           COALESCE(like_count, 0),
+           COALESCE(comment_count, 0),
+           ROUND(COALESCE(view_count, 0) * 0.1 + COALESCE(like_count, 0) * 2.0 + COALESCE(comment_count, 0) * 5.0)
+    FROM posts
+    WHERE id > last_id AND id <= last_id + 10000
+    ON DUPLICATE KEY UPDATE post_id = post_stats.post_id;
+    SET last_id = last_id + 10000;
+  END WHILE;
+END$$
+DELIMITER ;
+
+CALL `backfill_post_stats`();
+DROP PROCEDURE `backfill_post_stats`;
@@ -0,0 +1,12 @@
+-- 帖子按日计数（GET /api/posts/{id}/stats?days=N）
+-- 主键 (post_id, stat_date) 即聚簇索引，按帖子查询一段日期只做一次范围扫描且无需回表
+-- likes/comments 为当日净变化（取消点赞、删除评论可能为负）
+CREATE TABLE IF NOT EXISTS `post_stats_daily`  (
+  `post_id` int NOT NULL,
+  `stat_date` date NOT NULL,
+  `views` int UNSIGNED NOT NULL DEFAULT 0,
+  `likes` int NOT NULL DEFAULT 0,
+  `comments` int NOT NULL DEFAULT 0,
+  PRIMARY KEY (`post_id`, `stat_date`) USING BTREE,
+  CONSTRAINT `fk_post_stats_daily_post` FOREIGN KEY (`post_id`) REFERENCES `posts` (`id`) ON DELETE CASCADE ON UPDATE RESTRICT
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci ROW_FORMAT = Dynamic;
@@ -0,0 +1,15 @@
+-- 领域事件发件箱：事件与业务数据在同一事务中写入，由各服务的中继异步发布到 Redis Stream
+-- idx_outbox_published 同时用于中继取未发布事件（published_at IS NULL ORDER BY id）和清理已发布的旧事件
+CREATE TABLE IF NOT EXISTS `domain_event_outbox`  (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `event_id` char(36) CHARACTER SET ascii COLLATE ascii_general_ci NOT NULL,
+  `event_type` varchar(64) CHARACTER SET ascii COLLATE ascii_general_ci NOT NULL,
+  `aggregate_id` int NULL DEFAULT NULL,
+  `actor_id` int NULL DEFAULT NULL,
+  `attributes` varchar(1024) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL DEFAULT '{}',
+  `occurred_at` bigint NOT NULL COMMENT '发生时间（毫秒）',
+  `published_at` datetime NULL DEFAULT NULL,
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE INDEX `uk_outbox_event_id`(`event_id`) USING BTREE,
+  INDEX `idx_outbox_published`(`published_at`, `id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci ROW_FORMAT = Dynamic;